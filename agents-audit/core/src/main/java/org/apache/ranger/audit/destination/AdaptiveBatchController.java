@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.destination;
+
+import org.apache.ranger.audit.provider.MiscUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Sizes the bulk requests sent by index destinations (Solr, ElasticSearch, OpenSearch) and limits how many of them
+ * are outstanding at a time, using additive-increase/multiplicative-decrease: every request that completes within
+ * the target latency grows the batch size by minBatchSize (and, once at maxBatchSize, the concurrency limit by 1);
+ * a request that fails, is slower than the target, or has items rejected with a retryable status halves both.
+ */
+public class AdaptiveBatchController {
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBatchController.class);
+
+    public static final String PROP_ADAPTIVE_ENABLED    = "batch.adaptive.enabled";
+    public static final String PROP_MIN_BATCH_SIZE      = "batch.adaptive.min.size";
+    public static final String PROP_MAX_BATCH_SIZE      = "batch.adaptive.max.size";
+    public static final String PROP_TARGET_LATENCY_MS   = "batch.adaptive.target.latency.ms";
+    public static final String PROP_MAX_CONCURRENCY     = "batch.adaptive.max.concurrency";
+    public static final String PROP_MAX_RETRIES         = "batch.retry.max";
+    public static final String PROP_RETRY_BACKOFF_MS    = "batch.retry.backoff.ms";
+
+    public static final int    DEFAULT_MIN_BATCH_SIZE    = 50;
+    public static final int    DEFAULT_MAX_BATCH_SIZE    = 1000;
+    public static final long   DEFAULT_TARGET_LATENCY_MS = 2000;
+    public static final int    DEFAULT_MAX_CONCURRENCY   = 4;
+    public static final int    DEFAULT_MAX_RETRIES       = 3;
+    public static final long   DEFAULT_RETRY_BACKOFF_MS  = 500;
+
+    private static final int LATENCY_SAMPLE_COUNT = 1024;
+
+    private final String  name;
+    private final boolean adaptive;
+    private final int     minBatchSize;
+    private final int     maxBatchSize;
+    private final long    targetLatencyMs;
+    private final int     maxConcurrency;
+    private final int     maxRetries;
+    private final long    retryBackoffMs;
+    private final long[]  latencySamples = new long[LATENCY_SAMPLE_COUNT];
+
+    private int  batchSize;
+    private int  concurrencyLimit;
+    private int  inFlight;
+    private int  latencySampleCount;
+    private int  latencySampleNext;
+    private long requestCount;
+    private long requestFailedCount;
+    private long itemCount;
+    private long itemRetryCount;
+
+    public AdaptiveBatchController(String name, Properties props, String propPrefix) {
+        this.name            = name;
+        this.adaptive        = MiscUtil.getBooleanProperty(props, propPrefix + "." + PROP_ADAPTIVE_ENABLED, true);
+        this.maxBatchSize    = Math.max(1, MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE));
+        this.minBatchSize    = Math.min(maxBatchSize, Math.max(1, MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MIN_BATCH_SIZE, DEFAULT_MIN_BATCH_SIZE)));
+        this.targetLatencyMs = MiscUtil.getLongProperty(props, propPrefix + "." + PROP_TARGET_LATENCY_MS, DEFAULT_TARGET_LATENCY_MS);
+        this.maxConcurrency  = Math.max(1, MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MAX_CONCURRENCY, DEFAULT_MAX_CONCURRENCY));
+        this.maxRetries      = Math.max(0, MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MAX_RETRIES, DEFAULT_MAX_RETRIES));
+        this.retryBackoffMs  = MiscUtil.getLongProperty(props, propPrefix + "." + PROP_RETRY_BACKOFF_MS, DEFAULT_RETRY_BACKOFF_MS);
+
+        this.batchSize        = maxBatchSize;
+        this.concurrencyLimit = maxConcurrency;
+
+        LOG.info("{}: adaptive={}, batchSize=[{}, {}], targetLatencyMs={}, maxConcurrency={}, maxRetries={}", name, adaptive, minBatchSize, maxBatchSize, targetLatencyMs, maxConcurrency, maxRetries);
+    }
+
+    /**
+     * HTTP statuses of a request, or of an item in a bulk response, that indicate an overloaded or unavailable
+     * cluster and are worth retrying; other failures, like mapping errors, will fail again.
+     */
+    public static boolean isRetryableStatus(int status) {
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    public synchronized int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @param attempt number of the retry, starting at 1
+     */
+    public long getRetryBackoffMs(int attempt) {
+        return retryBackoffMs * attempt;
+    }
+
+    /**
+     * Waits until one more request can be sent within the current concurrency limit.
+     * Every successful call must be followed by a call to onRequestComplete() or onRequestFailed().
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= concurrencyLimit) {
+            wait();
+        }
+
+        inFlight++;
+    }
+
+    /**
+     * @param items           number of items sent in the request
+     * @param retryableFailed number of items rejected with a retryable status
+     * @param latencyMs       time taken by the request
+     */
+    public synchronized void onRequestComplete(int items, int retryableFailed, long latencyMs) {
+        release();
+
+        requestCount++;
+        itemCount += items;
+
+        addLatencySample(latencyMs);
+
+        if (retryableFailed > 0 || latencyMs > targetLatencyMs) {
+            decrease();
+        } else {
+            increase();
+        }
+    }
+
+    public synchronized void onRequestFailed(int items, long latencyMs) {
+        release();
+
+        requestCount++;
+        requestFailedCount++;
+        itemCount += items;
+
+        addLatencySample(latencyMs);
+        decrease();
+    }
+
+    public synchronized void onItemsRetried(int items) {
+        itemRetryCount += items;
+    }
+
+    public synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> ret     = new LinkedHashMap<>();
+        long[]              samples = Arrays.copyOf(latencySamples, latencySampleCount);
+
+        Arrays.sort(samples);
+
+        ret.put("batchSize", batchSize);
+        ret.put("concurrencyLimit", concurrencyLimit);
+        ret.put("inFlightRequests", inFlight);
+        ret.put("requests", requestCount);
+        ret.put("requestsFailed", requestFailedCount);
+        ret.put("items", itemCount);
+        ret.put("itemsRetried", itemRetryCount);
+        ret.put("latencyP50Ms", percentile(samples, 50));
+        ret.put("latencyP95Ms", percentile(samples, 95));
+        ret.put("latencyP99Ms", percentile(samples, 99));
+
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return name + getMetrics();
+    }
+
+    static long percentile(long[] sortedSamples, int percentile) {
+        if (sortedSamples.length == 0) {
+            return 0;
+        }
+
+        int idx = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+
+        return sortedSamples[Math.max(0, Math.min(idx, sortedSamples.length - 1))];
+    }
+
+    private void release() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+
+        notifyAll();
+    }
+
+    private void increase() {
+        if (!adaptive) {
+            return;
+        }
+
+        if (batchSize < maxBatchSize) {
+            batchSize = Math.min(maxBatchSize, batchSize + minBatchSize);
+        } else if (concurrencyLimit < maxConcurrency) {
+            concurrencyLimit++;
+
+            notifyAll();
+        }
+    }
+
+    private void decrease() {
+        if (!adaptive) {
+            return;
+        }
+
+        int prevBatchSize = batchSize;
+
+        batchSize        = Math.max(minBatchSize, batchSize / 2);
+        concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+
+        if (batchSize != prevBatchSize) {
+            LOG.debug("{}: reduced batch size from {} to {}, concurrency limit to {}", name, prevBatchSize, batchSize, concurrencyLimit);
+        }
+    }
+
+    private void addLatencySample(long latencyMs) {
+        latencySamples[latencySampleNext] = latencyMs;
+
+        latencySampleNext = (latencySampleNext + 1) % latencySamples.length;
+
+        if (latencySampleCount < latencySamples.length) {
+            latencySampleCount++;
+        }
+    }
+}
@@ -390,7 +390,7 @@ public void setFileExtension(String fileExtension) {
         this.fileExtension = fileExtension;
     }
 
-    private void setNextRollOverTime() {
+    protected void setNextRollOverTime() {
         if (!rollOverByDuration) {
             try {
                 if (StringUtils.isEmpty(rolloverPeriod)) {
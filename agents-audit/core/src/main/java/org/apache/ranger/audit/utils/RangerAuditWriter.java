@@ -23,6 +23,7 @@
 import java.util.Collection;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 public interface RangerAuditWriter {
     void init(Properties prop, String propPrefix, String auditProviderName, Map<String, String> auditConfigs);
@@ -31,6 +32,21 @@ public interface RangerAuditWriter {
 
     boolean logFile(File file) throws Exception;
 
+    /**
+     * Writes the events without forcing them to be persisted, for writers that buffer rows across batches.
+     * @return future that completes once the events are persisted and completes exceptionally if they were
+     * discarded; null if the events could not be written. By default the events are flushed before returning.
+     */
+    default CompletableFuture<Void> logDeferred(Collection<String> events) throws Exception {
+        if (!log(events)) {
+            return null;
+        }
+
+        flush();
+
+        return CompletableFuture.completedFuture(null);
+    }
+
     void start();
 
     void flush();
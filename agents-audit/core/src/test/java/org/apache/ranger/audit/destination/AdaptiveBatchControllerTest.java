@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.destination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveBatchControllerTest {
+    private static final String PREFIX = "test.dest";
+
+    @Test
+    public void testDecreaseOnFailureAndIncreaseOnSuccess() throws Exception {
+        AdaptiveBatchController controller = newController(true);
+
+        assertEquals(400, controller.getBatchSize());
+        assertEquals(4, controller.getConcurrencyLimit());
+
+        controller.acquire();
+        controller.onRequestFailed(400, 10);
+
+        assertEquals(200, controller.getBatchSize());
+        assertEquals(2, controller.getConcurrencyLimit());
+
+        controller.acquire();
+        controller.onRequestComplete(200, 0, 10);
+
+        assertEquals(300, controller.getBatchSize());
+        assertEquals(2, controller.getConcurrencyLimit());
+
+        controller.acquire();
+        controller.onRequestComplete(300, 0, 10);
+        controller.acquire();
+        controller.onRequestComplete(400, 0, 10);
+
+        // batch size is at max, so concurrency grows
+        assertEquals(400, controller.getBatchSize());
+        assertEquals(3, controller.getConcurrencyLimit());
+    }
+
+    @Test
+    public void testDecreaseOnSlowOrPartiallyRejectedRequest() throws Exception {
+        AdaptiveBatchController controller = newController(true);
+
+        controller.acquire();
+        controller.onRequestComplete(400, 0, 5000);
+
+        assertEquals(200, controller.getBatchSize());
+
+        controller.acquire();
+        controller.onRequestComplete(200, 3, 10);
+
+        assertEquals(100, controller.getBatchSize());
+
+        for (int i = 0; i < 5; i++) {
+            controller.acquire();
+            controller.onRequestFailed(100, 10);
+        }
+
+        assertEquals(100, controller.getBatchSize());
+        assertEquals(1, controller.getConcurrencyLimit());
+    }
+
+    @Test
+    public void testFixedSizeWhenNotAdaptive() throws Exception {
+        AdaptiveBatchController controller = newController(false);
+
+        controller.acquire();
+        controller.onRequestFailed(400, 10);
+
+        assertEquals(400, controller.getBatchSize());
+        assertEquals(4, controller.getConcurrencyLimit());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        AdaptiveBatchController controller = newController(true);
+
+        for (int i = 1; i <= 100; i++) {
+            controller.acquire();
+            controller.onRequestComplete(1, 0, i);
+        }
+
+        controller.onItemsRetried(7);
+
+        Map<String, Object> metrics = controller.getMetrics();
+
+        assertEquals(100L, metrics.get("requests"));
+        assertEquals(7L, metrics.get("itemsRetried"));
+        assertEquals(50L, metrics.get("latencyP50Ms"));
+        assertEquals(95L, metrics.get("latencyP95Ms"));
+        assertEquals(99L, metrics.get("latencyP99Ms"));
+        assertEquals(0, metrics.get("inFlightRequests"));
+    }
+
+    @Test
+    public void testRetryableStatus() {
+        assertTrue(AdaptiveBatchController.isRetryableStatus(429));
+        assertTrue(AdaptiveBatchController.isRetryableStatus(503));
+        assertFalse(AdaptiveBatchController.isRetryableStatus(400));
+        assertFalse(AdaptiveBatchController.isRetryableStatus(401));
+    }
+
+    private static AdaptiveBatchController newController(boolean adaptive) {
+        Properties props = new Properties();
+
+        props.setProperty(PREFIX + "." + AdaptiveBatchController.PROP_ADAPTIVE_ENABLED, Boolean.toString(adaptive));
+        props.setProperty(PREFIX + "." + AdaptiveBatchController.PROP_MIN_BATCH_SIZE, "100");
+        props.setProperty(PREFIX + "." + AdaptiveBatchController.PROP_MAX_BATCH_SIZE, "400");
+        props.setProperty(PREFIX + "." + AdaptiveBatchController.PROP_TARGET_LATENCY_MS, "1000");
+        props.setProperty(PREFIX + "." + AdaptiveBatchController.PROP_MAX_CONCURRENCY, "4");
+
+        return new AdaptiveBatchController("test", props, PREFIX);
+    }
+}
@@ -33,15 +33,22 @@
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.security.PrivilegedExceptionAction;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
 
 public class RangerAuditServerDestination extends AuditDestination {
     private static final Logger LOG = LoggerFactory.getLogger(RangerAuditServerDestination.class);
@@ -57,17 +64,30 @@ public class RangerAuditServerDestination extends AuditDestination {
     public static final String PROP_CLIENT_READ_TIMEOUT_MS = "read.timeout.ms";
     public static final String PROP_MAX_RETRY_ATTEMPTS     = "max.retry.attempts";
     public static final String PROP_RETRY_INTERVAL_MS      = "retry.interval.ms";
+    public static final String PROP_BATCH_FORMAT           = "batch.format";
+    public static final String PROP_NDJSON_REPROBE_MS      = "batch.format.ndjson.reprobe.interval.ms";
 
     public static final String REST_RELATIVE_PATH_POST  = "/api/audit/access";
     public static final String QUERY_PARAM_SERVICE_NAME = "serviceName";
     public static final String QUERY_PARAM_APP_ID       = "appId";
 
+    // Batch formats: json posts the event list as a JSON array; ndjson-gzip posts gzip-compressed NDJSON,
+    // which the audit server forwards to Kafka without re-encoding each event
+    public static final String BATCH_FORMAT_JSON        = "json";
+    public static final String BATCH_FORMAT_NDJSON_GZIP = "ndjson-gzip";
+    public static final String MEDIA_TYPE_NDJSON        = "application/x-ndjson";
+
     // Authentication types
     public static final String AUTH_TYPE_KERBEROS = "kerberos";
     public static final String AUTH_TYPE_BASIC    = "basic";
     public static final String AUTH_TYPE_JWT      = "jwt";
 
-    private RangerRESTClient restClient;
+    private static final long DEFAULT_NDJSON_REPROBE_MS = 10 * 60 * 1000L;
+
+    private          RangerRESTClient restClient;
+    private          boolean          ndjsonConfigured;
+    private          long             ndjsonReprobeIntervalMs = DEFAULT_NDJSON_REPROBE_MS;
+    private volatile long             ndjsonDisabledUntil;
 
     @Override
     public void init(Properties props, String propPrefix) {
@@ -82,8 +102,12 @@ public void init(Properties props, String propPrefix) {
         int    maxRetryAttempts  = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MAX_RETRY_ATTEMPTS, 3);
         int    retryIntervalMs   = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_RETRY_INTERVAL_MS, 1000);
         String authType          = MiscUtil.getStringProperty(props, propPrefix + "." + PROP_AUTHN_TYPE);
+        String batchFormat       = MiscUtil.getStringProperty(props, propPrefix + "." + PROP_BATCH_FORMAT, BATCH_FORMAT_JSON);
 
-        LOG.info("Audit destination authentication type: {}", authType);
+        this.ndjsonConfigured        = BATCH_FORMAT_NDJSON_GZIP.equalsIgnoreCase(batchFormat);
+        this.ndjsonReprobeIntervalMs = MiscUtil.getLongProperty(props, propPrefix + "." + PROP_NDJSON_REPROBE_MS, DEFAULT_NDJSON_REPROBE_MS);
+
+        LOG.info("Audit destination authentication type: {}, batch format: {}", authType, ndjsonConfigured ? BATCH_FORMAT_NDJSON_GZIP : BATCH_FORMAT_JSON);
 
         Configuration config = createRESTClientConfiguration(props, propPrefix, authType);
 
@@ -193,6 +217,7 @@ private boolean sendBatch(Collection<AuditEventBase> events, RangerRESTClient re
         try {
             final UserGroupInformation user         = MiscUtil.getUGILoginUser();
             final boolean              isSecureMode = isKerberosAuthenticated();
+            final boolean              useNdjson    = isNdjsonEnabled();
 
             if (isSecureMode && user != null) {
                 LOG.debug("Sending audit batch of {} events using Kerberos. Principal: {}, AuthMethod: {}", events.size(), user.getUserName(), user.getAuthenticationMethod());
@@ -203,14 +228,26 @@ private boolean sendBatch(Collection<AuditEventBase> events, RangerRESTClient re
             if (isSecureMode) {
                 response = MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Response>) () -> {
                     try {
-                        return postAuditEvents(restClient, queryParams, events);
+                        return postAuditEvents(restClient, queryParams, events, useNdjson);
                     } catch (Exception e) {
                         LOG.error("Failed to post audit events in privileged action: {}", e.getMessage());
                         throw e;
                     }
                 });
             } else {
-                response = postAuditEvents(restClient, queryParams, events);
+                response = postAuditEvents(restClient, queryParams, events, useNdjson);
+            }
+
+            if (response != null && response.getStatus() == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE && useNdjson) {
+                // the server, or the one behind the load balancer, may be upgraded later: try NDJSON again after a while
+                LOG.warn("Audit server does not support {} batches; using {} format for the next {} ms", BATCH_FORMAT_NDJSON_GZIP, BATCH_FORMAT_JSON, ndjsonReprobeIntervalMs);
+
+                ndjsonDisabledUntil = System.currentTimeMillis() + ndjsonReprobeIntervalMs;
+
+                response.close();
+
+                response = isSecureMode ? MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Response>) () -> postAuditEvents(restClient, queryParams, events, false))
+                                        : postAuditEvents(restClient, queryParams, events, false);
             }
 
             if (response != null) {
@@ -263,7 +300,11 @@ private boolean sendBatch(Collection<AuditEventBase> events, RangerRESTClient re
         return ret;
     }
 
-    private Response postAuditEvents(RangerRESTClient restClient, Map<String, String> params, Collection<AuditEventBase> events) {
+    boolean isNdjsonEnabled() {
+        return ndjsonConfigured && System.currentTimeMillis() >= ndjsonDisabledUntil;
+    }
+
+    private Response postAuditEvents(RangerRESTClient restClient, Map<String, String> params, Collection<AuditEventBase> events, boolean useNdjson) throws IOException {
         LOG.debug("Posting {} audit events to {}", events.size(), REST_RELATIVE_PATH_POST);
 
         WebTarget target = restClient.getResource(REST_RELATIVE_PATH_POST);
@@ -274,9 +315,53 @@ private Response postAuditEvents(RangerRESTClient restClient, Map<String, String
             }
         }
 
-        return target.request(MediaType.APPLICATION_JSON_TYPE)
-                .accept(MediaType.APPLICATION_JSON_TYPE)
-                .post(Entity.entity(events, MediaType.APPLICATION_JSON_TYPE));
+        final Response ret;
+
+        if (useNdjson) {
+            ret = target.request()
+                    .accept(MediaType.APPLICATION_JSON_TYPE)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .post(Entity.entity(toGzipNdjson(events), MEDIA_TYPE_NDJSON));
+        } else {
+            ret = target.request(MediaType.APPLICATION_JSON_TYPE)
+                    .accept(MediaType.APPLICATION_JSON_TYPE)
+                    .post(Entity.entity(events, MediaType.APPLICATION_JSON_TYPE));
+        }
+
+        return ret;
+    }
+
+    /*
+     * Encode events as gzip-compressed NDJSON. Fields that the audit server would otherwise fill in are set here,
+     * since the server forwards each line to Kafka as-is.
+     */
+    static byte[] toGzipNdjson(Collection<AuditEventBase> events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (AuditEventBase event : events) {
+                if (event instanceof AuthzAuditEvent) {
+                    AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
+
+                    if (authzEvent.getAgentHostname() == null) {
+                        authzEvent.setAgentHostname(MiscUtil.getHostname());
+                    }
+
+                    if (authzEvent.getLogType() == null) {
+                        authzEvent.setLogType("RangerAudit");
+                    }
+
+                    if (authzEvent.getEventId() == null) {
+                        authzEvent.setEventId(MiscUtil.generateUniqueId());
+                    }
+                }
+
+                writer.write(MiscUtil.stringify(event));
+                writer.write('\n');
+            }
+        }
+
+        return bytes.toByteArray();
     }
 
     private static Configuration createRESTClientConfiguration(Properties props, String propPrefix, String authType) {
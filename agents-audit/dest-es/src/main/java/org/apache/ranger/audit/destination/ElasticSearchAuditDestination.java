@@ -33,6 +33,7 @@
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.authorization.credutils.CredentialsProviderUtil;
 import org.apache.ranger.authorization.credutils.kerberos.KerberosCredentialsProvider;
+import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.admin.indices.open.OpenIndexRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
@@ -58,10 +59,12 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
+import java.util.UUID;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -95,6 +98,8 @@ public class ElasticSearchAuditDestination extends AuditDestination {
     private String  hosts;
     private Subject subject;
 
+    private AdaptiveBatchController batchController = new AdaptiveBatchController("ElasticSearchAuditDestination", new Properties(), CONFIG_PREFIX);
+
     public ElasticSearchAuditDestination() {
         propPrefix = CONFIG_PREFIX;
     }
@@ -152,6 +157,8 @@ public void init(Properties props, String propPrefix) {
         this.index    = getStringProperty(props, propPrefix + "." + CONFIG_INDEX, DEFAULT_INDEX);
         this.hosts    = getHosts();
 
+        this.batchController = new AdaptiveBatchController("ElasticSearchAuditDestination", props, propPrefix);
+
         LOG.info("Connecting to ElasticSearch: {}", connectionString());
 
         getClient(); // Initialize client
@@ -162,6 +169,8 @@ public void stop() {
         super.stop();
 
         logStatus();
+
+        LOG.info("ElasticSearch bulk request stats: {}", batchController.getMetrics());
     }
 
     /*
@@ -191,55 +200,40 @@ public boolean log(Collection<AuditEventBase> events) {
                 return ret;
             }
 
-            ArrayList<AuditEventBase> eventList   = new ArrayList<>(events);
-            BulkRequest               bulkRequest = new BulkRequest();
+            List<AuditEventBase> eventList = new ArrayList<>(events);
 
-            try {
-                eventList.forEach(event -> {
-                    AuthzAuditEvent     authzEvent = (AuthzAuditEvent) event;
-                    String              id         = authzEvent.getEventId();
-                    Map<String, Object> doc        = toDoc(authzEvent);
+            ret = true;
 
-                    bulkRequest.add(new IndexRequest(index).id(id).source(doc));
-                });
-            } catch (Exception ex) {
-                addFailedCount(eventList.size());
-                logFailedEvent(eventList, ex);
-            }
-
-            BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
-            if (response.status().getStatus() >= 400) {
-                addFailedCount(eventList.size());
-                logFailedEvent(eventList, "HTTP " + response.status().getStatus());
-            } else {
-                BulkItemResponse[] items = response.getItems();
+            for (int offset = 0; offset < eventList.size(); ) {
+                int batchSize = Math.min(batchController.getBatchSize(), eventList.size() - offset);
 
-                for (int i = 0; i < items.length; i++) {
-                    AuditEventBase   itemRequest  = eventList.get(i);
-                    BulkItemResponse itemResponse = items[i];
+                if (!sendBulk(client, eventList.subList(offset, offset + batchSize))) {
+                    ret = false;
+                }
 
-                    if (itemResponse.isFailed()) {
-                        addFailedCount(1);
-                        logFailedEvent(Collections.singletonList(itemRequest), itemResponse.getFailureMessage());
-                    } else {
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("Indexed {}", itemRequest.getEventKey());
-                        }
+                offset += batchSize;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
 
-                        addSuccessCount(1);
+            addDeferredCount(events.size());
 
-                        ret = true;
-                    }
-                }
-            }
+            ret = false;
         } catch (Throwable t) {
             addDeferredCount(events.size());
 
             logError("Error sending message to ElasticSearch", t);
+
+            ret = false;
         }
+
         return ret;
     }
 
+    public Map<String, Object> getBatchMetrics() {
+        return batchController.getMetrics();
+    }
+
     public boolean isAsync() {
         return true;
     }
@@ -288,6 +282,127 @@ synchronized RestHighLevelClient getClient() {
         return client;
     }
 
+    /**
+     * Sends the given events in one bulk request. Items rejected with a retryable status, or all items when the
+     * request itself fails with such a status, are re-sent up to the configured number of retries; items failed
+     * with other errors are counted as failed and not retried.
+     *
+     * @return false if the request failed with a non-retryable status, or some events could not be written after all retries
+     */
+    private boolean sendBulk(RestHighLevelClient client, List<AuditEventBase> events) throws InterruptedException {
+        boolean              ret     = true;
+        List<AuditEventBase> pending = events;
+
+        // with a server-generated id, every retry of an item already indexed would add another copy
+        for (AuditEventBase event : pending) {
+            if (event instanceof AuthzAuditEvent && StringUtils.isBlank(((AuthzAuditEvent) event).getEventId())) {
+                ((AuthzAuditEvent) event).setEventId(UUID.randomUUID().toString());
+            }
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            List<AuditEventBase> requested   = new ArrayList<>(pending.size());
+            List<AuditEventBase> retryable   = new ArrayList<>();
+            BulkRequest          bulkRequest = new BulkRequest();
+
+            for (AuditEventBase event : pending) {
+                try {
+                    AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
+
+                    bulkRequest.add(new IndexRequest(index).id(authzEvent.getEventId()).source(toDoc(authzEvent)));
+                    requested.add(event);
+                } catch (Exception ex) {
+                    addFailedCount(1);
+                    logFailedEvent(event, ex);
+                }
+            }
+
+            if (requested.isEmpty()) {
+                return ret;
+            }
+
+            batchController.acquire();
+
+            long startTime = System.currentTimeMillis();
+
+            try {
+                BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
+                int          status   = response.status().getStatus();
+
+                if (status >= 400) {
+                    if (AdaptiveBatchController.isRetryableStatus(status)) {
+                        retryable.addAll(requested);
+                    } else {
+                        addFailedCount(requested.size());
+                        logFailedEvent(requested, "HTTP " + status);
+
+                        ret = false;
+                    }
+                } else {
+                    BulkItemResponse[] items = response.getItems();
+
+                    for (int i = 0; i < items.length; i++) {
+                        AuditEventBase   itemRequest  = requested.get(i);
+                        BulkItemResponse itemResponse = items[i];
+
+                        if (!itemResponse.isFailed()) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("Indexed {}", itemRequest.getEventKey());
+                            }
+
+                            addSuccessCount(1);
+                        } else if (AdaptiveBatchController.isRetryableStatus(itemResponse.status().getStatus())) {
+                            retryable.add(itemRequest);
+                        } else {
+                            addFailedCount(1);
+                            logFailedEvent(Collections.singletonList(itemRequest), itemResponse.getFailureMessage());
+                        }
+                    }
+                }
+
+                batchController.onRequestComplete(requested.size(), retryable.size(), System.currentTimeMillis() - startTime);
+            } catch (IOException e) {
+                batchController.onRequestFailed(requested.size(), System.currentTimeMillis() - startTime);
+
+                LOG.warn("Bulk request of {} events to ElasticSearch failed: {}", requested.size(), e.getMessage());
+
+                retryable.addAll(requested);
+            } catch (ElasticsearchStatusException e) {
+                batchController.onRequestFailed(requested.size(), System.currentTimeMillis() - startTime);
+
+                if (AdaptiveBatchController.isRetryableStatus(e.status().getStatus())) {
+                    retryable.addAll(requested);
+                } else {
+                    addFailedCount(requested.size());
+                    logFailedEvent(requested, e);
+
+                    ret = false;
+                }
+            } catch (RuntimeException e) {
+                batchController.onRequestFailed(requested.size(), System.currentTimeMillis() - startTime);
+
+                throw e;
+            }
+
+            if (retryable.isEmpty()) {
+                return ret;
+            }
+
+            if (attempt >= batchController.getMaxRetries()) {
+                addDeferredCount(retryable.size());
+                logError("Failed to write {} events to ElasticSearch after {} retries", retryable.size(), attempt);
+
+                return false;
+            }
+
+            batchController.onItemsRetried(retryable.size());
+
+            Thread.sleep(batchController.getRetryBackoffMs(attempt + 1));
+
+            pending = retryable;
+        }
+    }
+
     Map<String, Object> toDoc(AuthzAuditEvent auditEvent) {
         Map<String, Object> doc = new HashMap<>();
 
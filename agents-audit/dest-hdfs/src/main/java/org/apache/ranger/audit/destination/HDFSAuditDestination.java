@@ -33,6 +33,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class write the logs to local file
@@ -143,6 +144,49 @@ public synchronized boolean logJSON(final Collection<String> events) {
         return true;
     }
 
+    /**
+     * Writes the events like logJSON(), but without flushing the writer after every batch: writers that buffer rows,
+     * like the ORC writer, persist them by size or interval instead.
+     * @return future that completes once the events are persisted and completes exceptionally if they were
+     * discarded; null if the events could not be written
+     */
+    public synchronized CompletableFuture<Void> logJSONDeferred(final Collection<String> events) {
+        logStatusIfRequired();
+        addTotalCount(events.size());
+
+        if (!initDone) {
+            addDeferredCount(events.size());
+
+            return null;
+        }
+
+        if (isStopped) {
+            addDeferredCount(events.size());
+
+            logError("log() called after stop was requested. name={}", getName());
+
+            return null;
+        }
+
+        CompletableFuture<Void> ret;
+
+        try {
+            ret = MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<CompletableFuture<Void>>) () -> auditWriter.logDeferred(events));
+        } catch (Throwable t) {
+            ret = null;
+
+            logError("Error writing to log file.", t);
+        }
+
+        if (ret == null) {
+            addDeferredCount(events.size());
+        } else {
+            addSuccessCount(events.size());
+        }
+
+        return ret;
+    }
+
     @Override
     public synchronized boolean logFile(final File file) {
         logStatusIfRequired();
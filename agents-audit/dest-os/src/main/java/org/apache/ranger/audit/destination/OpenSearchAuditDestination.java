@@ -41,6 +41,7 @@
 import org.apache.ranger.authorization.credutils.kerberos.KerberosCredentialsProvider;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.slf4j.Logger;
@@ -49,10 +50,13 @@
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
@@ -99,6 +103,8 @@ public class OpenSearchAuditDestination extends AuditDestination {
     private String kerberosPrincipal;
     private String kerberosKeytab;
 
+    private AdaptiveBatchController batchController = new AdaptiveBatchController("OpenSearchAuditDestination", new Properties(), CONFIG_PREFIX);
+
     public OpenSearchAuditDestination() {
         propPrefix = CONFIG_PREFIX;
     }
@@ -117,6 +123,7 @@ public void init(Properties props, String propPrefix) {
         this.authType          = MiscUtil.getStringProperty(props, propPrefix + "." + CONFIG_AUTH_TYPE, "");
         this.kerberosPrincipal = MiscUtil.getStringProperty(props, propPrefix + "." + CONFIG_KERBEROS_PRINCIPAL, "");
         this.kerberosKeytab    = MiscUtil.getStringProperty(props, propPrefix + "." + CONFIG_KERBEROS_KEYTAB, "");
+        this.batchController   = new AdaptiveBatchController("OpenSearchAuditDestination", props, propPrefix);
 
         LOG.info("OpenSearchAuditDestination.init(): urls={}, port={}, index={}", urls, port, index);
 
@@ -127,6 +134,8 @@ public void init(Properties props, String propPrefix) {
     public void stop() {
         logStatus();
 
+        LOG.info("OpenSearch bulk request stats: {}", batchController.getMetrics());
+
         if (client != null) {
             try {
                 client.close();
@@ -151,65 +160,37 @@ public boolean log(Collection<AuditEventBase> events) {
 
         if (currentClient == null) {
             LOG.error("OpenSearch client is null. Cannot write audit events.");
+
+            addFailedCount(events.size());
         } else {
-            try {
-                StringBuilder bulk = new StringBuilder();
+            List<AuditEventBase> eventList = new ArrayList<>(events);
 
-                for (AuditEventBase event : events) {
-                    AuthzAuditEvent     auditEvent = (AuthzAuditEvent) event;
-                    Map<String, Object> doc        = toDoc(auditEvent);
-                    String              id         = (String) doc.get("id");
+            ret = true;
 
-                    if (StringUtils.isBlank(id)) {
-                        id = UUID.randomUUID().toString();
+            try {
+                for (int offset = 0; offset < eventList.size(); ) {
+                    int batchSize = Math.min(batchController.getBatchSize(), eventList.size() - offset);
 
-                        doc.put("id", id);
+                    if (!sendBulk(currentClient, eventList.subList(offset, offset + batchSize))) {
+                        ret = false;
                     }
 
-                    Map<String, Object> indexProps = new HashMap<>();
-
-                    indexProps.put("_index", index);
-                    indexProps.put("_id", id);
-
-                    bulk.append(MAPPER.writeValueAsString(Map.of("index", indexProps))).append('\n');
-                    bulk.append(MAPPER.writeValueAsString(doc)).append('\n');
+                    offset += batchSize;
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
 
-                Request request = new Request("POST", "/_bulk");
-
-                request.setEntity(new NStringEntity(bulk.toString(), ContentType.create("application/x-ndjson", StandardCharsets.UTF_8)));
-
-                Response response   = currentClient.performRequest(request);
-                int      statusCode = response.getStatusLine().getStatusCode();
-
-                if (statusCode >= 400) {
-                    LOG.error("OpenSearch bulk request failed: HTTP {}", statusCode);
-                } else {
-                    String responseBody = EntityUtils.toString(response.getEntity());
-
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> responseMap = MAPPER.readValue(responseBody, Map.class);
-
-                    if (Boolean.TRUE.equals(responseMap.get("errors"))) {
-                        LOG.error("OpenSearch bulk response contains item-level errors");
-                    } else {
-                        ret = true;
-                    }
-                }
-            } catch (Exception e) {
-                LOG.error("Failed to write audit events to OpenSearch", e);
+                ret = false;
             }
         }
 
-        if (ret) {
-            addSuccessCount(events.size());
-        } else {
-            addFailedCount(events.size());
-        }
-
         return ret;
     }
 
+    public Map<String, Object> getBatchMetrics() {
+        return batchController.getMetrics();
+    }
+
     public boolean isAsync() {
         return true;
     }
@@ -280,6 +261,183 @@ public static String resolveAuthType(final String authType, final String user, f
         return AUTH_TYPE_NONE;
     }
 
+    /**
+     * Sends the given events in one bulk request. Items rejected with a retryable status, or all items when the
+     * request itself fails with such a status, are re-sent up to the configured number of retries; items failed
+     * with other errors are counted as failed and not retried. Events left after all retries are counted as
+     * deferred, as the caller spools them for a later attempt.
+     *
+     * @return false if the request failed with a non-retryable status, or some events could not be written after all retries
+     */
+    private boolean sendBulk(RestClient currentClient, List<AuditEventBase> events) throws InterruptedException {
+        boolean              ret     = true;
+        List<AuditEventBase> pending = events;
+
+        // ids are assigned once, so that an event re-sent after a partial failure overwrites the copy already
+        // indexed instead of adding a duplicate
+        for (AuditEventBase event : pending) {
+            if (event instanceof AuthzAuditEvent && StringUtils.isBlank(((AuthzAuditEvent) event).getEventId())) {
+                ((AuthzAuditEvent) event).setEventId(UUID.randomUUID().toString());
+            }
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            List<AuditEventBase> requested = new ArrayList<>(pending.size());
+            List<AuditEventBase> retryable = new ArrayList<>();
+            StringBuilder        bulk      = new StringBuilder();
+
+            for (AuditEventBase event : pending) {
+                try {
+                    Map<String, Object> doc        = toDoc((AuthzAuditEvent) event);
+                    Map<String, Object> indexProps = new HashMap<>();
+
+                    indexProps.put("_index", index);
+                    indexProps.put("_id", doc.get("id"));
+
+                    bulk.append(MAPPER.writeValueAsString(Map.of("index", indexProps))).append('\n');
+                    bulk.append(MAPPER.writeValueAsString(doc)).append('\n');
+
+                    requested.add(event);
+                } catch (Exception e) {
+                    LOG.error("Failed to serialize audit event for OpenSearch", e);
+
+                    addFailedCount(1);
+                }
+            }
+
+            if (requested.isEmpty()) {
+                return ret;
+            }
+
+            Request request = new Request("POST", "/_bulk");
+
+            request.setEntity(new NStringEntity(bulk.toString(), ContentType.create("application/x-ndjson", StandardCharsets.UTF_8)));
+
+            batchController.acquire();
+
+            long startTime = System.currentTimeMillis();
+
+            try {
+                Response response   = currentClient.performRequest(request);
+                int      statusCode = response.getStatusLine().getStatusCode();
+
+                if (statusCode >= 400) {
+                    batchController.onRequestFailed(requested.size(), System.currentTimeMillis() - startTime);
+
+                    if (!handleRequestFailure(statusCode, requested, retryable)) {
+                        ret = false;
+                    }
+                } else {
+                    String responseBody = EntityUtils.toString(response.getEntity());
+
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> responseMap = MAPPER.readValue(responseBody, Map.class);
+
+                    if (Boolean.TRUE.equals(responseMap.get("errors"))) {
+                        collectFailedItems(responseMap, requested, retryable);
+                    } else {
+                        addSuccessCount(requested.size());
+                    }
+
+                    batchController.onRequestComplete(requested.size(), retryable.size(), System.currentTimeMillis() - startTime);
+                }
+            } catch (ResponseException e) {
+                batchController.onRequestFailed(requested.size(), System.currentTimeMillis() - startTime);
+
+                if (!handleRequestFailure(e.getResponse().getStatusLine().getStatusCode(), requested, retryable)) {
+                    ret = false;
+                }
+            } catch (Exception e) {
+                batchController.onRequestFailed(requested.size(), System.currentTimeMillis() - startTime);
+
+                LOG.error("Failed to write audit events to OpenSearch", e);
+
+                retryable.addAll(requested);
+            }
+
+            if (retryable.isEmpty()) {
+                return ret;
+            }
+
+            if (attempt >= batchController.getMaxRetries()) {
+                LOG.error("Failed to write {} audit events to OpenSearch after {} retries", retryable.size(), attempt);
+
+                addDeferredCount(retryable.size());
+
+                return false;
+            }
+
+            batchController.onItemsRetried(retryable.size());
+
+            Thread.sleep(batchController.getRetryBackoffMs(attempt + 1));
+
+            pending = retryable;
+        }
+    }
+
+    /**
+     * @return true if the failed request can be retried, in which case all requested events are added to retryable
+     */
+    private boolean handleRequestFailure(int statusCode, List<AuditEventBase> requested, List<AuditEventBase> retryable) {
+        LOG.error("OpenSearch bulk request failed: HTTP {}", statusCode);
+
+        if (AdaptiveBatchController.isRetryableStatus(statusCode)) {
+            retryable.addAll(requested);
+
+            return true;
+        }
+
+        addFailedCount(requested.size());
+
+        return false;
+    }
+
+    /**
+     * Goes through the items of a bulk response having errors: successful items are counted, items failed with a
+     * retryable status are added to retryable and the rest are counted as failed - these are not retried, as
+     * they would fail again.
+     */
+    @SuppressWarnings("unchecked")
+    private void collectFailedItems(Map<String, Object> responseMap, List<AuditEventBase> requested, List<AuditEventBase> retryable) {
+        List<Object> items = responseMap.get("items") instanceof List ? (List<Object>) responseMap.get("items") : Collections.emptyList();
+
+        if (items.size() != requested.size()) {
+            LOG.error("OpenSearch bulk response has {} items for {} requests; retrying all", items.size(), requested.size());
+
+            retryable.addAll(requested);
+
+            return;
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> result = null;
+
+            if (items.get(i) instanceof Map) {
+                for (Object value : ((Map<String, Object>) items.get(i)).values()) {
+                    if (value instanceof Map) {
+                        result = (Map<String, Object>) value;
+
+                        break;
+                    }
+                }
+            }
+
+            int status = result != null && result.get("status") instanceof Number ? ((Number) result.get("status")).intValue() : 500;
+
+            if (status < 300 && (result == null || result.get("error") == null)) {
+                addSuccessCount(1);
+            } else {
+                if (AdaptiveBatchController.isRetryableStatus(status)) {
+                    retryable.add(requested.get(i));
+                } else {
+                    LOG.error("OpenSearch rejected audit event {}: HTTP {}, {}", requested.get(i).getEventKey(), status, result != null ? result.get("error") : null);
+
+                    addFailedCount(1);
+                }
+            }
+        }
+    }
+
     Map<String, Object> toDoc(AuthzAuditEvent event) {
         Map<String, Object> doc = new HashMap<>();
 
@@ -19,12 +19,20 @@
 
 package org.apache.ranger.audit.destination;
 
+import com.sun.net.httpserver.HttpServer;
 import org.apache.ranger.audit.model.AuthzAuditEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -161,6 +169,63 @@ void log_nullEvents_returnsTrue() {
         assertTrue(result);
     }
 
+    @Test
+    void log_partialItemFailure_resendsOnlyRejectedItemWithSameId() throws Exception {
+        List<String> requests = new CopyOnWriteArrayList<>();
+        HttpServer   server   = startBulkServer(requests, requestCount -> requestCount == 1
+                ? "{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},{\"index\":{\"status\":429,\"error\":{\"type\":\"rejected\"}}}]}"
+                : "{\"errors\":false,\"items\":[{\"index\":{\"status\":201}}]}");
+
+        try {
+            destination.init(getBulkServerProps(server), OpenSearchAuditDestination.CONFIG_PREFIX);
+
+            AuthzAuditEvent accepted = new AuthzAuditEvent();
+            AuthzAuditEvent rejected = new AuthzAuditEvent();
+
+            accepted.setEventId("evt-accepted");
+            accepted.setUser("user1");
+            rejected.setUser("user2");
+
+            assertTrue(destination.log(List.of(accepted, rejected)));
+
+            String rejectedId = "\"_id\":\"" + rejected.getEventId() + "\"";
+
+            assertNotNull(rejected.getEventId());
+            assertEquals(2, requests.size());
+            assertTrue(requests.get(0).contains("evt-accepted"));
+            assertTrue(requests.get(0).contains(rejectedId));
+            assertFalse(requests.get(1).contains("evt-accepted"));
+            assertTrue(requests.get(1).contains(rejectedId));
+            assertEquals(2, destination.getTotalSuccessCount());
+            assertEquals(0, destination.getTotalDeferredCount());
+        } finally {
+            destination.stop();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void log_retriesExhausted_countsItemsAsDeferred() throws Exception {
+        List<String> requests = new CopyOnWriteArrayList<>();
+        HttpServer   server   = startBulkServer(requests, requestCount -> "{\"errors\":true,\"items\":[{\"index\":{\"status\":503}}]}");
+
+        try {
+            destination.init(getBulkServerProps(server), OpenSearchAuditDestination.CONFIG_PREFIX);
+
+            AuthzAuditEvent event = new AuthzAuditEvent();
+
+            event.setEventId("evt-1");
+
+            assertFalse(destination.log(List.of(event)));
+            assertEquals(2, requests.size());
+            assertEquals(1, destination.getTotalDeferredCount());
+            assertEquals(0, destination.getTotalFailedCount());
+        } finally {
+            destination.stop();
+            server.stop(0);
+        }
+    }
+
     @Test
     void configConstants_matchExpectedValues() {
         assertEquals("ranger.audit.opensearch", OpenSearchAuditDestination.CONFIG_PREFIX);
@@ -189,4 +254,36 @@ void resolveAuthType_inferredWhenTypeUnset() {
         assertEquals("none", OpenSearchAuditDestination.resolveAuthType("", "", ""));
         assertEquals("none", OpenSearchAuditDestination.resolveAuthType("", "NONE", "NONE"));
     }
+
+    private static HttpServer startBulkServer(List<String> requests, IntFunction<String> responses) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+        server.createContext("/_bulk", exchange -> {
+            requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+
+            byte[] response = responses.apply(requests.size()).getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        return server;
+    }
+
+    private static Properties getBulkServerProps(HttpServer server) {
+        String     prefix = OpenSearchAuditDestination.CONFIG_PREFIX + ".";
+        Properties props  = new Properties();
+
+        props.setProperty(prefix + OpenSearchAuditDestination.CONFIG_URLS, "localhost");
+        props.setProperty(prefix + OpenSearchAuditDestination.CONFIG_PORT, String.valueOf(server.getAddress().getPort()));
+        props.setProperty(prefix + AdaptiveBatchController.PROP_MAX_RETRIES, "1");
+        props.setProperty(prefix + AdaptiveBatchController.PROP_RETRY_BACKOFF_MS, "1");
+
+        return props;
+    }
 }
@@ -22,6 +22,7 @@
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ranger.audit.model.AuditEventBase;
 import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.audit.provider.AuditProviderFactory;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.audit.utils.InMemoryJAASConfiguration;
 import org.apache.ranger.audit.utils.KerberosAction;
@@ -63,6 +64,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -79,6 +81,8 @@ public class SolrAuditDestination extends AuditDestination {
     private volatile SolrClient   solrClient;
     private volatile KerberosUser kerberosUser;
 
+    private AdaptiveBatchController batchController = new AdaptiveBatchController("SolrAuditDestination", new Properties(), AuditProviderFactory.AUDIT_DEST_BASE + ".solr");
+
     public SolrAuditDestination() {
     }
 
@@ -88,6 +92,8 @@ public void init(Properties props, String propPrefix) {
 
         super.init(props, propPrefix);
 
+        batchController = new AdaptiveBatchController("SolrAuditDestination", props, propPrefix);
+
         init();
         connect();
     }
@@ -98,6 +104,8 @@ public void stop() {
 
         logStatus();
 
+        LOG.info("Solr update request stats: {}", batchController.getMetrics());
+
         SolrClient solrClient = this.solrClient;
 
         if (solrClient != null) {
@@ -155,9 +163,10 @@ public boolean log(Collection<AuditEventBase> events) {
                 }
             }
 
-            final Collection<SolrInputDocument> docs = new ArrayList<>();
+            final List<AuditEventBase>    eventList = new ArrayList<>(events);
+            final List<SolrInputDocument> docs      = new ArrayList<>(eventList.size());
 
-            for (AuditEventBase event : events) {
+            for (AuditEventBase event : eventList) {
                 AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
 
                 // Convert AuditEventBase to Solr document
@@ -166,26 +175,29 @@ public boolean log(Collection<AuditEventBase> events) {
                 docs.add(document);
             }
 
-            try {
-                final UpdateResponse response = addDocsToSolr(solrClient, docs);
+            ret = true;
 
-                if (response.getStatus() != 0) {
-                    addFailedCount(events.size());
+            for (int offset = 0; offset < docs.size(); ) {
+                int batchSize = Math.min(batchController.getBatchSize(), docs.size() - offset);
 
-                    logFailedEvent(events, response.toString());
-                } else {
-                    addSuccessCount(events.size());
-
-                    ret = true;
+                if (!addDocs(solrClient, eventList.subList(offset, offset + batchSize), docs.subList(offset, offset + batchSize))) {
+                    ret = false;
                 }
-            } catch (SolrException ex) {
-                addFailedCount(events.size());
-                logFailedEvent(events, ex);
+
+                offset += batchSize;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            addDeferredCount(events.size());
+
+            ret = false;
         } catch (Throwable t) {
             addDeferredCount(events.size());
 
             logError("Error sending message to Solr", t);
+
+            ret = false;
         }
 
         return ret;
@@ -195,6 +207,10 @@ public boolean isAsync() {
         return true;
     }
 
+    public Map<String, Object> getBatchMetrics() {
+        return batchController.getMetrics();
+    }
+
     synchronized void connect() {
         SolrClient me = solrClient;
 
@@ -500,6 +516,68 @@ private UpdateResponse addDocsToSolr(final SolrClient solrClient, final Collecti
         return ret;
     }
 
+    /**
+     * Adds the given documents in one update request. Solr accepts or rejects an update as a whole, so on a
+     * connection error or a retryable status only this request is re-sent, up to the configured number of retries.
+     *
+     * @return false if the documents could not be added
+     */
+    private boolean addDocs(final SolrClient solrClient, final List<AuditEventBase> events, final List<SolrInputDocument> docs) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            Exception error;
+
+            batchController.acquire();
+
+            long startTime = System.currentTimeMillis();
+
+            try {
+                final UpdateResponse response = addDocsToSolr(solrClient, docs);
+
+                if (response.getStatus() != 0) {
+                    batchController.onRequestFailed(docs.size(), System.currentTimeMillis() - startTime);
+
+                    addFailedCount(events.size());
+                    logFailedEvent(events, response.toString());
+
+                    return false;
+                }
+
+                batchController.onRequestComplete(docs.size(), 0, System.currentTimeMillis() - startTime);
+
+                addSuccessCount(events.size());
+
+                return true;
+            } catch (SolrException ex) {
+                batchController.onRequestFailed(docs.size(), System.currentTimeMillis() - startTime);
+
+                if (!AdaptiveBatchController.isRetryableStatus(ex.code())) {
+                    addFailedCount(events.size());
+                    logFailedEvent(events, ex);
+
+                    return false;
+                }
+
+                error = ex;
+            } catch (Exception ex) {
+                batchController.onRequestFailed(docs.size(), System.currentTimeMillis() - startTime);
+
+                error = ex;
+            }
+
+            if (attempt >= batchController.getMaxRetries()) {
+                addDeferredCount(events.size());
+
+                logError("Error sending message to Solr", error);
+
+                return false;
+            }
+
+            batchController.onItemsRetried(docs.size());
+
+            Thread.sleep(batchController.getRetryBackoffMs(attempt + 1));
+        }
+    }
+
     private InputStream getFileInputStream(String fileName) throws IOException {
         InputStream in = null;
 
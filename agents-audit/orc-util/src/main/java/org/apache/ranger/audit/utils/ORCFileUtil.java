@@ -40,7 +40,7 @@
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
-import java.text.Format;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -51,6 +51,8 @@
 public class ORCFileUtil {
     private static final Logger logger = LoggerFactory.getLogger(ORCFileUtil.class);
 
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     private static volatile ORCFileUtil me;
 
     protected CompressionKind    defaultCompression = CompressionKind.SNAPPY;
@@ -65,6 +67,15 @@ public class ORCFileUtil {
     protected int                       orcBufferSize;
     protected long                      orcStripeSize;
 
+    // resolved once in initORCAuditSchema(), in schemaFields order, to avoid per-row reflection lookups
+    protected Field[]        schemaFieldAccessors;
+    protected ColumnVector[] schemaColumnVectors;
+
+    // per-batch dictionary of string values: repeated user/resource/service values share one byte[] via setRef()
+    protected final Map<String, byte[]> batchValueBytes = new HashMap<>();
+
+    private SimpleDateFormat dateFormatter;
+
     public static ORCFileUtil getInstance() {
         ORCFileUtil orcFileUtil = me;
 
@@ -171,31 +182,35 @@ public void log(Writer writer, Collection<AuthzAuditEvent> events) throws Except
             for (AuthzAuditEvent event : events) {
                 int row = batch.size++;
 
-                for (String fieldName : schemaFields) {
-                    SchemaInfo   schemaInfo   = getFieldValue(event, fieldName);
-                    ColumnVector columnVector = vectorizedRowBatchMap.get(fieldName);
+                for (int i = 0; i < schemaFieldAccessors.length; i++) {
+                    Field        field        = schemaFieldAccessors[i];
+                    ColumnVector columnVector = schemaColumnVectors[i];
+
+                    if (field == null || columnVector == null) {
+                        continue;
+                    }
+
+                    Object value = field.get(event);
 
                     if (columnVector instanceof LongColumnVector) {
-                        ((LongColumnVector) columnVector).vector[row] = castLongObject(schemaInfo.getValue());
+                        ((LongColumnVector) columnVector).vector[row] = castLongObject(value);
                     } else if (columnVector instanceof BytesColumnVector) {
-                        ((BytesColumnVector) columnVector).setVal(row, getBytesValues(castStringObject(schemaInfo.getValue())));
+                        byte[] bytes = getBatchValueBytes(castStringObject(value));
+
+                        ((BytesColumnVector) columnVector).setRef(row, bytes, 0, bytes.length);
                     }
                 }
 
                 if (batch.size == orcBufferSize) {
-                    writer.addRowBatch(batch);
-
-                    batch.reset();
+                    addRowBatch(writer);
                 }
             }
 
             if (batch.size != 0) {
-                writer.addRowBatch(batch);
-
-                batch.reset();
+                addRowBatch(writer);
             }
         } catch (Exception e) {
-            batch.reset();
+            resetRowBatch();
 
             logger.error("Error while writing into ORC File:", e);
 
@@ -205,20 +220,41 @@ public void log(Writer writer, Collection<AuthzAuditEvent> events) throws Except
         logger.debug("<== ORCFileUtil.log(): EventSize = {}", eventBatchSize);
     }
 
+    protected void addRowBatch(Writer writer) throws Exception {
+        writer.addRowBatch(batch);
+
+        resetRowBatch();
+    }
+
+    protected void resetRowBatch() {
+        batch.reset();
+        batchValueBytes.clear();
+    }
+
+    protected byte[] getBatchValueBytes(String val) {
+        if (val == null) {
+            return EMPTY_BYTES;
+        }
+
+        return batchValueBytes.computeIfAbsent(val, this::getBytesValues);
+    }
+
     protected byte[] getBytesValues(String val) {
-        byte[] ret = "".getBytes();
+        byte[] ret = EMPTY_BYTES;
 
         if (val != null) {
-            ret = val.getBytes();
+            ret = val.getBytes(StandardCharsets.UTF_8);
         }
 
         return ret;
     }
 
     protected String getDateString(Date date) {
-        Format formatter = new SimpleDateFormat(dateFormat);
+        if (dateFormatter == null) {
+            dateFormatter = new SimpleDateFormat(dateFormat);
+        }
 
-        return formatter.format(date);
+        return dateFormatter.format(date);
     }
 
     protected void initORCAuditSchema() throws Exception {
@@ -233,6 +269,16 @@ protected void initORCAuditSchema() throws Exception {
 
         buildVectorRowBatch(schemaFieldTypeMap);
 
+        schemaFieldAccessors = new Field[schemaFields.size()];
+        schemaColumnVectors  = new ColumnVector[schemaFields.size()];
+
+        for (int i = 0; i < schemaFields.size(); i++) {
+            String fieldName = schemaFields.get(i);
+
+            schemaFieldAccessors[i] = getFieldAccessor(fieldName);
+            schemaColumnVectors[i]  = vectorizedRowBatchMap.get(fieldName);
+        }
+
         logger.debug("<== ORCWriter.initORCAuditSchema()");
     }
 
@@ -273,24 +319,17 @@ protected void buildVectorRowBatch(Map<String, String> schemaFieldTypeMap) throw
         }
     }
 
-    protected SchemaInfo getFieldValue(AuthzAuditEvent event, String fieldName) {
-        SchemaInfo ret = new SchemaInfo();
+    protected Field getFieldAccessor(String fieldName) {
+        Field ret = null;
 
         try {
-            Class<AuthzAuditEvent> aClass = AuthzAuditEvent.class;
-            Field                  fld    = aClass.getDeclaredField(fieldName);
+            ret = AuthzAuditEvent.class.getDeclaredField(fieldName);
 
-            fld.setAccessible(true);
-
-            Class<?> cls   = fld.getType();
-            Object   value = fld.get(event);
-
-            ret.setField(fieldName);
-            ret.setType(cls.getName());
-            ret.setValue(value);
+            ret.setAccessible(true);
         } catch (Exception e) {
-            logger.error("Error while writing into ORC File:", e);
+            logger.error("Error while resolving audit field {} for ORC schema", fieldName, e);
         }
+
         return ret;
     }
 
@@ -455,34 +494,4 @@ protected CompressionKind getORCCompression(String compression) {
 
         return ret;
     }
-
-    static class SchemaInfo {
-        String field;
-        String type;
-        Object value;
-
-        public String getField() {
-            return field;
-        }
-
-        public void setField(String field) {
-            this.field = field;
-        }
-
-        public String getType() {
-            return type;
-        }
-
-        public void setType(String type) {
-            this.type = type;
-        }
-
-        public Object getValue() {
-            return value;
-        }
-
-        public void setValue(Object value) {
-            this.value = value;
-        }
-    }
 }
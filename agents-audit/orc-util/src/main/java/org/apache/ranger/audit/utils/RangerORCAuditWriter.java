@@ -29,12 +29,21 @@
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class writes the Ranger audits to HDFS as ORC files
  * Refer README.TXT for enabling ORCWriter.
+ * <p>
+ * The ORC file is kept open across batches. Rows buffered by the ORC writer are persisted, with an intermediate footer
+ * that makes them readable before the file is closed, once a stripe's worth of data (orc.stripesize) or
+ * orc.max.buffered.bytes is buffered, orc.flush.interval.ms after the last footer, on flush() and on close. Rows
+ * written after the last footer are lost if the process dies before the next one; logDeferred() lets callers wait
+ * for the footer, or the close, that persists their rows. Files are rolled over by time
+ * (file.rollover.period / file.rollover.sec) and by size (orc.file.max.size, uncompressed bytes).
  */
 public class RangerORCAuditWriter extends AbstractRangerAuditWriter {
     private static final Logger logger = LoggerFactory.getLogger(RangerORCAuditWriter.class);
@@ -44,12 +53,23 @@ public class RangerORCAuditWriter extends AbstractRangerAuditWriter {
     protected volatile ORCFileUtil orcFileUtil;
 
     protected Writer orcLogWriter;
-    protected String fileType           = "orc";
+    protected String fileType                = "orc";
     protected String compression;
     protected int    orcBufferSize;
-    protected int    defaultbufferSize  = 100000;
+    protected int    defaultbufferSize       = 100000;
     protected long   orcStripeSize;
-    protected long   defaultStripeSize  = 100000L;
+    protected long   defaultStripeSize       = 100000L;
+    protected long   orcMaxFileSize;
+    protected long   defaultMaxFileSize      = 256L * 1024 * 1024;
+    protected long   orcMaxBufferedBytes;
+    protected long   defaultMaxBufferedBytes = 64L * 1024 * 1024;
+    protected long   orcFlushIntervalMs;
+    protected long   defaultFlushIntervalMs  = 30 * 1000L;
+
+    private final List<CompletableFuture<Void>> unpersistedWrites = new ArrayList<>();
+
+    private long lastFooterTime;
+    private long rowsSinceFooter;
 
     @Override
     public void init(Properties props, String propPrefix, String auditProviderName, Map<String, String> auditConfigs) {
@@ -63,53 +83,33 @@ public void init(Properties props, String propPrefix, String auditProviderName,
     }
 
     @Override
-    public void flush() {
-        //For HDFSAuditDestionation with ORC format each file is flushed immediately after writing the ORC batch.
-        //So nothing to flush.
-    }
-
-    public synchronized boolean logAuditAsORC(final Collection<AuthzAuditEvent> events) throws Exception {
-        boolean ret = false;
-        Writer  out = null;
+    public synchronized void flush() {
+        if (orcLogWriter == null || rowsSinceFooter == 0) {
+            return;
+        }
 
         try {
-            if (logger.isDebugEnabled()) {
-                logger.debug("UGI={}. Will write to HDFS file={}", MiscUtil.getUGILoginUser(), currentFileName);
-            }
-
-            out = MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Writer>) () -> {
-                Writer out1 = getORCFileWrite();
-
-                orcFileUtil.log(out1, events);
+            MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Void>) () -> {
+                writeIntermediateFooter(orcLogWriter);
 
-                return out1;
+                return null;
             });
         } catch (Exception e) {
-            orcLogWriter = null;
+            logger.error("Error while flushing ORC file. name={}, fileName={}", auditProviderName, currentFileName, e);
 
-            logger.error("Error while writing into ORC FileWriter", e);
-
-            throw e;
-        } finally {
-            logger.debug("Flushing HDFS audit in ORC Format. Event Size:{}", events.size());
-
-            if (out != null) {
-                try {
-                    //flush and close the ORC batch file
-                    orcFileUtil.close(out);
-
-                    ret = true;
-                } catch (Exception e) {
-                    logger.error("Error while closing the ORC FileWriter", e);
+            closeORCFileWriter();
+        }
+    }
 
-                    throw e;
-                }
+    public synchronized boolean logAuditAsORC(final Collection<AuthzAuditEvent> events) throws Exception {
+        writeAuditAsORC(events);
 
-                orcLogWriter = null;
-            }
-        }
+        return true;
+    }
 
-        return ret;
+    @Override
+    public CompletableFuture<Void> logDeferred(Collection<String> events) throws Exception {
+        return writeAuditAsORC(getAuthzAuditEvents(events));
     }
 
     @Override
@@ -129,14 +129,29 @@ public void start() {
 
     @Override
     public synchronized void stop() {
-        if (orcLogWriter != null) {
-            try {
-                orcFileUtil.close(orcLogWriter);
-            } catch (Throwable t) {
-                logger.error("Error on closing log ORC Writer. Exception will be ignored. name={}, fileName={}", auditProviderName, currentFileName);
-            }
+        closeORCFileWriter();
+    }
+
+    /**
+     * Rolls over the ORC file when the rollover time is reached or the file reached orc.file.max.size
+     */
+    @Override
+    public synchronized void closeFileIfNeeded() {
+        if (orcLogWriter == null) {
+            return;
+        }
+
+        boolean rollOverByTime = System.currentTimeMillis() >= nextRollOverTime.getTime();
+        boolean rollOverBySize = orcMaxFileSize > 0 && orcLogWriter.getRawDataSize() >= orcMaxFileSize;
+
+        if (rollOverByTime || rollOverBySize) {
+            logger.info("Closing ORC file. Rolling over. name = {}, fileName = {}, byTime = {}, bySize = {}", auditProviderName, currentFileName, rollOverByTime, rollOverBySize);
 
-            orcLogWriter = null;
+            closeORCFileWriter();
+
+            if (rollOverByTime) {
+                setNextRollOverTime();
+            }
         }
     }
 
@@ -164,14 +179,18 @@ public Collection<AuthzAuditEvent> getAuthzAuditEvents(Collection<String> events
     }
 
     public void init(Properties props, String propPrefix, String auditProviderName) {
-        compression   = MiscUtil.getStringProperty(props, propPrefix + "." + fileType + ".compression");
-        orcBufferSize = MiscUtil.getIntProperty(props, propPrefix + "." + fileType + ".buffersize", defaultbufferSize);
-        orcStripeSize = MiscUtil.getLongProperty(props, propPrefix + "." + fileType + ".stripesize", defaultStripeSize);
+        compression         = MiscUtil.getStringProperty(props, propPrefix + "." + fileType + ".compression");
+        orcBufferSize       = MiscUtil.getIntProperty(props, propPrefix + "." + fileType + ".buffersize", defaultbufferSize);
+        orcStripeSize       = MiscUtil.getLongProperty(props, propPrefix + "." + fileType + ".stripesize", defaultStripeSize);
+        orcMaxFileSize      = MiscUtil.getLongProperty(props, propPrefix + "." + fileType + ".file.max.size", defaultMaxFileSize);
+        orcMaxBufferedBytes = MiscUtil.getLongProperty(props, propPrefix + "." + fileType + ".max.buffered.bytes", defaultMaxBufferedBytes);
+        orcFlushIntervalMs  = MiscUtil.getLongProperty(props, propPrefix + "." + fileType + ".flush.interval.ms", defaultFlushIntervalMs);
 
         setFileExtension(ORC_FILE_EXTENSION);
 
         try {
-            orcFileUtil = ORCFileUtil.getInstance();
+            // one instance per writer: ORCFileUtil holds the row batch, which can't be shared across writers
+            orcFileUtil = new ORCFileUtil();
 
             orcFileUtil.init(orcBufferSize, orcStripeSize, compression);
         } catch (Exception e) {
@@ -191,10 +210,113 @@ protected synchronized Writer getORCFileWrite() throws Exception {
 
             orcLogWriter    = orcFileUtil.createWriter(conf, fileSystem, fullPath);
             currentFileName = fullPath;
+            lastFooterTime  = System.currentTimeMillis();
+            rowsSinceFooter = 0;
         }
 
         logger.debug("<== RangerORCAuditWriter.getORCFileWrite()");
 
         return orcLogWriter;
     }
+
+    /**
+     * A footer is written once the rows buffered by the ORC writer fill a stripe or exceed the memory budget, or
+     * when the flush interval has elapsed; writing one per batch would cut a small stripe for every batch.
+     */
+    protected boolean isFooterNeeded(Writer out) {
+        if (orcFlushIntervalMs <= 0 || (System.currentTimeMillis() - lastFooterTime) >= orcFlushIntervalMs) {
+            return true;
+        }
+
+        long bufferedBytes = out.estimateMemory();
+
+        return (orcStripeSize > 0 && bufferedBytes >= orcStripeSize) || (orcMaxBufferedBytes > 0 && bufferedBytes >= orcMaxBufferedBytes);
+    }
+
+    /**
+     * @return future that completes once the written rows are persisted by an intermediate footer or by closing the
+     * file, and completes exceptionally if the file could not be closed after an error
+     */
+    private synchronized CompletableFuture<Void> writeAuditAsORC(final Collection<AuthzAuditEvent> events) throws Exception {
+        CompletableFuture<Void> ret = new CompletableFuture<>();
+
+        try {
+            if (logger.isDebugEnabled()) {
+                logger.debug("UGI={}. Will write to HDFS file={}", MiscUtil.getUGILoginUser(), currentFileName);
+            }
+
+            MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Void>) () -> {
+                Writer out = getORCFileWrite();
+
+                orcFileUtil.log(out, events);
+
+                rowsSinceFooter += events.size();
+
+                unpersistedWrites.add(ret);
+
+                if (isFooterNeeded(out)) {
+                    writeIntermediateFooter(out);
+                }
+
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Error while writing into ORC FileWriter", e);
+
+            closeORCFileWriter();
+
+            throw e;
+        }
+
+        logger.debug("Wrote HDFS audit in ORC Format. Event Size:{}", events.size());
+
+        closeFileIfNeeded();
+
+        return ret;
+    }
+
+    private void writeIntermediateFooter(Writer out) throws Exception {
+        logger.debug("Writing ORC intermediate footer. fileName={}, rows={}", currentFileName, rowsSinceFooter);
+
+        out.writeIntermediateFooter();
+
+        lastFooterTime  = System.currentTimeMillis();
+        rowsSinceFooter = 0;
+
+        completeUnpersistedWrites(null);
+    }
+
+    private void completeUnpersistedWrites(Throwable error) {
+        for (CompletableFuture<Void> write : unpersistedWrites) {
+            if (error == null) {
+                write.complete(null);
+            } else {
+                write.completeExceptionally(error);
+            }
+        }
+
+        unpersistedWrites.clear();
+    }
+
+    private void closeORCFileWriter() {
+        if (orcLogWriter != null) {
+            try {
+                MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Void>) () -> {
+                    orcFileUtil.close(orcLogWriter);
+                    return null;
+                });
+
+                completeUnpersistedWrites(null);
+            } catch (Throwable t) {
+                logger.error("Error on closing log ORC Writer. Exception will be ignored. name={}, fileName={}", auditProviderName, currentFileName, t);
+
+                // rows buffered since the last footer are lost
+                completeUnpersistedWrites(t);
+            }
+
+            orcLogWriter    = null;
+            currentFileName = null;
+            rowsSinceFooter = 0;
+        }
+    }
 }
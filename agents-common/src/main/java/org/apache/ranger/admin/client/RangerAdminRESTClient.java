@@ -71,6 +71,7 @@ public class RangerAdminRESTClient extends AbstractRangerAdminClient {
     private       RangerRESTClient restClient;
     private       boolean          supportsPolicyDeltas;
     private       boolean          supportsTagDeltas;
+    private       boolean          supportsUserStoreDeltas;
     private       boolean          isRangerCookieEnabled;
     private       String           rangerAdminCookieName;
     private       Cookie           sessionId;
@@ -103,10 +104,11 @@ public void init(String serviceName, String appId, String propertyPrefix, Config
         int restClientMaxRetryAttempts = config.getInt(propertyPrefix + ".policy.rest.client.max.retry.attempts", 3);
         int restClientRetryIntervalMs  = config.getInt(propertyPrefix + ".policy.rest.client.retry.interval.ms", 1 * 1000);
 
-        supportsPolicyDeltas  = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA_DEFAULT);
-        supportsTagDeltas     = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA_DEFAULT);
-        isRangerCookieEnabled = config.getBoolean(propertyPrefix + ".policy.rest.client.cookie.enabled", RangerCommonConstants.POLICY_REST_CLIENT_SESSION_COOKIE_ENABLED);
-        rangerAdminCookieName = config.get(propertyPrefix + ".policy.rest.client.session.cookie.name", RangerCommonConstants.DEFAULT_COOKIE_NAME);
+        supportsPolicyDeltas    = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA_DEFAULT);
+        supportsTagDeltas       = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA_DEFAULT);
+        supportsUserStoreDeltas = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_USERSTORE_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_USERSTORE_DELTA_DEFAULT);
+        isRangerCookieEnabled   = config.getBoolean(propertyPrefix + ".policy.rest.client.cookie.enabled", RangerCommonConstants.POLICY_REST_CLIENT_SESSION_COOKIE_ENABLED);
+        rangerAdminCookieName   = config.get(propertyPrefix + ".policy.rest.client.session.cookie.name", RangerCommonConstants.DEFAULT_COOKIE_NAME);
 
         if (!StringUtil.isEmpty(tmpUrl)) {
             url = tmpUrl.trim();
@@ -872,6 +874,7 @@ public RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, lon
         queryParams.put(RangerRESTUtils.REST_PARAM_PLUGIN_ID, pluginId);
         queryParams.put(RangerRESTUtils.REST_PARAM_CLUSTER_NAME, clusterName);
         queryParams.put(RangerRESTUtils.REST_PARAM_CAPABILITIES, pluginCapabilities);
+        queryParams.put(RangerRESTUtils.REST_PARAM_SUPPORTS_USERSTORE_DELTAS, Boolean.toString(supportsUserStoreDeltas));
 
         final Response response;
 
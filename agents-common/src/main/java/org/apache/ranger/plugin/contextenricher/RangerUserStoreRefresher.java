@@ -31,6 +31,7 @@
 import org.apache.ranger.plugin.util.RangerRESTUtils;
 import org.apache.ranger.plugin.util.RangerServiceNotFoundException;
 import org.apache.ranger.plugin.util.RangerUserStore;
+import org.apache.ranger.plugin.util.RangerUserStoreUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,6 +124,10 @@ public RangerUserStore populateUserStoreInfo() throws InterruptedException {
             try {
                 rangerUserStore = userStoreRetriever.retrieveUserStoreInfo(lastKnownVersion, lastActivationTimeInMillis);
 
+                if (rangerUserStore != null && rangerUserStore.getIsDelta()) {
+                    rangerUserStore = applyDelta(rangerUserStore);
+                }
+
                 if (rangerUserStore == null) {
                     if (!hasProvidedUserStoreToReceiver) {
                         rangerUserStore = loadFromCache();
@@ -308,6 +313,32 @@ private RangerUserStore loadFromCache() {
         return rangerUserStore;
     }
 
+    private RangerUserStore applyDelta(RangerUserStore delta) throws Exception {
+        LOG.debug("==> RangerUserStoreRefresher.applyDelta(version={})", delta.getUserStoreVersion());
+
+        RangerUserStore ret;
+        RangerUserStore current = userStoreEnricher.getRangerUserStore();
+
+        if (current != null && current.getUserStoreVersion() != null && current.getUserStoreVersion() == lastKnownVersion) {
+            ret = RangerUserStoreUtil.applyDelta(current, delta);
+        } else {
+            LOG.warn("RangerUserStoreRefresher.applyDelta(): received delta for version {}, but userstore version {} is not available. Downloading full userstore",
+                    lastKnownVersion, current != null ? current.getUserStoreVersion() : null);
+
+            ret = userStoreRetriever.retrieveUserStoreInfo(-1L, lastActivationTimeInMillis);
+
+            if (ret != null && ret.getIsDelta()) {
+                LOG.error("RangerUserStoreRefresher.applyDelta(): received delta for full userstore download. Ignoring");
+
+                ret = null;
+            }
+        }
+
+        LOG.debug("<== RangerUserStoreRefresher.applyDelta(version={})", delta.getUserStoreVersion());
+
+        return ret;
+    }
+
     private void disableCache() {
         LOG.debug("==> RangerUserStoreRefreher.disableCache()");
 
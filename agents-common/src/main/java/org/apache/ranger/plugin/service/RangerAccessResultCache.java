@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.service;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Process-wide cache of results of access requests, for plugins that see the same requests repeatedly. Keys are
+ * defined by the plugin, usually as a Key of request attributes, and must include every attribute of the request that
+ * the result depends on. A cached result
+ * is returned as a copy for the new request, which the caller should send to its result processor so that audit
+ * events are generated as on a cache miss. Results are dropped whenever the version of policies, tags, roles, userstore
+ * or GDS info changes; the cache is inactive while any policy has conditions or validity schedules, any tag has
+ * validity periods, or any GDS object has conditions or validity schedules, as such results depend on the time and
+ * context of the request.
+ */
+public class RangerAccessResultCache<K> {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerAccessResultCache.class);
+
+    private final String           name;
+    private final RangerBasePlugin plugin;
+    private final int              maxSize;
+    private final LongAdder        hitCount          = new LongAdder();
+    private final LongAdder        missCount         = new LongAdder();
+    private final LongAdder        evictionCount     = new LongAdder();
+    private final LongAdder        invalidationCount = new LongAdder();
+
+    private volatile Results<K> results;
+    private volatile long[]     versions;
+
+    public RangerAccessResultCache(String name, RangerBasePlugin plugin, int maxSize) {
+        this.name    = name;
+        this.plugin  = plugin;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * To be called once for each authorization request; drops cached results if policies, tags, roles, userstore or
+     * GDS info have changed since the last call.
+     *
+     * @return results to use for the authorization request; null if the cache is inactive
+     */
+    public Results<K> getResults() {
+        long[] currentVersions = new long[] {plugin.getPoliciesVersion(), plugin.getTagsVersion(), plugin.getRolesVersion(), plugin.getUserStoreVersion(), plugin.getGdsVersion()};
+
+        if (!Arrays.equals(currentVersions, versions)) {
+            synchronized (this) {
+                if (!Arrays.equals(currentVersions, versions)) {
+                    boolean isActive = !plugin.hasContextDependentPolicies();
+
+                    // a new instance, so that results computed with earlier versions don't get into the cache
+                    results  = isActive ? new Results<>(this) : null;
+                    versions = currentVersions;
+
+                    invalidationCount.increment();
+
+                    LOG.info("{}: policy/tag/role/userstore/gds versions={}, cache is {}", name, Arrays.toString(currentVersions), isActive ? "active" : "inactive");
+                }
+            }
+        }
+
+        return results;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isActive() {
+        return results != null;
+    }
+
+    public int getSize() {
+        Results<K> results = this.results;
+
+        return results != null ? results.size() : 0;
+    }
+
+    /**
+     * @return results in use, without checking for version changes; null if the cache is inactive
+     */
+    protected Results<K> getCurrentResults() {
+        return results;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public double getHitRatio() {
+        long hits  = hitCount.sum();
+        long total = hits + missCount.sum();
+
+        return total > 0 ? ((double) hits) / total : 0;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    public static class Results<K> {
+        private final RangerAccessResultCache<K>                 cache;
+        private final ConcurrentHashMap<K, RangerAccessResult> entries = new ConcurrentHashMap<>();
+
+        Results(RangerAccessResultCache<K> cache) {
+            this.cache = cache;
+        }
+
+        /**
+         * @return copy of the cached result, for the given request; null if no result is cached for the key
+         */
+        public RangerAccessResult get(K key, RangerAccessRequest request) {
+            RangerAccessResult cached = entries.get(key);
+            RangerAccessResult ret    = null;
+
+            if (cached != null) {
+                ret = new RangerAccessResult(cached.getPolicyType(), cached.getServiceName(), cached.getServiceDef(), request);
+
+                ret.setAccessResultFrom(cached);
+                ret.setAuditResultFrom(cached);
+
+                cache.hitCount.increment();
+            } else {
+                cache.missCount.increment();
+            }
+
+            return ret;
+        }
+
+        /**
+         * Returns the cached result for the request, after sending it to the result processor for audit; on a miss, the
+         * request is evaluated by the given evaluator and its result is cached.
+         */
+        public RangerAccessResult getOrEvaluate(RangerAccessRequest request, K key, RangerAccessResultProcessor resultProcessor, Function<RangerAccessRequest, RangerAccessResult> evaluator) {
+            RangerAccessResult ret = get(key, request);
+
+            if (ret != null) {
+                if (resultProcessor != null) {
+                    resultProcessor.processResult(ret);
+                }
+            } else {
+                ret = evaluator.apply(request);
+
+                if (ret != null) {
+                    put(key, ret);
+                }
+            }
+
+            return ret;
+        }
+
+        /**
+         * Batch version of getOrEvaluate(): cached results are sent to the result processor in one call, and the requests
+         * not found in the cache are evaluated with one call to the evaluator.
+         *
+         * @param keys cache keys of the requests, in the same order
+         * @param evaluator returns results of the given requests, in the same order
+         * @return results in the order of the requests; null if the evaluator didn't return a result for each request
+         */
+        public List<RangerAccessResult> getOrEvaluate(List<? extends RangerAccessRequest> requests, List<K> keys, RangerAccessResultProcessor resultProcessor, Function<List<RangerAccessRequest>, Collection<RangerAccessResult>> evaluator) {
+            RangerAccessResult[]      ret         = new RangerAccessResult[requests.size()];
+            List<RangerAccessResult>  hits        = new ArrayList<>();
+            List<RangerAccessRequest> misses      = new ArrayList<>();
+            List<Integer>             missIndexes = new ArrayList<>();
+
+            for (int i = 0; i < ret.length; i++) {
+                RangerAccessRequest request = requests.get(i);
+
+                ret[i] = get(keys.get(i), request);
+
+                if (ret[i] != null) {
+                    hits.add(ret[i]);
+                } else {
+                    misses.add(request);
+                    missIndexes.add(i);
+                }
+            }
+
+            if (!hits.isEmpty() && resultProcessor != null) {
+                resultProcessor.processResults(hits);
+            }
+
+            if (!misses.isEmpty()) {
+                Collection<RangerAccessResult> results = evaluator.apply(misses);
+
+                if (results == null || results.size() != misses.size()) {
+                    return null;
+                }
+
+                int i = 0;
+
+                for (RangerAccessResult result : results) {
+                    int index = missIndexes.get(i++);
+
+                    ret[index] = result;
+
+                    if (result != null) {
+                        put(keys.get(index), result);
+                    }
+                }
+            }
+
+            return Arrays.asList(ret);
+        }
+
+        /**
+         * For callers that need only the decision, and don't send the result to a result processor.
+         *
+         * @return true if a result satisfying the given condition is cached for the key
+         */
+        public boolean isCached(K key, Predicate<RangerAccessResult> condition) {
+            RangerAccessResult cached = entries.get(key);
+            boolean            ret    = cached != null && condition.test(cached);
+
+            if (ret) {
+                cache.hitCount.increment();
+            } else {
+                cache.missCount.increment();
+            }
+
+            return ret;
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        public void put(K key, RangerAccessResult result) {
+            if (entries.size() >= cache.maxSize) {
+                int toEvict = Math.max(1, cache.maxSize / 10);
+
+                for (Iterator<K> iter = entries.keySet().iterator(); iter.hasNext() && toEvict > 0; toEvict--) {
+                    iter.next();
+                    iter.remove();
+
+                    cache.evictionCount.increment();
+                }
+            }
+
+            // keep a copy without the request, to not hold on to request contexts
+            RangerAccessResult toCache = new RangerAccessResult(result.getPolicyType(), result.getServiceName(), result.getServiceDef(), null);
+
+            toCache.setAccessResultFrom(result);
+            toCache.setAuditResultFrom(result);
+
+            entries.put(key, toCache);
+        }
+    }
+
+    /**
+     * Cache key composed of the request attributes that a result depends on, like user, groups, resource and access
+     * type. Values are compared in the given order, so callers put values that are cheap to compare, and likely to
+     * differ, before others like user groups.
+     */
+    public static final class Key {
+        private final Object[] values;
+        private final int      hashCode;
+
+        public Key(Object... values) {
+            this(Arrays.hashCode(values), values);
+        }
+
+        /**
+         * For callers that already have the hash code, or hash codes of expensive values like user groups: hashCode must
+         * be equal to Arrays.hashCode(values).
+         */
+        public Key(int hashCode, Object[] values) {
+            this.values   = values;
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return hashCode == other.hashCode && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public String toString() {
+            return "Key=" + Arrays.toString(values);
+        }
+    }
+}
@@ -41,8 +41,10 @@
 import org.apache.ranger.plugin.contextenricher.RangerUserStoreEnricher;
 import org.apache.ranger.plugin.model.RangerBaseModelObject;
 import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.model.RangerTag;
 import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
@@ -63,6 +65,7 @@
 import org.apache.ranger.plugin.util.GrantRevokeRoleRequest;
 import org.apache.ranger.plugin.util.PerfDataRecorder;
 import org.apache.ranger.plugin.util.PolicyRefresher;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerPolicyDeltaUtil;
 import org.apache.ranger.plugin.util.RangerRoles;
 import org.apache.ranger.plugin.util.RangerRolesUtil;
@@ -87,6 +90,12 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class RangerBasePlugin {
     private static final Logger LOG = LoggerFactory.getLogger(RangerBasePlugin.class);
@@ -98,6 +107,8 @@ public class RangerBasePlugin {
     private final DownloadTrigger           accessTrigger  = new DownloadTrigger();
     private final List<RangerChainedPlugin> chainedPlugins;
     private final boolean                   dedupStrings;
+    private final int                       bulkEvalThreads;
+    private final int                       bulkEvalParallelMinSize;
 
     private volatile RangerPolicyEngine  policyEngine;
     private volatile RangerAuthContext   currentAuthContext;
@@ -108,6 +119,7 @@ public class RangerBasePlugin {
     private RangerAccessResultProcessor resultProcessor;
     private boolean                     isUserStoreEnricherAddedImplcitly;
     private boolean                     synchronousPolicyRefresh;
+    private volatile ExecutorService    bulkEvalExecutor;
 
     public RangerBasePlugin(String serviceType, String appId) {
         this(new RangerPluginConfig(serviceType, null, appId, null, null, null));
@@ -198,8 +210,10 @@ public RangerBasePlugin(RangerPluginConfig pluginConfig) {
 
         RangerRequestScriptEvaluator.init(pluginConfig);
 
-        this.dedupStrings   = pluginConfig.getBoolean(pluginConfig.getPropertyPrefix() + ".dedup.strings", true);
-        this.chainedPlugins = initChainedPlugins();
+        this.dedupStrings            = pluginConfig.getBoolean(pluginConfig.getPropertyPrefix() + ".dedup.strings", true);
+        this.bulkEvalThreads         = pluginConfig.getInt(pluginConfig.getPropertyPrefix() + ".bulk.eval.threads", Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.bulkEvalParallelMinSize = pluginConfig.getInt(pluginConfig.getPropertyPrefix() + ".bulk.eval.parallel.min.size", 1000);
+        this.chainedPlugins          = initChainedPlugins();
     }
 
     public RangerBasePlugin(RangerPluginConfig pluginConfig, ServicePolicies policies, ServiceTags tags, RangerRoles roles) {
@@ -449,6 +463,14 @@ public long getUserStoreVersion() {
         return ret != null ? ret : -1L;
     }
 
+    public long getGdsVersion() {
+        GdsPolicyEngine gdsPolicyEngine = getGdsPolicyEngine();
+        ServiceGdsInfo  gdsInfo         = gdsPolicyEngine != null ? gdsPolicyEngine.getGdsInfo() : null;
+        Long            ret             = gdsInfo != null ? gdsInfo.getGdsVersion() : null;
+
+        return ret != null ? ret : -1L;
+    }
+
     public void setPolicies(ServicePolicies policies) {
         LOG.debug("==> setPolicies({})", policies);
 
@@ -644,6 +666,13 @@ public void cleanup() {
         if (policyEngine != null) {
             ((RangerPolicyEngineImpl) policyEngine).releaseResources(true);
         }
+
+        ExecutorService bulkEvalExecutor = this.bulkEvalExecutor;
+        this.bulkEvalExecutor = null;
+
+        if (bulkEvalExecutor != null) {
+            bulkEvalExecutor.shutdownNow();
+        }
     }
 
     public RangerAccessResultProcessor getResultProcessor() {
@@ -667,9 +696,103 @@ public RangerAccessResult isAccessAllowed(RangerAccessRequest request, RangerAcc
             refreshPoliciesAndTags();
         }
 
-        RangerAccessResult ret          = null;
+        RangerAccessResult ret = evalAccess(request, this.policyEngine);
+
+        if (resultProcessor != null) {
+            resultProcessor.processResult(ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the objects to which access is allowed, as per requests created for each object by requestMapper;
+     * objects for which requestMapper returns null are excluded. Intended to filter long lists of objects for a user,
+     * like tables and databases listed by metadata operations. User, groups and roles are resolved once for the list,
+     * instead of once per object. Large lists are evaluated in parallel, in bulk.eval.threads threads. Results are
+     * sent to resultProcessor.processResults(), in the order of objects, which can summarize the audit logs.
+     */
+    public <T> List<T> filterAccessAllowed(List<T> objects, Function<T, RangerAccessRequest> requestMapper, RangerAccessResultProcessor resultProcessor) {
+        LOG.debug("==> RangerBasePlugin.filterAccessAllowed(objects.size={})", objects != null ? objects.size() : 0);
+
+        if (this.synchronousPolicyRefresh) {
+            refreshPoliciesAndTags();
+        }
+
+        List<T>            ret          = new ArrayList<>();
         RangerPolicyEngine policyEngine = this.policyEngine;
 
+        if (objects != null && !objects.isEmpty()) {
+            List<T>                   mappedObjects = new ArrayList<>(objects.size());
+            List<RangerAccessRequest> requests      = new ArrayList<>(objects.size());
+
+            for (T object : objects) {
+                RangerAccessRequest request = requestMapper.apply(object);
+
+                if (request != null) {
+                    mappedObjects.add(object);
+                    requests.add(request);
+                }
+            }
+
+            RangerAccessResult[] results = new RangerAccessResult[requests.size()];
+
+            if (results.length > 0) {
+                RangerAccessRequest firstRequest = requests.get(0);
+                String              user         = firstRequest.getUser();
+                Set<String>         groups       = firstRequest.getUserGroups();
+
+                results[0] = evalAccess(firstRequest, policyEngine);
+
+                // share user, groups and roles resolved while evaluating the first request with other requests for the same user
+                for (int i = 1; i < results.length; i++) {
+                    RangerAccessRequest request = requests.get(i);
+
+                    if (request instanceof RangerAccessRequestImpl && Objects.equals(user, request.getUser()) && Objects.equals(groups, request.getUserGroups())) {
+                        RangerAccessRequestImpl reqImpl = (RangerAccessRequestImpl) request;
+
+                        reqImpl.setUser(firstRequest.getUser());
+                        reqImpl.setUserGroups(firstRequest.getUserGroups());
+                        reqImpl.setClusterName(firstRequest.getClusterName());
+                        reqImpl.setClusterType(firstRequest.getClusterType());
+
+                        if (CollectionUtils.isEmpty(reqImpl.getUserRoles())) {
+                            reqImpl.setUserRoles(firstRequest.getUserRoles());
+                        }
+
+                        RangerAccessRequestUtil.setIsPrincipalResolved(reqImpl.getContext(), Boolean.TRUE);
+                    }
+                }
+
+                evalAccess(requests, results, policyEngine);
+            }
+
+            List<RangerAccessResult> processedResults = new ArrayList<>(results.length);
+
+            for (int i = 0; i < results.length; i++) {
+                RangerAccessResult result = results[i];
+
+                if (result != null) {
+                    processedResults.add(result);
+
+                    if (result.getIsAllowed()) {
+                        ret.add(mappedObjects.get(i));
+                    }
+                }
+            }
+
+            if (resultProcessor != null && !processedResults.isEmpty()) {
+                resultProcessor.processResults(processedResults);
+            }
+        }
+
+        LOG.debug("<== RangerBasePlugin.filterAccessAllowed(objects.size={}): ret.size={}", objects != null ? objects.size() : 0, ret.size());
+
+        return ret;
+    }
+
+    private RangerAccessResult evalAccess(RangerAccessRequest request, RangerPolicyEngine policyEngine) {
+        RangerAccessResult ret = null;
+
         if (policyEngine != null) {
             ret = policyEngine.evaluatePolicies(request, RangerPolicy.POLICY_TYPE_ACCESS, null);
         }
@@ -701,9 +824,75 @@ public RangerAccessResult isAccessAllowed(RangerAccessRequest request, RangerAcc
             policyEngine.evaluateAuditPolicies(ret);
         }
 
-        if (resultProcessor != null) {
-            resultProcessor.processResult(ret);
+        return ret;
+    }
+
+    private void evalAccess(List<RangerAccessRequest> requests, RangerAccessResult[] results, RangerPolicyEngine policyEngine) {
+        ExecutorService executor  = getBulkEvalExecutor();
+        int             remaining = requests.size() - 1; // first request is already evaluated
+
+        if (executor == null || remaining < bulkEvalParallelMinSize) {
+            for (int i = 1; i < results.length; i++) {
+                results[i] = evalAccess(requests.get(i), policyEngine);
+            }
+        } else {
+            int             batchSize = (remaining + bulkEvalThreads - 1) / bulkEvalThreads;
+            List<Future<?>> futures   = new ArrayList<>(bulkEvalThreads);
+
+            for (int from = 1; from < results.length; from += batchSize) {
+                final int batchFrom = from;
+                final int batchTo   = Math.min(from + batchSize, results.length);
+
+                futures.add(executor.submit(() -> {
+                    for (int i = batchFrom; i < batchTo; i++) {
+                        results[i] = evalAccess(requests.get(i), policyEngine);
+                    }
+                }));
+            }
+
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException excp) {
+                LOG.warn("RangerBasePlugin.evalAccess(): interrupted while evaluating {} requests; requests not evaluated will be denied", requests.size());
+
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException excp) {
+                Throwable cause = excp.getCause();
+
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+            }
         }
+    }
+
+    private ExecutorService getBulkEvalExecutor() {
+        ExecutorService ret = bulkEvalExecutor;
+
+        if (ret == null && bulkEvalThreads > 1) {
+            synchronized (this) {
+                ret = bulkEvalExecutor;
+
+                if (ret == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+
+                    ret = Executors.newFixedThreadPool(bulkEvalThreads, r -> {
+                        Thread t = new Thread(r, "RangerBulkEval-" + getServiceName() + "-" + threadCount.incrementAndGet());
+
+                        t.setDaemon(true);
+
+                        return t;
+                    });
+
+                    bulkEvalExecutor = ret;
+                }
+            }
+        }
+
         return ret;
     }
 
@@ -1229,6 +1418,120 @@ public Long getPolicyVersion() {
         return policyEngine == null ? -1L : policyEngine.getPolicyVersion();
     }
 
+    /**
+     * @return true if decisions can depend on more than user, groups, resource and access, i.e. on time or context of
+     *         the request: when a policy has conditions or validity schedules, or a tag has validity periods
+     */
+    public boolean hasContextDependentPolicies() {
+        RangerPolicyEngine policyEngine = this.policyEngine;
+
+        if (policyEngine == null) {
+            return false;
+        }
+
+        List<RangerPolicy> policies = new ArrayList<>();
+
+        addAll(policies, policyEngine.getResourcePolicies());
+        addAll(policies, policyEngine.getTagPolicies());
+
+        if (policyEngine instanceof RangerPolicyEngineImpl) {
+            for (String zoneName : ((RangerPolicyEngineImpl) policyEngine).getPolicyEngine().getZonePolicyRepositories().keySet()) {
+                addAll(policies, policyEngine.getResourcePolicies(zoneName));
+            }
+        }
+
+        for (RangerPolicy policy : policies) {
+            if (hasConditions(policy)) {
+                LOG.debug("hasContextDependentPolicies(): policy id={} has conditions or validity schedules", policy.getId());
+
+                return true;
+            }
+        }
+
+        RangerTagEnricher                     tagEnricher  = getTagEnricher();
+        RangerTagEnricher.EnrichedServiceTags enrichedTags = tagEnricher != null ? tagEnricher.getEnrichedServiceTags() : null;
+        ServiceTags                           serviceTags  = enrichedTags != null ? enrichedTags.getServiceTags() : null;
+
+        if (serviceTags != null && serviceTags.getTags() != null) {
+            for (RangerTag tag : serviceTags.getTags().values()) {
+                if (CollectionUtils.isNotEmpty(tag.getValidityPeriods())) {
+                    LOG.debug("hasContextDependentPolicies(): tag id={} has validity periods", tag.getId());
+
+                    return true;
+                }
+            }
+        }
+
+        GdsPolicyEngine gdsPolicyEngine = getGdsPolicyEngine();
+        ServiceGdsInfo  gdsInfo         = gdsPolicyEngine != null ? gdsPolicyEngine.getGdsInfo() : null;
+
+        if (gdsInfo != null && hasConditions(gdsInfo)) {
+            LOG.debug("hasContextDependentPolicies(): GDS info version={} has conditions or validity schedules", gdsInfo.getGdsVersion());
+
+            return true;
+        }
+
+        return false;
+    }
+
+    protected static boolean hasConditions(ServiceGdsInfo gdsInfo) {
+        if (gdsInfo.getDataShares() != null) {
+            for (ServiceGdsInfo.DataShareInfo dataShare : gdsInfo.getDataShares()) {
+                if (StringUtils.isNotBlank(dataShare.getConditionExpr())) {
+                    return true;
+                }
+            }
+        }
+
+        if (gdsInfo.getResources() != null) {
+            for (ServiceGdsInfo.SharedResourceInfo resource : gdsInfo.getResources()) {
+                if (StringUtils.isNotBlank(resource.getConditionExpr())) {
+                    return true;
+                }
+            }
+        }
+
+        if (gdsInfo.getDatasets() != null) {
+            for (ServiceGdsInfo.DatasetInfo dataset : gdsInfo.getDatasets()) {
+                if (dataset.getValiditySchedule() != null || anyHasConditions(dataset.getPolicies())) {
+                    return true;
+                }
+            }
+        }
+
+        if (gdsInfo.getProjects() != null) {
+            for (ServiceGdsInfo.ProjectInfo project : gdsInfo.getProjects()) {
+                if (project.getValiditySchedule() != null || anyHasConditions(project.getPolicies())) {
+                    return true;
+                }
+            }
+        }
+
+        if (gdsInfo.getDshids() != null) {
+            for (ServiceGdsInfo.DataShareInDatasetInfo dshid : gdsInfo.getDshids()) {
+                if (dshid.getValiditySchedule() != null) {
+                    return true;
+                }
+            }
+        }
+
+        if (gdsInfo.getDips() != null) {
+            for (ServiceGdsInfo.DatasetInProjectInfo dip : gdsInfo.getDips()) {
+                if (dip.getValiditySchedule() != null) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    protected static boolean hasConditions(RangerPolicy policy) {
+        return CollectionUtils.isNotEmpty(policy.getConditions()) || CollectionUtils.isNotEmpty(policy.getValiditySchedules()) ||
+                hasConditions(policy.getPolicyItems()) || hasConditions(policy.getDenyPolicyItems()) ||
+                hasConditions(policy.getAllowExceptions()) || hasConditions(policy.getDenyExceptions());
+    }
+
     protected RangerPolicyEngine getPolicyEngine() {
         return policyEngine;
     }
@@ -1473,6 +1776,36 @@ private static void overrideACLs(final RangerResourceACLs chainedResourceACLs, R
         LOG.debug("<== RangerBasePlugin.mergeACLsOneWay(isUser={})", userType.name());
     }
 
+    private static boolean anyHasConditions(List<RangerPolicy> policies) {
+        if (policies != null) {
+            for (RangerPolicy policy : policies) {
+                if (hasConditions(policy)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasConditions(List<RangerPolicyItem> policyItems) {
+        if (policyItems != null) {
+            for (RangerPolicyItem policyItem : policyItems) {
+                if (CollectionUtils.isNotEmpty(policyItem.getConditions())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static void addAll(List<RangerPolicy> policies, List<RangerPolicy> toAdd) {
+        if (toAdd != null) {
+            policies.addAll(toAdd);
+        }
+    }
+
     private static AuditProviderFactory getAuditProviderFactory(String serviceName) {
         AuditProviderFactory ret = AuditProviderFactory.getInstance();
 
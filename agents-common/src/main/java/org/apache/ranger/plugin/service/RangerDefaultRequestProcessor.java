@@ -94,7 +94,8 @@ public void preProcess(RangerAccessRequest request) {
                 reqImpl.extractAndSetClientIPAddress(policyEngine.getUseForwardedIPAddress(), policyEngine.getTrustedProxyAddresses());
             }
 
-            if (pluginContext != null) {
+            // user, groups and roles are already resolved for requests in a bulk evaluation, except the first one
+            if (pluginContext != null && !RangerAccessRequestUtil.getIsPrincipalResolved(request.getContext())) {
                 if (reqImpl.getClusterName() == null) {
                     reqImpl.setClusterName(pluginContext.getClusterName());
                 }
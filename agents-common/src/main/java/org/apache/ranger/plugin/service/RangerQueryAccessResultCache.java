@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.service;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of Ranger results scoped to a query, for query engine plugins: repeated checks made while planning a query,
+ * like the same table being checked for each reference in the plan, are evaluated once. Each query has its own
+ * results, which are not used for other queries, and which are dropped as a whole when the query completes or when
+ * it is older than the TTL - whichever comes first. maxSize limits the number of results cached for a query.
+ */
+public class RangerQueryAccessResultCache extends RangerAccessResultCache<RangerAccessResultCache.Key> {
+    private static final long MAX_PURGE_INTERVAL_MS = 10 * 1000L;
+
+    private final long                      ttlMs;
+    private final long                      purgeIntervalMs;
+    private final Map<String, QueryResults> queryResults  = new ConcurrentHashMap<>();
+    private final AtomicLong                nextPurgeTime = new AtomicLong();
+
+    public RangerQueryAccessResultCache(String name, RangerBasePlugin plugin, int maxSize, long ttlMs) {
+        super(name, plugin, maxSize);
+
+        this.ttlMs           = Math.max(1, ttlMs);
+        this.purgeIntervalMs = Math.min(this.ttlMs, MAX_PURGE_INTERVAL_MS);
+    }
+
+    /**
+     * To be called once for each authorization request made in the given query; starts the TTL of the query on its
+     * first call, and drops results of queries whose TTL has passed.
+     *
+     * @return results of the query; null if the cache is inactive, or if the request is not made in a query
+     */
+    public Results<Key> getResults(String queryId) {
+        Results<Key> current = getResults(); // replaced when policies, tags, roles, userstore or GDS info change
+
+        if (current == null || queryId == null) {
+            return null;
+        }
+
+        long         now   = System.currentTimeMillis();
+        QueryResults query = queryResults.get(queryId);
+
+        if (query == null || query.generation != current) {
+            query = queryResults.compute(queryId, (id, existing) -> {
+                if (existing != null && existing.generation == current) {
+                    return existing;
+                }
+
+                return new QueryResults(current, new Results<>(this), existing != null ? existing.expiryTime : now + ttlMs);
+            });
+        }
+
+        long purgeTime = nextPurgeTime.get();
+
+        if (now >= purgeTime && nextPurgeTime.compareAndSet(purgeTime, now + purgeIntervalMs)) {
+            purgeExpiredQueries(now);
+        }
+
+        return query.results;
+    }
+
+    /**
+     * Drops results of the given query; to be called when the query completes.
+     */
+    public void queryCompleted(String queryId) {
+        if (queryId != null) {
+            queryResults.remove(queryId);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        Results<Key> current = getCurrentResults();
+        int          ret     = 0;
+
+        for (QueryResults query : queryResults.values()) {
+            if (query.generation == current) {
+                ret += query.results.size();
+            }
+        }
+
+        return ret;
+    }
+
+    public int getQueryCount() {
+        return queryResults.size();
+    }
+
+    /**
+     * @return key for the request, within results of its query
+     */
+    public static Key getKey(RangerAccessRequest request) {
+        return new Key(request.getAccessType(), request.getResource().getAsMap(), request.getUser(), request.getUserGroups());
+    }
+
+    protected void purgeExpiredQueries(long now) {
+        queryResults.values().removeIf(query -> query.expiryTime <= now);
+    }
+
+    private static final class QueryResults {
+        final Results<Key> generation;
+        final Results<Key> results;
+        final long         expiryTime;
+
+        QueryResults(Results<Key> generation, Results<Key> results, long expiryTime) {
+            this.generation = generation;
+            this.results    = results;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
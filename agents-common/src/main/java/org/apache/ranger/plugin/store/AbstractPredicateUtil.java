@@ -29,6 +29,7 @@
 import org.apache.ranger.plugin.model.RangerBaseModelObject;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
 import org.apache.ranger.plugin.model.RangerSecurityZone;
 import org.apache.ranger.plugin.model.RangerService;
@@ -184,6 +185,7 @@ public void addPredicates(SearchFilter filter, List<Predicate> predicates) {
         addPredicateForRoleName(filter.getParam(SearchFilter.ROLE), predicates);
         addPredicateForResources(filter.getParamsWithPrefix(SearchFilter.RESOURCE_PREFIX, true), predicates);
         addPredicateForPolicyResource(filter.getParam(SearchFilter.POL_RESOURCE), predicates);
+        addPredicateForAccessType(filter.getParam(SearchFilter.ACCESS_TYPE), predicates);
         addPredicateForPartialPolicyName(filter.getParam(SearchFilter.POLICY_NAME_PARTIAL), predicates);
         addPredicateForResourceSignature(filter.getParam(SearchFilter.RESOURCE_SIGNATURE), predicates);
         addPredicateForPolicyType(filter.getParam(SearchFilter.POLICY_TYPE), predicates);
@@ -751,6 +753,64 @@ private Predicate addPredicateForPolicyResource(final String resourceValue, List
         return ret;
     }
 
+    private Predicate addPredicateForAccessType(final String accessType, List<Predicate> predicates) {
+        if (StringUtils.isEmpty(accessType)) {
+            return null;
+        }
+
+        Predicate ret = object -> {
+            if (object == null) {
+                return false;
+            }
+
+            boolean ret1 = false;
+
+            if (object instanceof RangerPolicy) {
+                RangerPolicy policy = (RangerPolicy) object;
+
+                List<?>[] policyItemsList = new List<?>[] {policy.getPolicyItems(),
+                        policy.getDenyPolicyItems(),
+                        policy.getAllowExceptions(),
+                        policy.getDenyExceptions(),
+                        policy.getDataMaskPolicyItems(),
+                        policy.getRowFilterPolicyItems()
+                };
+
+                for (List<?> policyItemsObj : policyItemsList) {
+                    @SuppressWarnings("unchecked")
+                    List<RangerPolicyItem> policyItems = (List<RangerPolicyItem>) policyItemsObj;
+
+                    for (RangerPolicyItem policyItem : policyItems) {
+                        for (RangerPolicyItemAccess access : policyItem.getAccesses()) {
+                            if (StringUtils.equalsIgnoreCase(access.getType(), accessType)) {
+                                ret1 = true;
+                                break;
+                            }
+                        }
+
+                        if (ret1) {
+                            break;
+                        }
+                    }
+
+                    if (ret1) {
+                        break;
+                    }
+                }
+            } else {
+                ret1 = true;
+            }
+
+            return ret1;
+        };
+
+        if (predicates != null) {
+            predicates.add(ret);
+        }
+
+        return ret;
+    }
+
     private Predicate addPredicateForIsRecursive(final String isRecursiveStr, List<Predicate> predicates) {
         if (StringUtils.isEmpty(isRecursiveStr)) {
             return null;
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.store;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.util.SearchFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the policies of a service, used to narrow down the policies to be evaluated by
+ * AbstractPredicateUtil for a search. Postings are kept as bitsets over the position of policies in the source list,
+ * so that candidates are returned in the same order as the source.
+ *
+ * The candidates returned by getCandidates() are a superset of policies matching the filter; callers must still apply
+ * the filter on the candidates. An index is built for a specific version of the policies and must not be used once
+ * the policies change - see isFor().
+ */
+public class RangerPolicySearchIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerPolicySearchIndex.class);
+
+    private final Long                             policyVersion;
+    private final List<RangerPolicy>               policies;
+    private final List<RangerPolicy>               source;
+    private final TreeMap<String, BitSet>          users          = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet>          groups         = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet>          roles          = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet>          labels         = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet>          accessTypes    = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet>          resourceValues = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Map<String, BitSet>> resourceValuesByName     = new HashMap<>();
+    private final Map<String, BitSet>              wildcardPoliciesByName   = new HashMap<>();
+
+    public RangerPolicySearchIndex(Long policyVersion, List<RangerPolicy> policies) {
+        LOG.debug("==> RangerPolicySearchIndex(policyVersion={}, policyCount={})", policyVersion, policies == null ? 0 : policies.size());
+
+        this.policyVersion = policyVersion;
+        this.source        = policies;
+        this.policies      = policies == null ? new ArrayList<>() : new ArrayList<>(policies);
+
+        for (int i = 0; i < this.policies.size(); i++) {
+            index(i, this.policies.get(i));
+        }
+
+        LOG.debug("<== RangerPolicySearchIndex(policyVersion={}): users={}, groups={}, roles={}, labels={}, accessTypes={}, resourceValues={}", policyVersion, users.size(), groups.size(), roles.size(), labels.size(), accessTypes.size(), resourceValues.size());
+    }
+
+    public Long getPolicyVersion() {
+        return policyVersion;
+    }
+
+    public int getPolicyCount() {
+        return policies.size();
+    }
+
+    /**
+     * @return true if this index was built from the given policies
+     */
+    public boolean isFor(Long policyVersion, List<RangerPolicy> policies) {
+        return Objects.equals(this.policyVersion, policyVersion) && this.source == policies;
+    }
+
+    /**
+     * @return true if the filter has at least one parameter that can be looked up in the index
+     */
+    public static boolean isIndexedSearch(SearchFilter filter) {
+        return filter != null && (StringUtils.isNotEmpty(filter.getParam(SearchFilter.USER)) ||
+                StringUtils.isNotEmpty(filter.getParam(SearchFilter.GROUP)) ||
+                StringUtils.isNotEmpty(filter.getParam(SearchFilter.ROLE)) ||
+                StringUtils.isNotEmpty(filter.getParam(SearchFilter.POLICY_LABELS_PARTIAL)) ||
+                StringUtils.isNotEmpty(filter.getParam(SearchFilter.ACCESS_TYPE)) ||
+                StringUtils.isNotEmpty(filter.getParam(SearchFilter.POL_RESOURCE)) ||
+                MapUtils.isNotEmpty(filter.getParamsWithPrefix(SearchFilter.RESOURCE_PREFIX, true)));
+    }
+
+    /**
+     * @return policies that may match the filter, in the order of the policies the index was built from
+     */
+    public List<RangerPolicy> getCandidates(SearchFilter filter) {
+        LOG.debug("==> RangerPolicySearchIndex.getCandidates({})", filter);
+
+        final List<RangerPolicy> ret;
+        BitSet                   matches = null;
+
+        if (filter != null) {
+            matches = intersect(matches, findContaining(users, filter.getParam(SearchFilter.USER)));
+            matches = intersect(matches, findContaining(groups, filter.getParam(SearchFilter.GROUP)));
+            matches = intersect(matches, findContaining(roles, filter.getParam(SearchFilter.ROLE)));
+            matches = intersect(matches, findContaining(labels, filter.getParam(SearchFilter.POLICY_LABELS_PARTIAL)));
+            matches = intersect(matches, findContaining(resourceValues, filter.getParam(SearchFilter.POL_RESOURCE)));
+
+            String accessType = filter.getParam(SearchFilter.ACCESS_TYPE);
+
+            if (StringUtils.isNotEmpty(accessType)) {
+                BitSet postings = accessTypes.get(accessType);
+
+                matches = intersect(matches, postings != null ? postings : new BitSet());
+            }
+
+            Map<String, String> resources = filter.getParamsWithPrefix(SearchFilter.RESOURCE_PREFIX, true);
+
+            if (MapUtils.isNotEmpty(resources)) {
+                for (Map.Entry<String, String> entry : resources.entrySet()) {
+                    matches = intersect(matches, findResource(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+
+        if (matches == null) {
+            ret = new ArrayList<>(policies);
+        } else {
+            ret = new ArrayList<>(matches.cardinality());
+
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                ret.add(policies.get(i));
+            }
+        }
+
+        LOG.debug("<== RangerPolicySearchIndex.getCandidates({}): policyCount={}, candidateCount={}", filter, policies.size(), ret.size());
+
+        return ret;
+    }
+
+    private void index(int idx, RangerPolicy policy) {
+        if (policy == null) {
+            return;
+        }
+
+        indexPolicyItems(idx, policy.getPolicyItems());
+        indexPolicyItems(idx, policy.getDenyPolicyItems());
+        indexPolicyItems(idx, policy.getAllowExceptions());
+        indexPolicyItems(idx, policy.getDenyExceptions());
+        indexPolicyItems(idx, policy.getDataMaskPolicyItems());
+        indexPolicyItems(idx, policy.getRowFilterPolicyItems());
+
+        if (policy.getPolicyLabels() != null) {
+            for (String label : policy.getPolicyLabels()) {
+                addPosting(labels, label, idx);
+            }
+        }
+
+        if (MapUtils.isNotEmpty(policy.getResources())) {
+            for (Map.Entry<String, RangerPolicyResource> entry : policy.getResources().entrySet()) {
+                String               resourceName   = entry.getKey();
+                RangerPolicyResource policyResource = entry.getValue();
+
+                if (policyResource == null || CollectionUtils.isEmpty(policyResource.getValues())) {
+                    continue;
+                }
+
+                Map<String, BitSet> valuePostings = resourceValuesByName.computeIfAbsent(resourceName, k -> new HashMap<>());
+
+                for (String value : policyResource.getValues()) {
+                    if (value == null) {
+                        continue;
+                    }
+
+                    addPosting(resourceValues, value, idx);
+
+                    valuePostings.computeIfAbsent(value, k -> new BitSet()).set(idx);
+
+                    if (hasWildcard(value)) {
+                        wildcardPoliciesByName.computeIfAbsent(resourceName, k -> new BitSet()).set(idx);
+                    }
+                }
+            }
+        }
+    }
+
+    private void indexPolicyItems(int idx, List<? extends RangerPolicyItem> policyItems) {
+        if (policyItems == null) {
+            return;
+        }
+
+        for (RangerPolicyItem policyItem : policyItems) {
+            if (policyItem == null) {
+                continue;
+            }
+
+            addPostings(users, policyItem.getUsers(), idx);
+            addPostings(groups, policyItem.getGroups(), idx);
+            addPostings(roles, policyItem.getRoles(), idx);
+
+            if (policyItem.getAccesses() != null) {
+                for (RangerPolicyItemAccess access : policyItem.getAccesses()) {
+                    if (access != null) {
+                        addPosting(accessTypes, access.getType(), idx);
+                    }
+                }
+            }
+        }
+    }
+
+    // same semantics as AbstractPredicateUtil: exact value match, or a policy value with wildcards that matches
+    private BitSet findResource(String resourceName, String value) {
+        BitSet              ret           = new BitSet();
+        Map<String, BitSet> valuePostings = resourceValuesByName.get(resourceName);
+
+        if (valuePostings != null) {
+            BitSet exact = valuePostings.get(value);
+
+            if (exact != null) {
+                ret.or(exact);
+            }
+        }
+
+        BitSet wildcards = wildcardPoliciesByName.get(resourceName);
+
+        if (wildcards != null) {
+            ret.or(wildcards);
+        }
+
+        return ret;
+    }
+
+    private static BitSet findContaining(TreeMap<String, BitSet> postings, String value) {
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+
+        BitSet ret = new BitSet();
+
+        for (Map.Entry<String, BitSet> entry : postings.entrySet()) {
+            if (StringUtils.containsIgnoreCase(entry.getKey(), value)) {
+                ret.or(entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    private static BitSet intersect(BitSet matches, BitSet postings) {
+        if (postings == null) {
+            return matches;
+        } else if (matches == null) {
+            return (BitSet) postings.clone();
+        }
+
+        matches.and(postings);
+
+        return matches;
+    }
+
+    private static void addPostings(TreeMap<String, BitSet> postings, Collection<String> keys, int idx) {
+        if (keys != null) {
+            for (String key : keys) {
+                addPosting(postings, key, idx);
+            }
+        }
+    }
+
+    private static void addPosting(TreeMap<String, BitSet> postings, String key, int idx) {
+        if (key != null) {
+            postings.computeIfAbsent(key, k -> new BitSet()).set(idx);
+        }
+    }
+
+    private static boolean hasWildcard(String value) {
+        return value.indexOf('*') != -1 || value.indexOf('?') != -1;
+    }
+}
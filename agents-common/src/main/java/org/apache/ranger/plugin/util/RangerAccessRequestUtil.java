@@ -57,6 +57,7 @@ public class RangerAccessRequestUtil {
     public static final  String KEY_CONTEXT_REQUEST                          = "_REQUEST";
     public static final  String KEY_CONTEXT_GDS_RESULT                       = "_GDS_RESULT";
     public static final  String KEY_CONTEXT_IS_REQUEST_PREPROCESSED          = "ISREQUESTPREPROCESSED";
+    public static final  String KEY_CONTEXT_IS_PRINCIPAL_RESOLVED            = "ISPRINCIPALRESOLVED";
     public static final  String KEY_CONTEXT_RESOURCE_ZONE_NAMES              = "RESOURCE_ZONE_NAMES";
     public static final  String KEY_CONTEXT_ACL_ENFORCER                     = "_ACL_ENFORCER";
 
@@ -153,6 +154,7 @@ public static Map<String, Object> copyContext(Map<String, Object> context) {
             ret.remove(KEY_CONTEXT_ALL_ACCESS_TYPE_RESULTS);
             ret.remove(KEY_CONTEXT_ALL_ACCESS_TYPE_ACL_RESULTS);
             ret.remove(KEY_CONTEXT_IS_REQUEST_PREPROCESSED);
+            ret.remove(KEY_CONTEXT_IS_PRINCIPAL_RESOLVED);
             ret.remove(KEY_CONTEXT_IGNORE_IF_NOT_DENIED_ACCESSTYPES);
             // don't remove REQUESTED_RESOURCES
         }
@@ -239,6 +241,15 @@ public static boolean getIsRequestPreprocessed(Map<String, Object> context) {
         return value != null && value;
     }
 
+    public static void setIsPrincipalResolved(Map<String, Object> context, Boolean value) {
+        context.put(KEY_CONTEXT_IS_PRINCIPAL_RESOLVED, value);
+    }
+
+    public static boolean getIsPrincipalResolved(Map<String, Object> context) {
+        Boolean value = (Boolean) context.get(KEY_CONTEXT_IS_PRINCIPAL_RESOLVED);
+        return value != null && value;
+    }
+
     public static void setAllRequestedAccessTypes(Map<String, Object> context, Set<String> accessTypes) {
         context.put(KEY_CONTEXT_ALL_ACCESSTYPES, accessTypes);
     }
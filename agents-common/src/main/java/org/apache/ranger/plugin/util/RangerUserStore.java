@@ -50,6 +50,10 @@ public class RangerUserStore implements Serializable {
     private Map<String, Set<String>>         userGroupMapping;
     private Map<String, String>              userCloudIdMapping;
     private Map<String, String>              groupCloudIdMapping;
+    private Boolean                          isDelta;
+    private Set<String>                      deletedUserAttrMappings;
+    private Set<String>                      deletedGroupAttrMappings;
+    private Set<String>                      deletedUserGroupMappings;
 
     public RangerUserStore() {
         this(-1L, null, null, null);
@@ -118,6 +122,47 @@ public void setGroupCloudIdMapping(Map<String, String> groupCloudIdMapping) {
         this.groupCloudIdMapping = groupCloudIdMapping;
     }
 
+    public Boolean getIsDelta() {
+        return isDelta == null ? Boolean.FALSE : isDelta;
+    }
+
+    public void setIsDelta(Boolean isDelta) {
+        this.isDelta = isDelta;
+    }
+
+    /**
+     * In a delta, names of users to be removed from userAttrMapping: deleted users and users without attributes
+     */
+    public Set<String> getDeletedUserAttrMappings() {
+        return deletedUserAttrMappings;
+    }
+
+    public void setDeletedUserAttrMappings(Set<String> deletedUserAttrMappings) {
+        this.deletedUserAttrMappings = deletedUserAttrMappings;
+    }
+
+    /**
+     * In a delta, names of groups to be removed from groupAttrMapping: deleted groups and groups without attributes
+     */
+    public Set<String> getDeletedGroupAttrMappings() {
+        return deletedGroupAttrMappings;
+    }
+
+    public void setDeletedGroupAttrMappings(Set<String> deletedGroupAttrMappings) {
+        this.deletedGroupAttrMappings = deletedGroupAttrMappings;
+    }
+
+    /**
+     * In a delta, names of users to be removed from userGroupMapping: deleted users and users not in any group
+     */
+    public Set<String> getDeletedUserGroupMappings() {
+        return deletedUserGroupMappings;
+    }
+
+    public void setDeletedUserGroupMappings(Set<String> deletedUserGroupMappings) {
+        this.deletedUserGroupMappings = deletedUserGroupMappings;
+    }
+
     public void dedupStrings() {
         Map<String, String> strTbl = new HashMap<>();
 
@@ -140,7 +185,8 @@ public String toString() {
     public StringBuilder toString(StringBuilder sb) {
         sb.append("RangerUserStore={")
                 .append("userStoreVersion=").append(userStoreVersion).append(", ")
-                .append("userStoreUpdateTime=").append(userStoreUpdateTime).append(", ");
+                .append("userStoreUpdateTime=").append(userStoreUpdateTime).append(", ")
+                .append("isDelta=").append(isDelta).append(", ");
 
         sb.append("users={");
         if (MapUtils.isNotEmpty(userAttrMapping)) {
@@ -175,6 +221,12 @@ public StringBuilder toString(StringBuilder sb) {
         }
         sb.append("}");
 
+        if (Boolean.TRUE.equals(isDelta)) {
+            sb.append(", deletedUserAttrMappings=").append(deletedUserAttrMappings)
+                    .append(", deletedGroupAttrMappings=").append(deletedGroupAttrMappings)
+                    .append(", deletedUserGroupMappings=").append(deletedUserGroupMappings);
+        }
+
         sb.append("}");
 
         return sb;
@@ -24,7 +24,9 @@
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 public class RangerUserStoreUtil {
@@ -84,6 +86,82 @@ public static String getAttrVal(Map<String, Map<String, String>> attrMap, String
         return ret;
     }
 
+    /**
+     * Computes the changes from oldStore to newStore. Attributes and group-memberships are sent in full for each user or
+     * group that changed; entries to be removed are listed in deleted*Mappings.
+     */
+    public static RangerUserStore computeDelta(RangerUserStore oldStore, RangerUserStore newStore) {
+        RangerUserStore ret = new RangerUserStore();
+
+        ret.setUserStoreVersion(newStore.getUserStoreVersion());
+        ret.setUserStoreUpdateTime(newStore.getUserStoreUpdateTime());
+        ret.setIsDelta(Boolean.TRUE);
+        ret.setUserAttrMapping(new HashMap<>());
+        ret.setGroupAttrMapping(new HashMap<>());
+        ret.setUserGroupMapping(new HashMap<>());
+        ret.setDeletedUserAttrMappings(new HashSet<>());
+        ret.setDeletedGroupAttrMappings(new HashSet<>());
+        ret.setDeletedUserGroupMappings(new HashSet<>());
+
+        diff(oldStore.getUserAttrMapping(), newStore.getUserAttrMapping(), ret.getUserAttrMapping(), ret.getDeletedUserAttrMappings());
+        diff(oldStore.getGroupAttrMapping(), newStore.getGroupAttrMapping(), ret.getGroupAttrMapping(), ret.getDeletedGroupAttrMappings());
+        diff(oldStore.getUserGroupMapping(), newStore.getUserGroupMapping(), ret.getUserGroupMapping(), ret.getDeletedUserGroupMappings());
+
+        return ret;
+    }
+
+    /**
+     * Combines two consecutive deltas into one, with changes in next overriding those in prev
+     */
+    public static RangerUserStore mergeDeltas(RangerUserStore prev, RangerUserStore next) {
+        RangerUserStore ret = new RangerUserStore();
+
+        ret.setUserStoreVersion(next.getUserStoreVersion());
+        ret.setUserStoreUpdateTime(next.getUserStoreUpdateTime());
+        ret.setIsDelta(Boolean.TRUE);
+        ret.setUserAttrMapping(new HashMap<>());
+        ret.setGroupAttrMapping(new HashMap<>());
+        ret.setUserGroupMapping(new HashMap<>());
+        ret.setDeletedUserAttrMappings(new HashSet<>());
+        ret.setDeletedGroupAttrMappings(new HashSet<>());
+        ret.setDeletedUserGroupMappings(new HashSet<>());
+
+        for (RangerUserStore delta : new RangerUserStore[] {prev, next}) {
+            apply(ret.getUserAttrMapping(), ret.getDeletedUserAttrMappings(), delta.getUserAttrMapping(), delta.getDeletedUserAttrMappings());
+            apply(ret.getGroupAttrMapping(), ret.getDeletedGroupAttrMappings(), delta.getGroupAttrMapping(), delta.getDeletedGroupAttrMappings());
+            apply(ret.getUserGroupMapping(), ret.getDeletedUserGroupMappings(), delta.getUserGroupMapping(), delta.getDeletedUserGroupMappings());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Applies the delta on a copy of the maps in userStore; userStore is not modified, as it might be in use by other
+     * threads. Attribute and group values of unchanged users and groups are shared with userStore.
+     */
+    public static RangerUserStore applyDelta(RangerUserStore userStore, RangerUserStore delta) {
+        RangerUserStore                  ret              = new RangerUserStore();
+        Map<String, Map<String, String>> userAttrMapping  = copyOf(userStore.getUserAttrMapping());
+        Map<String, Map<String, String>> groupAttrMapping = copyOf(userStore.getGroupAttrMapping());
+        Map<String, Set<String>>         userGroupMapping = copyOf(userStore.getUserGroupMapping());
+        Map<String, String>              userCloudIds     = copyOf(userStore.getUserCloudIdMapping());
+        Map<String, String>              groupCloudIds    = copyOf(userStore.getGroupCloudIdMapping());
+
+        applyAttrs(userAttrMapping, userCloudIds, delta.getUserAttrMapping(), delta.getDeletedUserAttrMappings());
+        applyAttrs(groupAttrMapping, groupCloudIds, delta.getGroupAttrMapping(), delta.getDeletedGroupAttrMappings());
+        apply(userGroupMapping, null, delta.getUserGroupMapping(), delta.getDeletedUserGroupMappings());
+
+        ret.setUserStoreVersion(delta.getUserStoreVersion());
+        ret.setUserStoreUpdateTime(delta.getUserStoreUpdateTime());
+        ret.setUserAttrMapping(userAttrMapping);
+        ret.setGroupAttrMapping(groupAttrMapping);
+        ret.setUserGroupMapping(userGroupMapping);
+        ret.setUserCloudIdMapping(userCloudIds);
+        ret.setGroupCloudIdMapping(groupCloudIds);
+
+        return ret;
+    }
+
     public RangerUserStore getUserStore() {
         return userStore;
     }
@@ -126,6 +204,78 @@ public String getCloudId(Map<String, Map<String, String>> attrMap, String name)
         return getAttrVal(attrMap, name, CLOUD_IDENTITY_NAME);
     }
 
+    private static <V> void diff(Map<String, V> oldMap, Map<String, V> newMap, Map<String, V> updated, Set<String> deleted) {
+        if (oldMap != null) {
+            for (String name : oldMap.keySet()) {
+                if (newMap == null || !newMap.containsKey(name)) {
+                    deleted.add(name);
+                }
+            }
+        }
+
+        if (newMap != null) {
+            for (Map.Entry<String, V> entry : newMap.entrySet()) {
+                if (oldMap == null || !Objects.equals(oldMap.get(entry.getKey()), entry.getValue())) {
+                    updated.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static <V> void apply(Map<String, V> target, Set<String> targetDeleted, Map<String, V> updated, Set<String> deleted) {
+        if (deleted != null) {
+            for (String name : deleted) {
+                target.remove(name);
+
+                if (targetDeleted != null) {
+                    targetDeleted.add(name);
+                }
+            }
+        }
+
+        if (updated != null) {
+            target.putAll(updated);
+
+            if (targetDeleted != null) {
+                targetDeleted.removeAll(updated.keySet());
+            }
+        }
+    }
+
+    private static void applyAttrs(Map<String, Map<String, String>> attrMapping, Map<String, String> cloudIds, Map<String, Map<String, String>> updated, Set<String> deleted) {
+        if (deleted != null) {
+            for (String name : deleted) {
+                removeCloudId(cloudIds, name, attrMapping.remove(name));
+            }
+        }
+
+        if (updated != null) {
+            for (Map.Entry<String, Map<String, String>> entry : updated.entrySet()) {
+                String              name    = entry.getKey();
+                Map<String, String> attrs   = entry.getValue();
+                String              cloudId = attrs != null ? attrs.get(CLOUD_IDENTITY_NAME) : null;
+
+                removeCloudId(cloudIds, name, attrMapping.put(name, attrs));
+
+                if (StringUtils.isNotEmpty(cloudId)) {
+                    cloudIds.put(cloudId, name);
+                }
+            }
+        }
+    }
+
+    private static void removeCloudId(Map<String, String> cloudIds, String name, Map<String, String> prevAttrs) {
+        String prevCloudId = prevAttrs != null ? prevAttrs.get(CLOUD_IDENTITY_NAME) : null;
+
+        if (StringUtils.isNotEmpty(prevCloudId) && Objects.equals(cloudIds.get(prevCloudId), name)) {
+            cloudIds.remove(prevCloudId);
+        }
+    }
+
+    private static <V> Map<String, V> copyOf(Map<String, V> map) {
+        return map != null ? new HashMap<>(map) : new HashMap<>();
+    }
+
     private Map<String, String> buildUserEmailToNameMap() {
         final Map<String, String> ret;
 
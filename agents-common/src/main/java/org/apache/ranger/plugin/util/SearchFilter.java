@@ -46,6 +46,7 @@ public class SearchFilter {
     public static final String RESOURCE_PREFIX          = "resource:";     // search
     public static final String RESOURCE_MATCH_SCOPE     = "resourceMatchScope"; // search - valid values: "self", "ancestor", "self_or_ancestor"
     public static final String POL_RESOURCE             = "polResource";   // search
+    public static final String ACCESS_TYPE              = "accessType";    // search
     public static final String POLICY_NAME_PARTIAL      = "policyNamePartial";    // search, sort
     public static final String CREATE_TIME              = "createTime";    // sort
     public static final String UPDATE_TIME              = "updateTime";    // sort
@@ -52,7 +52,9 @@
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -61,7 +63,9 @@
 import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestRangerBasePlugin {
     static Gson                      gsonBuilder;
@@ -88,6 +92,85 @@ public void testBasePluginHive() throws Exception {
         runTestsFromResourceFile("/plugin/test_base_plugin_hive.json");
     }
 
+    @Test
+    public void testBasePluginHiveFilterAccessAllowed() throws Exception {
+        InputStream              inStream = this.getClass().getResourceAsStream("/plugin/test_base_plugin_hive.json");
+        RangerBasePluginTestCase testCase = readTestCase(new InputStreamReader(inStream));
+
+        assertNotNull(testCase, "invalid input: test_base_plugin_hive.json");
+
+        RangerPluginConfig pluginConfig = new RangerPluginConfig(testCase.policies.getServiceDef().getName(), testCase.policies.getServiceName(), "hive", "cl1", "on-prem", peOptions);
+
+        // evaluate in parallel, even for the few requests in the test file
+        pluginConfig.setInt(pluginConfig.getPropertyPrefix() + ".bulk.eval.threads", 2);
+        pluginConfig.setInt(pluginConfig.getPropertyPrefix() + ".bulk.eval.parallel.min.size", 1);
+
+        RangerBasePlugin plugin   = new RangerBasePlugin(pluginConfig, testCase.policies, testCase.tags, testCase.roles, testCase.userStore, testCase.gdsInfo);
+        List<TestData>   tests    = new ArrayList<>();
+        List<TestData>   expected = new ArrayList<>();
+
+        for (TestData test : testCase.tests) {
+            if (test.result != null) {
+                tests.add(test);
+
+                if (test.result.getIsAllowed()) {
+                    expected.add(test);
+                }
+            }
+        }
+
+        List<TestData> allowed = plugin.filterAccessAllowed(tests, test -> test.request, null);
+
+        assertEquals(expected, allowed);
+
+        plugin.cleanup();
+    }
+
+    @Test
+    public void testAccessResultCacheDropsRevokedGdsGrant() throws Exception {
+        InputStream              inStream = this.getClass().getResourceAsStream("/plugin/test_base_plugin_hive.json");
+        RangerBasePluginTestCase testCase = readTestCase(new InputStreamReader(inStream));
+
+        assertNotNull(testCase, "invalid input: test_base_plugin_hive.json");
+
+        RangerPluginConfig pluginConfig = new RangerPluginConfig(testCase.policies.getServiceDef().getName(), testCase.policies.getServiceName(), "hive", "cl1", "on-prem", peOptions);
+        RangerBasePlugin   plugin       = new RangerBasePlugin(pluginConfig, testCase.policies, testCase.tags, testCase.roles, testCase.userStore, testCase.gdsInfo);
+        ServiceGdsInfo     gdsInfo      = testCase.gdsInfo;
+
+        // datasets and projects with validity schedules make results depend on the time of the request
+        assertTrue(plugin.hasContextDependentPolicies());
+
+        gdsInfo.getDatasets().forEach(dataset -> dataset.setValiditySchedule(null));
+        gdsInfo.getProjects().forEach(project -> project.setValiditySchedule(null));
+        gdsInfo.setGdsVersion(1L);
+
+        plugin.getGdsEnricher().setGdsInfo(gdsInfo);
+
+        assertFalse(plugin.hasContextDependentPolicies());
+
+        RangerAccessResultCache<String> cache   = new RangerAccessResultCache<>("test", plugin, 10);
+        RangerAccessRequest             request = testCase.tests.stream().filter(test -> "ds1-user".equals(test.request.getUser())).findFirst().get().request;
+        RangerAccessResult              result  = cache.getResults().getOrEvaluate(request, request.getUser(), null, req -> plugin.isAccessAllowed(req));
+
+        assertTrue(cache.isActive());
+        assertTrue(result.getIsAllowed());
+        assertEquals(1, cache.getSize());
+
+        // revoke the grant of dataset-1 to ds1-user
+        gdsInfo.getDatasets().get(0).getPolicies().get(0).getPolicyItems().get(0).setUsers(Collections.singletonList("ds-user"));
+        gdsInfo.setGdsVersion(2L);
+
+        plugin.getGdsEnricher().setGdsInfo(gdsInfo);
+
+        result = cache.getResults().getOrEvaluate(request, request.getUser(), null, req -> plugin.isAccessAllowed(req));
+
+        assertFalse(result.getIsAllowed());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        plugin.cleanup();
+    }
+
     private void runTestsFromResourceFile(String resourceFile) throws Exception {
         InputStream       inStream = this.getClass().getResourceAsStream(resourceFile);
         InputStreamReader reader   = new InputStreamReader(inStream);
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.store;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.util.SearchFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRangerPolicySearchIndex {
+    private final List<RangerPolicy>      policies      = Arrays.asList(
+            createPolicy(1L, "/data/finance", "alice", "finance", "read", "pii"),
+            createPolicy(2L, "/data/hr/*", "bob", "hr", "write", "internal"),
+            createPolicy(3L, "/tmp", "Alice2", "public", "execute", null),
+            createPolicy(4L, "/data/finance", "carol", "finance-admins", "write", "PII-strict"));
+    private final AbstractPredicateUtil   predicateUtil = new AbstractPredicateUtil();
+    private final RangerPolicySearchIndex index         = new RangerPolicySearchIndex(5L, policies);
+
+    @Test
+    public void testUserGroupAndLabelSearch() {
+        assertSearch(SearchFilter.USER, "alice", 1L, 3L);
+        assertSearch(SearchFilter.GROUP, "FINANCE", 1L, 4L);
+        assertSearch(SearchFilter.ROLE, "finance", 1L, 4L);
+        assertSearch(SearchFilter.POLICY_LABELS_PARTIAL, "pii", 1L, 4L);
+        assertSearch(SearchFilter.USER, "nobody");
+    }
+
+    @Test
+    public void testResourceSearch() {
+        assertSearch(SearchFilter.RESOURCE_PREFIX + "path", "/data/finance", 1L, 4L);
+        assertSearch(SearchFilter.RESOURCE_PREFIX + "path", "/data/hr/payroll", 2L);
+        assertSearch(SearchFilter.RESOURCE_PREFIX + "path", "/DATA/finance");
+        assertSearch(SearchFilter.RESOURCE_PREFIX + "database", "/data/finance");
+        assertSearch(SearchFilter.POL_RESOURCE, "DATA", 1L, 2L, 4L);
+    }
+
+    @Test
+    public void testAccessTypeSearch() {
+        assertSearch(SearchFilter.ACCESS_TYPE, "WRITE", 2L, 4L);
+        assertSearch(SearchFilter.ACCESS_TYPE, "wri");
+    }
+
+    @Test
+    public void testCombinedSearch() {
+        SearchFilter filter = new SearchFilter();
+
+        filter.setParam(SearchFilter.GROUP, "finance");
+        filter.setParam(SearchFilter.ACCESS_TYPE, "write");
+
+        assertEquals(ids(4L), ids(search(filter)));
+        assertEquals(ids(filter(new ArrayList<>(policies), filter)), ids(search(filter)));
+    }
+
+    @Test
+    public void testIsFor() {
+        assertTrue(index.isFor(5L, policies));
+        assertFalse(index.isFor(6L, policies));
+        assertFalse(index.isFor(5L, new ArrayList<>(policies)));
+
+        SearchFilter filter = new SearchFilter();
+
+        filter.setParam(SearchFilter.POLICY_NAME, "policy-1");
+
+        assertFalse(RangerPolicySearchIndex.isIndexedSearch(filter));
+        assertEquals(policies.size(), index.getCandidates(filter).size());
+    }
+
+    private void assertSearch(String param, String value, Long... expectedIds) {
+        SearchFilter filter = new SearchFilter(param, value);
+
+        assertEquals(ids(expectedIds), ids(search(filter)), param + "=" + value);
+        assertEquals(ids(filter(new ArrayList<>(policies), filter)), ids(search(filter)), param + "=" + value);
+    }
+
+    private List<RangerPolicy> search(SearchFilter filter) {
+        return filter(index.getCandidates(filter), filter);
+    }
+
+    private List<RangerPolicy> filter(List<RangerPolicy> candidates, SearchFilter filter) {
+        predicateUtil.applyFilter(candidates, filter);
+
+        return candidates;
+    }
+
+    private static List<Long> ids(Long... ids) {
+        return Arrays.asList(ids);
+    }
+
+    private static List<Long> ids(List<RangerPolicy> policies) {
+        List<Long> ret = new ArrayList<>();
+
+        for (RangerPolicy policy : policies) {
+            ret.add(policy.getId());
+        }
+
+        return ret;
+    }
+
+    private static RangerPolicy createPolicy(Long id, String path, String user, String group, String accessType, String label) {
+        RangerPolicy     policy = new RangerPolicy();
+        RangerPolicyItem item   = new RangerPolicyItem();
+
+        item.setUsers(Collections.singletonList(user));
+        item.setGroups(Collections.singletonList(group));
+        item.setRoles(Collections.singletonList(group + "-role"));
+        item.setAccesses(Collections.singletonList(new RangerPolicyItemAccess(accessType)));
+
+        policy.setId(id);
+        policy.setName("policy-" + id);
+        policy.setService("hdfs");
+        policy.setResources(Collections.singletonMap("path", new RangerPolicyResource(path)));
+        policy.setPolicyItems(Collections.singletonList(item));
+
+        if (label != null) {
+            policy.setPolicyLabels(Collections.singletonList(label));
+        }
+
+        return policy;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.plugin.model.GroupInfo;
+import org.apache.ranger.plugin.model.UserInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRangerUserStoreUtil {
+    @Test
+    public void testComputeAndApplyDelta() {
+        RangerUserStore v1 = createUserStore(1L,
+                users(user("u1", "dept", "eng"), user("u2", RangerUserStore.CLOUD_IDENTITY_NAME, "c2"), user("u3", "dept", "hr")),
+                groups(group("g1", "type", "ldap"), group("g2", "type", "local")),
+                userGroups("u1", "g1", "u2", "g1", "u3", "g2"));
+        RangerUserStore v2 = createUserStore(2L,
+                users(user("u1", "dept", "sales"), user("u3", "dept", "hr"), user("u4", RangerUserStore.CLOUD_IDENTITY_NAME, "c4")),
+                groups(group("g1", "type", "ldap"), group("g3", "type", "local")),
+                userGroups("u1", "g3", "u3", "g2", "u4", "g1"));
+
+        RangerUserStore delta = RangerUserStoreUtil.computeDelta(v1, v2);
+
+        assertTrue(delta.getIsDelta());
+        assertEquals(2L, delta.getUserStoreVersion());
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u4")), delta.getUserAttrMapping().keySet());
+        assertEquals(Collections.singleton("u2"), delta.getDeletedUserAttrMappings());
+        assertEquals(Collections.singleton("g3"), delta.getGroupAttrMapping().keySet());
+        assertEquals(Collections.singleton("g2"), delta.getDeletedGroupAttrMappings());
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u4")), delta.getUserGroupMapping().keySet());
+        assertEquals(Collections.singleton("u2"), delta.getDeletedUserGroupMappings());
+
+        // delta should survive the trip to the plugin
+        delta = JsonUtils.jsonToObject(JsonUtils.objectToJson(delta), RangerUserStore.class);
+
+        assertUserStoreEquals(v2, RangerUserStoreUtil.applyDelta(v1, delta));
+        assertEquals(Collections.singletonMap("c2", "u2"), v1.getUserCloudIdMapping()); // applyDelta() must not update the given userstore
+    }
+
+    @Test
+    public void testMergeDeltas() {
+        RangerUserStore v1 = createUserStore(1L, users(user("u1", "dept", "eng")), groups(group("g1", "type", "ldap")), userGroups("u1", "g1"));
+        RangerUserStore v2 = createUserStore(2L, users(user("u2", "dept", "eng")), groups(group("g1", "type", "ldap")), userGroups("u2", "g1"));
+        RangerUserStore v3 = createUserStore(3L, users(user("u1", "dept", "hr"), user("u2", "dept", "eng")), groups(), userGroups("u1", "g1"));
+
+        RangerUserStore merged = RangerUserStoreUtil.mergeDeltas(RangerUserStoreUtil.computeDelta(v1, v2), RangerUserStoreUtil.computeDelta(v2, v3));
+
+        assertEquals(3L, merged.getUserStoreVersion());
+        assertFalse(merged.getDeletedUserAttrMappings().contains("u1"));
+        assertUserStoreEquals(v3, RangerUserStoreUtil.applyDelta(v1, merged));
+    }
+
+    private static void assertUserStoreEquals(RangerUserStore expected, RangerUserStore actual) {
+        assertEquals(expected.getUserStoreVersion(), actual.getUserStoreVersion());
+        assertEquals(emptyIfNull(expected.getUserAttrMapping()), actual.getUserAttrMapping());
+        assertEquals(emptyIfNull(expected.getGroupAttrMapping()), actual.getGroupAttrMapping());
+        assertEquals(emptyIfNull(expected.getUserGroupMapping()), actual.getUserGroupMapping());
+        assertEquals(emptyIfNull(expected.getUserCloudIdMapping()), actual.getUserCloudIdMapping());
+        assertEquals(emptyIfNull(expected.getGroupCloudIdMapping()), actual.getGroupCloudIdMapping());
+        assertFalse(actual.getIsDelta());
+    }
+
+    private static <V> Map<String, V> emptyIfNull(Map<String, V> map) {
+        return map != null ? map : Collections.emptyMap();
+    }
+
+    private static RangerUserStore createUserStore(Long version, Set<UserInfo> users, Set<GroupInfo> groups, Map<String, Set<String>> userGroups) {
+        return new RangerUserStore(version, users, groups, userGroups);
+    }
+
+    private static UserInfo user(String name, String attrName, String attrValue) {
+        return new UserInfo(name, null, Collections.singletonMap(attrName, attrValue));
+    }
+
+    private static GroupInfo group(String name, String attrName, String attrValue) {
+        return new GroupInfo(name, null, Collections.singletonMap(attrName, attrValue));
+    }
+
+    private static Set<UserInfo> users(UserInfo... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    private static Set<GroupInfo> groups(GroupInfo... groups) {
+        return new HashSet<>(Arrays.asList(groups));
+    }
+
+    private static Map<String, Set<String>> userGroups(String... userAndGroups) {
+        Map<String, Set<String>> ret = new HashMap<>();
+
+        for (int i = 0; i < userAndGroups.length; i += 2) {
+            ret.computeIfAbsent(userAndGroups[i], k -> new HashSet<>()).add(userAndGroups[i + 1]);
+        }
+
+        return ret;
+    }
+}
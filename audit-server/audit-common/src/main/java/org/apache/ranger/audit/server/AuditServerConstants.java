@@ -27,6 +27,9 @@ private AuditServerConstants() {}
     public static final String PROP_PREFIX_AUDIT_SERVER_SERVICE              = PROP_PREFIX_AUDIT_SERVER + "service.";
     public static final String PROP_AUTH_TO_LOCAL                            = PROP_PREFIX_AUDIT_SERVER + "auth.to.local";
     public static final String PROP_SUFFIX_ALLOWED_USERS                     = ".allowed.users";
+    public static final String PROP_NDJSON_MAX_BATCH_BYTES                   = PROP_PREFIX_AUDIT_SERVER + "ndjson.max.batch.bytes";
+    public static final long   DEFAULT_NDJSON_MAX_BATCH_BYTES                = 64L * 1024 * 1024; // 64 MiB decoded
+    public static final String MEDIA_TYPE_NDJSON                             = "application/x-ndjson";
     public static final String PROP_AUDIT_SERVICE_PRINCIPAL                  = "service.kerberos.principal";
     public static final String PROP_AUDIT_SERVICE_KEYTAB                     = "service.kerberos.keytab";
 
@@ -137,6 +140,12 @@ private AuditServerConstants() {}
     public static final String PROP_DISPATCHER_PARTITION_ASSIGNMENT_STRATEGY = "partition.assignment.strategy";
     public static final String PROP_DISPATCHER_TYPE                          = "ranger.audit.dispatcher.type";
     public static final String PROP_DISPATCHER_CLASS                         = "ranger.audit.dispatcher.class";
+    public static final String PROP_DISPATCHER_WRITER_THREAD_COUNT           = "writer.thread.count";
+    public static final String PROP_DISPATCHER_MAX_INFLIGHT_BATCHES          = "max.inflight.batches.per.partition";
+    public static final String PROP_DISPATCHER_RETRY_BACKOFF_MS              = "retry.backoff.ms";
+    public static final int    DEFAULT_DISPATCHER_WRITER_THREAD_COUNT        = 4;     // 0 writes batches on the polling thread
+    public static final int    DEFAULT_DISPATCHER_MAX_INFLIGHT_BATCHES       = 2;
+    public static final long   DEFAULT_DISPATCHER_RETRY_BACKOFF_MS           = 5000;
 
     // Kafka dispatcher rebalancing timeouts (for subscribe mode)
     public static final int    DEFAULT_SESSION_TIMEOUT_MS                    = 60000;  // 60 seconds - failure detection
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.audit.provider.MiscUtil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a batch of audit events posted as NDJSON (one serialized event per line), optionally gzip-compressed.
+ * Each line is validated as an audit event with a streaming token scan, without deserializing it, and then returned
+ * as-is, so that the ingestor can forward it to Kafka without re-encoding the event.
+ */
+public class AuditNdjsonReader {
+    private static final int    GZIP_MAGIC_BYTE1 = 0x1f;
+    private static final int    GZIP_MAGIC_BYTE2 = 0x8b;
+    private static final int    READ_BUFFER_SIZE = 8192;
+    private static final String FIELD_AGENT_ID   = "agent";
+
+    private static final JsonFactory JSON_FACTORY   = MiscUtil.getMapper().getFactory();
+    private static final Set<String> NUMERIC_FIELDS = getNumericFields(MiscUtil.getMapper());
+
+    private AuditNdjsonReader() {}
+
+    /**
+     * @param in       request body; gzip framing is detected from the stream header, so Content-Encoding is optional
+     * @param maxBytes upper limit on the decoded size of the batch, in bytes; reading stops as soon as it is exceeded,
+     *                 to guard against oversized/compression-bomb payloads
+     * @return serialized events, one per non-empty line
+     * @throws IOException if the stream can't be read, a line is not an audit event, or the batch exceeds maxBytes
+     */
+    public static List<String> readMessages(InputStream in, long maxBytes) throws IOException {
+        List<String>          ret        = new ArrayList<>();
+        ByteArrayOutputStream line       = new ByteArrayOutputStream();
+        byte[]                buffer     = new byte[READ_BUFFER_SIZE];
+        long                  length     = 0;
+        int                   lineNumber = 0;
+
+        try (InputStream decoded = decode(in)) {
+            for (int count = decoded.read(buffer); count != -1; count = decoded.read(buffer)) {
+                length += count;
+
+                if (length > maxBytes) {
+                    throw new IOException("audit batch exceeds max size of " + maxBytes + " bytes");
+                }
+
+                int lineStart = 0;
+
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] == '\n') {
+                        line.write(buffer, lineStart, i - lineStart);
+
+                        addMessage(ret, line, ++lineNumber);
+
+                        lineStart = i + 1;
+                    }
+                }
+
+                line.write(buffer, lineStart, count - lineStart);
+            }
+        }
+
+        addMessage(ret, line, ++lineNumber);
+
+        return ret;
+    }
+
+    /**
+     * @param message serialized audit event, as returned by readMessages()
+     * @return value of the top-level agent field of the event; null if the field is absent or not a string
+     */
+    public static String getAgentId(String message) {
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                String    fieldName = parser.getCurrentName();
+                JsonToken value     = parser.nextToken();
+
+                if (FIELD_AGENT_ID.equals(fieldName)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // not expected for messages returned by readMessages()
+        }
+
+        return null;
+    }
+
+    static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+
+        int byte1 = in.read();
+        int byte2 = in.read();
+
+        in.reset();
+
+        return byte1 == GZIP_MAGIC_BYTE1 && byte2 == GZIP_MAGIC_BYTE2;
+    }
+
+    private static void addMessage(List<String> messages, ByteArrayOutputStream line, int lineNumber) throws IOException {
+        String message = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+
+        line.reset();
+
+        if (message.isEmpty()) {
+            return;
+        }
+
+        String error;
+
+        try {
+            error = validate(message);
+        } catch (JsonProcessingException e) {
+            throw new IOException("malformed audit event at line " + lineNumber + ": " + e.getOriginalMessage(), e);
+        }
+
+        if (error != null) {
+            throw new IOException("malformed audit event at line " + lineNumber + ": " + error);
+        }
+
+        messages.add(message);
+    }
+
+    /**
+     * Checks that the message is a single JSON object whose numeric fields, like repoType or policy, hold numbers, as
+     * required to deserialize it as AuthzAuditEvent.
+     *
+     * @return description of the error; null if the message is valid
+     */
+    private static String validate(String message) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return "not a JSON object";
+            }
+
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+                String    fieldName = parser.getCurrentName();
+                JsonToken value     = parser.nextToken();
+
+                if (NUMERIC_FIELDS.contains(fieldName) && !isNumber(parser, value)) {
+                    return "field " + fieldName + " is not a number";
+                }
+
+                parser.skipChildren();
+            }
+
+            if (parser.nextToken() != null) {
+                return "unexpected content after the JSON object";
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isNumber(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT || value == JsonToken.VALUE_NULL || (value == JsonToken.VALUE_STRING && NumberUtils.isCreatable(parser.getText().trim()));
+    }
+
+    private static Set<String> getNumericFields(ObjectMapper mapper) {
+        Set<String>     ret  = new HashSet<>();
+        BeanDescription desc = mapper.getDeserializationConfig().introspect(mapper.constructType(AuthzAuditEvent.class));
+
+        for (BeanPropertyDefinition property : desc.findProperties()) {
+            Class<?> type = property.getRawPrimaryType();
+
+            if ((type.isPrimitive() && type != boolean.class && type != char.class) || Number.class.isAssignableFrom(type)) {
+                ret.add(property.getName());
+            }
+        }
+
+        return Collections.unmodifiableSet(ret);
+    }
+
+    private static InputStream decode(InputStream in) throws IOException {
+        BufferedInputStream bin = new BufferedInputStream(in);
+
+        return isGzip(bin) ? new GZIPInputStream(bin) : bin;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuditNdjsonReaderTest {
+    private static final String BATCH = "{\"agent\":\"hdfs\",\"reqUser\":\"user1\"}\n\n{\"agent\":\"hdfs\",\"reqUser\":\"user2\"}\n";
+
+    @Test
+    public void testReadPlainBatch() throws Exception {
+        List<String> messages = AuditNdjsonReader.readMessages(new ByteArrayInputStream(BATCH.getBytes(StandardCharsets.UTF_8)), 1024);
+
+        assertEquals(2, messages.size());
+        assertEquals("{\"agent\":\"hdfs\",\"reqUser\":\"user1\"}", messages.get(0));
+        assertEquals("{\"agent\":\"hdfs\",\"reqUser\":\"user2\"}", messages.get(1));
+    }
+
+    @Test
+    public void testReadGzipBatch() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(BATCH.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<String> messages = AuditNdjsonReader.readMessages(new ByteArrayInputStream(bytes.toByteArray()), 1024);
+
+        assertEquals(2, messages.size());
+        assertEquals("{\"agent\":\"hdfs\",\"reqUser\":\"user2\"}", messages.get(1));
+    }
+
+    @Test
+    public void testRejectsMalformedLine() {
+        String batch = "{\"agent\":\"hdfs\"}\n[1,2,3]\n";
+
+        assertThrows(IOException.class, () -> AuditNdjsonReader.readMessages(new ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8)), 1024));
+    }
+
+    @Test
+    public void testAcceptsNestedAndNumericValues() throws Exception {
+        String batch = "{\"tags\":[\"pii\"],\"repoType\":\"3\",\"policy\":12,\"policy_version\":null,\"additional_info\":\"{\\\"agent\\\":1}\"}\n";
+
+        assertEquals(1, AuditNdjsonReader.readMessages(new ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8)), 1024).size());
+    }
+
+    @Test
+    public void testGetAgentId() {
+        assertEquals("hdfs", AuditNdjsonReader.getAgentId("{\"reqUser\":\"user1\",\"tags\":[\"agent\"],\"agent\":\"hdfs\"}"));
+        assertEquals("hdfs", AuditNdjsonReader.getAgentId("{\"additional_info\":{\"agent\":\"hive\"},\"agent\":\"hdfs\"}"));
+        assertNull(AuditNdjsonReader.getAgentId("{\"reqUser\":\"user1\"}"));
+        assertNull(AuditNdjsonReader.getAgentId("{\"agent\":1}"));
+    }
+
+    @Test
+    public void testRejectsOversizedBatch() {
+        assertThrows(IOException.class, () -> AuditNdjsonReader.readMessages(new ByteArrayInputStream(BATCH.getBytes(StandardCharsets.UTF_8)), 16));
+    }
+
+    @Test
+    public void testRejectsLineThatIsNotAnAuditEvent() {
+        String wrongType      = "{\"agent\":\"hdfs\"}\n{\"repoType\":\"not-a-number\"}\n";
+        String trailingTokens = "{\"agent\":\"hdfs\"} {\"agent\":\"hive\"}\n";
+
+        assertThrows(IOException.class, () -> AuditNdjsonReader.readMessages(new ByteArrayInputStream(wrongType.getBytes(StandardCharsets.UTF_8)), 1024));
+        assertThrows(IOException.class, () -> AuditNdjsonReader.readMessages(new ByteArrayInputStream(trailingTokens.getBytes(StandardCharsets.UTF_8)), 1024));
+    }
+
+    @Test
+    public void testSizeLimitCountsBytes() throws Exception {
+        String batch = "{\"reqUser\":\"\u00fc\u00fc\u00fc\u00fc\"}\n"; // 19 chars, 23 bytes
+
+        assertThrows(IOException.class, () -> AuditNdjsonReader.readMessages(new ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8)), 20));
+        assertEquals(1, AuditNdjsonReader.readMessages(new ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8)), 23).size());
+    }
+
+    @Test
+    public void testRejectsCompressionBombWithoutReadingItAll() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[]                chunk = new byte[1024 * 1024];
+
+        Arrays.fill(chunk, (byte) ' ');
+
+        // 256 MiB of decoded data on a single line
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            for (int i = 0; i < 256; i++) {
+                out.write(chunk);
+            }
+        }
+
+        CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertThrows(IOException.class, () -> AuditNdjsonReader.readMessages(in, 1024 * 1024));
+        assertTrue(in.count < bytes.size(), "reading should stop once the decoded size exceeds the limit");
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int ret = super.read();
+
+            if (ret != -1) {
+                count++;
+            }
+
+            return ret;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int ret = super.read(b, off, len);
+
+            if (ret > 0) {
+                count += ret;
+            }
+
+            return ret;
+        }
+    }
+}
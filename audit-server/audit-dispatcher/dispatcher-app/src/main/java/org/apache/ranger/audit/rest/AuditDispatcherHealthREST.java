@@ -84,6 +84,7 @@ public Response status() {
                 if (isActive) {
                     status = Response.Status.OK;
                     resp.put("status", "UP");
+                    resp.put("metrics", AuditDispatcherTracker.getInstance().getDispatcherMetrics().get(dispatcherType.toLowerCase()));
                 } else {
                     status = Response.Status.SERVICE_UNAVAILABLE;
                     resp.put("status", "DOWN");
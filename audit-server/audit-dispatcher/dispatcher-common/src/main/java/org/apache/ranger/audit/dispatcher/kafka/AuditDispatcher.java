@@ -21,6 +21,9 @@
 
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Interface for Ranger Kafka dispatchers that consume audit events from Kafka
  * and forward them to various destinations like Solr, HDFS, etc.
@@ -53,4 +56,13 @@ public interface AuditDispatcher extends Runnable {
      * @return Kafka topic name
      */
     String getTopicName();
+
+    /**
+     * Get runtime metrics of this dispatcher, like per-partition lag and throughput.
+     *
+     * @return metrics keyed by name; empty if the dispatcher doesn't track any
+     */
+    default Map<String, Object> getMetrics() {
+        return Collections.emptyMap();
+    }
 }
@@ -20,6 +20,7 @@
 
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
@@ -31,22 +32,46 @@
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Base for Kafka dispatchers. Each worker polls its assigned partitions and hands every partition's share of a poll
+ * to a writer pool, so that a slow destination doesn't stall polling of the other partitions. At most
+ * maxInFlightBatchesPerPartition batches of a partition are outstanding at a time - the partition is paused once
+ * the limit is reached. Offsets are committed only up to the last batch acknowledged by the destination, in offset
+ * order; a failed batch rewinds the partition to its first offset and pauses it for retryBackoffMs.
+ */
 public abstract class AuditDispatcherBase implements AuditDispatcher {
     private static final Logger LOG = LoggerFactory.getLogger(AuditDispatcherBase.class);
 
+    private static final long STATS_SAMPLE_INTERVAL_MS  = 10000L;
+    private static final long IN_FLIGHT_DRAIN_TIMEOUT_MS = 30000L;
+
     public final Properties                    dispatcherProps = new Properties();
     public final KafkaConsumer<String, String> dispatcher;
     public final String                        topicName;
@@ -58,6 +83,12 @@ public abstract class AuditDispatcherBase implements AuditDispatcher {
     protected int                                 dispatcherThreadCount = 1;
     protected String                              offsetCommitStrategy  = AuditServerConstants.DEFAULT_OFFSET_COMMIT_STRATEGY;
     protected long                                offsetCommitInterval  = AuditServerConstants.DEFAULT_OFFSET_COMMIT_INTERVAL_MS;
+    protected ExecutorService                     dispatcherWriterPool;
+    protected int                                 dispatcherWriterThreadCount    = AuditServerConstants.DEFAULT_DISPATCHER_WRITER_THREAD_COUNT;
+    protected int                                 maxInFlightBatchesPerPartition = AuditServerConstants.DEFAULT_DISPATCHER_MAX_INFLIGHT_BATCHES;
+    protected long                                retryBackoffMs                 = AuditServerConstants.DEFAULT_DISPATCHER_RETRY_BACKOFF_MS;
+
+    protected final Map<TopicPartition, PartitionStats> partitionStats = new ConcurrentHashMap<>();
 
     public AuditDispatcherBase(Properties props, String propPrefix, String dispatcherGroupId) throws Exception {
         this.dispatcherGroupId = getDispatcherGroupId(props, propPrefix, dispatcherGroupId);
@@ -98,6 +129,12 @@ public AuditDispatcherBase(Properties props, String propPrefix, String dispatche
         LOG.info("Re-balancing config - session.timeout.ms: {}, max.poll.interval.ms: {}, heartbeat.interval.ms: {}", sessionTimeoutMs, maxPollIntervalMs, heartbeatIntervalMs);
         LOG.info("Partition assignment strategy: {}", partitionAssignmentStrategy);
 
+        dispatcherWriterThreadCount    = MiscUtil.getIntProperty(props, propPrefix + "." + AuditServerConstants.PROP_DISPATCHER_WRITER_THREAD_COUNT, AuditServerConstants.DEFAULT_DISPATCHER_WRITER_THREAD_COUNT);
+        maxInFlightBatchesPerPartition = Math.max(1, MiscUtil.getIntProperty(props, propPrefix + "." + AuditServerConstants.PROP_DISPATCHER_MAX_INFLIGHT_BATCHES, AuditServerConstants.DEFAULT_DISPATCHER_MAX_INFLIGHT_BATCHES));
+        retryBackoffMs                 = MiscUtil.getLongProperty(props, propPrefix + "." + AuditServerConstants.PROP_DISPATCHER_RETRY_BACKOFF_MS, AuditServerConstants.DEFAULT_DISPATCHER_RETRY_BACKOFF_MS);
+
+        LOG.info("Dispatch pipeline - writer threads: {}, max in-flight batches per partition: {}, retry backoff (ms): {}", dispatcherWriterThreadCount, maxInFlightBatchesPerPartition, retryBackoffMs);
+
         dispatcher = new KafkaConsumer<>(dispatcherProps);
         topicName  = MiscUtil.getStringProperty(props, propPrefix + "." + AuditServerConstants.PROP_TOPIC_NAME, AuditServerConstants.DEFAULT_TOPIC);
     }
@@ -132,6 +169,47 @@ protected void shutdownDestination() {
         // To be overridden by subclasses if needed
     }
 
+    /**
+     * Persist writes buffered by the destination, so that batches added with addPersistingBatch() complete;
+     * called before waiting for in-flight batches on partition revocation and on shutdown.
+     */
+    protected void flushDestination() {
+        // To be overridden by subclasses if needed
+    }
+
+    /**
+     * Write a batch of audit messages, all from the same partition, to the destination. Workers that don't
+     * override processRecordBatch() call this from the writer pool, hence implementations must be thread-safe.
+     *
+     * @param audits audit messages in JSON format
+     * @throws Exception if the destination did not accept the batch
+     */
+    protected abstract void processMessageBatch(Collection<String> audits) throws Exception;
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret        = new LinkedHashMap<>();
+        Map<String, Object> partitions = new TreeMap<>();
+        long                totalLag   = 0;
+        double              totalRate  = 0;
+
+        for (PartitionStats stats : partitionStats.values()) {
+            partitions.put(stats.partition.toString(), stats.toMap());
+
+            totalLag  += Math.max(stats.lag, 0);
+            totalRate += stats.recordsPerSecond;
+        }
+
+        ret.put("workers", dispatcherWorkers.size());
+        ret.put("writerThreads", dispatcherWriterThreadCount);
+        ret.put("maxInFlightBatchesPerPartition", maxInFlightBatchesPerPartition);
+        ret.put("totalLag", totalLag);
+        ret.put("totalRecordsPerSecond", Math.round(totalRate * 100) / 100.0);
+        ret.put("partitions", partitions);
+
+        return ret;
+    }
+
     @Override
     public void run() {
         try {
@@ -166,7 +244,7 @@ public void shutdown() {
         if (dispatcherThreadPool != null) {
             dispatcherThreadPool.shutdownNow();
             try {
-                if (!dispatcherThreadPool.awaitTermination(30, java.util.concurrent.TimeUnit.SECONDS)) {
+                if (!dispatcherThreadPool.awaitTermination(30, TimeUnit.SECONDS)) {
                     LOG.warn("{} dispatcher thread pool did not terminate within 30 seconds", getDispatcherName());
                 }
             } catch (InterruptedException e) {
@@ -175,7 +253,20 @@ public void shutdown() {
             }
         }
 
+        if (dispatcherWriterPool != null) {
+            dispatcherWriterPool.shutdown();
+            try {
+                if (!dispatcherWriterPool.awaitTermination(30, TimeUnit.SECONDS)) {
+                    dispatcherWriterPool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                dispatcherWriterPool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
         dispatcherWorkers.clear();
+        partitionStats.clear();
 
         if (dispatcher != null) {
             try {
@@ -197,6 +288,11 @@ protected void startDispatcherWorkers() {
         dispatcherThreadPool = Executors.newFixedThreadPool(dispatcherThreadCount);
         LOG.info("Created thread pool with {} threads for scalable {} consumption", dispatcherThreadCount, getDispatcherName());
 
+        if (dispatcherWriterThreadCount > 0) {
+            dispatcherWriterPool = Executors.newFixedThreadPool(dispatcherWriterThreadCount);
+            LOG.info("Created writer pool with {} threads for {} destination writes", dispatcherWriterThreadCount, getDispatcherName());
+        }
+
         for (int i = 0; i < dispatcherThreadCount; i++) {
             String workerId = getDispatcherName().toLowerCase() + "-worker-" + i;
             DispatcherWorker worker = createDispatcherWorker(workerId, new ArrayList<>());
@@ -209,7 +305,7 @@ protected void startDispatcherWorkers() {
         LOG.info("<== AuditDispatcherBase.startDispatcherWorkers(): All {} workers started in SUBSCRIBE mode", dispatcherThreadCount);
     }
 
-    protected abstract class DispatcherWorker implements Runnable {
+    protected abstract class DispatcherWorker implements Runnable, AuditDispatcherRebalanceListener.PartitionLifecycleHandler {
         protected final String workerId;
         protected final List<Integer> assignedPartitions;
         protected KafkaConsumer<String, String> workerDispatcher;
@@ -219,12 +315,101 @@ protected abstract class DispatcherWorker implements Runnable {
         protected final AtomicLong lastCommitTime = new AtomicLong(System.currentTimeMillis());
         protected final AtomicInteger messagesProcessedSinceLastCommit = new AtomicInteger(0);
 
+        // Dispatch pipeline state; accessed only from the polling thread
+        private final Map<TopicPartition, Deque<InFlightBatch>> inFlightBatches     = new HashMap<>();
+        private final Map<TopicPartition, Long>                 retryAfterTime      = new HashMap<>();
+        private final Set<TopicPartition>                       pausedPartitions    = new HashSet<>();
+        private long                                            lastStatsSampleTime = System.currentTimeMillis();
+
         public DispatcherWorker(String workerId, List<Integer> assignedPartitions) {
             this.workerId = workerId;
             this.assignedPartitions = assignedPartitions;
         }
 
-        protected abstract void processRecordBatch(ConsumerRecords<String, String> records);
+        /**
+         * Submit each partition's records in the given batch to the writer pool. Dispatchers whose destination
+         * writes must stay on the polling thread override this, and report progress via recordDispatched() and
+         * recordFailed(), or via addPersistingBatch() when the destination persists the written records later.
+         */
+        protected void processRecordBatch(ConsumerRecords<String, String> records) {
+            for (TopicPartition partition : records.partitions()) {
+                List<ConsumerRecord<String, String>> partitionRecords = records.records(partition);
+
+                if (partitionRecords.isEmpty()) {
+                    continue;
+                }
+
+                Deque<InFlightBatch> batches = inFlightBatches.computeIfAbsent(partition, k -> new ArrayDeque<>());
+                InFlightBatch        batch   = new InFlightBatch(partitionRecords.get(0).offset(), partitionRecords.get(partitionRecords.size() - 1).offset() + 1, partitionRecords.size());
+
+                LOG.debug("{} worker '{}' dispatching: partition={}, offsets={}-{}", getDispatcherName(), workerId, partition, batch.firstOffset, batch.nextOffset - 1);
+
+                batch.result = CompletableFuture.runAsync(() -> writeBatch(batch, partitionRecords), dispatcherWriterPool != null ? dispatcherWriterPool : Runnable::run);
+
+                batches.add(batch);
+
+                if (batches.size() >= maxInFlightBatchesPerPartition) {
+                    pausePartition(partition);
+                }
+            }
+        }
+
+        /**
+         * Track a batch written by an overriding processRecordBatch() whose records the destination persists
+         * later: its offsets are committed once the given future completes, in offset order like the batches of
+         * the writer pool, and a failure rewinds the partition to the batch's first offset.
+         */
+        protected void addPersistingBatch(TopicPartition partition, long firstOffset, long nextOffset, int recordCount, CompletableFuture<Void> persisted) {
+            InFlightBatch batch = new InFlightBatch(firstOffset, nextOffset, recordCount);
+
+            batch.result = persisted.whenComplete((r, e) -> batch.endTime = System.currentTimeMillis());
+
+            inFlightBatches.computeIfAbsent(partition, k -> new ArrayDeque<>()).add(batch);
+        }
+
+        protected void recordDispatched(TopicPartition partition, int recordCount, long elapsedMs) {
+            getPartitionStats(partition).recordDispatched(recordCount, elapsedMs);
+        }
+
+        protected void recordFailed(TopicPartition partition) {
+            getPartitionStats(partition).batchesFailed.increment();
+        }
+
+        /**
+         * Pause the partition for retryBackoffMs, after a failed write; used instead of sleeping the polling thread,
+         * which would delay poll() of the other partitions and can exceed max.poll.interval.ms.
+         */
+        protected void backOffPartition(TopicPartition partition) {
+            retryAfterTime.put(partition, System.currentTimeMillis() + retryBackoffMs);
+            pausePartition(partition);
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            // Give batches already handed to the destination a chance to complete, so that their offsets
+            // are committed before the partitions move to another worker
+            awaitInFlightBatches(partitions);
+            collectCompletedBatches();
+
+            for (TopicPartition partition : partitions) {
+                Deque<InFlightBatch> batches = inFlightBatches.remove(partition);
+
+                if (batches != null && !batches.isEmpty()) {
+                    LOG.warn("{} worker '{}': discarding {} unacknowledged batches of revoked partition {}; these will be redelivered", getDispatcherName(), workerId, batches.size(), partition);
+                }
+
+                retryAfterTime.remove(partition);
+                pausedPartitions.remove(partition);
+                partitionStats.computeIfPresent(partition, (k, v) -> workerId.equals(v.workerId) ? null : v);
+            }
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            for (TopicPartition partition : partitions) {
+                partitionStats.put(partition, new PartitionStats(workerId, partition));
+            }
+        }
 
         @Override
         public void run() {
@@ -249,7 +434,8 @@ public void run() {
                         pendingOffsets,
                         messagesProcessedSinceLastCommit,
                         lastCommitTime,
-                        assignedPartitions);
+                        assignedPartitions,
+                        this);
 
                 // Subscribe to topic with re-balance listener
                 workerDispatcher.subscribe(Collections.singletonList(topicName), rebalanceListener);
@@ -266,15 +452,32 @@ public void run() {
 
                     if (!records.isEmpty()) {
                         processRecordBatch(records);
-                        // Handle offset committing based on strategy
-                        handleOffsetCommitting();
                     }
+
+                    collectCompletedBatches();
+
+                    // Handle offset committing based on strategy
+                    handleOffsetCommitting();
+
+                    sampleStats();
                 }
             } catch (Throwable e) {
                 LOG.error("Error in {} dispatcher worker '{}'", getDispatcherName(), workerId, e);
             } finally {
-                // Final offset commit before shutdown
-                commitPendingOffsets(true);
+                // the consumer refuses to commit while the thread is interrupted, which is the case on shutdownNow()
+                boolean interrupted = Thread.interrupted();
+
+                try {
+                    awaitInFlightBatches(inFlightBatches.keySet());
+                    collectCompletedBatches();
+
+                    // Final offset commit before shutdown
+                    commitPendingOffsets(true);
+                } finally {
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
 
                 if (workerDispatcher != null) {
                     try {
@@ -295,6 +498,170 @@ public void run() {
             }
         }
 
+        private void writeBatch(InFlightBatch batch, List<ConsumerRecord<String, String>> records) {
+            try {
+                List<String> audits = records.stream().map(ConsumerRecord::value).collect(Collectors.toList());
+
+                processMessageBatch(audits);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                batch.endTime = System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * Move offsets of batches acknowledged by the destination to pendingOffsets, in offset order; only the
+         * completed prefix of each partition's batches is drained. A failed batch pauses its partition; once the
+         * batches submitted after it have completed too, the partition is rewound to the failed batch, the later
+         * batches are discarded (they will be redelivered) and the partition stays paused for retryBackoffMs.
+         */
+        private void collectCompletedBatches() {
+            long now = System.currentTimeMillis();
+
+            for (Iterator<Map.Entry<TopicPartition, Deque<InFlightBatch>>> iter = inFlightBatches.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<TopicPartition, Deque<InFlightBatch>> entry     = iter.next();
+                TopicPartition                                  partition = entry.getKey();
+                Deque<InFlightBatch>                            batches   = entry.getValue();
+
+                while (!batches.isEmpty() && batches.peekFirst().result.isDone()) {
+                    InFlightBatch batch = batches.peekFirst();
+
+                    if (!batch.result.isCompletedExceptionally()) {
+                        batches.pollFirst();
+
+                        pendingOffsets.put(partition, new OffsetAndMetadata(batch.nextOffset));
+                        messagesProcessedSinceLastCommit.addAndGet(batch.recordCount);
+
+                        recordDispatched(partition, batch.recordCount, batch.endTime - batch.startTime);
+
+                        continue;
+                    }
+
+                    if (!batch.isFailureHandled) {
+                        Throwable error = batch.result.handle((r, e) -> e instanceof CompletionException && e.getCause() != null ? e.getCause() : e).join();
+
+                        LOG.error("Error processing batch in {} worker '{}': partition={}, offsets={}-{}, discarding {} later batches",
+                                getDispatcherName(), workerId, partition, batch.firstOffset, batch.nextOffset - 1, batches.size() - 1, error);
+
+                        recordFailed(partition);
+                        pausePartition(partition);
+
+                        batch.isFailureHandled = true;
+                    }
+
+                    // later batches may still be writing: rewind only after they complete, so that none of them
+                    // writes after the partition is re-fetched from the failed batch
+                    if (batches.stream().allMatch(b -> b.result.isDone())) {
+                        batches.clear();
+
+                        try {
+                            workerDispatcher.seek(partition, batch.firstOffset);
+                        } catch (Exception seekEx) {
+                            LOG.error("Failed to seek to offset {} for partition {} after batch error", batch.firstOffset, partition, seekEx);
+                        }
+
+                        // back off this partition only, instead of sleeping the polling thread
+                        backOffPartition(partition);
+                    }
+
+                    break;
+                }
+
+                boolean isRewindPending = !batches.isEmpty() && batches.peekFirst().isFailureHandled;
+
+                if (batches.size() < maxInFlightBatchesPerPartition && !isRewindPending && !retryAfterTime.containsKey(partition)) {
+                    resumePartition(partition);
+                }
+
+                if (batches.isEmpty()) {
+                    iter.remove();
+                }
+            }
+
+            for (Iterator<Map.Entry<TopicPartition, Long>> iter = retryAfterTime.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<TopicPartition, Long> entry = iter.next();
+
+                if (entry.getValue() <= now) {
+                    iter.remove();
+
+                    resumePartition(entry.getKey());
+                }
+            }
+        }
+
+        private void awaitInFlightBatches(Collection<TopicPartition> partitions) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+
+            for (TopicPartition partition : partitions) {
+                Deque<InFlightBatch> batches = inFlightBatches.get(partition);
+
+                if (batches != null) {
+                    batches.forEach(batch -> results.add(batch.result));
+                }
+            }
+
+            if (!results.isEmpty()) {
+                flushDestination();
+
+                try {
+                    CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(IN_FLIGHT_DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    // failures are handled in collectCompletedBatches(); timed-out batches are left unacknowledged
+                    LOG.debug("{} worker '{}': in-flight batches did not all complete successfully", getDispatcherName(), workerId, e);
+                }
+            }
+        }
+
+        private void pausePartition(TopicPartition partition) {
+            if (pausedPartitions.add(partition)) {
+                workerDispatcher.pause(Collections.singleton(partition));
+            }
+        }
+
+        private void resumePartition(TopicPartition partition) {
+            if (pausedPartitions.remove(partition)) {
+                workerDispatcher.resume(Collections.singleton(partition));
+            }
+        }
+
+        private PartitionStats getPartitionStats(TopicPartition partition) {
+            return partitionStats.computeIfAbsent(partition, k -> new PartitionStats(workerId, k));
+        }
+
+        private void sampleStats() {
+            long now = System.currentTimeMillis();
+
+            if ((now - lastStatsSampleTime) < STATS_SAMPLE_INTERVAL_MS) {
+                return;
+            }
+
+            for (PartitionStats stats : partitionStats.values()) {
+                if (!workerId.equals(stats.workerId)) {
+                    continue;
+                }
+
+                Deque<InFlightBatch> batches = inFlightBatches.get(stats.partition);
+
+                stats.inFlightBatches = batches != null ? batches.size() : 0;
+                stats.paused          = pausedPartitions.contains(stats.partition);
+
+                try {
+                    OptionalLong lag = workerDispatcher.currentLag(stats.partition);
+
+                    stats.lag = lag.isPresent() ? lag.getAsLong() : -1;
+                } catch (Exception e) {
+                    stats.lag = -1;
+                }
+
+                stats.sampleThroughput(now);
+            }
+
+            lastStatsSampleTime = now;
+        }
+
         private void configureOffsetManagement(Properties dispatcherProps) {
             // Always disable auto commit - only batch or manual strategies supported
             dispatcherProps.put("enable.auto.commit", "false");
@@ -329,6 +696,8 @@ private void commitPendingOffsets(boolean isShutdown) {
                 LOG.debug("{} worker '{}' committed {} offsets, processed {} messages",
                         getDispatcherName(), workerId, pendingOffsets.size(), messagesProcessedSinceLastCommit.get());
 
+                updateCommittedOffsets();
+
                 // Clear committed offsets
                 pendingOffsets.clear();
                 lastCommitTime.set(System.currentTimeMillis());
@@ -341,6 +710,7 @@ private void commitPendingOffsets(boolean isShutdown) {
                     try {
                         Thread.sleep(1000);
                         workerDispatcher.commitSync(pendingOffsets);
+                        updateCommittedOffsets();
                         LOG.info("Successfully committed offsets on retry during shutdown for {} worker '{}'", getDispatcherName(), workerId);
                     } catch (Exception retryException) {
                         LOG.error("Failed to commit offsets even on retry during shutdown for {} worker '{}'", getDispatcherName(), workerId, retryException);
@@ -348,5 +718,98 @@ private void commitPendingOffsets(boolean isShutdown) {
                 }
             }
         }
+
+        private void updateCommittedOffsets() {
+            for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : pendingOffsets.entrySet()) {
+                PartitionStats stats = partitionStats.get(entry.getKey());
+
+                if (stats != null) {
+                    stats.committedOffset = entry.getValue().offset();
+                }
+            }
+        }
+    }
+
+    private static class InFlightBatch {
+        final long              firstOffset;
+        final long              nextOffset;
+        final int               recordCount;
+        final long              startTime = System.currentTimeMillis();
+        volatile long           endTime;
+        CompletableFuture<Void> result;
+        boolean                 isFailureHandled;
+
+        InFlightBatch(long firstOffset, long nextOffset, int recordCount) {
+            this.firstOffset = firstOffset;
+            this.nextOffset  = nextOffset;
+            this.recordCount = recordCount;
+        }
+    }
+
+    /**
+     * Dispatch statistics of a partition, updated by the worker the partition is assigned to. Lag, in-flight
+     * batches and throughput are sampled every STATS_SAMPLE_INTERVAL_MS.
+     */
+    public static class PartitionStats {
+        public final String         workerId;
+        public final TopicPartition partition;
+        public final LongAdder      recordsDispatched = new LongAdder();
+        public final LongAdder      batchesDispatched = new LongAdder();
+        public final LongAdder      batchesFailed     = new LongAdder();
+        public final LongAdder      writeTimeTotalMs  = new LongAdder();
+        public volatile long        committedOffset   = -1;
+        public volatile long        lag               = -1;
+        public volatile int         inFlightBatches;
+        public volatile boolean     paused;
+        public volatile double      recordsPerSecond;
+
+        private long lastSampleTime    = System.currentTimeMillis();
+        private long lastSampleRecords;
+
+        public PartitionStats(String workerId, TopicPartition partition) {
+            this.workerId  = workerId;
+            this.partition = partition;
+        }
+
+        void recordDispatched(int recordCount, long elapsedMs) {
+            recordsDispatched.add(recordCount);
+            batchesDispatched.increment();
+            writeTimeTotalMs.add(elapsedMs);
+        }
+
+        void sampleThroughput(long now) {
+            long records = recordsDispatched.sum();
+            long elapsed = now - lastSampleTime;
+
+            if (elapsed > 0) {
+                recordsPerSecond = (records - lastSampleRecords) * 1000.0 / elapsed;
+            }
+
+            lastSampleTime    = now;
+            lastSampleRecords = records;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> ret     = new LinkedHashMap<>();
+            long                batches = batchesDispatched.sum();
+
+            ret.put("worker", workerId);
+            ret.put("recordsDispatched", recordsDispatched.sum());
+            ret.put("batchesDispatched", batches);
+            ret.put("batchesFailed", batchesFailed.sum());
+            ret.put("avgBatchLatencyMs", batches > 0 ? writeTimeTotalMs.sum() / batches : 0);
+            ret.put("recordsPerSecond", Math.round(recordsPerSecond * 100) / 100.0);
+            ret.put("committedOffset", committedOffset);
+            ret.put("lag", lag);
+            ret.put("inFlightBatches", inFlightBatches);
+            ret.put("paused", paused);
+
+            return ret;
+        }
+
+        @Override
+        public String toString() {
+            return "PartitionStats{" + partition + ", " + toMap() + "}";
+        }
     }
 }
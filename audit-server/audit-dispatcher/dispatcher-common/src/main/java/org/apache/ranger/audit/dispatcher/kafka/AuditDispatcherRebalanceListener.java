@@ -56,6 +56,21 @@ public class AuditDispatcherRebalanceListener implements ConsumerRebalanceListen
     private final AtomicInteger                          messagesProcessedSinceLastCommit;
     private final AtomicLong                             lastCommitTime;
     private final List<Integer>                          assignedPartitions;
+    private final PartitionLifecycleHandler              lifecycleHandler;
+
+    /**
+     * Callbacks for workers that keep per-partition state, such as batches still being written to the destination.
+     * Both are invoked on the polling thread, from within KafkaConsumer.poll().
+     */
+    public interface PartitionLifecycleHandler {
+        /**
+         * Called before pending offsets are committed, so that acknowledged writes of revoked partitions can be
+         * added to pending offsets and the remaining in-flight batches discarded.
+         */
+        void onPartitionsRevoked(Collection<TopicPartition> partitions);
+
+        void onPartitionsAssigned(Collection<TopicPartition> partitions);
+    }
 
     public AuditDispatcherRebalanceListener(
             String workerId,
@@ -68,6 +83,21 @@ public AuditDispatcherRebalanceListener(
             AtomicInteger messagesProcessedSinceLastCommit,
             AtomicLong lastCommitTime,
             List<Integer> assignedPartitions) {
+        this(workerId, destinationType, topicName, offsetCommitStrategy, dispatcherGroupId, workerDispatcher, pendingOffsets, messagesProcessedSinceLastCommit, lastCommitTime, assignedPartitions, null);
+    }
+
+    public AuditDispatcherRebalanceListener(
+            String workerId,
+            String destinationType,
+            String topicName,
+            String offsetCommitStrategy,
+            String dispatcherGroupId,
+            KafkaConsumer<String, String> workerDispatcher,
+            Map<TopicPartition, OffsetAndMetadata> pendingOffsets,
+            AtomicInteger messagesProcessedSinceLastCommit,
+            AtomicLong lastCommitTime,
+            List<Integer> assignedPartitions,
+            PartitionLifecycleHandler lifecycleHandler) {
         this.workerId                         = workerId;
         this.destinationType                  = destinationType;
         this.topicName                        = topicName;
@@ -78,12 +108,21 @@ public AuditDispatcherRebalanceListener(
         this.messagesProcessedSinceLastCommit = messagesProcessedSinceLastCommit;
         this.lastCommitTime                   = lastCommitTime;
         this.assignedPartitions               = assignedPartitions;
+        this.lifecycleHandler                 = lifecycleHandler;
     }
 
     @Override
     public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
         LOG.info("[{}-REBALANCE] Worker '{}': Partitions REVOKED: {} (count: {})", destinationType, workerId, partitions, partitions.size());
 
+        if (lifecycleHandler != null) {
+            try {
+                lifecycleHandler.onPartitionsRevoked(partitions);
+            } catch (Exception e) {
+                LOG.error("[{}-REBALANCE] Worker '{}': Failed to release revoked partitions", destinationType, workerId, e);
+            }
+        }
+
         // Commit pending offsets before partitions are revoked
         if (!pendingOffsets.isEmpty()) {
             try {
@@ -112,6 +151,10 @@ public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
             assignedPartitions.add(tp.partition());
         }
 
+        if (lifecycleHandler != null) {
+            lifecycleHandler.onPartitionsAssigned(partitions);
+        }
+
         // Log assignment details
         LOG.info("[{}-DISPATCHER-ASSIGNED] Worker '{}' | Topic: '{}' | Partitions: {} | Offset-Strategy: {} | Dispatcher-Group: {}",
                 destinationType, workerId, topicName, assignedPartitions, offsetCommitStrategy, dispatcherGroupId);
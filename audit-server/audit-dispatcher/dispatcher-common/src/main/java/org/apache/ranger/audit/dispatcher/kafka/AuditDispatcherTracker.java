@@ -22,6 +22,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -61,6 +62,23 @@ public Set<String> getActiveDispatcherTypes() {
         return activeDispatchers.keySet();
     }
 
+    /**
+     * Runtime metrics of active dispatchers, like per-partition lag and throughput, keyed by destination type.
+     */
+    public Map<String, Map<String, Object>> getDispatcherMetrics() {
+        Map<String, Map<String, Object>> ret = new LinkedHashMap<>();
+
+        for (Map.Entry<String, AuditDispatcher> entry : activeDispatchers.entrySet()) {
+            try {
+                ret.put(entry.getKey(), entry.getValue().getMetrics());
+            } catch (Exception e) {
+                LOG.warn("Failed to get metrics of dispatcher for destination type: {}", entry.getKey(), e);
+            }
+        }
+
+        return ret;
+    }
+
     /**
       * Called during shutdown after dispatchers have been stopped.
      */
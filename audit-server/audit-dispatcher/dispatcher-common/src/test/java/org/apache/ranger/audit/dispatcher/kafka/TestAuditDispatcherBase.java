@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.dispatcher.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.ranger.audit.server.AuditServerConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class TestAuditDispatcherBase {
+    private static final String         PROP_PREFIX = "xasecure.audit.destination.test";
+    private static final TopicPartition PARTITION   = new TopicPartition("ranger_audits", 0);
+
+    private TestDispatcher                       dispatcher;
+    private ManualExecutor                       writerPool;
+    private AuditDispatcherBase.DispatcherWorker worker;
+    private KafkaConsumer<String, String>        consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        Properties props = new Properties();
+
+        props.setProperty(PROP_PREFIX + "." + AuditServerConstants.PROP_BOOTSTRAP_SERVERS, "localhost:9092");
+
+        dispatcher = new TestDispatcher(props);
+        writerPool = new ManualExecutor();
+        consumer   = mock(KafkaConsumer.class);
+
+        dispatcher.dispatcherWriterPool           = writerPool;
+        dispatcher.maxInFlightBatchesPerPartition = 10;
+
+        worker = dispatcher.createDispatcherWorker("test-worker-0", new ArrayList<>());
+
+        worker.workerDispatcher = consumer;
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.dispatcher.close();
+    }
+
+    @Test
+    void testOutOfOrderCompletionCommitsOnlyContiguousAcks() throws Exception {
+        worker.processRecordBatch(records(0, "a1", "a2"));
+        worker.processRecordBatch(records(2, "b1", "b2"));
+        worker.processRecordBatch(records(4, "c1", "c2"));
+
+        assertEquals(3, writerPool.tasks.size());
+
+        // the last batch completes first: nothing before it is acknowledged yet
+        writerPool.run(2);
+        collectCompletedBatches();
+
+        assertNull(worker.pendingOffsets.get(PARTITION));
+
+        // the first batch completes: offsets advance only past it, as the second batch is still in flight
+        writerPool.run(0);
+        collectCompletedBatches();
+
+        assertEquals(new OffsetAndMetadata(2), worker.pendingOffsets.get(PARTITION));
+
+        // the second batch completes: offsets advance past the third batch, which was already acknowledged
+        writerPool.run(1);
+        collectCompletedBatches();
+
+        assertEquals(new OffsetAndMetadata(6), worker.pendingOffsets.get(PARTITION));
+        assertEquals(6, worker.messagesProcessedSinceLastCommit.get());
+        verify(consumer, never()).seek(PARTITION, 0);
+    }
+
+    @Test
+    void testFailedBatchRewindsPartitionAndDiscardsLaterAcks() throws Exception {
+        worker.processRecordBatch(records(0, "a1", "a2"));
+        worker.processRecordBatch(records(2, "fail", "b2"));
+        worker.processRecordBatch(records(4, "c1", "c2"));
+
+        writerPool.run(2);
+        writerPool.run(1);
+        writerPool.run(0);
+        collectCompletedBatches();
+
+        // only the batch before the failed one is committed; the failed and later batches are redelivered
+        assertEquals(new OffsetAndMetadata(2), worker.pendingOffsets.get(PARTITION));
+        assertEquals(2, worker.messagesProcessedSinceLastCommit.get());
+        assertEquals(1, dispatcher.partitionStats.get(PARTITION).batchesFailed.sum());
+
+        verify(consumer).seek(PARTITION, 2);
+        verify(consumer).pause(Collections.singleton(PARTITION));
+    }
+
+    @Test
+    void testFailedBatchRewindsOnlyAfterLaterBatchesComplete() throws Exception {
+        worker.processRecordBatch(records(0, "fail", "a2"));
+        worker.processRecordBatch(records(2, "b1", "b2"));
+
+        // the failed batch pauses the partition, but the later batch is still writing: no rewind yet
+        writerPool.run(0);
+        collectCompletedBatches();
+
+        verify(consumer).pause(Collections.singleton(PARTITION));
+        verify(consumer, never()).seek(PARTITION, 0);
+        assertEquals(1, dispatcher.partitionStats.get(PARTITION).batchesFailed.sum());
+
+        // the later batch completes: the partition is rewound to the failed batch and its ack is discarded
+        writerPool.run(1);
+        collectCompletedBatches();
+
+        verify(consumer).seek(PARTITION, 0);
+        verify(consumer, never()).resume(Collections.singleton(PARTITION));
+        assertNull(worker.pendingOffsets.get(PARTITION));
+        assertEquals(1, dispatcher.partitionStats.get(PARTITION).batchesFailed.sum());
+    }
+
+    @Test
+    void testPersistingBatchCommittedOnlyOncePersisted() throws Exception {
+        CompletableFuture<Void> persisted1 = new CompletableFuture<>();
+        CompletableFuture<Void> persisted2 = new CompletableFuture<>();
+
+        worker.addPersistingBatch(PARTITION, 0, 2, 2, persisted1);
+        worker.addPersistingBatch(PARTITION, 2, 4, 2, persisted2);
+
+        // written, but still buffered by the destination: nothing is committed
+        collectCompletedBatches();
+
+        assertNull(worker.pendingOffsets.get(PARTITION));
+
+        persisted1.complete(null);
+        collectCompletedBatches();
+
+        assertEquals(new OffsetAndMetadata(2), worker.pendingOffsets.get(PARTITION));
+
+        // the destination discarded the buffered rows: the partition is rewound to the first unpersisted record
+        persisted2.completeExceptionally(new Exception("ORC file could not be closed"));
+        collectCompletedBatches();
+
+        assertEquals(new OffsetAndMetadata(2), worker.pendingOffsets.get(PARTITION));
+        verify(consumer).seek(PARTITION, 2);
+        verify(consumer).pause(Collections.singleton(PARTITION));
+    }
+
+    @Test
+    void testPartitionPausedAtMaxInFlightBatches() {
+        dispatcher.maxInFlightBatchesPerPartition = 2;
+
+        worker.processRecordBatch(records(0, "a1"));
+
+        verify(consumer, never()).pause(Collections.singleton(PARTITION));
+
+        worker.processRecordBatch(records(1, "b1"));
+
+        verify(consumer).pause(Collections.singleton(PARTITION));
+    }
+
+    private void collectCompletedBatches() throws Exception {
+        Method method = AuditDispatcherBase.DispatcherWorker.class.getDeclaredMethod("collectCompletedBatches");
+
+        method.setAccessible(true);
+        method.invoke(worker);
+    }
+
+    private static ConsumerRecords<String, String> records(long firstOffset, String... values) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+
+        for (int i = 0; i < values.length; i++) {
+            records.add(new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), firstOffset + i, "app", values[i]));
+        }
+
+        return new ConsumerRecords<>(Collections.singletonMap(PARTITION, records));
+    }
+
+    private static class TestDispatcher extends AuditDispatcherBase {
+        TestDispatcher(Properties props) throws Exception {
+            super(props, PROP_PREFIX, "test-dispatcher-group");
+        }
+
+        @Override
+        protected String getDispatcherName() {
+            return "TEST";
+        }
+
+        @Override
+        protected DispatcherWorker createDispatcherWorker(String workerId, List<Integer> assignedPartitions) {
+            return new DispatcherWorker(workerId, assignedPartitions) {};
+        }
+
+        @Override
+        protected void processMessageBatch(Collection<String> audits) throws Exception {
+            if (audits.contains("fail")) {
+                throw new Exception("destination rejected the batch");
+            }
+        }
+    }
+
+    /**
+     * Runs submitted writes only when the test asks for them, so that batches can be completed in any order.
+     */
+    private static class ManualExecutor extends AbstractExecutorService {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        void run(int index) {
+            tasks.get(index).run();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
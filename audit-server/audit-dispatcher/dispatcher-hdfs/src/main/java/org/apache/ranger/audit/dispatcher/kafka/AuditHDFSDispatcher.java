@@ -23,7 +23,6 @@
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.ranger.audit.provider.AuditProviderFactory;
 import org.apache.ranger.audit.provider.MiscUtil;
@@ -33,10 +32,12 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class AuditHDFSDispatcher extends AuditDispatcherBase {
     private static final Logger LOG = LoggerFactory.getLogger(AuditHDFSDispatcher.class);
@@ -66,6 +67,15 @@ protected DispatcherWorker createDispatcherWorker(String workerId, List<Integer>
         return new HDFSDispatcherWorker(workerId, assignedPartitions);
     }
 
+    /**
+     * HDFSDispatcherWorker writes on the polling thread using the record keys; this routes batches handed over
+     * without keys by the app_id in each message.
+     */
+    @Override
+    protected void processMessageBatch(Collection<String> audits) throws Exception {
+        auditRouterHDFS.routeAuditMessages(new ArrayList<>(audits));
+    }
+
     @Override
     protected void shutdownDestination() {
         if (auditRouterHDFS != null) {
@@ -77,6 +87,11 @@ protected void shutdownDestination() {
         }
     }
 
+    @Override
+    protected void flushDestination() {
+        auditRouterHDFS.flushDestinations();
+    }
+
     private void init(Properties props, String propPrefix) throws Exception {
         LOG.info("==> AuditHDFSDispatcher.init():  AuditHDFSDispatcher initializing with appId-based threading and offset management");
 
@@ -95,8 +110,8 @@ private void init(Properties props, String propPrefix) throws Exception {
         LOG.info("<== AuditHDFSDispatcher.init(): AuditHDFSDispatcher initialized successfully");
     }
 
-    private void processMessage(String message, String partitionKey) throws Exception {
-        auditRouterHDFS.routeAuditMessage(message, partitionKey);
+    private CompletableFuture<Void> processMessages(List<String> messages, String partitionKey) throws Exception {
+        return auditRouterHDFS.routeAuditMessages(messages, partitionKey);
     }
 
     private void initializeRangerUGI(Properties props, String propPrefix) throws Exception {
@@ -270,51 +285,64 @@ public HDFSDispatcherWorker(String workerId, List<Integer> assignedPartitions) {
             super(workerId, assignedPartitions);
         }
 
+        /**
+         * Records are written in runs of consecutive records of a partition having the same key (appId), so that
+         * each run reaches the destination writer as one batch. Runs are written on the polling thread, as the
+         * HDFS writers append to a file per appId and must see the records in offset order. ORC writers buffer the
+         * rows of several runs before persisting them, hence offsets advance only once a run is persisted; if the
+         * rows are discarded, or the write fails, the partition is rewound to the first record of the run.
+         */
         @Override
         protected void processRecordBatch(ConsumerRecords<String, String> records) {
-            Set<TopicPartition> failedPartitions = new HashSet<>();
+            for (TopicPartition partition : records.partitions()) {
+                List<ConsumerRecord<String, String>> partitionRecords = records.records(partition);
+                int                                  runStart         = 0;
 
-            for (ConsumerRecord<String, String> record : records) {
-                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                while (runStart < partitionRecords.size()) {
+                    String       runKey      = partitionRecords.get(runStart).key();
+                    int          runEnd      = runStart;
+                    List<String> runMessages = new ArrayList<>();
 
-                if (failedPartitions.contains(partition)) {
-                    continue; // Skip remaining records for this partition in the current batch
-                }
+                    while (runEnd < partitionRecords.size() && Objects.equals(runKey, partitionRecords.get(runEnd).key())) {
+                        runMessages.add(partitionRecords.get(runEnd).value());
 
-                try {
-                    LOG.debug("HDFS worker '{}' consumed: partition={}, key={}, offset={}",
-                            workerId, record.partition(), record.key(), record.offset());
+                        runEnd++;
+                    }
 
-                    // Process the message using the destination handler
-                    // The partition key (record.key()) contains the appId for HDFS path routing
-                    processMessage(record.value(), record.key());
+                    ConsumerRecord<String, String> firstRecord = partitionRecords.get(runStart);
+                    ConsumerRecord<String, String> lastRecord  = partitionRecords.get(runEnd - 1);
 
-                    // Track offset for manual commit strategies
-                    pendingOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
-                    messagesProcessedSinceLastCommit.incrementAndGet();
-                } catch (Exception e) {
-                    LOG.error("Error processing message in HDFS worker '{}': partition={}, key={}, offset={}",
-                            workerId, record.partition(), record.key(), record.offset(), e);
+                    try {
+                        LOG.debug("HDFS worker '{}' consumed: partition={}, key={}, offsets={}-{}",
+                                workerId, partition.partition(), runKey, firstRecord.offset(), lastRecord.offset());
 
-                    // On error, track the offset of the failed message so we retry it
-                    pendingOffsets.put(partition, new OffsetAndMetadata(record.offset()));
+                        // The partition key (record.key()) contains the appId for HDFS path routing
+                        CompletableFuture<Void> persisted = processMessages(runMessages, runKey);
 
-                    // Seek the consumer back to the failed offset so it is re-fetched in the next poll
-                    try {
-                        workerDispatcher.seek(partition, record.offset());
-                    } catch (Exception seekEx) {
-                        LOG.error("Failed to seek to offset {} for partition {} after processing error", record.offset(), partition, seekEx);
-                    }
+                        // Offsets are moved to pendingOffsets once the run is persisted
+                        addPersistingBatch(partition, firstRecord.offset(), lastRecord.offset() + 1, runMessages.size(), persisted);
+                    } catch (Exception e) {
+                        LOG.error("Error processing messages in HDFS worker '{}': partition={}, key={}, offsets={}-{}",
+                                workerId, partition.partition(), runKey, firstRecord.offset(), lastRecord.offset(), e);
 
-                    // Add sleep to prevent frequent polling when HDFS is completely down
-                    try {
-                        Thread.sleep(5000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
+                        recordFailed(partition);
+
+                        // Seek the consumer back to the failed offset so it is re-fetched in the next poll
+                        try {
+                            workerDispatcher.seek(partition, firstRecord.offset());
+                        } catch (Exception seekEx) {
+                            LOG.error("Failed to seek to offset {} for partition {} after processing error", firstRecord.offset(), partition, seekEx);
+                        }
+
+                        // Pause only this partition to prevent frequent retries when HDFS is down; polling continues
+                        // for the other partitions
+                        backOffPartition(partition);
+
+                        // Don't process subsequent records for this partition in this batch
+                        break;
                     }
 
-                    // Mark this partition as failed so we don't process subsequent records for it in this batch
-                    failedPartitions.add(partition);
+                    runStart = runEnd;
                 }
             }
         }
@@ -27,17 +27,28 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Router class that routes audit messages to different HDFSAuditDestination instances
  * based on the app_id.
  * Each app_id gets its own HDFSAuditDestination instance for separate path configuration.
- * Writes are synchronous to ensure Kafka offset commits only happen after successful HDFS writes,
- * enabling automatic recovery via Kafka redelivery on failures.
+ * Writes are synchronous, but ORC writers persist buffered rows with an intermediate footer by size or interval
+ * rather than per batch: routeAuditMessages(messages, partitionKey) returns a future that completes once the
+ * messages are persisted, so that Kafka offsets are committed only for persisted audits and the rest are
+ * redelivered after a failure or a crash. Destinations are flushed every orc.flush.interval.ms so that rows don't
+ * stay buffered while no new audits arrive.
  *
  * This router writes audits to HDFS as the rangerauditserver user. The audit folder in HDFS
  * should be configured with appropriate permissions to allow rangerauditserver to write audits
@@ -50,6 +61,7 @@ public class AuditRouterHDFS {
     private final ObjectMapper                      jsonMapper     = new ObjectMapper();
     private       Properties                        props;
     private       String                            hdfsPropPrefix;
+    private       ScheduledExecutorService          flushExecutor;
 
     public AuditRouterHDFS() {
     }
@@ -61,6 +73,20 @@ public void init(Properties props, String hdfsPropPrefix) {
         this.props.putAll(props);
         this.hdfsPropPrefix = hdfsPropPrefix;
 
+        long flushIntervalMs = MiscUtil.getLongProperty(props, hdfsPropPrefix + ".orc.flush.interval.ms", 30 * 1000L);
+
+        if (flushIntervalMs > 0) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "AuditRouterHDFS-flush");
+
+                t.setDaemon(true);
+
+                return t;
+            });
+
+            flushExecutor.scheduleWithFixedDelay(this::flushDestinations, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
         LOG.info("<== AuditRouterHDFS.init()");
     }
 
@@ -69,37 +95,97 @@ public void init(Properties props, String hdfsPropPrefix) {
      * @param message JSON audit message
      * @param partitionKey The partition key from Kafka (used as app_id)
      */
-    public void routeAuditMessage(String message, String partitionKey) throws Exception {
-        LOG.debug("==> AuditRouterHDFS:routeAuditMessage(): Message => {}, partitionKey => {}", message, partitionKey);
+    public CompletableFuture<Void> routeAuditMessage(String message, String partitionKey) throws Exception {
+        return routeAuditMessages(Collections.singletonList(message), partitionKey);
+    }
+
+    /**
+     * Routes audit messages that don't carry a partition key, taking the app_id from each message. Each run of
+     * consecutive messages having the same app_id is written as one batch; the destinations are flushed before
+     * returning if any of the messages are still buffered.
+     * @param messages JSON audit messages
+     */
+    public void routeAuditMessages(List<String> messages) throws Exception {
+        List<CompletableFuture<Void>> persisted = new ArrayList<>();
+        int                           runStart  = 0;
+
+        while (runStart < messages.size()) {
+            String appId  = extractAppId(messages.get(runStart), null);
+            int    runEnd = runStart + 1;
+
+            while (runEnd < messages.size() && Objects.equals(appId, extractAppId(messages.get(runEnd), null))) {
+                runEnd++;
+            }
+
+            persisted.add(routeAuditMessages(messages.subList(runStart, runEnd), appId));
+
+            runStart = runEnd;
+        }
+
+        if (!persisted.stream().allMatch(CompletableFuture::isDone)) {
+            flushDestinations();
+        }
 
         try {
-            String appId         = extractAppId(message, partitionKey);
-            String serviceType   = extractServiceType(message);
-            String agentHostname = extractAgentHostname(message);
+            CompletableFuture.allOf(persisted.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new Exception("Error persisting audit messages to HDFS", e.getCause());
+        }
+    }
+
+    /**
+     * Routes a batch of audit messages sharing the same partition key to the HDFSAuditDestination for their app_id,
+     * in a single write; for ORC this lets the whole batch be written as column vectors into one stripe.
+     * @param messages JSON audit messages
+     * @param partitionKey The partition key from Kafka (used as app_id)
+     * @return future that completes once the messages are persisted, and completes exceptionally if the
+     * destination discarded them before they were persisted
+     * @throws Exception if the messages could not be written
+     */
+    public CompletableFuture<Void> routeAuditMessages(List<String> messages, String partitionKey) throws Exception {
+        LOG.debug("==> AuditRouterHDFS:routeAuditMessages(): messageCount => {}, partitionKey => {}", messages.size(), partitionKey);
+
+        CompletableFuture<Void> ret = CompletableFuture.completedFuture(null);
 
-            LOG.debug("Routing audit message for app_id: {}, serviceType: {}, agentHostname: {}", appId, serviceType, agentHostname);
+        if (messages.isEmpty()) {
+            return ret;
+        }
+
+        try {
+            String appId = extractAppId(messages.get(0), partitionKey);
 
             // Get or create HDFSAuditDestination for the appId
             if (appId != null) {
-                HDFSAuditDestination hdfsAuditDestination = getHdfsAuditDestination(appId, serviceType, agentHostname);
+                HDFSAuditDestination hdfsAuditDestination = destinationMap.get(appId);
 
-                boolean success = hdfsAuditDestination.logJSON(Collections.singletonList(message));
+                if (hdfsAuditDestination == null) {
+                    String serviceType   = extractServiceType(messages.get(0));
+                    String agentHostname = extractAgentHostname(messages.get(0));
 
-                if (!success) {
+                    LOG.debug("Routing audit messages for app_id: {}, serviceType: {}, agentHostname: {}", appId, serviceType, agentHostname);
+
+                    hdfsAuditDestination = getHdfsAuditDestination(appId, serviceType, agentHostname);
+                }
+
+                ret = hdfsAuditDestination.logJSONDeferred(messages);
+
+                if (ret == null) {
                     throw new Exception("Failed to write audit to HDFS for app_id: " + appId);
                 }
 
-                LOG.debug("Successfully wrote audit for app_id: {}", appId);
+                LOG.debug("Successfully wrote {} audits for app_id: {}", messages.size(), appId);
             } else {
                 LOG.warn("Unable to extract app_id from message, skipping audit write");
             }
         } catch (Exception e) {
             String errorMessage = "Error routing audit message to HDFS";
-            LOG.error("AuditRouterHDFS:routeAuditMessage(): Error routing audit message: {}", message, e);
+            LOG.error("AuditRouterHDFS:routeAuditMessages(): Error routing {} audit messages for partitionKey: {}", messages.size(), partitionKey, e);
             throw new Exception(errorMessage, e);
         }
 
-        LOG.debug("<== AuditRouterHDFS:routeAuditMessage()");
+        LOG.debug("<== AuditRouterHDFS:routeAuditMessages()");
+
+        return ret;
     }
 
     /**
@@ -299,9 +385,26 @@ private String getUniqueInstanceIdentifier() {
         return jvmInstanceId;
     }
 
+    /**
+     * Persists the rows buffered by all destinations, completing the futures of the messages written so far.
+     */
+    public void flushDestinations() {
+        for (Map.Entry<String, HDFSAuditDestination> entry : destinationMap.entrySet()) {
+            try {
+                entry.getValue().flush();
+            } catch (Exception e) {
+                LOG.error("Error flushing HDFSAuditDestination for app_id: {}", entry.getKey(), e);
+            }
+        }
+    }
+
     public void shutdown() {
         LOG.info("==> AuditRouterHDFS.shutdown()");
 
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+
         // Stop all destinations
         for (Map.Entry<String, HDFSAuditDestination> entry : destinationMap.entrySet()) {
             String appId = entry.getKey();
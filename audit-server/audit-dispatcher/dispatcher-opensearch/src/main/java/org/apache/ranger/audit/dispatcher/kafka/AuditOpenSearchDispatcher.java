@@ -19,10 +19,6 @@
 
 package org.apache.ranger.audit.dispatcher.kafka;
 
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.OffsetAndMetadata;
-import org.apache.kafka.common.TopicPartition;
 import org.apache.ranger.audit.destination.OpenSearchAuditDestination;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.audit.server.AuditServerConstants;
@@ -31,15 +27,15 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
-import java.util.stream.Collectors;
 
 public class AuditOpenSearchDispatcher extends AuditDispatcherBase {
     private static final Logger LOG = LoggerFactory.getLogger(AuditOpenSearchDispatcher.class);
 
     private static final String DEFAULT_GROUP = "ranger_audit_opensearch_dispatcher_group";
-    private static final long   RETRY_SLEEP_MS = 5000L;
 
     private final OpenSearchAuditDestination openSearchAuditDestination;
 
@@ -61,6 +57,15 @@ protected final DispatcherWorker createDispatcherWorker(final String workerId, f
         return new OpenSearchDispatcherWorker(workerId, assignedPartitions);
     }
 
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new LinkedHashMap<>(super.getMetrics());
+
+        ret.put("destination", openSearchAuditDestination.getBatchMetrics());
+
+        return ret;
+    }
+
     @Override
     protected final void shutdownDestination() {
         if (openSearchAuditDestination != null) {
@@ -90,7 +95,8 @@ private void init(final Properties props, final String propPrefix) {
         LOG.info("<== AuditOpenSearchDispatcher.init()");
     }
 
-    private void processMessageBatch(final Collection<String> audits) throws Exception {
+    @Override
+    protected void processMessageBatch(final Collection<String> audits) throws Exception {
         if (audits != null && !audits.isEmpty()) {
             boolean processed =  openSearchAuditDestination.logJSON(audits);
 
@@ -104,46 +110,5 @@ private class OpenSearchDispatcherWorker extends DispatcherWorker {
         OpenSearchDispatcherWorker(final String workerId, final List<Integer> assignedPartitions) {
             super(workerId, assignedPartitions);
         }
-
-        @Override
-        protected void processRecordBatch(final ConsumerRecords<String, String> records) {
-            for (TopicPartition tp : records.partitions()) {
-                List<ConsumerRecord<String, String>> tpRecords = records.records(tp);
-
-                if (tpRecords.isEmpty()) {
-                    continue;
-                }
-
-                try {
-                    List<String> auditBatch = tpRecords.stream().map(ConsumerRecord::value).collect(Collectors.toList());
-
-                    processMessageBatch(auditBatch);
-
-                    ConsumerRecord<String, String> last = tpRecords.get(tpRecords.size() - 1);
-
-                    pendingOffsets.put(tp, new OffsetAndMetadata(last.offset() + 1));
-
-                    messagesProcessedSinceLastCommit.addAndGet(tpRecords.size());
-                } catch (Exception e) {
-                    LOG.error("Error processing batch in worker '{}', partition={}, batch size: {}", workerId, tp, tpRecords.size(), e);
-
-                    ConsumerRecord<String, String> first = tpRecords.get(0);
-
-                    pendingOffsets.put(tp, new OffsetAndMetadata(first.offset()));
-
-                    try {
-                        workerDispatcher.seek(tp, first.offset());
-                    } catch (Exception seekEx) {
-                        LOG.error("Failed to seek to offset {} for partition {} after OpenSearch batch error", first.offset(), tp, seekEx);
-                    }
-
-                    try {
-                        Thread.sleep(RETRY_SLEEP_MS);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
-        }
     }
 }
@@ -19,10 +19,6 @@
 
 package org.apache.ranger.audit.dispatcher.kafka;
 
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.OffsetAndMetadata;
-import org.apache.kafka.common.TopicPartition;
 import org.apache.ranger.audit.destination.SolrAuditDestination;
 import org.apache.ranger.audit.provider.AuditProviderFactory;
 import org.apache.ranger.audit.provider.MiscUtil;
@@ -31,9 +27,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -67,6 +62,15 @@ protected DispatcherWorker createDispatcherWorker(String workerId, List<Integer>
         return new SolrDispatcherWorker(workerId, assignedPartitions);
     }
 
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new LinkedHashMap<>(super.getMetrics());
+
+        ret.put("destination", solrAuditDestination.getBatchMetrics());
+
+        return ret;
+    }
+
     @Override
     protected void shutdownDestination() {
         if (solrAuditDestination != null) {
@@ -104,10 +108,12 @@ private void init(Properties props, String propPrefix) throws Exception {
      * Process a batch of audit messages.
      * This method leverages SolrAuditDestination's batch processing capability
      * to send multiple audits to Solr in a single request, improving performance.
+     * Called concurrently from the dispatcher writer pool.
      *
      * @param audits Collection of audit messages in JSON format
      * @throws Exception if batch processing fails
      */
+    @Override
     public void processMessageBatch(Collection<String> audits) throws Exception {
         boolean processed = audits != null && !audits.isEmpty() && solrAuditDestination.logJSON(audits);
 
@@ -120,75 +126,5 @@ private class SolrDispatcherWorker extends DispatcherWorker {
         public SolrDispatcherWorker(String workerId, List<Integer> assignedPartitions) {
             super(workerId, assignedPartitions);
         }
-
-        /**
-         * Process a batch of records.
-         * In generic worker mode, processes messages from ANY appId.
-         * Uses batch processing to send all records to Solr in one request for efficiency.
-         */
-        @Override
-        protected void processRecordBatch(ConsumerRecords<String, String> records) {
-            // Collect all audit messages for batch processing
-            List<String> auditBatch = new ArrayList<>();
-            List<ConsumerRecord<String, String>> recordList = new ArrayList<>();
-
-            for (ConsumerRecord<String, String> record : records) {
-                LOG.debug("Worker '{}' consumed: partition={}, key={}, offset={}",
-                        workerId, record.partition(), record.key(), record.offset());
-
-                auditBatch.add(record.value());
-                recordList.add(record);
-            }
-
-            // Process entire batch at once
-            try {
-                if (!auditBatch.isEmpty()) {
-                    processMessageBatch(auditBatch);
-
-                    // Track offsets for all successfully processed messages
-                    for (ConsumerRecord<String, String> record : recordList) {
-                        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
-                        pendingOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
-                        messagesProcessedSinceLastCommit.incrementAndGet();
-                    }
-                }
-            } catch (Exception e) {
-                LOG.error("Error processing batch in worker '{}', batch size: {}",
-                        workerId, auditBatch.size(), e);
-
-                // On batch error, track offsets up to the first message to avoid reprocessing
-                // We use seek to ensure Kafka re-delivers this exact batch
-                if (!recordList.isEmpty()) {
-                    // Because records could span multiple partitions, we must track the first
-                    // offset and issue a seek for EVERY partition present in this batch.
-                    Map<TopicPartition, Long> firstOffsets = new HashMap<>();
-
-                    for (ConsumerRecord<String, String> record : recordList) {
-                        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
-                        firstOffsets.putIfAbsent(partition, record.offset());
-                    }
-
-                    for (Map.Entry<TopicPartition, Long> entry : firstOffsets.entrySet()) {
-                        TopicPartition partition = entry.getKey();
-                        Long firstOffset = entry.getValue();
-
-                        pendingOffsets.put(partition, new OffsetAndMetadata(firstOffset));
-
-                        try {
-                            workerDispatcher.seek(partition, firstOffset);
-                        } catch (Exception seekEx) {
-                            LOG.error("Failed to seek to offset {} for partition {} after Solr batch error", firstOffset, partition, seekEx);
-                        }
-                    }
-
-                    // Add sleep to prevent frequent polling when Solr is completely down
-                    try {
-                        Thread.sleep(5000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
-        }
     }
 }
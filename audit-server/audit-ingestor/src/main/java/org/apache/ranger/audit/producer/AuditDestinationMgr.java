@@ -21,6 +21,7 @@
 
 import org.apache.ranger.audit.model.AuditEventBase;
 import org.apache.ranger.audit.producer.kafka.AuditMessageQueue;
+import org.apache.ranger.audit.producer.kafka.AuditRecoveryManager;
 import org.apache.ranger.audit.provider.AuditHandler;
 import org.apache.ranger.audit.provider.AuditProviderFactory;
 import org.apache.ranger.audit.provider.MiscUtil;
@@ -34,6 +35,9 @@
 import javax.annotation.PreDestroy;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 @Component
@@ -110,4 +114,60 @@ public boolean logBatch(Collection<? extends AuditEventBase> events, String appI
 
         return ret;
     }
+
+    /**
+     * @param messages List of serialized audit events (NDJSON lines) to forward as a batch without re-encoding
+     * @param appId The application ID for this batch (used as Kafka partition key)
+     * @return true if batch was processed successfully, false otherwise
+     */
+    public boolean logSerializedBatch(List<String> messages, String appId) {
+        if (auditHandler == null) {
+            init();
+        }
+
+        LOG.debug("Processing serialized batch of {} events with appId: {}", messages.size(), appId);
+
+        AuditHandler auditHandler = this.auditHandler;
+        boolean      ret          = auditHandler instanceof AuditMessageQueue && ((AuditMessageQueue) auditHandler).logSerialized(messages, appId);
+
+        if (!ret) {
+            LOG.error("Batch processing failed for {} serialized events with appId: {}. Events have been spooled to recovery system.", messages.size(), appId);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return ingest throughput, send latency and recovery fallback counters; empty if Kafka destination is not enabled
+     */
+    public Map<String, Object> getIngestMetrics() {
+        Map<String, Object> ret          = new LinkedHashMap<>();
+        AuditHandler        auditHandler = this.auditHandler;
+
+        if (auditHandler instanceof AuditMessageQueue) {
+            AuditMessageQueue                  messageQueue  = (AuditMessageQueue) auditHandler;
+            AuditMessageQueue.IngestStats      ingestStats   = messageQueue.getIngestStats();
+            AuditRecoveryManager.RecoveryStats recoveryStats = messageQueue.getRecoveryStats();
+
+            ret.put("eventsReceived", ingestStats.eventsReceived);
+            ret.put("eventsSent", ingestStats.eventsSent);
+            ret.put("eventsFailed", ingestStats.eventsFailed);
+            ret.put("batchesSent", ingestStats.batchesSent);
+            ret.put("batchesFailed", ingestStats.batchesFailed);
+            ret.put("inFlightBatches", ingestStats.inFlightBatches);
+            ret.put("sendTimeAvgMs", ingestStats.sendTimeAvgMs);
+            ret.put("sendTimeMaxMs", ingestStats.sendTimeMaxMs);
+            ret.put("recoveryEventsSpooled", ingestStats.eventsSpooled);
+            ret.put("recoveryEventsSpoolFailed", ingestStats.eventsSpoolFailed);
+
+            if (recoveryStats != null) {
+                ret.put("recoveryWriterQueueSize", recoveryStats.writerQueueSize);
+                ret.put("recoveryRetryTotalRetried", recoveryStats.retryTotalRetried);
+                ret.put("recoveryRetryTotalSucceeded", recoveryStats.retryTotalSucceeded);
+                ret.put("recoveryRetryTotalFailed", recoveryStats.retryTotalFailed);
+            }
+        }
+
+        return ret;
+    }
 }
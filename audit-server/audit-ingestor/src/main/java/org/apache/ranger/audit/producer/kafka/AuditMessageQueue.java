@@ -33,21 +33,38 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * AuditMessageQueue creates the necessary kafka queue for http post to relay the audit events into kafka.
  * It creates the necessary audit topics, producer threads and recovery threads.
+ * <p>
+ * log() methods are not synchronized: KafkaProducer is thread-safe, so REST request threads serialize and
+ * send their batches concurrently. Partition selection stays with AuditPartitioner, keyed by agentId/appId.
  */
 public class AuditMessageQueue extends AuditDestination {
     private static final Logger LOG = LoggerFactory.getLogger(AuditMessageQueue.class);
 
     private static final String PROP_INGESTOR_PREFIX = "ranger.audit.ingestor";
 
-    private KafkaProducer<String, String> kafkaProducer;
-    private AuditProducer                 auditProducerRunnable;
-    private String                        topicName;
-    private Thread                        producerThread;
-    private AuditRecoveryManager          recoveryManager;
+    private volatile KafkaProducer<String, String> kafkaProducer;
+    private volatile AuditProducer                 auditProducerRunnable;
+    private volatile String                        topicName;
+    private volatile AuditRecoveryManager          recoveryManager;
+    private          Thread                        producerThread;
+
+    // ingest metrics; updated lock-free from concurrent REST request threads
+    private final LongAdder  eventsReceived    = new LongAdder();
+    private final LongAdder  eventsSent        = new LongAdder();
+    private final LongAdder  eventsFailed      = new LongAdder();
+    private final LongAdder  batchesSent       = new LongAdder();
+    private final LongAdder  batchesFailed     = new LongAdder();
+    private final LongAdder  sendTimeTotalMs   = new LongAdder();
+    private final AtomicLong sendTimeMaxMs     = new AtomicLong();
+    private final LongAdder  eventsSpooled     = new LongAdder();
+    private final LongAdder  eventsSpoolFailed = new LongAdder();
+    private final AtomicLong inFlightBatches   = new AtomicLong();
 
     @Override
     public void init(Properties props, String propPrefix) {
@@ -128,9 +145,11 @@ public void stop() {
     }
 
     @Override
-    public synchronized boolean log(final AuditEventBase event) {
+    public boolean log(final AuditEventBase event) {
         boolean ret = false;
         if (event instanceof AuthzAuditEvent) {
+            eventsReceived.increment();
+
             AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
 
             /**
@@ -142,19 +161,24 @@ Partition key is agentId (aka plugin ID). AuditPartitioner allocates configured
             final String message = MiscUtil.stringify(event);
 
             try {
-                if (kafkaProducer != null) {
+                final KafkaProducer<String, String> producer = kafkaProducer;
+
+                if (producer != null) {
                     MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Void>) () -> {
-                        AuditProducer.send(kafkaProducer, topicName, key, message);
+                        AuditProducer.send(producer, topicName, key, message);
                         return null;
                     });
+                    eventsSent.increment();
                     ret = true;
                 } else {
                     // Kafka producer not available - spool to file for recovery
                     LOG.warn("Kafka producer not available, spooling message to recovery");
+                    eventsFailed.increment();
                     spoolToRecovery(key, message);
                 }
             } catch (Throwable t) {
                 LOG.error("Error sending message to Kafka topic. topic={}, key={}, message={}", topicName, key, t.getMessage());
+                eventsFailed.increment();
                 // Spool to file for recovery
                 spoolToRecovery(key, message);
             }
@@ -163,24 +187,19 @@ Partition key is agentId (aka plugin ID). AuditPartitioner allocates configured
     }
 
     @Override
-    public synchronized boolean log(final Collection<AuditEventBase> events) {
+    public boolean log(final Collection<AuditEventBase> events) {
         return log(events, null);
     }
 
     @Override
-    public synchronized boolean log(final Collection<AuditEventBase> events, String batchKey) {
+    public boolean log(final Collection<AuditEventBase> events, String batchKey) {
         if (events == null || events.isEmpty()) {
             return true;
         }
 
         LOG.debug("==> AuditMessageQueue.log(Collection, batchKey): Processing batch of {} events with explicit batchKey: {}", events.size(), batchKey);
 
-        boolean allSuccess   = true;
-        int     successCount = 0;
-        int     failCount    = 0;
-
         // Prepare batch data - all events use the SAME appId key for batch commit
-        List<AuthzAuditEvent> authzEvents = new ArrayList<>();
         List<String> messages = new ArrayList<>();
 
         for (AuditEventBase event : events) {
@@ -205,55 +224,86 @@ public synchronized boolean log(final Collection<AuditEventBase> events, String
                     LOG.debug("Using first event's agentId as batch key: {}", batchKey);
                 }
 
-                authzEvents.add(authzEvent);
                 messages.add(MiscUtil.stringify(event));
             }
         }
 
-        if (authzEvents.isEmpty()) {
+        if (messages.isEmpty()) {
             LOG.warn("No valid AuthzAuditEvent found in batch");
             return false;
         }
 
+        boolean ret = logSerialized(messages, batchKey);
+
+        LOG.debug("<== AuditMessageQueue.log(Collection, batchKey): ret={}", ret);
+
+        return ret;
+    }
+
+    /**
+     * Send a batch of already serialized audit events to Kafka, without deserializing/re-encoding each event.
+     * Used for NDJSON batches posted to the ingestor, where plugins have already populated the event fields.
+     *
+     * @param messages serialized audit events
+     * @param batchKey partition key (appId) for all events in the batch
+     * @return true if all messages were sent to Kafka; false if some/all were spooled to recovery
+     */
+    public boolean logSerialized(final List<String> messages, String batchKey) {
+        if (messages == null || messages.isEmpty()) {
+            return true;
+        }
+
+        LOG.debug("==> AuditMessageQueue.logSerialized(): Processing batch of {} events with batchKey: {}", messages.size(), batchKey);
+
+        boolean allSuccess   = true;
+        int     successCount = 0;
+        int     failCount    = 0;
+
         if (batchKey == null || batchKey.isEmpty()) {
             LOG.warn("Batch key (appId) is null or empty. Using default key.");
             batchKey = "unknown-appId";
         }
 
-        LOG.debug("Batch of {} events will be committed with batch key (appId): {}", authzEvents.size(), batchKey);
+        LOG.debug("Batch of {} events will be committed with batch key (appId): {}", messages.size(), batchKey);
+
+        eventsReceived.add(messages.size());
+
+        long startTimeMs = System.currentTimeMillis();
+
+        inFlightBatches.incrementAndGet();
 
         try {
-            if (topicName == null || kafkaProducer == null) {
-                init(props, propPrefix);
-            }
+            ensureInitialized();
+
+            final KafkaProducer<String, String> producer = kafkaProducer;
 
-            if (kafkaProducer != null) {
+            if (producer != null) {
                 // Send entire batch to Kafka with same batch key (appId) for all events
                 // With custom partitioning: events distributed round-robin for load balancing
                 // Without custom partitioning: all events to same partition for ordering
                 final String finalBatchKey = batchKey;
                 MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<Void>) () -> {
-                    AuditProducer.sendBatch(kafkaProducer, topicName, finalBatchKey, messages);
+                    AuditProducer.sendBatch(producer, topicName, finalBatchKey, messages);
                     return null;
                 });
-                successCount = authzEvents.size();
+                successCount = messages.size();
                 allSuccess   = true;
                 LOG.debug("Successfully sent batch of {} events to Kafka topic: {} with key: {}", successCount, topicName, finalBatchKey);
             } else {
-                LOG.warn("Kafka producer not available, spooling batch of {} messages to recovery", authzEvents.size());
+                LOG.warn("Kafka producer not available, spooling batch of {} messages to recovery", messages.size());
                 for (String message : messages) {
                     spoolToRecovery(batchKey, message);
                 }
-                failCount  = authzEvents.size();
+                failCount  = messages.size();
                 allSuccess = false;
             }
         } catch (AuditProducer.BatchSendException bse) {
             // Partial failure - only retry the failed messages to avoid duplicates
             List<String> failedMessages = bse.getFailedMessages();
             int          failedCount    = failedMessages.size();
-            int          succeededCount = authzEvents.size() - failedCount;
+            int          succeededCount = messages.size() - failedCount;
 
-            LOG.error("Partial batch failure: {}/{} events failed, {} succeeded. Spooling only failed events to recovery.", failedCount, authzEvents.size(), succeededCount);
+            LOG.error("Partial batch failure: {}/{} events failed, {} succeeded. Spooling only failed events to recovery.", failedCount, messages.size(), succeededCount);
 
             for (String message : failedMessages) {
                 spoolToRecovery(batchKey, message);
@@ -264,19 +314,46 @@ public synchronized boolean log(final Collection<AuditEventBase> events, String
             allSuccess   = false;
         } catch (Throwable t) {
             // Complete failure (timeout, connection error, etc.) - retry entire batch
-            LOG.error("Complete batch failure for {} events. Spooling entire batch to recovery. Error: {}", authzEvents.size(), t.getMessage());
+            LOG.error("Complete batch failure for {} events. Spooling entire batch to recovery. Error: {}", messages.size(), t.getMessage());
             for (String message : messages) {
                 spoolToRecovery(batchKey, message);
             }
-            failCount  = authzEvents.size();
+            failCount  = messages.size();
             allSuccess = false;
+        } finally {
+            inFlightBatches.decrementAndGet();
         }
 
-        LOG.debug("<== AuditMessageQueue.log(Collection, batchKey): successCount={}, failCount={}", successCount, failCount);
+        recordBatch(successCount, failCount, System.currentTimeMillis() - startTimeMs);
+
+        LOG.debug("<== AuditMessageQueue.logSerialized(): successCount={}, failCount={}", successCount, failCount);
 
         return allSuccess;
     }
 
+    /**
+     * Get ingest statistics for monitoring
+     */
+    public IngestStats getIngestStats() {
+        IngestStats ret = new IngestStats();
+
+        ret.eventsReceived    = eventsReceived.sum();
+        ret.eventsSent        = eventsSent.sum();
+        ret.eventsFailed      = eventsFailed.sum();
+        ret.batchesSent       = batchesSent.sum();
+        ret.batchesFailed     = batchesFailed.sum();
+        ret.inFlightBatches   = inFlightBatches.get();
+        ret.sendTimeMaxMs     = sendTimeMaxMs.get();
+        ret.eventsSpooled     = eventsSpooled.sum();
+        ret.eventsSpoolFailed = eventsSpoolFailed.sum();
+
+        long batchCount = ret.batchesSent + ret.batchesFailed;
+
+        ret.sendTimeAvgMs = batchCount > 0 ? (sendTimeTotalMs.sum() / batchCount) : 0;
+
+        return ret;
+    }
+
     public KafkaProducer<String, String> getKafkaProducer() {
         return kafkaProducer;
     }
@@ -285,6 +362,33 @@ private void setKafkaProducer(KafkaProducer<String, String> kafkaProducer) {
         this.kafkaProducer = kafkaProducer;
     }
 
+    /**
+     * Lazily (re)initializes topic and producer when they were unavailable at startup. Only this path is
+     * serialized; once the producer exists, concurrent log() calls never contend on this monitor.
+     */
+    private void ensureInitialized() {
+        if (topicName == null || kafkaProducer == null) {
+            synchronized (this) {
+                if (topicName == null || kafkaProducer == null) {
+                    init(props, propPrefix);
+                }
+            }
+        }
+    }
+
+    private void recordBatch(int successCount, int failCount, long elapsedMs) {
+        eventsSent.add(successCount);
+        eventsFailed.add(failCount);
+        sendTimeTotalMs.add(elapsedMs);
+        sendTimeMaxMs.accumulateAndGet(elapsedMs, Math::max);
+
+        if (failCount > 0) {
+            batchesFailed.increment();
+        } else {
+            batchesSent.increment();
+        }
+    }
+
     private void startRangerAuditRecoveryThread() {
         LOG.info("==> AuditMessageQueue.startRangerAuditRecoveryThread()");
 
@@ -357,14 +461,19 @@ private void createRecoveryManager(final Properties props, final String propPref
      * Spool failed audit message to recovery system
      */
     private void spoolToRecovery(String key, String message) {
+        AuditRecoveryManager recoveryManager = this.recoveryManager;
+
         if (recoveryManager != null) {
             boolean queued = recoveryManager.addFailedMessage(key, message);
             if (queued) {
+                eventsSpooled.increment();
                 LOG.debug("Spooled failed message to recovery system");
             } else {
+                eventsSpoolFailed.increment();
                 LOG.warn("Failed to spool message to recovery system - queue may be full or recovery disabled");
             }
         } else {
+            eventsSpoolFailed.increment();
             LOG.warn("Recovery manager not initialized - cannot spool failed message");
         }
     }
@@ -378,4 +487,37 @@ public AuditRecoveryManager.RecoveryStats getRecoveryStats() {
         }
         return null;
     }
+
+    /**
+     * Ingest statistics for monitoring
+     */
+    public static class IngestStats {
+        public long eventsReceived;
+        public long eventsSent;
+        public long eventsFailed;
+        public long batchesSent;
+        public long batchesFailed;
+        public long inFlightBatches;
+        public long sendTimeAvgMs;
+        public long sendTimeMaxMs;
+        public long eventsSpooled;
+        public long eventsSpoolFailed;
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("IngestStats{")
+                    .append(" eventsReceived= ").append(eventsReceived)
+                    .append(" eventsSent= ").append(eventsSent)
+                    .append(" eventsFailed= ").append(eventsFailed)
+                    .append(" batchesSent= ").append(batchesSent)
+                    .append(" batchesFailed= ").append(batchesFailed)
+                    .append(" inFlightBatches= ").append(inFlightBatches)
+                    .append(" sendTimeAvgMs= ").append(sendTimeAvgMs)
+                    .append(" sendTimeMaxMs= ").append(sendTimeMaxMs)
+                    .append(" eventsSpooled= ").append(eventsSpooled)
+                    .append(" eventsSpoolFailed= ").append(eventsSpoolFailed)
+                    .append(" }");
+            return sb.toString();
+        }
+    }
 }
@@ -26,6 +26,7 @@
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.audit.server.AuditServerConfig;
 import org.apache.ranger.audit.server.AuditServerConstants;
+import org.apache.ranger.audit.utils.AuditNdjsonReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +43,7 @@
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -59,9 +61,11 @@ public class AuditREST {
     private static final Logger LOG = LoggerFactory.getLogger(AuditREST.class);
 
     private static final Map<String, Set<String>> allowedServiceUsers;
+    private static final long                     maxNdjsonBatchBytes;
 
     static {
         allowedServiceUsers = initializeAllowedUsers();
+        maxNdjsonBatchBytes = AuditServerConfig.getInstance().getLong(AuditServerConstants.PROP_NDJSON_MAX_BATCH_BYTES, AuditServerConstants.DEFAULT_NDJSON_MAX_BATCH_BYTES);
         initializeAuthToLocal();
     }
 
@@ -130,6 +134,11 @@ public Response getStatus() {
             resp.put("status", status);
             resp.put("timestamp", System.currentTimeMillis());
             resp.put("service", "ranger-audit-server");
+
+            if (auditDestinationMgr != null) {
+                resp.put("metrics", auditDestinationMgr.getIngestMetrics());
+            }
+
             jsonString = buildResponse(resp);
             ret = Response.status(Response.Status.OK)
                     .entity(jsonString)
@@ -162,37 +171,16 @@ public Response logAccessAudit(@QueryParam("serviceName") String serviceName, @Q
 
         Response ret;
         String authenticatedUser = getAuthenticatedUser(request);
+        Response errorResponse   = validateAuditRequest(serviceName, authenticatedUser);
 
-        if (auditDestinationMgr == null) {
-            LOG.error("AuditDestinationMgr not initialized");
-
-            ret = Response.status(Response.Status.SERVICE_UNAVAILABLE)
-                    .entity(buildErrorResponse("Audit service not available"))
-                    .build();
+        if (errorResponse != null) {
+            ret = errorResponse;
         } else if (accessAudits == null || accessAudits.isEmpty()) {
             LOG.warn("Empty or null audit events batch received from serviceName: {}, user: {}", serviceName, authenticatedUser);
 
             ret = Response.status(Response.Status.BAD_REQUEST)
                     .entity(buildErrorResponse("Audit events cannot be empty"))
                     .build();
-        } else if (StringUtils.isBlank(serviceName)) {
-            LOG.error("serviceName query parameter is required. Rejecting audit request.");
-
-            ret = Response.status(Response.Status.BAD_REQUEST)
-                    .entity(buildErrorResponse("serviceName query parameter is required"))
-                    .build();
-        } else if (StringUtils.isEmpty(authenticatedUser)) {
-            LOG.error("No authenticated user found. Rejecting audit request.");
-
-            ret = Response.status(Response.Status.UNAUTHORIZED)
-                    .entity(buildErrorResponse("Authentication required to send audit events"))
-                    .build();
-        } else if (!isAllowedServiceUser(serviceName, authenticatedUser)) {
-            LOG.error("Unauthorized user: user={} is authorized report audit logs for service={}. Rejecting audit request.", authenticatedUser, serviceName);
-
-            ret = Response.status(Response.Status.FORBIDDEN)
-                    .entity(buildErrorResponse("User is not authorized to send audit events"))
-                    .build();
         } else {
             try {
                 LOG.debug("Processing {} audit events from service: {}, appId: {}", accessAudits.size(), serviceName, appId);
@@ -200,24 +188,8 @@ public Response logAccessAudit(@QueryParam("serviceName") String serviceName, @Q
                 boolean success = auditDestinationMgr.logBatch(accessAudits, appId);
 
                 if (success) {
-                    Map<String, Object> response = new HashMap<>();
-
-                    response.put("total", accessAudits.size());
-                    response.put("timestamp", System.currentTimeMillis());
-                    response.put("serviceName", serviceName);
-
-                    if (StringUtils.isNotEmpty(appId)) {
-                        response.put("appId", appId);
-                    }
-
-                    if (StringUtils.isNotEmpty(authenticatedUser)) {
-                        response.put("authenticatedUser", authenticatedUser);
-                    }
-
-                    String jsonString = buildResponse(response);
-
                     ret = Response.status(Response.Status.OK)
-                            .entity(jsonString)
+                            .entity(buildSuccessResponse(accessAudits.size(), serviceName, appId, authenticatedUser))
                             .build();
                 } else {
                     LOG.warn("Batch processing failed for {} events from serviceName: {}, appId: {}. Events spooled to recovery.", accessAudits.size(), serviceName, appId);
@@ -240,6 +212,119 @@ public Response logAccessAudit(@QueryParam("serviceName") String serviceName, @Q
         return ret;
     }
 
+    /**
+     *  Access Audits producer endpoint for NDJSON batches: one serialized event per line, optionally gzip-compressed
+     *  (detected from the payload, Content-Encoding: gzip). Selected over the JSON endpoint by Content-Type; each line is
+     *  validated as an audit event and then forwarded to Kafka as-is, avoiding re-encoding in the ingestor.
+     *  @param serviceName Required query parameter to identify the source service (hdfs, hive, kafka, solr, etc.)
+     *  @param appId Query parameter identifying the application instance; used as Kafka partition key
+     *  @param body NDJSON request body
+     *  @param request HTTP request to extract authenticated user
+     */
+    @POST
+    @Path("/access")
+    @Consumes(AuditServerConstants.MEDIA_TYPE_NDJSON)
+    @Produces("application/json")
+    public Response logAccessAuditNdjson(@QueryParam("serviceName") String serviceName, @QueryParam("appId") String appId, InputStream body, @Context HttpServletRequest request) {
+        LOG.debug("==> AuditREST.logAccessAuditNdjson(serviceName={}, appId={})", serviceName, appId);
+
+        Response ret;
+        String   authenticatedUser = getAuthenticatedUser(request);
+        Response errorResponse     = validateAuditRequest(serviceName, authenticatedUser);
+
+        if (errorResponse != null) {
+            ret = errorResponse;
+        } else {
+            try {
+                List<String> messages = AuditNdjsonReader.readMessages(body, maxNdjsonBatchBytes);
+
+                if (messages.isEmpty()) {
+                    LOG.warn("Empty audit events batch received from serviceName: {}, user: {}", serviceName, authenticatedUser);
+
+                    ret = Response.status(Response.Status.BAD_REQUEST)
+                            .entity(buildErrorResponse("Audit events cannot be empty"))
+                            .build();
+                } else {
+                    String batchKey = StringUtils.isNotEmpty(appId) ? appId : AuditNdjsonReader.getAgentId(messages.get(0));
+
+                    LOG.debug("Processing {} NDJSON audit events from service: {}, appId: {}", messages.size(), serviceName, batchKey);
+
+                    if (auditDestinationMgr.logSerializedBatch(messages, batchKey)) {
+                        ret = Response.status(Response.Status.OK)
+                                .entity(buildSuccessResponse(messages.size(), serviceName, appId, authenticatedUser))
+                                .build();
+                    } else {
+                        LOG.warn("Batch processing failed for {} events from serviceName: {}, appId: {}. Events spooled to recovery.", messages.size(), serviceName, appId);
+
+                        ret = Response.status(Response.Status.ACCEPTED)
+                                .entity(buildErrorResponse("Batch processing failed. Events have been queued for retry."))
+                                .build();
+                    }
+                }
+            } catch (Exception e) {
+                LOG.error("Error processing NDJSON access audits batch from serviceName: {}, appId: {}", serviceName, appId, e);
+
+                ret = Response.status(Response.Status.BAD_REQUEST)
+                        .entity(buildErrorResponse("Failed to process audit events: " + e.getMessage()))
+                        .build();
+            }
+        }
+
+        LOG.debug("<== AuditREST.logAccessAuditNdjson(): HttpStatus {} for serviceName: {}, user: {}", ret.getStatus(), serviceName, authenticatedUser);
+
+        return ret;
+    }
+
+    private Response validateAuditRequest(String serviceName, String authenticatedUser) {
+        Response ret = null;
+
+        if (auditDestinationMgr == null) {
+            LOG.error("AuditDestinationMgr not initialized");
+
+            ret = Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(buildErrorResponse("Audit service not available"))
+                    .build();
+        } else if (StringUtils.isBlank(serviceName)) {
+            LOG.error("serviceName query parameter is required. Rejecting audit request.");
+
+            ret = Response.status(Response.Status.BAD_REQUEST)
+                    .entity(buildErrorResponse("serviceName query parameter is required"))
+                    .build();
+        } else if (StringUtils.isEmpty(authenticatedUser)) {
+            LOG.error("No authenticated user found. Rejecting audit request.");
+
+            ret = Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(buildErrorResponse("Authentication required to send audit events"))
+                    .build();
+        } else if (!isAllowedServiceUser(serviceName, authenticatedUser)) {
+            LOG.error("Unauthorized user: user={} is authorized report audit logs for service={}. Rejecting audit request.", authenticatedUser, serviceName);
+
+            ret = Response.status(Response.Status.FORBIDDEN)
+                    .entity(buildErrorResponse("User is not authorized to send audit events"))
+                    .build();
+        }
+
+        return ret;
+    }
+
+    private String buildSuccessResponse(int total, String serviceName, String appId, String authenticatedUser) {
+        Map<String, Object> response = new HashMap<>();
+
+        response.put("total", total);
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("serviceName", serviceName);
+
+        if (StringUtils.isNotEmpty(appId)) {
+            response.put("appId", appId);
+        }
+
+        if (StringUtils.isNotEmpty(authenticatedUser)) {
+            response.put("authenticatedUser", authenticatedUser);
+        }
+
+        return buildResponse(response);
+    }
+
     private String buildResponse(Map<String, Object> respMap) {
         try {
             return MiscUtil.getMapper().writeValueAsString(respMap);
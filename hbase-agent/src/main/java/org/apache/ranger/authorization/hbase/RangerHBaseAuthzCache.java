@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hbase;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResource;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+
+/**
+ * RegionServer-wide cache of Ranger results for requests built by AuthorizationSession, keyed by user, groups, table,
+ * column-family, column, access, resource-matching-scope and ignoreDescendantDeny. This covers table, family, family with
+ * descendants (as used when column auth optimization is enabled) and column level checks alike.
+ */
+public class RangerHBaseAuthzCache extends RangerAccessResultCache<RangerAccessResultCache.Key> {
+    public static final String  PROP_AUTHZ_CACHE_ENABLED     = "ranger.plugin.hbase.authz.cache.enabled";
+    public static final String  PROP_AUTHZ_CACHE_MAX_SIZE    = "ranger.plugin.hbase.authz.cache.max.size";
+    public static final boolean DEFAULT_AUTHZ_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_AUTHZ_CACHE_MAX_SIZE = 100000;
+
+    public RangerHBaseAuthzCache(RangerHBasePlugin plugin, int maxSize) {
+        super("RangerHBaseAuthzCache", plugin, maxSize);
+    }
+
+    /**
+     * @return key for the request; null if the request is not built by AuthorizationSession, hence is not cached
+     */
+    public static Key getKey(RangerAccessRequest request) {
+        RangerAccessResource resource = request.getResource();
+
+        if (!(resource instanceof RangerHBaseResource) || request.getAccessType() == null) {
+            return null;
+        }
+
+        return new Key(resource.getValue(RangerHBaseResource.KEY_COLUMN), resource.getValue(RangerHBaseResource.KEY_COLUMN_FAMILY), resource.getValue(RangerHBaseResource.KEY_TABLE),
+                request.getAccessType(), request.getResourceMatchingScope(), request.ignoreDescendantDeny(), request.getUser(), request.getUserGroups());
+    }
+}
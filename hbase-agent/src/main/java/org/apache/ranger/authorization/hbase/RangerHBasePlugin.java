@@ -18,11 +18,13 @@
  */
 package org.apache.ranger.authorization.hbase;
 
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.slf4j.Logger;
@@ -31,11 +33,19 @@
 public class RangerHBasePlugin extends RangerBasePlugin {
     private static final Logger LOG = LoggerFactory.getLogger(RangerHBasePlugin.class);
 
+    private final RangerHBaseAuthzCache authzCache;
+
     private boolean isHBaseShuttingDown;
     private boolean isColumnAuthOptimizationEnabled;
 
     public RangerHBasePlugin(String appType) {
         super("hbase", appType);
+
+        RangerPluginConfig config = getConfig();
+
+        this.authzCache = config.getBoolean(RangerHBaseAuthzCache.PROP_AUTHZ_CACHE_ENABLED, RangerHBaseAuthzCache.DEFAULT_AUTHZ_CACHE_ENABLED) ? new RangerHBaseAuthzCache(this, config.getInt(RangerHBaseAuthzCache.PROP_AUTHZ_CACHE_MAX_SIZE, RangerHBaseAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_SIZE)) : null;
+
+        LOG.info("{}:[{}]", RangerHBaseAuthzCache.PROP_AUTHZ_CACHE_ENABLED, authzCache != null);
     }
 
     public void setHBaseShuttingDown(boolean hbaseShuttingDown) {
@@ -63,12 +73,19 @@ public RangerAccessResult isAccessAllowed(RangerAccessRequest request, RangerAcc
 
             LOG.warn("Auth request came after HBase shutdown....");
         } else {
-            ret = super.isAccessAllowed(request, resultProcessor);
+            RangerAccessResultCache.Results<RangerAccessResultCache.Key> results = authzCache != null ? authzCache.getResults() : null;
+            RangerAccessResultCache.Key                                  key     = results != null ? RangerHBaseAuthzCache.getKey(request) : null;
+
+            ret = key != null ? results.getOrEvaluate(request, key, resultProcessor, r -> super.isAccessAllowed(r, resultProcessor)) : super.isAccessAllowed(request, resultProcessor);
         }
 
         return ret;
     }
 
+    public RangerHBaseAuthzCache getAuthzCache() {
+        return authzCache;
+    }
+
     public boolean getPropertyIsColumnAuthOptimizationEnabled() {
         return this.isColumnAuthOptimizationEnabled;
     }
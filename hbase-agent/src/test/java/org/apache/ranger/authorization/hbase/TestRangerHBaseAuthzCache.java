@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hbase;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestRangerHBaseAuthzCache {
+    @Test
+    public void test01_resultIsCopiedForNewRequest() {
+        RangerHBasePlugin     plugin = Mockito.mock(RangerHBasePlugin.class);
+        RangerHBaseAuthzCache cache  = new RangerHBaseAuthzCache(plugin, 10);
+
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> results  = cache.getResults();
+        RangerAccessRequest                                          request1 = getRequest("t1", "cf1", "c1", "read");
+        RangerAccessResult                                           result   = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "hbase", null, request1);
+
+        result.setIsAllowed(true);
+        result.setIsAccessDetermined(true);
+        result.setIsAudited(true);
+        result.setPolicyId(5);
+
+        Assertions.assertNull(results.get(RangerHBaseAuthzCache.getKey(request1), request1));
+
+        results.put(RangerHBaseAuthzCache.getKey(request1), result);
+
+        RangerAccessRequest request2 = getRequest("t1", "cf1", "c1", "read");
+        RangerAccessResult  cached   = results.get(RangerHBaseAuthzCache.getKey(request2), request2);
+
+        Assertions.assertNotNull(cached);
+        Assertions.assertSame(request2, cached.getAccessRequest());
+        Assertions.assertTrue(cached.getIsAllowed());
+        Assertions.assertTrue(cached.getIsAudited());
+        Assertions.assertEquals(5, cached.getPolicyId());
+
+        RangerAccessRequest request3 = getRequest("t1", "cf1", "c2", "read");
+
+        Assertions.assertNull(results.get(RangerHBaseAuthzCache.getKey(request3), request3));
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void test02_policyChangeDropsResults() {
+        RangerHBasePlugin     plugin  = Mockito.mock(RangerHBasePlugin.class);
+        RangerHBaseAuthzCache cache   = new RangerHBaseAuthzCache(plugin, 10);
+        RangerAccessRequest   request = getRequest("t1", "cf1", null, "write");
+
+        cache.getResults().put(RangerHBaseAuthzCache.getKey(request), new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "hbase", null, request));
+
+        Assertions.assertEquals(1, cache.getSize());
+
+        Mockito.when(plugin.getPoliciesVersion()).thenReturn(2L);
+
+        Assertions.assertNull(cache.getResults().get(RangerHBaseAuthzCache.getKey(request), request));
+        Assertions.assertEquals(2, cache.getInvalidationCount());
+
+        Mockito.when(plugin.getPoliciesVersion()).thenReturn(3L);
+        Mockito.when(plugin.hasContextDependentPolicies()).thenReturn(true);
+
+        Assertions.assertNull(cache.getResults());
+        Assertions.assertFalse(cache.isActive());
+    }
+
+    @Test
+    public void test03_requestNotFromSessionIsNotCached() {
+        RangerAccessRequest request = new RangerAccessRequestImpl(new RangerAccessResourceImpl(), "read", "user", Collections.singleton("grp"), null);
+
+        Assertions.assertNull(RangerHBaseAuthzCache.getKey(request));
+    }
+
+    private static RangerAccessRequest getRequest(String table, String columnFamily, String column, String access) {
+        RangerHBaseResource resource = new RangerHBaseResource();
+
+        resource.setValue(RangerHBaseResource.KEY_TABLE, table);
+        resource.setValue(RangerHBaseResource.KEY_COLUMN_FAMILY, columnFamily);
+        resource.setValue(RangerHBaseResource.KEY_COLUMN, column);
+
+        return new RangerAccessRequestImpl(resource, access, "user", Collections.singleton("grp"), null);
+    }
+}
@@ -38,6 +38,7 @@
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
 import org.apache.ranger.authorization.hadoop.exceptions.RangerAccessControlException;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
 import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.slf4j.Logger;
@@ -243,8 +244,11 @@ private void checkRangerPermission(String fsOwner, String superGroup, UserGroupI
                     LOG.debug("OperationOptimizer.optimize() returned null, operationName={} needs to be evaluated!", operationName);
                 }
 
+                RangerHdfsAuthzCache authzCache = plugin.getAuthzCache();
+
                 context.isTraverseOnlyCheck = parentAccess == null && ancestorAccess == null && access == null && subAccess == null;
                 context.auditHandler        = doNotGenerateAuditRecord ? null : new RangerHdfsAuditHandler(providedPath, context.isTraverseOnlyCheck, plugin.getHadoopModuleName(), plugin.getExcludedUsers(), callerContext != null ? callerContext.toString() : null);
+                context.cachedResults       = authzCache != null ? authzCache.getResults() : null;
 
                 /* Hadoop versions prior to 2.8.0 didn't ask for authorization of parent/ancestor traversal for
                  * reading or writing a file. However, Hadoop version 2.8.0 and later ask traversal authorization for
@@ -397,6 +401,12 @@ private void checkRangerPermission(String fsOwner, String superGroup, UserGroupI
 
                             if (optimizeSubAccessAuthEnabled) {
                                 subDirAuthStatus = isAccessAllowedForHierarchy(data.dir, dirAttribs, data.resourcePath, subAccess, context);
+                            } else if (plugin.isSubtreeSubAccessAuthEnabled() && hasChildDirectory(cList) && plugin.isSubtreeUniform(data.resourcePath, context.user, context.userGroups)) {
+                                // all descendants are subject to the same policies and tags: evaluate once for the subtree.
+                                // Only an allow is used, so that denied or undetermined subtrees are processed as before
+                                subDirAuthStatus = isAccessAllowedForHierarchy(data.dir, dirAttribs, data.resourcePath, subAccess, context);
+
+                                LOG.debug("Subtree authorization for [{}]: {}", data.resourcePath, subDirAuthStatus);
                             }
 
                             if (subDirAuthStatus != AuthzStatus.ALLOW) {
@@ -526,6 +536,15 @@ private AuthzStatus isAccessAllowedForTraversal(INode inode, INodeAttributes ino
 
         LOG.debug("==> RangerAccessControlEnforcer.isAccessAllowedForTraversal({}, {}, {}, {}, {})", path, access, context.user, skipAuditOnAllow, context.operationName);
 
+        RangerAccessResultCache.Key cacheKey = context.getCacheKey(path, pathOwner, access, true, inode.isFile());
+
+        // unless skipAuditOnAllow, allow by a policy is audited; such decisions are not taken from cache
+        if (cacheKey != null && context.cachedResults.isCached(cacheKey, skipAuditOnAllow ? cached -> true : cached -> !cached.getIsAccessDetermined())) {
+            LOG.debug("<== RangerAccessControlEnforcer.isAccessAllowedForTraversal({}, {}, {}, {}, {}): ALLOW (cached)", path, access, context.user, skipAuditOnAllow, context.operationName);
+
+            return AuthzStatus.ALLOW;
+        }
+
         RangerHdfsAccessRequest request = new RangerHdfsAccessRequest(inode, path, pathOwner, access, EXECUTE_ACCCESS_TYPE, operation, context.user, context.userGroups);
         RangerAccessResult      result  = plugin.isAccessAllowed(request, null);
 
@@ -535,6 +554,10 @@ private AuthzStatus isAccessAllowedForTraversal(INode inode, INodeAttributes ino
             ret = AuthzStatus.DENY;
         } else {
             ret = AuthzStatus.ALLOW;
+
+            if (cacheKey != null && result != null) {
+                context.cachedResults.put(cacheKey, result);
+            }
         }
 
         if (ret == AuthzStatus.ALLOW) {
@@ -652,7 +675,12 @@ private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, S
             accessTypes = ACCESS_TO_ACTIONS.get(FsAction.NONE);
         }
 
-        if (!accessTypes.isEmpty()) {
+        // results are sent to the audit handler, if any; cached decisions are used only when there is none
+        RangerAccessResultCache.Key cacheKey = context.auditHandler == null ? context.getCacheKey(path, pathOwner, access, false, inode != null && inode.isFile()) : null;
+
+        if (cacheKey != null && !accessTypes.isEmpty() && context.cachedResults.isCached(cacheKey, cached -> true)) {
+            ret = AuthzStatus.ALLOW;
+        } else if (!accessTypes.isEmpty()) {
             RangerHdfsAccessRequest request = new RangerHdfsAccessRequest(inode, path, pathOwner, access, accessTypes.iterator().next(), context.operationName, context.user, context.userGroups);
 
             if (accessTypes.size() > 1) {
@@ -680,6 +708,10 @@ private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, S
 
             if (ret == AuthzStatus.ALLOW) {
                 LOG.debug("This request is for the first time allowed by Ranger policies. request:[{}]", request);
+
+                if (cacheKey != null) {
+                    context.cachedResults.put(cacheKey, result);
+                }
             }
         }
 
@@ -760,6 +792,16 @@ private AuthzStatus isAccessAllowedForHierarchy(INode inode, INodeAttributes ino
         return ret;
     }
 
+    private static boolean hasChildDirectory(ReadOnlyList<INode> children) {
+        for (INode child : children) {
+            if (child.isDirectory()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public enum AuthzStatus { ALLOW, DENY, NOT_DETERMINED }
 
     /*
@@ -814,12 +856,14 @@ public String toString() {
     }
 
     public static class AuthzContext {
-        public final String                 user;
-        public final Set<String>            userGroups;
-        public final String                 operationName;
-        private      boolean                isTraverseOnlyCheck;
-        private      RangerHdfsAuditHandler auditHandler;
-        private      RangerAccessResult     lastResult;
+        public final String                                                       user;
+        public final Set<String>                                                  userGroups;
+        public final String                                                       operationName;
+        private      boolean                                                      isTraverseOnlyCheck;
+        private      RangerHdfsAuditHandler                                       auditHandler;
+        private      RangerAccessResult                                           lastResult;
+        private      RangerAccessResultCache.Results<RangerAccessResultCache.Key> cachedResults;
+        private      int                                                          userGroupsHashCode;
 
         public AuthzContext(UserGroupInformation ugi, String operationName, boolean isTraverseOnlyCheck) {
             this.user                = ugi != null ? ugi.getShortUserName() : null;
@@ -837,6 +881,18 @@ public void saveResult(RangerAccessResult result) {
         public RangerAccessResult getLastResult() {
             return lastResult;
         }
+
+        RangerAccessResultCache.Key getCacheKey(String path, String pathOwner, FsAction access, boolean isTraversal, boolean isFile) {
+            if (cachedResults == null) {
+                return null;
+            }
+
+            if (userGroupsHashCode == 0 && userGroups != null) {
+                userGroupsHashCode = userGroups.hashCode();
+            }
+
+            return RangerHdfsAuthzCache.getKey(user, userGroups, userGroupsHashCode, path, pathOwner, access, isTraversal, isFile);
+        }
     }
 
     private static class SubAccessData {
@@ -65,6 +65,10 @@ public void start() {
 
         LOG.info("Legacy way of authorizing sub-access requests will {}be used", plugin.isUseLegacySubAccessAuthorization() ? "" : "not ");
 
+        if (plugin.getAuthzCache() != null) {
+            plugin.getAuthzCache().registerMBean();
+        }
+
         rangerPlugin = plugin;
 
         LOG.debug("<== RangerHdfsAuthorizer.start()");
@@ -78,6 +82,10 @@ public void stop() {
         rangerPlugin = null;
 
         if (plugin != null) {
+            if (plugin.getAuthzCache() != null) {
+                plugin.getAuthzCache().unregisterMBean();
+            }
+
             plugin.cleanup();
         }
 
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hadoop;
+
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.hadoop.metrics2.util.MBeans;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * NameNode-wide cache of Ranger results allowing access to a path, shared by all RangerAccessControlEnforcer
+ * instances. Results are keyed by user, groups, path, path owner and FsAction. Only results that don't generate audit
+ * records are used from the cache, so that cache hits don't change what is audited.
+ */
+public class RangerHdfsAuthzCache extends RangerAccessResultCache<RangerAccessResultCache.Key> implements RangerHdfsAuthzCacheMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerHdfsAuthzCache.class);
+
+    public static final String  PROP_AUTHZ_CACHE_ENABLED     = "ranger.plugin.hdfs.authz.cache.enabled";
+    public static final String  PROP_AUTHZ_CACHE_MAX_SIZE    = "ranger.plugin.hdfs.authz.cache.max.size";
+    public static final boolean DEFAULT_AUTHZ_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_AUTHZ_CACHE_MAX_SIZE = 100000;
+
+    private static final String MBEAN_SERVICE_NAME = "NameNode";
+    private static final String MBEAN_NAME         = "RangerHdfsAuthzCache";
+
+    private ObjectName mbeanName;
+
+    public RangerHdfsAuthzCache(RangerHdfsPlugin plugin, int maxSize) {
+        super(MBEAN_NAME, plugin, maxSize);
+    }
+
+    /**
+     * @param groupsHashCode hash code of groups, computed once for keys of a request
+     */
+    public static Key getKey(String user, Set<String> groups, int groupsHashCode, String path, String owner, FsAction access, boolean isTraversal, boolean isFile) {
+        Object[] values   = new Object[] {path, access, isTraversal, isFile, user, owner, groups};
+        int      hashCode = 1;
+
+        // same as Arrays.hashCode(values), without computing the hash code of groups again
+        for (int i = 0; i < values.length - 1; i++) {
+            hashCode = 31 * hashCode + Objects.hashCode(values[i]);
+        }
+
+        return new Key(31 * hashCode + groupsHashCode, values);
+    }
+
+    public void registerMBean() {
+        try {
+            mbeanName = MBeans.register(MBEAN_SERVICE_NAME, MBEAN_NAME, this);
+        } catch (Exception excp) {
+            LOG.warn("RangerHdfsAuthzCache: failed to register MBean {}", MBEAN_NAME, excp);
+        }
+    }
+
+    public void unregisterMBean() {
+        if (mbeanName != null) {
+            MBeans.unregister(mbeanName);
+
+            mbeanName = null;
+        }
+    }
+}
@@ -19,16 +19,42 @@
 
 package org.apache.ranger.authorization.hadoop;
 
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.fs.Path;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
+import org.apache.ranger.plugin.contextenricher.RangerServiceResourceMatcher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher.EnrichedServiceTags;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.policyengine.PolicyEngine;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceMatchingScope;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngine;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineImpl;
+import org.apache.ranger.plugin.policyengine.RangerPolicyRepository;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
 import org.apache.ranger.plugin.resourcematcher.RangerPathResourceMatcher;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
+import org.apache.ranger.plugin.util.RangerResourceEvaluatorsRetriever;
+import org.apache.ranger.plugin.util.ServiceTags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class RangerHdfsPlugin extends RangerBasePlugin {
@@ -36,13 +62,15 @@ public class RangerHdfsPlugin extends RangerBasePlugin {
 
     private static String fileNameExtensionSeparator = RangerHdfsAuthorizer.DEFAULT_FILENAME_EXTENSION_SEPARATOR;
 
-    private final boolean     authzOptimizationEnabled;
-    private final boolean     hadoopAuthEnabled;
-    private final boolean     optimizeSubAccessAuthEnabled;
-    private final String      randomizedWildcardPathName;
-    private final String      hadoopModuleName;
-    private final Set<String> excludeUsers = new HashSet<>();
-    private final boolean     useLegacySubAccessAuthorization;
+    private final boolean              authzOptimizationEnabled;
+    private final boolean              hadoopAuthEnabled;
+    private final boolean              optimizeSubAccessAuthEnabled;
+    private final String               randomizedWildcardPathName;
+    private final String               hadoopModuleName;
+    private final Set<String>          excludeUsers = new HashSet<>();
+    private final boolean              useLegacySubAccessAuthorization;
+    private final boolean              subtreeSubAccessAuthEnabled;
+    private final RangerHdfsAuthzCache authzCache;
 
     public RangerHdfsPlugin(Path addlConfigFile) {
         super("hdfs", "hdfs");
@@ -69,6 +97,8 @@ public RangerHdfsPlugin(Path addlConfigFile) {
         String excludeUserList = config.get(RangerHadoopConstants.AUDITLOG_HDFS_EXCLUDE_LIST_PROP, RangerHadoopConstants.AUDITLOG_EMPTY_STRING);
 
         this.useLegacySubAccessAuthorization = config.getBoolean(RangerHadoopConstants.RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_PROP, RangerHadoopConstants.RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_DEFAULT);
+        this.subtreeSubAccessAuthEnabled     = config.getBoolean(RangerHadoopConstants.RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_PROP, RangerHadoopConstants.RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_DEFAULT);
+        this.authzCache                      = config.getBoolean(RangerHdfsAuthzCache.PROP_AUTHZ_CACHE_ENABLED, RangerHdfsAuthzCache.DEFAULT_AUTHZ_CACHE_ENABLED) ? new RangerHdfsAuthzCache(this, config.getInt(RangerHdfsAuthzCache.PROP_AUTHZ_CACHE_MAX_SIZE, RangerHdfsAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_SIZE)) : null;
 
         if (excludeUserList != null && !excludeUserList.trim().isEmpty()) {
             for (String excludeUser : excludeUserList.trim().split(",")) {
@@ -81,6 +111,8 @@ public RangerHdfsPlugin(Path addlConfigFile) {
         }
 
         LOG.info("AUTHZ_OPTIMIZATION_ENABLED:[{}]", authzOptimizationEnabled);
+        LOG.info("{}:[{}]", RangerHdfsAuthzCache.PROP_AUTHZ_CACHE_ENABLED, authzCache != null);
+        LOG.info("{}:[{}]", RangerHadoopConstants.RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_PROP, subtreeSubAccessAuthEnabled);
     }
 
     public static String getFileNameExtensionSeparator() {
@@ -115,6 +147,230 @@ public boolean isUseLegacySubAccessAuthorization() {
         return useLegacySubAccessAuthorization;
     }
 
+    public boolean isSubtreeSubAccessAuthEnabled() {
+        return subtreeSubAccessAuthEnabled;
+    }
+
+    public RangerHdfsAuthzCache getAuthzCache() {
+        return authzCache;
+    }
+
+    /**
+     * Checks whether policies and tags that apply anywhere under the given directory apply alike to all its descendants,
+     * so that evaluating one descendant gives the result for each of them. The resource tries are asked once for policies
+     * and tagged resources of the whole subtree. Each of these must cover the subtree, i.e. have no resource other than
+     * the path, and a path value '*', 'dir/*' or a recursive 'dir', where dir is the directory or one of its ancestors. Values with wildcards elsewhere, like '/data/*a*', match only some descendants and fail the check.
+     * Policies must also not depend on the owner or on conditions, and tags must not have validity schedules.
+     * Services with security zones are not checked, as zones defined under the directory can't be looked up here.
+     *
+     * @return true if the subtree is proven to be uniform; false if its descendants need to be evaluated individually
+     */
+    public boolean isSubtreeUniform(String path, String user, Set<String> userGroups) {
+        LOG.debug("==> RangerHdfsPlugin.isSubtreeUniform({}, {})", path, user);
+
+        boolean            ret          = false;
+        RangerPolicyEngine policyEngine = getPolicyEngine();
+
+        if (path != null && policyEngine instanceof RangerPolicyEngineImpl) {
+            PolicyEngine           engine     = ((RangerPolicyEngineImpl) policyEngine).getPolicyEngine();
+            RangerPolicyRepository repository = engine.getPolicyRepository();
+
+            if (repository != null && MapUtils.isEmpty(engine.getZonePolicyRepositories())) {
+                String                  dirPath        = path.endsWith(Path.SEPARATOR) ? path : (path + Path.SEPARATOR_CHAR);
+                RangerAccessRequestImpl subtreeRequest = getSubtreeRequest(dirPath, user, userGroups);
+
+                ret = arePoliciesUniform(repository, subtreeRequest, dirPath) && areTagsUniform(policyEngine, subtreeRequest, dirPath);
+            }
+        }
+
+        LOG.debug("<== RangerHdfsPlugin.isSubtreeUniform({}, {}): {}", path, user, ret);
+
+        return ret;
+    }
+
+    // with SELF_OR_PREFIX scope, the tries return evaluators of the directory, of its ancestors and of every path under it
+    private RangerAccessRequestImpl getSubtreeRequest(String dirPath, String user, Set<String> userGroups) {
+        RangerHdfsResource      resource = new RangerHdfsResource(dirPath, null);
+        RangerAccessRequestImpl ret      = new RangerAccessRequestImpl(resource, RangerPolicyEngine.ANY_ACCESS, user, userGroups, null);
+
+        resource.setServiceDef(getServiceDef());
+
+        ret.setResourceMatchingScope(ResourceMatchingScope.SELF_OR_DESCENDANTS);
+        ret.setResourceElementMatchingScopes(Collections.singletonMap(RangerHdfsAuthorizer.KEY_RESOURCE_PATH, ResourceElementMatchingScope.SELF_OR_PREFIX));
+
+        RangerAccessRequestUtil.setCurrentUserInContext(ret.getContext(), user);
+
+        return ret;
+    }
+
+    private static boolean arePoliciesUniform(RangerPolicyRepository repository, RangerAccessRequestImpl subtreeRequest, String dirPath) {
+        for (RangerPolicyEvaluator evaluator : repository.getLikelyMatchPolicyEvaluators(subtreeRequest, RangerPolicy.POLICY_TYPE_ACCESS)) {
+            RangerPolicy policy = evaluator.getPolicy();
+
+            if (hasConditions(policy) || hasOwnerReference(policy)) {
+                LOG.debug("arePoliciesUniform(): policy id={} can't be evaluated once for the subtree", policy.getId());
+
+                return false;
+            }
+
+            if (!coversSubtree(policy, dirPath)) {
+                LOG.debug("arePoliciesUniform(): policy id={} doesn't cover the subtree {}", policy.getId(), dirPath);
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean areTagsUniform(RangerPolicyEngine policyEngine, RangerAccessRequestImpl subtreeRequest, String dirPath) {
+        RangerTagEnricher   tagEnricher = getTagEnricher();
+        EnrichedServiceTags serviceTags = tagEnricher != null ? tagEnricher.getEnrichedServiceTags() : null;
+
+        if (serviceTags == null || CollectionUtils.isEmpty(serviceTags.getServiceResourceMatchers())) {
+            return true;
+        }
+
+        if (serviceTags.getServiceResourceTrie() == null) {
+            return false;
+        }
+
+        Collection<RangerServiceResourceMatcher> matchers = RangerResourceEvaluatorsRetriever.getEvaluators(serviceTags.getServiceResourceTrie(), subtreeRequest.getResource().getAsMap(), subtreeRequest.getResourceElementMatchingScopes());
+
+        if (CollectionUtils.isEmpty(matchers)) {
+            return true;
+        }
+
+        for (RangerServiceResourceMatcher matcher : matchers) {
+            RangerServiceResource serviceResource = matcher.getServiceResource();
+
+            if (!coversSubtree(serviceResource.getResourceElements(), dirPath) || hasValidityPeriods(serviceTags.getServiceTags(), serviceResource.getId())) {
+                LOG.debug("areTagsUniform(): tags of resource id={} don't apply alike to the subtree {}", serviceResource.getId(), dirPath);
+
+                return false;
+            }
+        }
+
+        List<RangerPolicy> tagPolicies = policyEngine.getTagPolicies();
+
+        if (tagPolicies != null) {
+            for (RangerPolicy policy : tagPolicies) {
+                if (hasConditions(policy) || hasOwnerReference(policy)) {
+                    LOG.debug("areTagsUniform(): tag policy id={} can't be evaluated once for the subtree", policy.getId());
+
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean hasValidityPeriods(ServiceTags serviceTags, Long resourceId) {
+        List<Long> tagIds = serviceTags.getResourceToTagIds() != null ? serviceTags.getResourceToTagIds().get(resourceId) : null;
+
+        if (tagIds != null && serviceTags.getTags() != null) {
+            for (Long tagId : tagIds) {
+                RangerTag tag = serviceTags.getTags().get(tagId);
+
+                if (tag != null && CollectionUtils.isNotEmpty(tag.getValidityPeriods())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean coversSubtree(RangerPolicy policy, String dirPath) {
+        if (coversSubtree(policy.getResources(), dirPath)) {
+            return true;
+        }
+
+        if (policy.getAdditionalResources() != null) {
+            for (Map<String, RangerPolicyResource> resources : policy.getAdditionalResources()) {
+                if (coversSubtree(resources, dirPath)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the given resource matches every path under dirPath, which ends with the path separator. The check is
+     * case-sensitive and doesn't interpret wildcards other than a trailing '/*', so a false result doesn't mean that the
+     * resource doesn't match all of these paths.
+     */
+    static boolean coversSubtree(Map<String, RangerPolicyResource> resources, String dirPath) {
+        RangerPolicyResource resource = resources != null && resources.size() == 1 ? resources.get(RangerHdfsAuthorizer.KEY_RESOURCE_PATH) : null;
+
+        if (resource == null || Boolean.TRUE.equals(resource.getIsExcludes()) || resource.getValues() == null) {
+            return false;
+        }
+
+        boolean isRecursive = Boolean.TRUE.equals(resource.getIsRecursive());
+
+        for (String value : resource.getValues()) {
+            if (coversSubtree(value, isRecursive, dirPath)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean coversSubtree(String value, boolean isRecursive, String dirPath) {
+        if (value == null) {
+            return false;
+        } else if (value.equals(RangerPathResourceMatcher.WILDCARD_ASTERISK)) {
+            return true;
+        }
+
+        final String prefix;
+
+        if (value.endsWith(Path.SEPARATOR + RangerPathResourceMatcher.WILDCARD_ASTERISK)) {
+            prefix = value.substring(0, value.length() - 1);
+        } else if (isRecursive) {
+            prefix = value.endsWith(Path.SEPARATOR) ? value : (value + Path.SEPARATOR_CHAR);
+        } else {
+            return false;
+        }
+
+        return StringUtils.containsNone(prefix, '*', '?', '{') && dirPath.startsWith(prefix);
+    }
+
+    // {OWNER} in resources or policy-items makes the result depend on the owner of each descendant
+    private static boolean hasOwnerReference(RangerPolicy policy) {
+        if (policy.getResources() != null) {
+            for (RangerPolicyResource resource : policy.getResources().values()) {
+                if (resource != null && resource.getValues() != null) {
+                    for (String value : resource.getValues()) {
+                        if (value != null && value.contains(RangerPolicyEngine.RESOURCE_OWNER)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return hasOwnerReference(policy.getPolicyItems()) || hasOwnerReference(policy.getDenyPolicyItems()) ||
+                hasOwnerReference(policy.getAllowExceptions()) || hasOwnerReference(policy.getDenyExceptions());
+    }
+
+    private static boolean hasOwnerReference(List<? extends RangerPolicyItem> policyItems) {
+        if (policyItems != null) {
+            for (RangerPolicyItem policyItem : policyItems) {
+                if (policyItem.getUsers() != null && policyItem.getUsers().contains(RangerPolicyEngine.RESOURCE_OWNER)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     // Build random string of length between 56 and 112 characters
     private static String generateString(String source) {
         SecureRandom rng   = new SecureRandom();
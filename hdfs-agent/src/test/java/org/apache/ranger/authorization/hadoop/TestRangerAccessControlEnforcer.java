@@ -28,6 +28,7 @@
 import org.apache.hadoop.hdfs.server.namenode.INodeDirectoryAttributes;
 import org.apache.hadoop.hdfs.util.ReadOnlyList;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.junit.jupiter.api.Assertions;
@@ -490,4 +491,110 @@ public void test12_operationOptimizer_mkdirs_nodeIsFile_returnsNull() throws Exc
         RangerAccessControlEnforcer.OptimizedAuthzContext ctx        = optimizer.optimize();
         Assertions.assertNull(ctx);
     }
+
+    @Test
+    public void test13_traverseOnly_decisionIsTakenFromAuthzCache() throws Exception {
+        RangerHdfsPlugin      plugin          = Mockito.mock(RangerHdfsPlugin.class);
+        AccessControlEnforcer defaultEnforcer = Mockito.mock(AccessControlEnforcer.class);
+        RangerHdfsAuthzCache  authzCache      = new RangerHdfsAuthzCache(plugin, 10);
+
+        RangerAccessResult    traverseResult  = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "hdfs", null, null);
+
+        traverseResult.setIsAllowed(true); // allowed by default, with no policy determining the access
+
+        Mockito.when(plugin.getAuthzCache()).thenReturn(authzCache);
+        Mockito.when(plugin.isAccessAllowed(Mockito.any(RangerAccessRequest.class), Mockito.isNull())).thenReturn(traverseResult);
+        Mockito.lenient().when(plugin.getHadoopModuleName()).thenReturn("hdfs");
+        Mockito.lenient().when(plugin.getExcludedUsers()).thenReturn(new HashSet<String>());
+
+        RangerAccessControlEnforcer enforcer = new RangerAccessControlEnforcer(plugin, defaultEnforcer);
+
+        INode                    rootNode  = Mockito.mock(INode.class);
+        INodeDirectoryAttributes rootAttrs = Mockito.mock(INodeDirectoryAttributes.class);
+        Mockito.lenient().when(rootAttrs.getLocalNameBytes()).thenReturn("root".getBytes());
+
+        UserGroupInformation ugi = Mockito.mock(UserGroupInformation.class);
+        Mockito.lenient().when(ugi.getShortUserName()).thenReturn("user");
+        Mockito.lenient().when(ugi.getGroupNames()).thenReturn(new String[] {"grp"});
+
+        for (int i = 0; i < 2; i++) {
+            enforcer.checkPermission("owner", "super", ugi, new INodeAttributes[] {rootAttrs}, new INode[] {rootNode}, new byte[][] {"root".getBytes()}, 0, Path.SEPARATOR, 0, false,
+                    null, null, null, null, false);
+        }
+
+        Mockito.verify(plugin, Mockito.times(1)).isAccessAllowed(Mockito.any(RangerAccessRequest.class), Mockito.isNull());
+        Assertions.assertEquals(1, authzCache.getSize());
+        Assertions.assertEquals(1, authzCache.getHitCount());
+        Assertions.assertEquals(1, authzCache.getMissCount());
+
+        // a new policy version drops cached decisions
+        Mockito.when(plugin.getPoliciesVersion()).thenReturn(2L);
+
+        enforcer.checkPermission("owner", "super", ugi, new INodeAttributes[] {rootAttrs}, new INode[] {rootNode}, new byte[][] {"root".getBytes()}, 0, Path.SEPARATOR, 0, false,
+                null, null, null, null, false);
+
+        Mockito.verify(plugin, Mockito.times(2)).isAccessAllowed(Mockito.any(RangerAccessRequest.class), Mockito.isNull());
+        Assertions.assertEquals(2, authzCache.getInvalidationCount());
+    }
+
+    @Test
+    public void test14_subAccess_uniformSubtree_childrenAreNotEvaluated() throws Exception {
+        RangerHdfsPlugin      plugin          = Mockito.mock(RangerHdfsPlugin.class);
+        AccessControlEnforcer defaultEnforcer = Mockito.mock(AccessControlEnforcer.class);
+
+        Mockito.lenient().when(plugin.getHadoopModuleName()).thenReturn("hdfs");
+        Mockito.lenient().when(plugin.getExcludedUsers()).thenReturn(Collections.emptySet());
+        Mockito.when(plugin.isSubtreeSubAccessAuthEnabled()).thenReturn(true);
+        Mockito.when(plugin.getRandomizedWildcardPathName()).thenReturn("*random*");
+        Mockito.when(plugin.isSubtreeUniform(Mockito.eq("/root"), Mockito.eq("user"), Mockito.any())).thenReturn(true);
+        Mockito.when(plugin.isAccessAllowed(Mockito.any(RangerAccessRequest.class), Mockito.any())).thenAnswer(inv -> {
+            RangerAccessRequest req    = inv.getArgument(0);
+            RangerAccessResult  result = new RangerAccessResult(0, "hdfs", null, req);
+
+            result.setIsAccessDetermined(true);
+            result.setIsAllowed(true);
+
+            return result;
+        });
+
+        RangerAccessControlEnforcer enforcer = new RangerAccessControlEnforcer(plugin, defaultEnforcer);
+
+        INodeDirectory           rootDir   = Mockito.mock(INodeDirectory.class);
+        INode                    rootNode  = Mockito.mock(INode.class);
+        INodeDirectoryAttributes rootAttrs = Mockito.mock(INodeDirectoryAttributes.class);
+        Mockito.lenient().when(rootNode.isDirectory()).thenReturn(true);
+        Mockito.lenient().when(rootNode.asDirectory()).thenReturn(rootDir);
+        Mockito.lenient().when(rootAttrs.getLocalNameBytes()).thenReturn("root".getBytes());
+        Mockito.lenient().when(rootDir.getSnapshotINode(Mockito.anyInt())).thenReturn(rootAttrs);
+
+        INode          childA = Mockito.mock(INode.class);
+        INode          childB = Mockito.mock(INode.class);
+        INodeDirectory dirA   = Mockito.mock(INodeDirectory.class);
+        INodeDirectory dirB   = Mockito.mock(INodeDirectory.class);
+        Mockito.lenient().when(childA.isDirectory()).thenReturn(true);
+        Mockito.lenient().when(childB.isDirectory()).thenReturn(true);
+        Mockito.lenient().when(childA.asDirectory()).thenReturn(dirA);
+        Mockito.lenient().when(childB.asDirectory()).thenReturn(dirB);
+
+        List<INode>         list     = Arrays.asList(childA, childB);
+        ReadOnlyList<INode> children = Mockito.mock(ReadOnlyList.class);
+        Mockito.lenient().when(children.isEmpty()).thenReturn(false);
+        Mockito.lenient().when(children.iterator()).thenAnswer(inv -> list.iterator());
+        Mockito.lenient().when(rootDir.getChildrenList(Mockito.anyInt())).thenReturn(children);
+
+        UserGroupInformation ugi = Mockito.mock(UserGroupInformation.class);
+        Mockito.lenient().when(ugi.getShortUserName()).thenReturn("user");
+        Mockito.lenient().when(ugi.getGroupNames()).thenReturn(new String[] {"grp"});
+
+        enforcer.checkPermission("owner", "super", ugi, new INodeAttributes[] {rootAttrs}, new INode[] {rootNode}, new byte[][] {"root".getBytes()}, 0, "/root", 0, false,
+                null, null, null, FsAction.ALL, false);
+
+        // one evaluation for the directory itself and one for the whole subtree
+        ArgumentCaptor<RangerAccessRequest> requestCaptor = ArgumentCaptor.forClass(RangerAccessRequest.class);
+        Mockito.verify(plugin, Mockito.times(2)).isAccessAllowed(requestCaptor.capture(), Mockito.any());
+        Assertions.assertEquals("/root/*random*", requestCaptor.getAllValues().get(1).getResource().getAsString());
+        Mockito.verify(dirA, Mockito.never()).getChildrenList(Mockito.anyInt());
+        Mockito.verify(dirB, Mockito.never()).getChildrenList(Mockito.anyInt());
+        Mockito.verifyNoInteractions(defaultEnforcer);
+    }
 }
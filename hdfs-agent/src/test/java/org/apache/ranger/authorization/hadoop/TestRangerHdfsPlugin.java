@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hadoop;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServiceDefUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestRangerHdfsPlugin {
+    private static final String      SERVICE_NAME = "hdfsdev";
+    private static final String      USER         = "user1";
+    private static final Set<String> GROUPS       = Collections.singleton("group1");
+
+    @Test
+    public void test01_subtreeUniform_recursivePolicyOnAncestor() throws Exception {
+        RangerHdfsPlugin plugin = createPlugin(createPolicy(1L, true, "/data"));
+
+        assertTrue(plugin.isSubtreeUniform("/data", USER, GROUPS));
+        assertTrue(plugin.isSubtreeUniform("/data/project/", USER, GROUPS));
+    }
+
+    @Test
+    public void test02_subtreeUniform_wildcardPolicyOnDirectory() throws Exception {
+        RangerHdfsPlugin plugin = createPlugin(createPolicy(1L, false, "/data/project/*"));
+
+        assertTrue(plugin.isSubtreeUniform("/data/project", USER, GROUPS));
+        assertTrue(plugin.isSubtreeUniform("/data/project/2024", USER, GROUPS));
+    }
+
+    @Test
+    public void test03_subtreeNotUniform_wildcardInNamePolicy() throws Exception {
+        RangerHdfsPlugin plugin = createPlugin(createPolicy(1L, false, "/data/*a*"), createPolicy(2L, true, "/"));
+
+        // '/data/*a*' applies to '/data/ab' but not to '/data/b': children must be evaluated individually
+        assertFalse(plugin.isSubtreeUniform("/data", USER, GROUPS));
+    }
+
+    @Test
+    public void test04_subtreeNotUniform_policyOnDescendant() throws Exception {
+        RangerHdfsPlugin plugin = createPlugin(createPolicy(1L, true, "/data"), createPolicy(2L, true, "/data/project/restricted"));
+
+        assertFalse(plugin.isSubtreeUniform("/data", USER, GROUPS));
+        assertFalse(plugin.isSubtreeUniform("/data/project", USER, GROUPS));
+        assertTrue(plugin.isSubtreeUniform("/data/other", USER, GROUPS));
+        assertTrue(plugin.isSubtreeUniform("/data/project/restricted", USER, GROUPS));
+    }
+
+    @Test
+    public void test05_subtreeNotUniform_policyWithCondition() throws Exception {
+        RangerPolicy policy = createPolicy(1L, true, "/data");
+
+        policy.getPolicyItems().get(0).setConditions(Collections.singletonList(new RangerPolicyItemCondition(ServiceDefUtil.IMPLICIT_CONDITION_EXPRESSION_NAME, Collections.singletonList("USER.dept == 'eng'"))));
+
+        RangerHdfsPlugin plugin = createPlugin(policy);
+
+        assertFalse(plugin.isSubtreeUniform("/data/project", USER, GROUPS));
+    }
+
+    @Test
+    public void test06_coversSubtree() {
+        assertTrue(RangerHdfsPlugin.coversSubtree(pathResource(false, false, "*"), "/data/"));
+        assertTrue(RangerHdfsPlugin.coversSubtree(pathResource(false, false, "/*"), "/data/"));
+        assertTrue(RangerHdfsPlugin.coversSubtree(pathResource(false, true, "/"), "/data/"));
+        assertTrue(RangerHdfsPlugin.coversSubtree(pathResource(false, true, "/data/"), "/data/"));
+        assertTrue(RangerHdfsPlugin.coversSubtree(pathResource(false, false, "/tmp", "/data/*"), "/data/project/"));
+
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(false, false, "/data"), "/data/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(false, true, "/data/project"), "/data/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(false, true, "/dat"), "/data/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(false, false, "/data/*a*"), "/data/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(false, false, "/d?ta/*"), "/data/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(false, true, "/home/{USER}"), "/home/user1/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(pathResource(true, true, "/data"), "/data/"));
+        assertFalse(RangerHdfsPlugin.coversSubtree(Collections.emptyMap(), "/data/"));
+    }
+
+    private static RangerHdfsPlugin createPlugin(RangerPolicy... policies) throws Exception {
+        RangerHdfsPlugin plugin          = new RangerHdfsPlugin(null);
+        ServicePolicies  servicePolicies = new ServicePolicies();
+
+        servicePolicies.setServiceName(SERVICE_NAME);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_HDFS_NAME));
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setPolicies(new ArrayList<>(Arrays.asList(policies)));
+
+        plugin.setPolicies(servicePolicies);
+
+        return plugin;
+    }
+
+    private static RangerPolicy createPolicy(Long id, boolean isRecursive, String path) {
+        RangerPolicy     policy     = new RangerPolicy();
+        RangerPolicyItem policyItem = new RangerPolicyItem();
+
+        policyItem.setUsers(Collections.singletonList(USER));
+        policyItem.setAccesses(Collections.singletonList(new RangerPolicyItemAccess("read", true)));
+
+        policy.setId(id);
+        policy.setName("policy-" + id);
+        policy.setService(SERVICE_NAME);
+        policy.setIsEnabled(true);
+        policy.setResources(pathResource(false, isRecursive, path));
+        policy.setPolicyItems(new ArrayList<>(Collections.singletonList(policyItem)));
+
+        return policy;
+    }
+
+    private static Map<String, RangerPolicyResource> pathResource(boolean isExcludes, boolean isRecursive, String... values) {
+        Map<String, RangerPolicyResource> ret = new HashMap<>();
+
+        ret.put(RangerHdfsAuthorizer.KEY_RESOURCE_PATH, new RangerPolicyResource(Arrays.asList(values), isExcludes, isRecursive));
+
+        return ret;
+    }
+}
@@ -43,6 +43,7 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,17 +60,20 @@ public class RangerHiveAuditHandler extends RangerDefaultAuditHandler {
     public static final String URL_RESOURCE_TYPE                     = "url";
     public static final String CONF_AUDIT_QUERY_REQUEST_SIZE         = "xasecure.audit.solr.limit.query.req.size";
     public static final int    DEFAULT_CONF_AUDIT_QUERY_REQUEST_SIZE = Integer.MAX_VALUE;
+    public static final String CONF_AUDIT_SUMMARIZE_METADATA_OPS     = "xasecure.audit.hive.metadata.operation.summarize";
 
     private static final Set<String> ROLE_OPS = new HashSet<>();
 
     private final int                         requestQuerySize;
+    private final boolean                     summarizeMetadataOps;
     private final Collection<AuthzAuditEvent> auditEvents  = new ArrayList<>();
     private       boolean                     deniedExists;
 
     public RangerHiveAuditHandler() {
         super();
 
-        requestQuerySize = DEFAULT_CONF_AUDIT_QUERY_REQUEST_SIZE;
+        requestQuerySize     = DEFAULT_CONF_AUDIT_QUERY_REQUEST_SIZE;
+        summarizeMetadataOps = false;
     }
 
     public RangerHiveAuditHandler(Configuration config) {
@@ -77,7 +81,8 @@ public RangerHiveAuditHandler(Configuration config) {
 
         int configRequestQuerySize = config.getInt(CONF_AUDIT_QUERY_REQUEST_SIZE, DEFAULT_CONF_AUDIT_QUERY_REQUEST_SIZE);
 
-        requestQuerySize = (configRequestQuerySize < 1) ? DEFAULT_CONF_AUDIT_QUERY_REQUEST_SIZE : configRequestQuerySize;
+        requestQuerySize     = (configRequestQuerySize < 1) ? DEFAULT_CONF_AUDIT_QUERY_REQUEST_SIZE : configRequestQuerySize;
+        summarizeMetadataOps = config.getBoolean(CONF_AUDIT_SUMMARIZE_METADATA_OPS, false);
     }
 
     @Override
@@ -98,15 +103,20 @@ public void processResult(RangerAccessResult result) {
     }
 
     /**
-     * This method is expected to be called ONLY to process the results for multiple-columns in a table.
+     * This method is expected to be called ONLY to process the results for multiple-columns in a table, or the
+     * results of filtering objects listed by metadata operations, like show databases/tables.
      * To ensure this, RangerHiveAuthorizer should call isAccessAllowed(Collection<requests>) only for this condition
      */
     @Override
     public void processResults(Collection<RangerAccessResult> results) {
-        List<AuthzAuditEvent> result = createAuditEvents(results);
+        if (isMetadataOperation(results)) {
+            processMetadataOperationResults(results);
+        } else {
+            List<AuthzAuditEvent> result = createAuditEvents(results);
 
-        for (AuthzAuditEvent auditEvent : result) {
-            addAuthzAuditEvent(auditEvent);
+            for (AuthzAuditEvent auditEvent : result) {
+                addAuthzAuditEvent(auditEvent);
+            }
         }
     }
 
@@ -305,6 +315,67 @@ List<AuthzAuditEvent> createAuditEvents(Collection<RangerAccessResult> results)
         return (deniedAuditEvent == null) ? new ArrayList<>(auditEventsMap.values()) : Collections.singletonList(deniedAuditEvent);
     }
 
+    /*
+     * with xasecure.audit.hive.metadata.operation.summarize=true, tables of a database allowed by a policy are logged
+     * in a single audit event, with the number of tables in eventCount; listing 100k tables then doesn't generate 100k
+     * audit events. Otherwise, an audit event is logged for each allowed object, as in processResult().
+     */
+    private void processMetadataOperationResults(Collection<RangerAccessResult> results) {
+        if (!summarizeMetadataOps) {
+            for (RangerAccessResult result : results) {
+                processResult(result);
+            }
+        } else {
+            Map<String, AuthzAuditEvent> summaryEvents = new LinkedHashMap<>();
+
+            for (RangerAccessResult result : results) {
+                if (!result.getIsAudited() || skipFilterOperationAuditing(result)) {
+                    continue;
+                }
+
+                RangerAccessResource resource = result.getAccessRequest().getResource();
+                boolean              isTable  = resource instanceof RangerHiveResource && ((RangerHiveResource) resource).getObjectType() == HiveObjectType.TABLE;
+
+                if (!isTable) {
+                    addAuthzAuditEvent(createAuditEvent(result));
+                } else {
+                    String          database   = ((RangerHiveResource) resource).getDatabase();
+                    String          key        = result.getPolicyId() + ":" + database;
+                    AuthzAuditEvent auditEvent = summaryEvents.get(key);
+
+                    if (auditEvent == null) {
+                        auditEvent = createAuditEvent(result);
+
+                        if (auditEvent != null) {
+                            auditEvent.setResourcePath(database);
+
+                            summaryEvents.put(key, auditEvent);
+                        }
+                    } else {
+                        auditEvent.setEventCount(auditEvent.getEventCount() + 1);
+
+                        Set<String> tags = getTags(result.getAccessRequest());
+
+                        if (tags != null && auditEvent.getTags() != null) {
+                            auditEvent.getTags().addAll(tags);
+                        }
+                    }
+                }
+            }
+
+            for (AuthzAuditEvent auditEvent : summaryEvents.values()) {
+                addAuthzAuditEvent(auditEvent);
+            }
+        }
+    }
+
+    private boolean isMetadataOperation(Collection<RangerAccessResult> results) {
+        RangerAccessResult  first   = CollectionUtils.isNotEmpty(results) ? results.iterator().next() : null;
+        RangerAccessRequest request = first != null ? first.getAccessRequest() : null;
+
+        return request != null && ACTION_TYPE_METADATA_OPERATION.equals(request.getAction());
+    }
+
     private void addAuthzAuditEvent(AuthzAuditEvent auditEvent) {
         if (auditEvent != null) {
             auditEvents.add(auditEvent);
@@ -718,8 +718,9 @@ public void checkPrivileges(HiveOperationType hiveOpType, List<HivePrivilegeObje
             throw new HiveAccessControlException("Permission denied: user information not available");
         }
 
-        RangerHiveAuditHandler auditHandler = new RangerHiveAuditHandler(hivePlugin.getConfig());
-        RangerPerfTracer       perf         = null;
+        RangerHiveAuditHandler                auditHandler = new RangerHiveAuditHandler(hivePlugin.getConfig());
+        RangerHiveURIAccessChecker.CheckStats uriStats     = new RangerHiveURIAccessChecker.CheckStats();
+        RangerPerfTracer                      perf         = null;
 
         try {
             HiveAuthzSessionContext sessionContext = getHiveAuthzSessionContext();
@@ -781,7 +782,7 @@ public void checkPrivileges(HiveOperationType hiveOpType, List<HivePrivilegeObje
                         }
 
                         if (shouldCheckAccess) {
-                            if (!isURIAccessAllowed(user, permission, path, fs)) {
+                            if (!isURIAccessAllowed(user, permission, path, fs, uriStats)) {
                                 throw new HiveAccessControlException(String.format("Permission denied: user [%s] does not have [%s] privilege on [%s]", user, permission.name(), path));
                             }
 
@@ -910,7 +911,7 @@ public void checkPrivileges(HiveOperationType hiveOpType, List<HivePrivilegeObje
                         }
 
                         if (shouldCheckAccess) {
-                            if (!isURIAccessAllowed(user, permission, path, fs)) {
+                            if (!isURIAccessAllowed(user, permission, path, fs, uriStats)) {
                                 throw new HiveAccessControlException(String.format("Permission denied: user [%s] does not have [%s] privilege on [%s]", user, permission.name(), path));
                             }
 
@@ -1061,6 +1062,10 @@ public void checkPrivileges(HiveOperationType hiveOpType, List<HivePrivilegeObje
         } finally {
             auditHandler.flushAudit();
             RangerPerfTracer.log(perf);
+
+            if (uriStats.getChecks() > 0 && RangerPerfTracer.isPerfTraceEnabled(PERF_HIVEAUTH_COARSEURI_LOG)) {
+                PERF_HIVEAUTH_COARSEURI_LOG.debug("RangerHiveAuthorizer.checkPrivileges(hiveOpType={}): uri checks: {}", hiveOpType, uriStats);
+            }
         }
     }
 
@@ -1113,11 +1118,8 @@ public List<HivePrivilegeObject> filterListCmdObjects(List<HivePrivilegeObject>
 
             LOG.debug("filterListCmdObjects: user[{}], groups[{}], roles[{}] ", user, groups, roles);
 
-            if (ret == null) { // if we got any items to filter then we can't return back a null.  We must return back a list even if its empty.
-                ret = new ArrayList<>(objs.size());
-            }
-
-            for (HivePrivilegeObject privilegeObject : objs) {
+            // requests are evaluated in bulk, sharing resolution of user/groups/roles; large lists are evaluated in parallel
+            ret = hivePlugin.filterAccessAllowed(objs, privilegeObject -> {
                 if (LOG.isDebugEnabled()) {
                     HivePrivObjectActionType actionType    = privilegeObject.getActionType();
                     HivePrivilegeObjectType  objectType    = privilegeObject.getType();
@@ -1135,25 +1137,14 @@ public List<HivePrivilegeObject> filterListCmdObjects(List<HivePrivilegeObject>
 
                 if (resource == null) {
                     LOG.error("filterListCmdObjects: RangerHiveResource returned by createHiveResource is null");
-                } else {
-                    RangerHiveAccessRequest request = new RangerHiveAccessRequest(resource, user, groups, roles, context, sessionContext);
-                    RangerAccessResult      result  = hivePlugin.isAccessAllowed(request, auditHandler);
 
-                    if (result == null) {
-                        LOG.error("filterListCmdObjects: Internal error: null RangerAccessResult object received back from isAccessAllowed()!");
-                    } else if (!result.getIsAllowed()) {
-                        if (LOG.isDebugEnabled()) {
-                            String path = resource.getAsString();
+                    return null;
+                }
 
-                            LOG.debug("filterListCmdObjects: Permission denied: user [{}] does not have [{}] privilege on [{}]. resource[{}], request[{}], result[{}]", user, request.getHiveAccessType().name(), path, resource, request, result);
-                        }
-                    } else {
-                        LOG.debug("filterListCmdObjects: access allowed. resource[{}], request[{}], result[{}]", resource, request, result);
+                return new RangerHiveAccessRequest(resource, user, groups, roles, context, sessionContext);
+            }, auditHandler);
 
-                        ret.add(privilegeObject);
-                    }
-                }
-            }
+            LOG.debug("filterListCmdObjects: user[{}] has access to {} of {} objects", user, ret.size(), objs.size());
         }
 
         auditHandler.flushAudit();
@@ -2269,12 +2260,12 @@ private String buildPathForException(String path, HiveOperationType hiveOpType)
     }
 
     private boolean isURIAccessAllowed(String userName, FsAction action, Path filePath, FileSystem fs) {
-        return isURIAccessAllowed(userName, action, filePath, fs, RangerHivePlugin.uriPermissionCoarseCheck);
+        return isURIAccessAllowed(userName, action, filePath, fs, null);
     }
 
-    private boolean isURIAccessAllowed(String userName, FsAction action, Path filePath, FileSystem fs, boolean coarseCheck) {
+    private boolean isURIAccessAllowed(String userName, FsAction action, Path filePath, FileSystem fs, RangerHiveURIAccessChecker.CheckStats stats) {
         boolean ret;
-        boolean recurse = !coarseCheck;
+        boolean coarseCheck = RangerHivePlugin.uriPermissionCoarseCheck;
 
         RangerPerfTracer perf = null;
         if (RangerPerfTracer.isPerfTraceEnabled(PERF_HIVEAUTH_COARSEURI_LOG)) {
@@ -2285,28 +2276,7 @@ private boolean isURIAccessAllowed(String userName, FsAction action, Path filePa
             ret = true;
         } else {
             try {
-                FileStatus[] filestat = fs.globStatus(filePath);
-
-                if (filestat != null && filestat.length > 0) {
-                    boolean isDenied = false;
-
-                    for (FileStatus file : filestat) {
-                        if (FileUtils.isOwnerOfFileHierarchy(fs, file, userName, recurse) || FileUtils.isActionPermittedForFileHierarchy(fs, file, userName, action, recurse)) {
-                            continue;
-                        } else {
-                            isDenied = true;
-                            break;
-                        }
-                    }
-
-                    ret = !isDenied;
-                } else { // if given path does not exist then check for parent
-                    FileStatus file = FileUtils.getPathOrParentThatExists(fs, filePath);
-
-                    FileUtils.checkFileAccessWithImpersonation(fs, file, action, userName);
-
-                    ret = true;
-                }
+                ret = hivePlugin.getURIAccessChecker().isAccessAllowed(userName, action, filePath, fs, !coarseCheck, stats);
             } catch (Exception excp) {
                 ret = false;
 
@@ -3425,7 +3395,8 @@ private static class RangerHivePlugin extends RangerBasePlugin {
         public static boolean blockUpdateIfRowfilterColumnMaskSpecified = RangerHadoopConstants.HIVE_BLOCK_UPDATE_IF_ROWFILTER_COLUMNMASK_SPECIFIED_DEFAULT_VALUE;
         public static String  describeShowTableAuth                     = RangerHadoopConstants.HIVE_DESCRIBE_TABLE_SHOW_COLUMNS_AUTH_OPTION_PROP_DEFAULT_VALUE;
 
-        private String[] fsScheme;
+        private String[]                            fsScheme;
+        private volatile RangerHiveURIAccessChecker uriAccessChecker = new RangerHiveURIAccessChecker(false, 0, 0, 1, Integer.MAX_VALUE);
 
         public RangerHivePlugin(String appType) {
             super("hive", appType);
@@ -3449,10 +3420,31 @@ public void init() {
                     fsScheme[i] = fsScheme[i].trim();
                 }
             }
+
+            RangerHiveURIAccessChecker oldChecker = uriAccessChecker;
+
+            uriAccessChecker = new RangerHiveURIAccessChecker(getConfig().getBoolean(RangerHiveURIAccessChecker.PROP_CACHE_ENABLED, RangerHiveURIAccessChecker.DEFAULT_CACHE_ENABLED),
+                    getConfig().getInt(RangerHiveURIAccessChecker.PROP_CACHE_SIZE, RangerHiveURIAccessChecker.DEFAULT_CACHE_SIZE),
+                    getConfig().getLong(RangerHiveURIAccessChecker.PROP_CACHE_TTL_MS, RangerHiveURIAccessChecker.DEFAULT_CACHE_TTL_MS),
+                    getConfig().getInt(RangerHiveURIAccessChecker.PROP_CHECK_THREADS, RangerHiveURIAccessChecker.DEFAULT_CHECK_THREADS),
+                    getConfig().getInt(RangerHiveURIAccessChecker.PROP_CHECK_MAX_DEPTH, RangerHiveURIAccessChecker.DEFAULT_CHECK_MAX_DEPTH));
+
+            oldChecker.close();
+        }
+
+        @Override
+        public void cleanup() {
+            uriAccessChecker.close();
+
+            super.cleanup();
         }
 
         public String[] getFSScheme() {
             return fsScheme;
         }
+
+        public RangerHiveURIAccessChecker getURIAccessChecker() {
+            return uriAccessChecker;
+        }
     }
 }
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hive.authorizer;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.hadoop.hive.common.FileUtils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks file-system permissions of users on URIs referenced in Hive statements, like locations of external tables
+ * and paths in LOAD DATA, EXPORT and IMPORT. Decisions are cached for cacheTtlMs, so that statements referring to the
+ * same locations don't walk the same hierarchy repeatedly. When the whole hierarchy is to be checked, it is listed
+ * level by level, with directories in each level listed in parallel; subtrees below maxDepth are checked sequentially.
+ */
+public class RangerHiveURIAccessChecker {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerHiveURIAccessChecker.class);
+
+    public static final String  PROP_CACHE_ENABLED      = "ranger.plugin.hive.urlauth.cache.enabled";
+    public static final String  PROP_CACHE_SIZE         = "ranger.plugin.hive.urlauth.cache.size";
+    public static final String  PROP_CACHE_TTL_MS       = "ranger.plugin.hive.urlauth.cache.ttl.ms";
+    public static final String  PROP_CHECK_THREADS      = "ranger.plugin.hive.urlauth.check.threads";
+    public static final String  PROP_CHECK_MAX_DEPTH    = "ranger.plugin.hive.urlauth.check.max.depth";
+    public static final boolean DEFAULT_CACHE_ENABLED   = true;
+    public static final int     DEFAULT_CACHE_SIZE      = 10000;
+    public static final long    DEFAULT_CACHE_TTL_MS    = 30 * 1000L;
+    public static final int     DEFAULT_CHECK_THREADS   = 4;
+    public static final int     DEFAULT_CHECK_MAX_DEPTH = 8;
+
+    private final long                        cacheTtlMs;
+    private final int                         maxDepth;
+    private final Map<String, CachedDecision> cache;
+    private final ExecutorService             executor;
+
+    public RangerHiveURIAccessChecker(boolean cacheEnabled, int cacheSize, long cacheTtlMs, int threads, int maxDepth) {
+        this.cacheTtlMs = cacheEnabled && cacheSize > 0 ? cacheTtlMs : 0;
+        this.maxDepth   = Math.max(0, maxDepth);
+        this.cache      = this.cacheTtlMs > 0 ? new LinkedHashMap<String, CachedDecision>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDecision> eldest) {
+                return size() > cacheSize;
+            }
+        } : null;
+
+        if (threads > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            this.executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "RangerHiveURIAccessCheck-" + threadCount.incrementAndGet());
+
+                t.setDaemon(true);
+
+                return t;
+            });
+        } else {
+            this.executor = null;
+        }
+
+        LOG.info("RangerHiveURIAccessChecker(cacheTtlMs={}, cacheSize={}, threads={}, maxDepth={})", this.cacheTtlMs, cacheSize, threads, this.maxDepth);
+    }
+
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param recurse when true, userName must own, or be permitted the action on, every file and directory under filePath
+     * @param stats   updated with the number of checks, cache hits and file-system calls; can be null
+     */
+    public boolean isAccessAllowed(String userName, FsAction action, Path filePath, FileSystem fs, boolean recurse, CheckStats stats) throws Exception {
+        LOG.debug("==> RangerHiveURIAccessChecker.isAccessAllowed(userName={}, action={}, filePath={}, recurse={})", userName, action, filePath, recurse);
+
+        CheckStats callStats = new CheckStats();
+        String     cacheKey  = cache != null ? getCacheKey(userName, action, filePath, fs, recurse) : null;
+        Boolean    ret       = cacheKey != null ? getCachedDecision(cacheKey, callStats) : null;
+
+        callStats.checks.incrementAndGet();
+
+        if (ret == null) {
+            ret = checkAccess(userName, action, filePath, fs, recurse, callStats);
+
+            if (cacheKey != null) {
+                synchronized (cache) {
+                    cache.put(cacheKey, new CachedDecision(ret, callStats.remoteCalls.get(), System.currentTimeMillis() + cacheTtlMs));
+                }
+            }
+        }
+
+        if (stats != null) {
+            stats.add(callStats);
+        }
+
+        LOG.debug("<== RangerHiveURIAccessChecker.isAccessAllowed(userName={}, action={}, filePath={}, recurse={}): ret={}, stats={}", userName, action, filePath, recurse, ret, callStats);
+
+        return ret;
+    }
+
+    int getCacheSize() {
+        if (cache == null) {
+            return 0;
+        }
+
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Boolean getCachedDecision(String cacheKey, CheckStats stats) {
+        CachedDecision ret;
+
+        synchronized (cache) {
+            ret = cache.get(cacheKey);
+
+            if (ret != null && ret.expiryTime <= System.currentTimeMillis()) {
+                cache.remove(cacheKey);
+
+                ret = null;
+            }
+        }
+
+        if (ret != null) {
+            stats.cacheHits.incrementAndGet();
+            stats.remoteCallsAvoided.addAndGet(ret.remoteCalls);
+        }
+
+        return ret != null ? ret.isAllowed : null;
+    }
+
+    private boolean checkAccess(String userName, FsAction action, Path filePath, FileSystem fs, boolean recurse, CheckStats stats) throws Exception {
+        final boolean ret;
+
+        FileStatus[] fileStatuses = fs.globStatus(filePath);
+
+        stats.remoteCalls.incrementAndGet();
+
+        if (fileStatuses != null && fileStatuses.length > 0) {
+            boolean isDenied = false;
+
+            for (FileStatus fileStatus : fileStatuses) {
+                if (!isHierarchyAccessible(userName, action, fileStatus, fs, recurse, stats)) {
+                    isDenied = true;
+
+                    break;
+                }
+            }
+
+            ret = !isDenied;
+        } else { // if given path does not exist then check for parent
+            FileStatus fileStatus = FileUtils.getPathOrParentThatExists(fs, filePath);
+
+            FileUtils.checkFileAccessWithImpersonation(fs, fileStatus, action, userName);
+
+            stats.remoteCalls.addAndGet(2);
+
+            ret = true;
+        }
+
+        return ret;
+    }
+
+    // same as FileUtils.isOwnerOfFileHierarchy() || FileUtils.isActionPermittedForFileHierarchy(), except that levels of the hierarchy are listed in parallel
+    private boolean isHierarchyAccessible(String userName, FsAction action, FileStatus root, FileSystem fs, boolean recurse, CheckStats stats) throws Exception {
+        if (!recurse || !root.isDirectory()) {
+            stats.remoteCalls.incrementAndGet();
+
+            return userName.equals(root.getOwner()) || FileUtils.isActionPermittedForFileHierarchy(fs, root, userName, action, false);
+        }
+
+        List<FileStatus>     nodes     = new ArrayList<>(); // checked individually
+        List<FileStatus>     subtrees  = new ArrayList<>(); // directories at maxDepth, checked along with their descendants
+        UserGroupInformation proxyUser = UserGroupInformation.createProxyUser(userName, UserGroupInformation.getLoginUser());
+
+        try {
+            // list as the user, like FileUtils does, so that directories the user can't list fail the check
+            FileSystem       fsAsUser = proxyUser.doAs((PrivilegedExceptionAction<FileSystem>) () -> FileSystem.get(fs.getUri(), fs.getConf()));
+            List<FileStatus> level    = Collections.singletonList(root);
+
+            for (int depth = 0; !level.isEmpty(); depth++) {
+                List<FileStatus> dirs = new ArrayList<>();
+
+                for (FileStatus fileStatus : level) {
+                    if (!fileStatus.isDirectory()) {
+                        nodes.add(fileStatus);
+                    } else if (depth < maxDepth) {
+                        nodes.add(fileStatus);
+                        dirs.add(fileStatus);
+                    } else {
+                        subtrees.add(fileStatus);
+                    }
+                }
+
+                stats.remoteCalls.addAndGet(dirs.size());
+
+                level = new ArrayList<>();
+
+                for (FileStatus[] children : invokeAll(dirs, dir -> proxyUser.doAs((PrivilegedExceptionAction<FileStatus[]>) () -> fsAsUser.listStatus(dir.getPath())))) {
+                    level.addAll(Arrays.asList(children));
+                }
+            }
+        } finally {
+            FileSystem.closeAllForUGI(proxyUser);
+        }
+
+        LOG.debug("RangerHiveURIAccessChecker.isHierarchyAccessible(root={}): nodes={}, subtrees={}", root.getPath(), nodes.size(), subtrees.size());
+
+        boolean isOwner = true;
+
+        for (FileStatus fileStatus : nodes) {
+            if (!userName.equals(fileStatus.getOwner())) {
+                isOwner = false;
+
+                break;
+            }
+        }
+
+        if (isOwner) {
+            stats.remoteCalls.addAndGet(subtrees.size());
+
+            isOwner = allMatch(invokeAll(subtrees, subtree -> FileUtils.isOwnerOfFileHierarchy(fs, subtree, userName, true)));
+        }
+
+        if (isOwner) {
+            return true;
+        }
+
+        stats.remoteCalls.addAndGet(nodes.size() + subtrees.size());
+
+        return allMatch(invokeAll(nodes, node -> FileUtils.isActionPermittedForFileHierarchy(fs, node, userName, action, false))) &&
+                allMatch(invokeAll(subtrees, subtree -> FileUtils.isActionPermittedForFileHierarchy(fs, subtree, userName, action, true)));
+    }
+
+    private <R> List<R> invokeAll(List<FileStatus> fileStatuses, FileStatusFunction<R> function) throws Exception {
+        List<R> ret = new ArrayList<>(fileStatuses.size());
+
+        if (executor == null || fileStatuses.size() < 2) {
+            for (FileStatus fileStatus : fileStatuses) {
+                ret.add(function.apply(fileStatus));
+            }
+        } else {
+            List<Future<R>> futures = new ArrayList<>(fileStatuses.size());
+
+            try {
+                for (FileStatus fileStatus : fileStatuses) {
+                    futures.add(executor.submit(() -> function.apply(fileStatus)));
+                }
+
+                for (Future<R> future : futures) {
+                    ret.add(future.get());
+                }
+            } catch (ExecutionException excp) {
+                throw excp.getCause() instanceof Exception ? (Exception) excp.getCause() : excp;
+            } finally {
+                for (Future<R> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean allMatch(List<Boolean> values) {
+        return !values.contains(Boolean.FALSE);
+    }
+
+    private static String getCacheKey(String userName, FsAction action, Path filePath, FileSystem fs, boolean recurse) {
+        return userName + '|' + action + '|' + recurse + '|' + fs.getUri() + '|' + filePath;
+    }
+
+    @FunctionalInterface
+    private interface FileStatusFunction<R> {
+        R apply(FileStatus fileStatus) throws Exception;
+    }
+
+    private static class CachedDecision {
+        final boolean isAllowed;
+        final int     remoteCalls;
+        final long    expiryTime;
+
+        CachedDecision(boolean isAllowed, int remoteCalls, long expiryTime) {
+            this.isAllowed   = isAllowed;
+            this.remoteCalls = remoteCalls;
+            this.expiryTime  = expiryTime;
+        }
+    }
+
+    /**
+     * URI checks done for a statement: number of checks, checks served from cache, file-system calls made and the
+     * file-system calls the cached decisions took to compute, i.e. the calls avoided
+     */
+    public static class CheckStats {
+        private final AtomicInteger checks             = new AtomicInteger();
+        private final AtomicInteger cacheHits          = new AtomicInteger();
+        private final AtomicInteger remoteCalls        = new AtomicInteger();
+        private final AtomicInteger remoteCallsAvoided = new AtomicInteger();
+
+        public int getChecks() {
+            return checks.get();
+        }
+
+        public int getCacheHits() {
+            return cacheHits.get();
+        }
+
+        public int getRemoteCalls() {
+            return remoteCalls.get();
+        }
+
+        public int getRemoteCallsAvoided() {
+            return remoteCallsAvoided.get();
+        }
+
+        void add(CheckStats other) {
+            checks.addAndGet(other.checks.get());
+            cacheHits.addAndGet(other.cacheHits.get());
+            remoteCalls.addAndGet(other.remoteCalls.get());
+            remoteCallsAvoided.addAndGet(other.remoteCallsAvoided.get());
+        }
+
+        @Override
+        public String toString() {
+            return "checks=" + checks + ", cacheHits=" + cacheHits + ", remoteCalls=" + remoteCalls + ", remoteCallsAvoided=" + remoteCallsAvoided;
+        }
+    }
+}
@@ -31,6 +31,7 @@
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -54,6 +55,7 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -294,4 +296,46 @@ public void test10_createAuditEventUsesUrlFirstElement() {
         AuthzAuditEvent ev = handler.createAuditEvent(res);
         assertNotNull(ev);
     }
+
+    @Test
+    public void test11_processResultsSummarizesMetadataOperationTables() {
+        Configuration conf = new Configuration(false);
+        conf.setBoolean(RangerHiveAuditHandler.CONF_AUDIT_SUMMARIZE_METADATA_OPS, true);
+        RangerHiveAuditHandler handler = new RangerHiveAuditHandler(conf);
+
+        List<RangerAccessResult> results = new ArrayList<>();
+        results.add(metadataOpResult(new RangerHiveResource(HiveObjectType.TABLE, "db1", "t1"), 1L, true));
+        results.add(metadataOpResult(new RangerHiveResource(HiveObjectType.TABLE, "db1", "t2"), 1L, true));
+        results.add(metadataOpResult(new RangerHiveResource(HiveObjectType.TABLE, "db1", "t3"), 1L, true));
+        results.add(metadataOpResult(new RangerHiveResource(HiveObjectType.TABLE, "db1", "t4"), 2L, true));
+        results.add(metadataOpResult(new RangerHiveResource(HiveObjectType.TABLE, "db1", "t5"), 2L, false)); // denied filter results are not audited
+
+        handler.processResults(results);
+
+        try (MockedStatic<RangerBasePlugin> base = mockStatic(RangerBasePlugin.class)) {
+            AuditHandler mockAudit = mock(AuditHandler.class, RETURNS_DEFAULTS);
+            base.when(() -> RangerBasePlugin.getAuditProvider(any())).thenReturn(mockAudit);
+
+            handler.flushAudit();
+
+            ArgumentCaptor<AuthzAuditEvent> captor = ArgumentCaptor.forClass(AuthzAuditEvent.class);
+
+            verify(mockAudit, times(2)).log(captor.capture());
+
+            assertEquals(3, captor.getAllValues().get(0).getEventCount());
+            assertEquals("db1", captor.getAllValues().get(0).getResourcePath());
+            assertEquals(1, captor.getAllValues().get(1).getEventCount());
+        }
+    }
+
+    private static RangerAccessResult metadataOpResult(RangerHiveResource resource, long policyId, boolean isAllowed) {
+        RangerHiveAccessRequest request = new RangerHiveAccessRequest(resource, "u", Collections.emptySet(), Collections.emptySet(), ACTION_TYPE_METADATA_OPERATION, HiveAccessType.USE, null, null);
+        RangerAccessResult      result  = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "svc", null, request);
+
+        result.setIsAudited(true);
+        result.setIsAllowed(isAllowed);
+        result.setPolicyId(policyId);
+
+        return result;
+    }
 }
@@ -51,6 +51,7 @@
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.RangerResourceACLs;
@@ -81,6 +82,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -350,7 +353,12 @@ public void test18_filterListCmdObjectsUserNullReturnsOriginal() {
     @Test
     public void test19_filterListCmdObjectsAllowsWhenPluginAllows() throws Exception {
         RangerBasePlugin pluginSpy = (RangerBasePlugin) Mockito.spy(newInstanceRangerHivePlugin("hiveCLI"));
-        Mockito.doReturn(allowedResult(true)).when(pluginSpy).isAccessAllowed(Mockito.any(RangerAccessRequestImpl.class), Mockito.any());
+        Mockito.doAnswer(invocation -> {
+            List<HivePrivilegeObject>                          objs          = invocation.getArgument(0);
+            Function<HivePrivilegeObject, RangerAccessRequest> requestMapper = invocation.getArgument(1);
+
+            return objs.stream().filter(obj -> requestMapper.apply(obj) != null).collect(Collectors.toList());
+        }).when(pluginSpy).filterAccessAllowed(Mockito.anyList(), Mockito.any(), Mockito.any());
         setStaticHivePlugin(pluginSpy);
         HiveMetastoreClientFactory msFactory = Mockito.mock(HiveMetastoreClientFactory.class);
         IMetaStoreClient           ms        = Mockito.mock(IMetaStoreClient.class);
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hive.authorizer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestRangerHiveURIAccessChecker {
+    @TempDir
+    File tempDir;
+
+    private FileSystem fs;
+    private Path       root;
+    private String     user;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        fs   = FileSystem.getLocal(new Configuration());
+        root = new Path(tempDir.getAbsolutePath(), "warehouse");
+        user = UserGroupInformation.getCurrentUser().getShortUserName();
+
+        fs.mkdirs(new Path(root, "db1/tbl1/part=1"));
+        fs.mkdirs(new Path(root, "db1/tbl1/part=2"));
+        fs.create(new Path(root, "db1/tbl1/part=1/data.orc")).close();
+        fs.create(new Path(root, "db1/tbl1/part=2/data.orc")).close();
+    }
+
+    @Test
+    public void test01_decisionIsCachedPerUserPathAndAction() throws Exception {
+        RangerHiveURIAccessChecker checker = new RangerHiveURIAccessChecker(true, 100, 60 * 1000L, 2, 1);
+
+        try {
+            RangerHiveURIAccessChecker.CheckStats stats = new RangerHiveURIAccessChecker.CheckStats();
+
+            Assertions.assertTrue(checker.isAccessAllowed(user, FsAction.READ, root, fs, true, stats));
+            Assertions.assertEquals(0, stats.getCacheHits());
+            Assertions.assertTrue(stats.getRemoteCalls() > 0);
+
+            int remoteCalls = stats.getRemoteCalls();
+
+            Assertions.assertTrue(checker.isAccessAllowed(user, FsAction.READ, root, fs, true, stats));
+            Assertions.assertEquals(2, stats.getChecks());
+            Assertions.assertEquals(1, stats.getCacheHits());
+            Assertions.assertEquals(remoteCalls, stats.getRemoteCalls());
+            Assertions.assertEquals(remoteCalls, stats.getRemoteCallsAvoided());
+
+            Assertions.assertTrue(checker.isAccessAllowed(user, FsAction.WRITE, root, fs, true, stats));
+            Assertions.assertEquals(1, stats.getCacheHits());
+            Assertions.assertEquals(2, checker.getCacheSize());
+        } finally {
+            checker.close();
+        }
+    }
+
+    @Test
+    public void test02_hierarchyDeeperThanMaxDepthIsChecked() throws Exception {
+        RangerHiveURIAccessChecker checker = new RangerHiveURIAccessChecker(false, 0, 0, 1, 0);
+
+        try {
+            Assertions.assertTrue(checker.isAccessAllowed(user, FsAction.READ_WRITE, root, fs, true, null));
+            Assertions.assertEquals(0, checker.getCacheSize());
+        } finally {
+            checker.close();
+        }
+    }
+
+    @Test
+    public void test03_nonExistentPathChecksParent() throws Exception {
+        RangerHiveURIAccessChecker checker = new RangerHiveURIAccessChecker(true, 100, 60 * 1000L, 1, 8);
+
+        try {
+            RangerHiveURIAccessChecker.CheckStats stats = new RangerHiveURIAccessChecker.CheckStats();
+
+            Assertions.assertTrue(checker.isAccessAllowed(user, FsAction.WRITE, new Path(root, "db1/tbl2"), fs, true, stats));
+            Assertions.assertEquals(3, stats.getRemoteCalls());
+        } finally {
+            checker.close();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.crypto.key;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.crypto.key.kms.server.KMSWebApp;
+import org.apache.ranger.kms.metrics.KMSMetrics;
+import org.apache.ranger.kms.metrics.collector.KMSMetricsCollector;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of unsealed key material, by key version name, so that decrypting EEKs doesn't require unsealing the
+ * zone key with the master key on every call. Entries expire after a TTL, to pick up changes made through other KMS
+ * instances sharing the database. Material is returned as a copy, and the cached copy is zeroed once the entry is
+ * evicted, expired or invalidated.
+ */
+@InterfaceAudience.Private
+public class RangerKeyMaterialCache {
+    public static final String  PROP_KEY_MATERIAL_CACHE_ENABLED     = "ranger.kms.key.material.cache.enabled";
+    public static final String  PROP_KEY_MATERIAL_CACHE_MAX_SIZE    = "ranger.kms.key.material.cache.max.size";
+    public static final String  PROP_KEY_MATERIAL_CACHE_TTL_MS      = "ranger.kms.key.material.cache.ttl.ms";
+    public static final boolean DEFAULT_KEY_MATERIAL_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_KEY_MATERIAL_CACHE_MAX_SIZE = 1000;
+    public static final long    DEFAULT_KEY_MATERIAL_CACHE_TTL_MS   = 60 * 1000L;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int                maxSize;
+    private final long               ttlMs;
+
+    public RangerKeyMaterialCache(int maxSize, long ttlMs) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMs   = ttlMs;
+    }
+
+    /**
+     * @return copy of the material of the key version; null if it is not in the cache or has expired
+     */
+    public byte[] get(String versionName) {
+        Entry  entry = entries.get(versionName);
+        byte[] ret   = null;
+
+        if (entry != null) {
+            if (entry.isExpired(System.currentTimeMillis())) {
+                remove(versionName, entry);
+            } else {
+                ret = entry.copyMaterial();
+            }
+        }
+
+        incrementCounter(ret != null ? KMSMetrics.KMSMetric.KEY_MATERIAL_CACHE_HIT_COUNT : KMSMetrics.KMSMetric.KEY_MATERIAL_CACHE_MISS_COUNT);
+
+        return ret;
+    }
+
+    public void put(String versionName, byte[] material) {
+        long now = System.currentTimeMillis();
+
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+
+        Entry prev = entries.put(versionName, new Entry(material, now + ttlMs));
+
+        if (prev != null) {
+            prev.zero();
+        }
+    }
+
+    public void remove(String versionName) {
+        Entry entry = entries.remove(versionName);
+
+        if (entry != null) {
+            entry.zero();
+        }
+    }
+
+    /**
+     * Removes material of all versions of the key
+     */
+    public void removeKey(String name) {
+        String versionPrefix = name + "@";
+
+        for (Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, Entry> entry = iter.next();
+
+            if (entry.getKey().startsWith(versionPrefix)) {
+                iter.remove();
+
+                entry.getValue().zero();
+            }
+        }
+    }
+
+    public void clear() {
+        for (Iterator<Entry> iter = entries.values().iterator(); iter.hasNext(); ) {
+            Entry entry = iter.next();
+
+            iter.remove();
+
+            entry.zero();
+        }
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    private void remove(String versionName, Entry entry) {
+        if (entries.remove(versionName, entry)) {
+            entry.zero();
+
+            incrementCounter(KMSMetrics.KMSMetric.KEY_MATERIAL_CACHE_EVICTION_COUNT);
+        }
+    }
+
+    // removes expired entries; if none expired, removes 10% of entries
+    private void evict(long now) {
+        int expiredCount = 0;
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().isExpired(now)) {
+                remove(entry.getKey(), entry.getValue());
+
+                expiredCount++;
+            }
+        }
+
+        if (expiredCount == 0) {
+            int toEvict = Math.max(1, maxSize / 10);
+
+            for (Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator(); iter.hasNext() && toEvict > 0; toEvict--) {
+                Map.Entry<String, Entry> entry = iter.next();
+
+                remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static void incrementCounter(KMSMetrics.KMSMetric metric) {
+        KMSMetricsCollector metricsCollector = KMSWebApp.getKmsMetricsCollector();
+
+        if (metricsCollector != null) {
+            metricsCollector.incrementCounter(metric);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[]  material;
+        private final long    expiryTime;
+        private       boolean isZeroed;
+
+        Entry(byte[] material, long expiryTime) {
+            this.material   = Arrays.copyOf(material, material.length);
+            this.expiryTime = expiryTime;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiryTime;
+        }
+
+        // synchronized with zero(), so that a copy is never made of partially zeroed material
+        synchronized byte[] copyMaterial() {
+            return isZeroed ? null : Arrays.copyOf(material, material.length);
+        }
+
+        synchronized void zero() {
+            Arrays.fill(material, (byte) 0);
+
+            isZeroed = true;
+        }
+    }
+}
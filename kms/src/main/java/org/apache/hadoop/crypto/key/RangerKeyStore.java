@@ -70,14 +70,17 @@
 import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -99,12 +102,13 @@ public class RangerKeyStore extends KeyStoreSpi {
     private static final String SECRET_KEY_HASH_WORD     = "Apache Ranger";
     public  static final String KEY_CRYPTO_ALGO_NAME     = "keyCryptoAlgoName";
 
-    private final    RangerKMSDao        kmsDao;
-    private final    RangerKMSMKI        masterKeyProvider;
-    private final    boolean             keyVaultEnabled;
-    private          boolean             isFIPSEnabled;
-    private final    Map<String, Object> deltaEntries = new ConcurrentHashMap<>();
-    private volatile Map<String, Object> keyEntries   = new ConcurrentHashMap<>();
+    private final    RangerKMSDao          kmsDao;
+    private final    RangerKMSMKI          masterKeyProvider;
+    private final    boolean               keyVaultEnabled;
+    private          boolean               isFIPSEnabled;
+    private final    Map<String, Object>   deltaEntries = new ConcurrentHashMap<>();
+    private volatile Map<String, Object>   keyEntries   = new ConcurrentHashMap<>();
+    private volatile Map<String, KeyStamp> keyStamps    = Collections.emptyMap();
 
     public RangerKeyStore(DaoManager daoManager) {
         this(daoManager, false, null);
@@ -299,7 +303,7 @@ public void engineStore(OutputStream stream, char[] password) throws IOException
     }
 
     @Override
-    public void engineLoad(InputStream stream, char[] password) throws IOException, NoSuchAlgorithmException, CertificateException {
+    public synchronized void engineLoad(InputStream stream, char[] password) throws IOException, NoSuchAlgorithmException, CertificateException {
         logger.debug("==> engineLoad()");
 
         List<XXRangerKeyStore> rangerKeyDetails = dbOperationLoad();
@@ -310,89 +314,105 @@ public void engineLoad(InputStream stream, char[] password) throws IOException,
             return;
         }
 
-        Map<String, Object> keyEntries = new ConcurrentHashMap<>();
+        Map<String, Object>   keyEntries = new ConcurrentHashMap<>();
+        Map<String, KeyStamp> keyStamps  = new HashMap<>();
+        MessageDigest         md         = (!keyVaultEnabled && password != null) ? getKeyedMessageDigest(password) : null;
+        byte[]                computed   = md != null ? md.digest() : new byte[0];
 
-        if (keyVaultEnabled) {
-            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-                String encodedStr  = rangerKey.getEncoded();
-                byte[] encodedByte = DatatypeConverter.parseBase64Binary(encodedStr);
-                String alias       = rangerKey.getAlias();
+        for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
+            keyEntries.put(rangerKey.getAlias(), toKeyEntry(rangerKey, md, computed));
+            keyStamps.put(rangerKey.getAlias(), new KeyStamp(rangerKey));
+        }
 
-                SecretKeyByteEntry entry = new SecretKeyByteEntry(new Date(rangerKey.getCreatedDate()), encodedByte,
-                        rangerKey.getCipher(), rangerKey.getBitLength(),
-                        rangerKey.getDescription(), rangerKey.getVersion(),
-                        rangerKey.getAttributes());
+        logger.debug("engineLoad(): loaded {} keys", keyEntries.size());
 
-                logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
+        this.keyEntries = keyEntries;
+        this.keyStamps  = keyStamps;
 
-                keyEntries.put(alias, entry);
-            }
-        } else {
-            MessageDigest md = null;
+        logger.debug("engineLoad(): keyEntries switched with {} keys", keyEntries.size());
+    }
 
-            if (password != null) {
-                md = getKeyedMessageDigest(password);
-            }
+    /**
+     * Loads only the keys added, updated or deleted in the database since the last load, as identified by their id,
+     * version and update time. Changes are applied to a copy of the loaded keys, which then replaces them; until then,
+     * readers continue to use the loaded keys. Keys added to this keystore but not yet stored are retained.
+     *
+     * @return aliases of keys that were added, updated or deleted
+     */
+    public synchronized Set<String> engineLoadChanges(char[] password) throws IOException, NoSuchAlgorithmException, CertificateException {
+        logger.debug("==> engineLoadChanges()");
 
-            byte[] computed = {};
+        if (keyStamps.isEmpty()) { // nothing loaded yet
+            engineLoad(null, password);
 
-            if (md != null) {
-                computed = md.digest();
-            }
+            Set<String> ret = new HashSet<>(keyEntries.keySet());
 
-            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-                String encoded = rangerKey.getEncoded();
-                byte[] data    = DatatypeConverter.parseBase64Binary(encoded);
+            logger.debug("<== engineLoadChanges(): loaded all {} keys", ret.size());
 
-                if (data != null && data.length > 0) {
-                    stream = new ByteArrayInputStream(data);
-                } else {
-                    logger.error("No Key found for alias {}", rangerKey.getAlias());
-                }
+            return ret;
+        }
 
-                if (computed != null) {
-                    int counter = 0;
+        List<XXRangerKeyStore> dbStamps = dbOperationLoadStamps();
 
-                    for (int i = computed.length - 1; i >= 0; i--) {
-                        if (data == null || computed[i] != data[data.length - (1 + counter)]) {
-                            Throwable t = new UnrecoverableKeyException("Password verification failed");
+        if (dbStamps == null) {
+            logger.warn("engineLoadChanges(): failed to get keys from the database. Continuing with {} loaded keys", keyEntries.size());
 
-                            logger.error("Keystore was tampered with, or password was incorrect.", t);
+            return Collections.emptySet();
+        }
 
-                            throw new IOException("Keystore was tampered with, or password was incorrect", t);
-                        } else {
-                            counter++;
-                        }
-                    }
-                }
+        Map<String, KeyStamp> prevStamps  = this.keyStamps;
+        Map<String, KeyStamp> keyStamps   = new HashMap<>();
+        Map<Long, String>     changedKeys = new HashMap<>();
+        Set<String>           ret         = new HashSet<>();
 
-                SealedObject sealedKey;
+        for (XXRangerKeyStore dbStamp : dbStamps) {
+            KeyStamp stamp = new KeyStamp(dbStamp);
 
-                // read the (entry creation) date
-                // read the sealed key
-                try (DataInputStream dis = password != null ? new DataInputStream(new DigestInputStream(stream, md)) : new DataInputStream(stream);
-                        ObjectInputStream ois = new ObjectInputStream(dis)) {
-                    sealedKey = (SealedObject) ois.readObject();
-                } catch (ClassNotFoundException cnfe) {
-                    throw new IOException(cnfe.getMessage());
-                }
+            keyStamps.put(dbStamp.getAlias(), stamp);
+
+            if (!stamp.equals(prevStamps.get(dbStamp.getAlias()))) {
+                changedKeys.put(dbStamp.getId(), dbStamp.getAlias());
+            }
+        }
+
+        for (String alias : keyEntries.keySet()) {
+            if (!keyStamps.containsKey(alias) && !deltaEntries.containsKey(alias)) {
+                ret.add(alias);
+            }
+        }
+
+        if (!changedKeys.isEmpty() || !ret.isEmpty()) {
+            Map<String, Object> keyEntries = new ConcurrentHashMap<>(this.keyEntries);
+
+            keyEntries.keySet().removeAll(ret);
 
-                SecretKeyEntry entry = new SecretKeyEntry(new Date(rangerKey.getCreatedDate()), sealedKey, rangerKey.getCipher(),
-                        rangerKey.getBitLength(), rangerKey.getDescription(), rangerKey.getVersion(),
-                        rangerKey.getAttributes());
+            if (!changedKeys.isEmpty()) {
+                MessageDigest md       = (!keyVaultEnabled && password != null) ? getKeyedMessageDigest(password) : null;
+                byte[]        computed = md != null ? md.digest() : new byte[0];
 
-                logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
+                for (XXRangerKeyStore rangerKey : dbOperationLoadByIds(new ArrayList<>(changedKeys.keySet()))) {
+                    changedKeys.remove(rangerKey.getId());
 
-                // Add the entry to the list
-                keyEntries.put(rangerKey.getAlias(), entry);
+                    // not to overwrite a key that is yet to be stored
+                    if (!deltaEntries.containsKey(rangerKey.getAlias())) {
+                        keyEntries.put(rangerKey.getAlias(), toKeyEntry(rangerKey, md, computed));
+
+                        ret.add(rangerKey.getAlias());
+                    }
+                }
+
+                // keys deleted after stamps were read; these will be found deleted in the next load
+                keyStamps.keySet().removeAll(changedKeys.values());
             }
+
+            this.keyEntries = keyEntries;
         }
 
-        logger.debug("engineLoad(): loaded {} keys", keyEntries.size());
+        this.keyStamps = keyStamps;
 
-        this.keyEntries = keyEntries;
+        logger.debug("<== engineLoadChanges(): {} keys changed, {} keys loaded", ret.size(), keyEntries.size());
 
-        logger.debug("engineLoad(): keyEntries switched with {} keys", keyEntries.size());
+        return ret;
     }
 
     public byte[] engineGetDecryptedZoneKeyByte(String alias) throws Exception {
@@ -883,10 +903,104 @@ private XXRangerKeyStore mapToEntityBean(XXRangerKeyStore rangerKMSKeyStore, XXR
         xxRangerKeyStore.setDescription(rangerKMSKeyStore.getDescription());
         xxRangerKeyStore.setVersion(rangerKMSKeyStore.getVersion());
         xxRangerKeyStore.setAttributes(rangerKMSKeyStore.getAttributes());
+        xxRangerKeyStore.setUpdateTime(new Date()); // to identify the change in incremental loads
 
         return xxRangerKeyStore;
     }
 
+    private Object toKeyEntry(XXRangerKeyStore rangerKey, MessageDigest md, byte[] computed) throws IOException {
+        final Object ret;
+
+        if (keyVaultEnabled) {
+            String encodedStr  = rangerKey.getEncoded();
+            byte[] encodedByte = DatatypeConverter.parseBase64Binary(encodedStr);
+
+            ret = new SecretKeyByteEntry(new Date(rangerKey.getCreatedDate()), encodedByte,
+                    rangerKey.getCipher(), rangerKey.getBitLength(),
+                    rangerKey.getDescription(), rangerKey.getVersion(),
+                    rangerKey.getAttributes());
+        } else {
+            String      encoded = rangerKey.getEncoded();
+            byte[]      data    = DatatypeConverter.parseBase64Binary(encoded);
+            InputStream stream  = null;
+
+            if (data != null && data.length > 0) {
+                stream = new ByteArrayInputStream(data);
+            } else {
+                logger.error("No Key found for alias {}", rangerKey.getAlias());
+            }
+
+            if (computed != null) {
+                int counter = 0;
+
+                for (int i = computed.length - 1; i >= 0; i--) {
+                    if (data == null || computed[i] != data[data.length - (1 + counter)]) {
+                        Throwable t = new UnrecoverableKeyException("Password verification failed");
+
+                        logger.error("Keystore was tampered with, or password was incorrect.", t);
+
+                        throw new IOException("Keystore was tampered with, or password was incorrect", t);
+                    } else {
+                        counter++;
+                    }
+                }
+            }
+
+            SealedObject sealedKey;
+
+            // read the (entry creation) date
+            // read the sealed key
+            try (DataInputStream dis = md != null ? new DataInputStream(new DigestInputStream(stream, md)) : new DataInputStream(stream);
+                    ObjectInputStream ois = new ObjectInputStream(dis)) {
+                sealedKey = (SealedObject) ois.readObject();
+            } catch (ClassNotFoundException cnfe) {
+                throw new IOException(cnfe.getMessage());
+            }
+
+            ret = new SecretKeyEntry(new Date(rangerKey.getCreatedDate()), sealedKey, rangerKey.getCipher(),
+                    rangerKey.getBitLength(), rangerKey.getDescription(), rangerKey.getVersion(),
+                    rangerKey.getAttributes());
+        }
+
+        logger.debug("loaded key {}", rangerKey.getAlias());
+
+        return ret;
+    }
+
+    private List<XXRangerKeyStore> dbOperationLoadStamps() {
+        logger.debug("==> dbOperationLoadStamps()");
+
+        List<XXRangerKeyStore> ret = null;
+
+        try {
+            if (kmsDao != null) {
+                ret = kmsDao.getAllKeyStamps();
+            }
+        } catch (Exception e) {
+            logger.error("dbOperationLoadStamps() error", e);
+        }
+
+        logger.debug("<== dbOperationLoadStamps(): count={}", (ret != null ? ret.size() : 0));
+
+        return ret;
+    }
+
+    private List<XXRangerKeyStore> dbOperationLoadByIds(List<Long> ids) throws IOException {
+        logger.debug("==> dbOperationLoadByIds(count={})", ids.size());
+
+        List<XXRangerKeyStore> ret;
+
+        try {
+            ret = kmsDao.getKeysByIds(ids);
+        } catch (Exception e) {
+            throw new IOException("Error while loading keys from the DB", e);
+        }
+
+        logger.debug("<== dbOperationLoadByIds(count={}): count={}", ids.size(), ret.size());
+
+        return ret;
+    }
+
     private List<XXRangerKeyStore> dbOperationLoad() {
         logger.debug("==> dbOperationLoad()");
 
@@ -1059,6 +1173,37 @@ private static final class SecretKeyEntry {
         }
     }
 
+    // identifies the version of a key in the database, to find keys changed since the last load
+    private static final class KeyStamp {
+        final Long id;
+        final int  version;
+        final Date updateTime;
+
+        KeyStamp(XXRangerKeyStore rangerKey) {
+            this.id         = rangerKey.getId();
+            this.version    = rangerKey.getVersion();
+            this.updateTime = rangerKey.getUpdateTime();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, version, updateTime);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof KeyStamp)) {
+                return false;
+            }
+
+            KeyStamp other = (KeyStamp) obj;
+
+            return version == other.version && Objects.equals(id, other.id) && Objects.equals(updateTime, other.updateTime);
+        }
+    }
+
     private static final class SecretKeyByteEntry {
         final Date   date;
         final byte[] key;
@@ -50,9 +50,9 @@
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -87,13 +87,16 @@ public class RangerKeyStoreProvider extends KeyProvider {
     private static final String TENCENT_CLIENT_SECRET        = RangerTencentKMSProvider.TENCENT_CLIENT_SECRET;
     private static final String TENCENT_CLIENT_SECRET_ALIAS  = "ranger.kms.tencent.client.secret.alias";
     private static final String IS_GCP_ENABLED               = "ranger.kms.gcp.enabled";
+    private static final String INCREMENTAL_LOAD_ENABLED     = "ranger.kms.keystore.incremental.load.enabled";
 
-    private final RangerKeyStore        dbStore;
-    private final char[]                masterKey;
-    private final Map<String, Metadata> cache   = new HashMap<>();
-    private final ReadWriteLock         lock    = new ReentrantReadWriteLock(true);
-    private final boolean               keyVaultEnabled;
-    private       boolean               changed;
+    private final RangerKeyStore         dbStore;
+    private final char[]                 masterKey;
+    private final Map<String, Metadata>  cache   = new ConcurrentHashMap<>();
+    private final ReadWriteLock          lock    = new ReentrantReadWriteLock(true);
+    private final boolean                keyVaultEnabled;
+    private final boolean                incrementalLoadEnabled;
+    private final RangerKeyMaterialCache keyMaterialCache;
+    private       boolean                changed;
 
     private        boolean isFIPSEnabled;
     private        boolean isMKReencrypted;
@@ -123,7 +126,21 @@ public RangerKeyStoreProvider(Configuration conf) throws Throwable {
         boolean isGCPEnabled           = conf.getBoolean(IS_GCP_ENABLED, false);
         boolean isTencentKMSEnabled    = conf.getBoolean(TENCENT_KMS_ENABLED, false);
 
-        this.keyVaultEnabled = isAzureKeyVaultEnabled || isGCPEnabled || isTencentKMSEnabled;
+        this.keyVaultEnabled        = isAzureKeyVaultEnabled || isGCPEnabled || isTencentKMSEnabled;
+        this.incrementalLoadEnabled = conf.getBoolean(INCREMENTAL_LOAD_ENABLED, false);
+
+        logger.info("{}={}", INCREMENTAL_LOAD_ENABLED, incrementalLoadEnabled);
+
+        if (conf.getBoolean(RangerKeyMaterialCache.PROP_KEY_MATERIAL_CACHE_ENABLED, RangerKeyMaterialCache.DEFAULT_KEY_MATERIAL_CACHE_ENABLED)) {
+            int  maxSize = conf.getInt(RangerKeyMaterialCache.PROP_KEY_MATERIAL_CACHE_MAX_SIZE, RangerKeyMaterialCache.DEFAULT_KEY_MATERIAL_CACHE_MAX_SIZE);
+            long ttlMs   = conf.getLong(RangerKeyMaterialCache.PROP_KEY_MATERIAL_CACHE_TTL_MS, RangerKeyMaterialCache.DEFAULT_KEY_MATERIAL_CACHE_TTL_MS);
+
+            this.keyMaterialCache = new RangerKeyMaterialCache(maxSize, ttlMs);
+
+            logger.info("Key material cache is enabled: maxSize={}, ttlMs={}", maxSize, ttlMs);
+        } else {
+            this.keyMaterialCache = null;
+        }
 
         final RangerKMSDB  rangerKMSDB = new RangerKMSDB(conf);
         final DaoManager   daoManager  = rangerKMSDB.getDaoManager();
@@ -268,6 +285,15 @@ public static Configuration getDBKSConf() {
     public KeyVersion getKeyVersion(String versionName) throws IOException {
         logger.debug("==> getKeyVersion({})", versionName);
 
+        // cached material is used without taking the lock, as it changes only on delete/rollover/invalidateCache of the key
+        byte[] cachedMaterial = keyMaterialCache != null ? keyMaterialCache.get(versionName) : null;
+
+        if (cachedMaterial != null) {
+            logger.debug("<== getKeyVersion({}): from key material cache", versionName);
+
+            return new KeyVersion(getBaseName(versionName), versionName, cachedMaterial);
+        }
+
         KeyVersion ret = null;
 
         try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
@@ -276,7 +302,7 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
                     boolean versionNameExists = dbStore.engineContainsAlias(versionName);
 
                     if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
+                        loadKeys(masterKey);
 
                         versionNameExists = dbStore.engineContainsAlias(versionName);
                     }
@@ -305,7 +331,7 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
                     boolean versionNameExists = dbStore.engineContainsAlias(versionName);
 
                     if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
+                        loadKeys(masterKey);
 
                         versionNameExists = dbStore.engineContainsAlias(versionName);
                     }
@@ -325,6 +351,11 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
                     ret = new KeyVersion(getBaseName(versionName), versionName, key.getEncoded());
                 }
             }
+
+            // added while holding the lock, so that a concurrent delete/rollover of the key removes it after this
+            if (ret != null && keyMaterialCache != null) {
+                keyMaterialCache.put(versionName, ret.getMaterial());
+            }
         }
 
         logger.debug("<== getKeyVersion({})", versionName);
@@ -396,7 +427,7 @@ public Metadata getMetadata(String name) throws IOException {
 
             if (ret == null) {
                 if (!dbStore.engineContainsAlias(name)) {
-                    dbStore.engineLoad(null, masterKey);
+                    loadKeys(masterKey);
                 }
 
                 if (dbStore.engineContainsAlias(name)) {
@@ -503,6 +534,10 @@ public void deleteKey(String name) throws IOException {
 
             cache.remove(name);
 
+            if (keyMaterialCache != null) {
+                keyMaterialCache.removeKey(name);
+            }
+
             changed = true;
         }
 
@@ -532,6 +567,10 @@ public KeyVersion rollNewVersion(String name, byte[] material) throws IOExceptio
             String versionName = buildVersionName(name, nextVersion);
 
             ret = innerSetKeyVersion(name, versionName, material, meta);
+
+            if (keyMaterialCache != null) {
+                keyMaterialCache.removeKey(name);
+            }
         }
 
         logger.debug("<== rollNewVersion({}): ret={}", name, ret);
@@ -539,6 +578,21 @@ public KeyVersion rollNewVersion(String name, byte[] material) throws IOExceptio
         return ret;
     }
 
+    @Override
+    public void invalidateCache(String name) throws IOException {
+        logger.debug("==> invalidateCache({})", name);
+
+        try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
+            cache.remove(name);
+
+            if (keyMaterialCache != null) {
+                keyMaterialCache.removeKey(name);
+            }
+        }
+
+        logger.debug("<== invalidateCache({})", name);
+    }
+
     @Override
     public void flush() throws IOException {
         logger.debug("==> flush()");
@@ -657,7 +711,17 @@ private char[] generateAndGetMasterKey(final RangerKMSMKI masterKeyProvider, fin
     private void loadKeys(char[] masterKey) throws NoSuchAlgorithmException, CertificateException, IOException {
         logger.debug("==> loadKeys()");
 
-        dbStore.engineLoad(null, masterKey);
+        if (incrementalLoadEnabled) {
+            for (String alias : dbStore.engineLoadChanges(masterKey)) {
+                cache.remove(alias);
+
+                if (keyMaterialCache != null) {
+                    keyMaterialCache.remove(alias);
+                }
+            }
+        } else {
+            dbStore.engineLoad(null, masterKey);
+        }
 
         logger.debug("<== loadKeys()");
     }
@@ -725,12 +789,21 @@ private void saveKey(String name, Metadata metadata) throws IOException {
     private void reloadKeys() throws IOException {
         logger.debug("==> reloadKeys()");
 
-        try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
-            cache.clear();
+        if (incrementalLoadEnabled) {
+            // only changed keys are loaded, into a new snapshot; readers continue to use the current snapshot until then
+            try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
+                loadKeys(masterKey);
+            } catch (NoSuchAlgorithmException | CertificateException e) {
+                throw new IOException("Can't load Keys");
+            }
+        } else {
+            try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
+                cache.clear();
 
-            loadKeys(masterKey);
-        } catch (NoSuchAlgorithmException | CertificateException e) {
-            throw new IOException("Can't load Keys");
+                loadKeys(masterKey);
+            } catch (NoSuchAlgorithmException | CertificateException e) {
+                throw new IOException("Can't load Keys");
+            }
         }
 
         logger.debug("<== reloadKeys()");
@@ -39,6 +39,7 @@
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
@@ -60,9 +61,9 @@ public class KMSAudit {
     @VisibleForTesting
     static final Set<KMS.KMSOp> AGGREGATE_OPS_WHITELIST = Sets.newHashSet(KMS.KMSOp.GET_KEY_VERSION, KMS.KMSOp.GET_CURRENT_KEY, KMS.KMSOp.DECRYPT_EEK, KMS.KMSOp.GENERATE_EEK, KMS.KMSOp.REENCRYPT_EEK);
 
-    private final List<KMSAuditLogger>      auditLoggers = new LinkedList<>();
-    private final Cache<String, AuditEvent> cache;
-    private final ScheduledExecutorService  executor;
+    private final List<KMSAuditLogger>        auditLoggers = new LinkedList<>();
+    private final Cache<AuditKey, AuditEvent> cache;
+    private final ScheduledExecutorService    executor;
 
     /**
      * Create a new KMSAudit.
@@ -78,9 +79,9 @@ public class KMSAudit {
 
         cache = CacheBuilder.newBuilder()
                 .expireAfterWrite(windowMs, TimeUnit.MILLISECONDS)
-                .removalListener(new RemovalListener<String, AuditEvent>() {
+                .removalListener(new RemovalListener<AuditKey, AuditEvent>() {
                     @Override
-                    public void onRemoval(RemovalNotification<String, AuditEvent> entry) {
+                    public void onRemoval(RemovalNotification<AuditKey, AuditEvent> entry) {
                         AuditEvent event = entry.getValue();
                         if (event.getAccessCount().get() > 0) {
                             KMSAudit.this.logEvent(OpStatus.OK, event);
@@ -227,7 +228,7 @@ private void op(final OpStatus opStatus, final Object op, final UserGroupInforma
         final String user = ugi == null ? null : ugi.getUserName();
 
         if (!StringUtils.isEmpty(user) && !StringUtils.isEmpty(key) && (op != null) && AGGREGATE_OPS_WHITELIST.contains(op)) {
-            String cacheKey = createCacheKey(user, key, op);
+            AuditKey cacheKey = new AuditKey(user, key, op);
 
             if (opStatus == OpStatus.UNAUTHORIZED) {
                 cache.invalidate(cacheKey);
@@ -235,7 +236,12 @@ private void op(final OpStatus opStatus, final Object op, final UserGroupInforma
                 logEvent(opStatus, new AuditEvent(op, ugi, key, remoteHost, extraMsg));
             } else {
                 try {
-                    AuditEvent event = cache.get(cacheKey, () -> new AuditEvent(op, ugi, key, remoteHost, extraMsg));
+                    // lookup without a loader first, as most calls are aggregated into an existing event
+                    AuditEvent event = cache.getIfPresent(cacheKey);
+
+                    if (event == null) {
+                        event = cache.get(cacheKey, () -> new AuditEvent(op, ugi, key, remoteHost, extraMsg));
+                    }
 
                     // Log first access (initialized as -1 so incrementAndGet() == 0 implies first access)
                     if (event.getAccessCount().incrementAndGet() == 0) {
@@ -252,7 +258,38 @@ private void op(final OpStatus opStatus, final Object op, final UserGroupInforma
         }
     }
 
-    private static String createCacheKey(String user, String key, Object op) {
-        return user + "#" + key + "#" + op;
+    /**
+     * Key of aggregated events: user, key and op, with the hash computed once, to avoid building a string per call.
+     */
+    private static final class AuditKey {
+        private final String user;
+        private final String key;
+        private final Object op;
+        private final int    hashCode;
+
+        AuditKey(String user, String key, Object op) {
+            this.user     = user;
+            this.key      = key;
+            this.op       = op;
+            this.hashCode = Objects.hash(user, key, op);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof AuditKey)) {
+                return false;
+            }
+
+            AuditKey other = (AuditKey) obj;
+
+            return hashCode == other.hashCode && Objects.equals(op, other.op) && Objects.equals(key, other.key) && Objects.equals(user, other.user);
+        }
     }
 }
@@ -25,12 +25,16 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 public class RangerKMSDao extends BaseDao<XXRangerKeyStore> {
     private static final Logger logger = LoggerFactory.getLogger(RangerKMSDao.class);
 
-    private static final String GET_ALL_KEYS_QUERY_NAME = "XXRangerKeyStore.getAllKeys";
+    private static final String GET_ALL_KEYS_QUERY_NAME       = "XXRangerKeyStore.getAllKeys";
+    private static final String GET_KEYS_BY_IDS_QUERY_NAME    = "XXRangerKeyStore.getKeysByIds";
+    private static final String GET_ALL_KEY_STAMPS_QUERY_NAME = "XXRangerKeyStore.getAllKeyStamps";
+    private static final int    MAX_IDS_PER_QUERY             = 1000;
 
     RangerKMSDao(DaoManagerBase daoManager) {
         super(daoManager);
@@ -55,6 +59,71 @@ public List<XXRangerKeyStore> getAllKeys() {
                     .setHint("eclipselink.refresh", "true")
                     .getResultList();
 
+            if (rows != null) {
+                ret = new ArrayList<>(rows.size());
+
+                for (Object[] row : rows) {
+                    ret.add(toKeyStore(row));
+                }
+            }
+        } catch (NoResultException e) {
+            logger.error("getAllKeys({}) failed", GET_ALL_KEYS_QUERY_NAME, e);
+        } finally {
+            if (em != null) {
+                em.clear();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns keys having the given ids; queries are made in batches, to keep the size of IN clause within database limits
+     */
+    public List<XXRangerKeyStore> getKeysByIds(List<Long> ids) {
+        List<XXRangerKeyStore> ret = new ArrayList<>(ids.size());
+        EntityManager          em  = null;
+
+        try {
+            em = getEntityManager();
+
+            for (int i = 0; i < ids.size(); i += MAX_IDS_PER_QUERY) {
+                List<Object[]> rows = (List<Object[]>) em.createNamedQuery(GET_KEYS_BY_IDS_QUERY_NAME)
+                        .setParameter("ids", ids.subList(i, Math.min(i + MAX_IDS_PER_QUERY, ids.size())))
+                        .setHint("eclipselink.refresh", "true")
+                        .getResultList();
+
+                if (rows != null) {
+                    for (Object[] row : rows) {
+                        ret.add(toKeyStore(row));
+                    }
+                }
+            }
+        } catch (NoResultException e) {
+            logger.error("getKeysByIds({}) failed", GET_KEYS_BY_IDS_QUERY_NAME, e);
+        } finally {
+            if (em != null) {
+                em.clear();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns id, alias, version and updateTime of all keys, without the key material; used to find keys changed since the last load
+     */
+    public List<XXRangerKeyStore> getAllKeyStamps() {
+        List<XXRangerKeyStore> ret = null;
+        EntityManager          em  = null;
+
+        try {
+            em = getEntityManager();
+
+            List<Object[]> rows = (List<Object[]>) em.createNamedQuery(GET_ALL_KEY_STAMPS_QUERY_NAME)
+                    .setHint("eclipselink.refresh", "true")
+                    .getResultList();
+
             if (rows != null) {
                 ret = new ArrayList<>(rows.size());
 
@@ -63,19 +132,14 @@ public List<XXRangerKeyStore> getAllKeys() {
 
                     key.setId((Long) row[0]);
                     key.setAlias((String) row[1]);
-                    key.setCreatedDate((Long) row[2]);
-                    key.setEncoded((String) row[3]);
-                    key.setCipher((String) row[4]);
-                    key.setBitLength((Integer) row[5]);
-                    key.setDescription((String) row[6]);
-                    key.setVersion((Integer) row[7]);
-                    key.setAttributes((String) row[8]);
+                    key.setVersion((Integer) row[2]);
+                    key.setUpdateTime((Date) row[3]);
 
                     ret.add(key);
                 }
             }
         } catch (NoResultException e) {
-            logger.error("getAllKeys({}) failed", GET_ALL_KEYS_QUERY_NAME, e);
+            logger.error("getAllKeyStamps({}) failed", GET_ALL_KEY_STAMPS_QUERY_NAME, e);
         } finally {
             if (em != null) {
                 em.clear();
@@ -84,4 +148,21 @@ public List<XXRangerKeyStore> getAllKeys() {
 
         return ret;
     }
+
+    private static XXRangerKeyStore toKeyStore(Object[] row) {
+        XXRangerKeyStore key = new XXRangerKeyStore();
+
+        key.setId((Long) row[0]);
+        key.setAlias((String) row[1]);
+        key.setCreatedDate((Long) row[2]);
+        key.setEncoded((String) row[3]);
+        key.setCipher((String) row[4]);
+        key.setBitLength((Integer) row[5]);
+        key.setDescription((String) row[6]);
+        key.setVersion((Integer) row[7]);
+        key.setAttributes((String) row[8]);
+        key.setUpdateTime((Date) row[9]);
+
+        return key;
+    }
 }
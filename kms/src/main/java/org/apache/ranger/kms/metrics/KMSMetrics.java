@@ -55,6 +55,9 @@ enum KMSMetric {
 
         GET_KEY_VERSIONS_COUNT("GET_KEY_VERSIONS_COUNT", Type.COUNTER), GET_KEY_VERSIONS_ELAPSED_TIME("GET_KEY_VERSIONS_ELAPSED_TIME", Type.GAUGE),
 
+        KEY_MATERIAL_CACHE_HIT_COUNT("KEY_MATERIAL_CACHE_HIT_COUNT", Type.COUNTER), KEY_MATERIAL_CACHE_MISS_COUNT("KEY_MATERIAL_CACHE_MISS_COUNT", Type.COUNTER),
+        KEY_MATERIAL_CACHE_EVICTION_COUNT("KEY_MATERIAL_CACHE_EVICTION_COUNT", Type.COUNTER),
+
         UNAUTHENTICATED_CALLS_COUNT("UNAUTHENTICATED_CALLS_COUNT", Type.COUNTER), UNAUTHORIZED_CALLS_COUNT("UNAUTHORIZED_CALLS_COUNT", Type.COUNTER),
 
         TOTAL_CALL_COUNT("TOTAL_CALL_COUNT", Type.COUNTER);
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.crypto.key;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestRangerKeyMaterialCache {
+    @Test
+    public void test01_materialIsCopied() {
+        RangerKeyMaterialCache cache    = new RangerKeyMaterialCache(10, 60000);
+        byte[]                 material = new byte[] {1, 2, 3, 4};
+
+        cache.put("key1@0", material);
+
+        material[0] = 0;
+
+        byte[] cached = cache.get("key1@0");
+
+        Assertions.assertArrayEquals(new byte[] {1, 2, 3, 4}, cached);
+
+        cached[1] = 0;
+
+        Assertions.assertArrayEquals(new byte[] {1, 2, 3, 4}, cache.get("key1@0"));
+        Assertions.assertNull(cache.get("key1@1"));
+    }
+
+    @Test
+    public void test02_removeKeyRemovesAllVersions() {
+        RangerKeyMaterialCache cache = new RangerKeyMaterialCache(10, 60000);
+
+        cache.put("key1@0", new byte[] {1});
+        cache.put("key1@1", new byte[] {2});
+        cache.put("key10@0", new byte[] {3});
+
+        cache.removeKey("key1");
+
+        Assertions.assertNull(cache.get("key1@0"));
+        Assertions.assertNull(cache.get("key1@1"));
+        Assertions.assertArrayEquals(new byte[] {3}, cache.get("key10@0"));
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void test03_expiredAndEvictedEntriesAreRemoved() {
+        RangerKeyMaterialCache expiringCache = new RangerKeyMaterialCache(10, -1);
+
+        expiringCache.put("key1@0", new byte[] {1});
+
+        Assertions.assertNull(expiringCache.get("key1@0"));
+        Assertions.assertEquals(0, expiringCache.getSize());
+
+        RangerKeyMaterialCache boundedCache = new RangerKeyMaterialCache(2, 60000);
+
+        boundedCache.put("key1@0", new byte[] {1});
+        boundedCache.put("key2@0", new byte[] {2});
+        boundedCache.put("key3@0", new byte[] {3});
+
+        Assertions.assertEquals(2, boundedCache.getSize());
+        Assertions.assertArrayEquals(new byte[] {3}, boundedCache.get("key3@0"));
+    }
+}
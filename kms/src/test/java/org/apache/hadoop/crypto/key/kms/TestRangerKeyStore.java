@@ -53,8 +53,10 @@
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -544,6 +546,48 @@ void testEngineLoadToKeyStoreFile_Success() throws Exception {
                 rangerKeyStore.engineLoadToKeyStoreFile(outputStream, storePass, keyPass, masterKey, fileFormat));
     }
 
+    @Test
+    public void testEngineLoadChanges_LoadsOnlyChangedKeys() throws Exception {
+        DaoManager   daoManager   = mock(DaoManager.class);
+        RangerKMSDao rangerKMSDao = mock(RangerKMSDao.class);
+        Date         updateTime   = new Date();
+
+        when(daoManager.getRangerKMSDao()).thenReturn(rangerKMSDao);
+        when(rangerKMSDao.getAllKeys()).thenReturn(Arrays.asList(createKeyStoreRow(1L, "key1@0", updateTime), createKeyStoreRow(2L, "key2@0", updateTime)));
+
+        RangerKeyStore rangerKeyStore = new RangerKeyStore(daoManager, true, null);
+
+        assertEquals(new HashSet<>(Arrays.asList("key1@0", "key2@0")), rangerKeyStore.engineLoadChanges(masterKey));
+
+        // key2@0 deleted, key3@0 added
+        when(rangerKMSDao.getAllKeyStamps()).thenReturn(Arrays.asList(createKeyStoreRow(1L, "key1@0", updateTime), createKeyStoreRow(3L, "key3@0", updateTime)));
+        when(rangerKMSDao.getKeysByIds(Collections.singletonList(3L))).thenReturn(Collections.singletonList(createKeyStoreRow(3L, "key3@0", updateTime)));
+
+        assertEquals(new HashSet<>(Arrays.asList("key2@0", "key3@0")), rangerKeyStore.engineLoadChanges(masterKey));
+        assertTrue(rangerKeyStore.engineContainsAlias("key1@0"));
+        assertFalse(rangerKeyStore.engineContainsAlias("key2@0"));
+        assertTrue(rangerKeyStore.engineContainsAlias("key3@0"));
+
+        // no changes
+        assertTrue(rangerKeyStore.engineLoadChanges(masterKey).isEmpty());
+        verify(rangerKMSDao).getKeysByIds(any());
+    }
+
+    private static XXRangerKeyStore createKeyStoreRow(Long id, String alias, Date updateTime) {
+        XXRangerKeyStore ret = new XXRangerKeyStore();
+
+        ret.setId(id);
+        ret.setAlias(alias);
+        ret.setCreatedDate(updateTime.getTime());
+        ret.setEncoded("AAAA");
+        ret.setCipher("AES/CTR/NoPadding");
+        ret.setBitLength(128);
+        ret.setVersion(1);
+        ret.setUpdateTime(updateTime);
+
+        return ret;
+    }
+
     private InputStream generateKeyStoreFile(String keyValue) throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException {
         FileOutputStream stream = new FileOutputStream(new File(keyStoreFileName));
         KeyStore         ks;
@@ -45,6 +45,7 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.slf4j.Logger;
@@ -84,7 +85,8 @@ public class RangerKafkaAuthorizer implements Authorizer {
 
     private static final String KAFKA_SUPER_USERS_PROP = "super.users";
 
-    private static volatile RangerBasePlugin rangerPlugin;
+    private static volatile RangerBasePlugin      rangerPlugin;
+    private static volatile RangerKafkaAuthzCache authzCache;
 
     RangerKafkaAuditHandler auditHandler;
 
@@ -95,6 +97,10 @@ public RangerKafkaAuthorizer() {
     public void close() {
         logger.info("close() called on authorizer.");
         try {
+            if (authzCache != null) {
+                authzCache.unregisterMetrics();
+            }
+
             if (rangerPlugin != null) {
                 rangerPlugin.cleanup();
             }
@@ -146,6 +152,16 @@ public void configure(Map<String, ?> configs) {
 
                     me.setResultProcessor(auditHandler);
 
+                    if (me.getConfig().getBoolean(RangerKafkaAuthzCache.PROP_AUTHZ_CACHE_ENABLED, RangerKafkaAuthzCache.DEFAULT_AUTHZ_CACHE_ENABLED)) {
+                        RangerKafkaAuthzCache cache = new RangerKafkaAuthzCache(me, me.getConfig().getInt(RangerKafkaAuthzCache.PROP_AUTHZ_CACHE_MAX_SIZE, RangerKafkaAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_SIZE));
+
+                        cache.registerMetrics();
+
+                        authzCache = cache;
+                    }
+
+                    logger.info("{}:[{}]", RangerKafkaAuthzCache.PROP_AUTHZ_CACHE_ENABLED, authzCache != null);
+
                     rangerPlugin = me;
                 }
             }
@@ -211,18 +227,54 @@ public Iterable<AclBinding> acls(AclBindingFilter filter) {
         throw new UnsupportedOperationException("(getting) acls is not supported by Ranger for Kafka");
     }
 
-    // TODO: provide a real implementation (RANGER-3809)
-    // Currently we return a dummy implementation because KAFKA-13598 makes producers idempotent by default and this causes
-    // a failure in the InitProducerId API call on the broker side because of the missing acls() method implementation.
-    // Overriding this with a dummy impl will make Kafka return an authorization error instead of an exception if the
-    // IDEMPOTENT_WRITE permission wasn't set on the producer.
+    // Kafka calls this, for example, to authorize InitProducerId of idempotent producers lacking IDEMPOTENT_WRITE on the
+    // cluster, by checking for WRITE on any topic. The request is made with an empty resource name, matched as a prefix of
+    // policy resources, so that policies for any resource of the type apply - including deny policies, which makes this
+    // more restrictive than the default implementation in Kafka, that only considers denies on all resources
     @Override
     public AuthorizationResult authorizeByResourceType(AuthorizableRequestContext requestContext, AclOperation op, ResourceType resourceType) {
         SecurityUtils.authorizeByResourceTypeCheckArgs(op, resourceType);
 
-        logger.debug("authorizeByResourceType call is not supported by Ranger for Kafka yet");
+        if (rangerPlugin == null) {
+            MiscUtil.logErrorMessageByInterval(logger, "Authorizer is still not initialized");
+
+            return AuthorizationResult.DENIED;
+        }
+
+        String accessType      = mapToRangerAccessType(op);
+        String resourceTypeKey = mapToResourceType(resourceType);
+
+        if (accessType == null || resourceTypeKey == null) {
+            logger.debug("authorizeByResourceType(): unsupported operation={} or resourceType={}", op, resourceType);
+
+            return AuthorizationResult.DENIED;
+        }
+
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_KAFKAAUTH_REQUEST_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_KAFKAAUTH_REQUEST_LOG, "RangerKafkaAuthorizer.authorizeByResourceType(op=" + op + ", resourceType=" + resourceType + ")");
+        }
 
-        return AuthorizationResult.DENIED;
+        try {
+            String                  userName      = getUserName(requestContext);
+            Set<String>             userGroups    = MiscUtil.getGroupsForRequestUser(userName);
+            String                  ip            = getClientIp(requestContext);
+            RangerAccessRequestImpl rangerRequest = createRangerAccessRequest(userName, userGroups, ip, new Date(), resourceTypeKey, "", accessType);
+
+            rangerRequest.setResourceElementMatchingScopes(Collections.singletonMap(resourceTypeKey, RangerAccessRequest.ResourceElementMatchingScope.SELF_OR_PREFIX));
+
+            List<RangerAccessResultCache.Key> keys    = authzCache != null ? Collections.singletonList(RangerKafkaAuthzCache.getKey(userName, userGroups, ip, resourceTypeKey, "", accessType, true)) : null;
+            Collection<RangerAccessResult>    results = evaluate(Collections.singletonList(rangerRequest), keys);
+            RangerAccessResult                result  = CollectionUtils.isNotEmpty(results) ? results.iterator().next() : null;
+            AuthorizationResult               ret     = result != null && result.getIsAllowed() ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
+
+            logger.debug("authorizeByResourceType(): rangerRequest={}, return={}", rangerRequest, ret);
+
+            return ret;
+        } finally {
+            RangerPerfTracer.log(perf);
+        }
     }
 
     private static String mapToRangerAccessType(AclOperation operation) {
@@ -325,13 +377,13 @@ private List<AuthorizationResult> wrappedAuthorization(AuthorizableRequestContex
             return Collections.emptyList();
         }
 
-        String      userName    = requestContext.principal() == null ? null : requestContext.principal().getName();
-        Set<String> userGroups  = MiscUtil.getGroupsForRequestUser(userName);
-        String      hostAddress = requestContext.clientAddress() == null ? null : requestContext.clientAddress().getHostAddress();
-        String      ip          = StringUtils.isNotEmpty(hostAddress) && hostAddress.charAt(0) == '/' ? hostAddress.substring(1) : hostAddress;
-        Date        eventTime   = new Date();
+        String      userName   = getUserName(requestContext);
+        Set<String> userGroups = MiscUtil.getGroupsForRequestUser(userName);
+        String      ip         = getClientIp(requestContext);
+        Date        eventTime  = new Date();
 
-        List<RangerAccessRequest> rangerRequests = new ArrayList<>();
+        List<RangerAccessRequest>         rangerRequests = new ArrayList<>();
+        List<RangerAccessResultCache.Key> keys           = authzCache != null ? new ArrayList<>() : null;
 
         for (Action action : actions) {
             String accessType = mapToRangerAccessType(action.operation());
@@ -353,9 +405,13 @@ private List<AuthorizationResult> wrappedAuthorization(AuthorizableRequestContex
             RangerAccessRequestImpl rangerAccessRequest = createRangerAccessRequest(userName, userGroups, ip, eventTime, resourceTypeKey, action.resourcePattern().name(), accessType);
 
             rangerRequests.add(rangerAccessRequest);
+
+            if (keys != null) {
+                keys.add(RangerKafkaAuthzCache.getKey(userName, userGroups, ip, resourceTypeKey, action.resourcePattern().name(), accessType, false));
+            }
         }
 
-        Collection<RangerAccessResult> results = callRangerPlugin(rangerRequests);
+        Collection<RangerAccessResult> results = evaluate(rangerRequests, keys);
 
         List<AuthorizationResult> authorizationResults = mapResults(actions, results);
 
@@ -364,6 +420,33 @@ private List<AuthorizationResult> wrappedAuthorization(AuthorizableRequestContex
         return authorizationResults;
     }
 
+    private static String getUserName(AuthorizableRequestContext requestContext) {
+        return requestContext.principal() == null ? null : requestContext.principal().getName();
+    }
+
+    private static String getClientIp(AuthorizableRequestContext requestContext) {
+        String hostAddress = requestContext.clientAddress() == null ? null : requestContext.clientAddress().getHostAddress();
+
+        return StringUtils.isNotEmpty(hostAddress) && hostAddress.charAt(0) == '/' ? hostAddress.substring(1) : hostAddress;
+    }
+
+    /**
+     * Results for requests having a result in authzCache are copied from the cache, and are sent to the result processor
+     * for audit; the remaining requests are evaluated by the plugin in a single call.
+     *
+     * @param keys cache keys of rangerRequests, in the same order; null when authzCache is not enabled
+     */
+    private Collection<RangerAccessResult> evaluate(List<RangerAccessRequest> rangerRequests, List<RangerAccessResultCache.Key> keys) {
+        RangerKafkaAuthzCache                                        authzCache    = RangerKafkaAuthorizer.authzCache;
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> cachedResults = authzCache != null && keys != null ? authzCache.getResults() : null;
+
+        if (cachedResults == null) {
+            return callRangerPlugin(rangerRequests);
+        }
+
+        return cachedResults.getOrEvaluate(rangerRequests, keys, rangerPlugin.getResultProcessor(), this::callRangerPlugin);
+    }
+
     private Collection<RangerAccessResult> callRangerPlugin(List<RangerAccessRequest> rangerRequests) {
         try {
             return rangerPlugin.isAccessAllowed(rangerRequests);
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.KafkaMetricsContext;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.utils.Time;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Broker-wide cache of Ranger results, keyed by user, groups, client address, resource type, resource name, access and
+ * whether the request is for any resource of the type, as made by authorizeByResourceType(). Usage of the cache is
+ * published in broker JMX as kafka.server:type=ranger-authorizer-metrics.
+ */
+public class RangerKafkaAuthzCache extends RangerAccessResultCache<RangerAccessResultCache.Key> {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerKafkaAuthzCache.class);
+
+    public static final String  PROP_AUTHZ_CACHE_ENABLED     = "ranger.plugin.kafka.authz.cache.enabled";
+    public static final String  PROP_AUTHZ_CACHE_MAX_SIZE    = "ranger.plugin.kafka.authz.cache.max.size";
+    public static final boolean DEFAULT_AUTHZ_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_AUTHZ_CACHE_MAX_SIZE = 100000;
+
+    private static final String METRICS_NAMESPACE = "kafka.server";
+    private static final String METRICS_GROUP     = "ranger-authorizer-metrics";
+
+    private Metrics metrics;
+
+    public RangerKafkaAuthzCache(RangerBasePlugin plugin, int maxSize) {
+        super("RangerKafkaAuthzCache", plugin, maxSize);
+    }
+
+    /**
+     * @param isAnyResource true if the request is for any resource of the type, as made by authorizeByResourceType()
+     */
+    public static Key getKey(String user, Set<String> groups, String clientIp, String resourceType, String resourceName, String access, boolean isAnyResource) {
+        return new Key(access, resourceName, resourceType, isAnyResource, user, clientIp, groups);
+    }
+
+    public void registerMetrics() {
+        try {
+            Metrics metrics = new Metrics(new MetricConfig(), Collections.singletonList(new JmxReporter()), Time.SYSTEM, new KafkaMetricsContext(METRICS_NAMESPACE));
+
+            addGauge(metrics, "authz-cache-size", "Number of results in the cache", (config, now) -> (long) getSize());
+            addGauge(metrics, "authz-cache-hit-count", "Number of requests served from the cache", (config, now) -> getHitCount());
+            addGauge(metrics, "authz-cache-miss-count", "Number of requests evaluated by the policy engine", (config, now) -> getMissCount());
+            addGauge(metrics, "authz-cache-eviction-count", "Number of results evicted as the cache was full", (config, now) -> getEvictionCount());
+            addGauge(metrics, "authz-cache-invalidation-count", "Number of times the cache was dropped on change of policies, tags, roles or userstore", (config, now) -> getInvalidationCount());
+
+            this.metrics = metrics;
+        } catch (Exception excp) {
+            LOG.warn("RangerKafkaAuthzCache: failed to register metrics in group {}", METRICS_GROUP, excp);
+        }
+    }
+
+    public void unregisterMetrics() {
+        if (metrics != null) {
+            metrics.close();
+
+            metrics = null;
+        }
+    }
+
+    private static void addGauge(Metrics metrics, String name, String description, Gauge<Long> gauge) {
+        metrics.addMetric(metrics.metricName(name, METRICS_GROUP, description), gauge);
+    }
+}
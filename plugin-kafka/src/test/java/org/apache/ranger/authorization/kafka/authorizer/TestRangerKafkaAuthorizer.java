@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.security.auth.SecurityProtocol;
+import org.apache.kafka.server.authorizer.Action;
+import org.apache.kafka.server.authorizer.AuthorizableRequestContext;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestRangerKafkaAuthorizer {
+    private static final String SERVICE_NAME = "cl1_kafka";
+    private static final String USER_ALICE   = "alice";
+    private static final String USER_BOB     = "bob";
+
+    private CountingPlugin        plugin;
+    private CountingAuditHandler  auditHandler;
+    private RangerKafkaAuthorizer authorizer;
+
+    @BeforeAll
+    public static void setUpUsers() {
+        UserGroupInformation.createUserForTesting(USER_ALICE, new String[] {"eng"});
+        UserGroupInformation.createUserForTesting(USER_BOB, new String[] {"finance"});
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        plugin       = new CountingPlugin();
+        auditHandler = new CountingAuditHandler();
+        authorizer   = new RangerKafkaAuthorizer();
+
+        plugin.setResultProcessor(auditHandler);
+        plugin.setPolicies(createServicePolicies());
+
+        setStaticField("rangerPlugin", plugin);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        setStaticField("rangerPlugin", null);
+        setStaticField("authzCache", null);
+    }
+
+    @Test
+    public void testAuthorizeByResourceTypeEvaluatesPolicies() {
+        // alice can publish to topics 'orders*', so idempotent producers of alice are allowed
+        assertEquals(AuthorizationResult.ALLOWED, authorizer.authorizeByResourceType(requestContext(USER_ALICE), AclOperation.WRITE, ResourceType.TOPIC));
+
+        // no policy allows bob to publish to any topic, or alice to delete consumer groups
+        assertEquals(AuthorizationResult.DENIED, authorizer.authorizeByResourceType(requestContext(USER_BOB), AclOperation.WRITE, ResourceType.TOPIC));
+        assertEquals(AuthorizationResult.DENIED, authorizer.authorizeByResourceType(requestContext(USER_ALICE), AclOperation.DELETE, ResourceType.GROUP));
+    }
+
+    @Test
+    public void testAuthorizeByResourceTypeUsesCache() throws Exception {
+        RangerKafkaAuthzCache authzCache = new RangerKafkaAuthzCache(plugin, 100);
+
+        setStaticField("authzCache", authzCache);
+
+        assertEquals(AuthorizationResult.ALLOWED, authorizer.authorizeByResourceType(requestContext(USER_ALICE), AclOperation.WRITE, ResourceType.TOPIC));
+        assertEquals(AuthorizationResult.ALLOWED, authorizer.authorizeByResourceType(requestContext(USER_ALICE), AclOperation.WRITE, ResourceType.TOPIC));
+
+        assertEquals(1, plugin.evaluatedRequests.size());
+        assertEquals(1, authzCache.getHitCount());
+        assertEquals(2, auditHandler.processedResults);
+    }
+
+    @Test
+    public void testAuthorizeEvaluatesOnlyCacheMisses() throws Exception {
+        RangerKafkaAuthzCache authzCache = new RangerKafkaAuthzCache(plugin, 100);
+
+        setStaticField("authzCache", authzCache);
+
+        Action publishOrders  = action(AclOperation.WRITE, "orders");
+        Action publishPayroll = action(AclOperation.WRITE, "payroll");
+
+        assertEquals(Collections.singletonList(AuthorizationResult.ALLOWED), authorizer.authorize(requestContext(USER_ALICE), Collections.singletonList(publishOrders)));
+        assertEquals(Arrays.asList(AuthorizationResult.ALLOWED, AuthorizationResult.DENIED), authorizer.authorize(requestContext(USER_ALICE), Arrays.asList(publishOrders, publishPayroll)));
+
+        // the second call sends only the request for 'payroll' to the policy engine
+        assertEquals(2, plugin.evaluatedRequests.size());
+        assertEquals("payroll", plugin.evaluatedRequests.get(1).getResource().getValue(RangerKafkaAuthorizer.KEY_TOPIC));
+        assertEquals(1, authzCache.getHitCount());
+        assertEquals(2, authzCache.getMissCount());
+        assertEquals(3, auditHandler.processedResults);
+    }
+
+    @Test
+    public void testCacheNotUsedForOtherUser() throws Exception {
+        RangerKafkaAuthzCache authzCache = new RangerKafkaAuthzCache(plugin, 100);
+
+        setStaticField("authzCache", authzCache);
+
+        List<Action> actions = Collections.singletonList(action(AclOperation.WRITE, "orders"));
+
+        assertEquals(Collections.singletonList(AuthorizationResult.ALLOWED), authorizer.authorize(requestContext(USER_ALICE), actions));
+        assertEquals(Collections.singletonList(AuthorizationResult.DENIED), authorizer.authorize(requestContext(USER_BOB), actions));
+
+        assertEquals(2, plugin.evaluatedRequests.size());
+        assertEquals(0, authzCache.getHitCount());
+    }
+
+    private static void setStaticField(String name, Object value) throws Exception {
+        Field field = RangerKafkaAuthorizer.class.getDeclaredField(name);
+
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+
+    private static ServicePolicies createServicePolicies() throws Exception {
+        ServicePolicies  servicePolicies = new ServicePolicies();
+        RangerPolicy     policy          = new RangerPolicy();
+        RangerPolicyItem policyItem      = new RangerPolicyItem();
+
+        policyItem.setUsers(Collections.singletonList(USER_ALICE));
+        policyItem.setAccesses(Arrays.asList(new RangerPolicyItemAccess(RangerKafkaAuthorizer.ACCESS_TYPE_WRITE, true), new RangerPolicyItemAccess(RangerKafkaAuthorizer.ACCESS_TYPE_DESCRIBE, true)));
+
+        Map<String, RangerPolicyResource> resources = new HashMap<>();
+
+        resources.put(RangerKafkaAuthorizer.KEY_TOPIC, new RangerPolicyResource("orders*"));
+
+        policy.setId(1L);
+        policy.setName("orders-publishers");
+        policy.setService(SERVICE_NAME);
+        policy.setIsEnabled(true);
+        policy.setResources(resources);
+        policy.setPolicyItems(new ArrayList<>(Collections.singletonList(policyItem)));
+
+        servicePolicies.setServiceName(SERVICE_NAME);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KAFKA_NAME));
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setPolicies(new ArrayList<>(Collections.singletonList(policy)));
+
+        return servicePolicies;
+    }
+
+    private static Action action(AclOperation operation, String topic) {
+        return new Action(operation, new ResourcePattern(ResourceType.TOPIC, topic, PatternType.LITERAL), 1, true, true);
+    }
+
+    private static AuthorizableRequestContext requestContext(String userName) {
+        return new AuthorizableRequestContext() {
+            @Override
+            public String listenerName() {
+                return "SASL_PLAINTEXT";
+            }
+
+            @Override
+            public SecurityProtocol securityProtocol() {
+                return SecurityProtocol.SASL_PLAINTEXT;
+            }
+
+            @Override
+            public KafkaPrincipal principal() {
+                return new KafkaPrincipal(KafkaPrincipal.USER_TYPE, userName);
+            }
+
+            @Override
+            public InetAddress clientAddress() {
+                return InetAddress.getLoopbackAddress();
+            }
+
+            @Override
+            public int requestType() {
+                return 0;
+            }
+
+            @Override
+            public int requestVersion() {
+                return 0;
+            }
+
+            @Override
+            public String clientId() {
+                return "test-client";
+            }
+
+            @Override
+            public int correlationId() {
+                return 0;
+            }
+        };
+    }
+
+    /**
+     * Evaluates requests with policies set by the test, and records the requests sent to the policy engine.
+     */
+    private static class CountingPlugin extends RangerBasePlugin {
+        final List<RangerAccessRequest> evaluatedRequests = new ArrayList<>();
+
+        CountingPlugin() {
+            super("kafka", SERVICE_NAME, "kafka");
+        }
+
+        @Override
+        public Collection<RangerAccessResult> isAccessAllowed(Collection<RangerAccessRequest> requests) {
+            evaluatedRequests.addAll(requests);
+
+            return super.isAccessAllowed(requests);
+        }
+    }
+
+    private static class CountingAuditHandler implements RangerAccessResultProcessor {
+        int processedResults;
+
+        @Override
+        public void processResult(RangerAccessResult result) {
+            processedResults++;
+        }
+
+        @Override
+        public void processResults(Collection<RangerAccessResult> results) {
+            processedResults += results.size();
+        }
+    }
+}
@@ -22,7 +22,7 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 
 class RangerKMSResource extends RangerAccessResourceImpl {
-    private static final String KEY_NAME = "keyname";
+    static final String KEY_NAME = "keyname";
 
     public RangerKMSResource(String keyname) {
         setValue(KEY_NAME, keyname != null ? keyname : null);
@@ -34,6 +34,7 @@
 import org.apache.hadoop.security.authorize.AuthorizationException;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,6 +81,7 @@ public class RangerKmsAuthorizer implements Runnable, KeyACLs {
 
     private static final    Map<KMSACLsType.Type, String> ACCESS_TYPE_MAP = new HashMap<>();
     private static volatile RangerKMSPlugin               kmsPlugin;
+    private static volatile RangerKmsAuthzCache           authzCache;
 
     private volatile Map<Type, AccessControlList> blacklistedAcls;
 
@@ -127,7 +129,7 @@ public boolean hasAccess(Type type, UserGroupInformation ugi, String keyName, St
 
         if (plugin != null && ret) {
             RangerKMSAccessRequest request = new RangerKMSAccessRequest(keyName, rangerAccessType, ugi, clientIp);
-            RangerAccessResult     result  = plugin.isAccessAllowed(request);
+            RangerAccessResult     result  = isAccessAllowed(plugin, request);
 
             ret = result != null && result.getIsAllowed();
         }
@@ -197,7 +199,7 @@ public boolean hasAccess(Type type, UserGroupInformation ugi, String clientIp) {
 
         if (plugin != null && ret) {
             RangerKMSAccessRequest request = new RangerKMSAccessRequest("", rangerAccessType, ugi, clientIp);
-            RangerAccessResult     result  = plugin.isAccessAllowed(request);
+            RangerAccessResult     result  = isAccessAllowed(plugin, request);
 
             ret = result != null && result.getIsAllowed();
         }
@@ -237,6 +239,14 @@ public void init(Configuration conf) {
 
                     plugin.init();
 
+                    if (plugin.getConfig().getBoolean(RangerKmsAuthzCache.PROP_AUTHZ_CACHE_ENABLED, RangerKmsAuthzCache.DEFAULT_AUTHZ_CACHE_ENABLED)) {
+                        int maxSize = plugin.getConfig().getInt(RangerKmsAuthzCache.PROP_AUTHZ_CACHE_MAX_SIZE, RangerKmsAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_SIZE);
+
+                        authzCache = new RangerKmsAuthzCache(plugin, maxSize);
+
+                        LOG.info("RangerKmsAuthorizer: authorization cache enabled, maxSize={}", maxSize);
+                    }
+
                     kmsPlugin = plugin;
                 }
             }
@@ -245,6 +255,13 @@ public void init(Configuration conf) {
         LOG.debug("<== RangerkmsAuthorizer.init()");
     }
 
+    private static RangerAccessResult isAccessAllowed(RangerKMSPlugin plugin, RangerKMSAccessRequest request) {
+        RangerKmsAuthzCache                                      cache   = authzCache;
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> results = cache != null ? cache.getResults() : null;
+
+        return results != null ? results.getOrEvaluate(request, RangerKmsAuthzCache.getKey(request), plugin.getResultProcessor(), plugin::isAccessAllowed) : plugin.isAccessAllowed(request);
+    }
+
     private void authWithKerberos(Configuration conf) {
         String localHostName = null;
 
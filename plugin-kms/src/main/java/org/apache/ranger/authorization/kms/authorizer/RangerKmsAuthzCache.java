@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kms.authorizer;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+
+/**
+ * KMS-wide cache of Ranger results, keyed by user, groups, client address, key name and access type, so that frequent
+ * calls like decryptEEK by the same user on the same key don't go through policy evaluation every time.
+ */
+class RangerKmsAuthzCache extends RangerAccessResultCache<RangerAccessResultCache.Key> {
+    public static final String  PROP_AUTHZ_CACHE_ENABLED     = "ranger.plugin.kms.authz.cache.enabled";
+    public static final String  PROP_AUTHZ_CACHE_MAX_SIZE    = "ranger.plugin.kms.authz.cache.max.size";
+    public static final boolean DEFAULT_AUTHZ_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_AUTHZ_CACHE_MAX_SIZE = 10000;
+
+    public RangerKmsAuthzCache(RangerBasePlugin plugin, int maxSize) {
+        super("RangerKmsAuthzCache", plugin, maxSize);
+    }
+
+    public static Key getKey(RangerAccessRequest request) {
+        Object keyName = request.getResource().getValue(RangerKMSResource.KEY_NAME);
+
+        return new Key(keyName != null ? keyName.toString() : null, request.getAccessType(), request.getUser(), request.getClientIPAddress(), request.getUserGroups());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.authorization.kms.authorizer;
+
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RangerKmsAuthzCacheTest {
+    private static final UserGroupInformation UGI = UserGroupInformation.createUserForTesting("user1", new String[] {"grp1"});
+
+    @Test
+    void testResultIsCopiedForSameUserKeyAndAccess() {
+        RangerKMSPlugin     plugin = mock(RangerKMSPlugin.class);
+        RangerKmsAuthzCache cache  = new RangerKmsAuthzCache(plugin, 10);
+
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> results  = cache.getResults();
+        RangerKMSAccessRequest                                       request1 = new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, "10.0.0.1");
+        RangerAccessResult                                           result   = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "kms", null, request1);
+
+        result.setIsAllowed(true);
+        result.setIsAudited(true);
+
+        results.put(RangerKmsAuthzCache.getKey(request1), result);
+
+        RangerKMSAccessRequest request2 = new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, "10.0.0.1");
+        RangerAccessResult     cached   = results.get(RangerKmsAuthzCache.getKey(request2), request2);
+
+        assertNotNull(cached);
+        assertSame(request2, cached.getAccessRequest());
+        assertTrue(cached.getIsAllowed());
+
+        RangerKMSAccessRequest request3 = new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_GENERATE_EEK, UGI, "10.0.0.1");
+
+        assertNull(results.get(RangerKmsAuthzCache.getKey(request3), request3));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testKeyIncludesKeyNameAndClientIp() {
+        RangerAccessResultCache.Key key = RangerKmsAuthzCache.getKey(new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, "10.0.0.1"));
+
+        assertEquals(key, RangerKmsAuthzCache.getKey(new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, "10.0.0.1")));
+        assertNotEquals(key, RangerKmsAuthzCache.getKey(new RangerKMSAccessRequest("key2", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, "10.0.0.1")));
+        assertNotEquals(key, RangerKmsAuthzCache.getKey(new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, "10.0.0.2")));
+    }
+
+    @Test
+    void testPolicyChangeDropsResults() {
+        RangerKMSPlugin        plugin  = mock(RangerKMSPlugin.class);
+        RangerKmsAuthzCache    cache   = new RangerKmsAuthzCache(plugin, 10);
+        RangerKMSAccessRequest request = new RangerKMSAccessRequest("key1", RangerKmsAuthorizer.ACCESS_TYPE_DECRYPT_EEK, UGI, null);
+
+        cache.getResults().put(RangerKmsAuthzCache.getKey(request), new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "kms", null, request));
+
+        assertEquals(1, cache.getSize());
+
+        when(plugin.getPoliciesVersion()).thenReturn(2L);
+
+        assertNull(cache.getResults().get(RangerKmsAuthzCache.getKey(request), request));
+        assertEquals(0, cache.getSize());
+    }
+}
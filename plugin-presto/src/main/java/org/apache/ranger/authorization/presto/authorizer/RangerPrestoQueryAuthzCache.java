@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.authorization.presto.authorizer;
+
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.service.RangerQueryAccessResultCache;
+
+/**
+ * Query-scoped cache of Ranger results. Results of a query are dropped once it is older than the configured TTL, as
+ * access control in Presto is not notified of query completion.
+ */
+class RangerPrestoQueryAuthzCache extends RangerQueryAccessResultCache {
+    public static final String  PROP_QUERY_AUTHZ_CACHE_ENABLED     = "ranger.plugin.presto.query.authz.cache.enabled";
+    public static final String  PROP_QUERY_AUTHZ_CACHE_MAX_SIZE    = "ranger.plugin.presto.query.authz.cache.max.size";
+    public static final String  PROP_QUERY_AUTHZ_CACHE_TTL_MS      = "ranger.plugin.presto.query.authz.cache.ttl.ms";
+    public static final boolean DEFAULT_QUERY_AUTHZ_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_QUERY_AUTHZ_CACHE_MAX_SIZE = 10000;
+    public static final long    DEFAULT_QUERY_AUTHZ_CACHE_TTL_MS   = 5 * 60 * 1000L;
+
+    public RangerPrestoQueryAuthzCache(RangerBasePlugin plugin, int maxSize) {
+        this(plugin, maxSize, DEFAULT_QUERY_AUTHZ_CACHE_TTL_MS);
+    }
+
+    public RangerPrestoQueryAuthzCache(RangerBasePlugin plugin, int maxSize, long ttlMs) {
+        super("RangerPrestoQueryAuthzCache", plugin, maxSize, ttlMs);
+    }
+
+    @Override
+    protected void purgeExpiredQueries(long now) {
+        super.purgeExpiredQueries(now);
+    }
+}
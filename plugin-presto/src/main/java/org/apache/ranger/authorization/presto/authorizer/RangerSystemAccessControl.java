@@ -18,6 +18,7 @@
  */
 package org.apache.ranger.authorization.presto.authorizer;
 
+import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.CatalogSchemaName;
 import io.prestosql.spi.connector.CatalogSchemaRoutineName;
 import io.prestosql.spi.connector.CatalogSchemaTableName;
@@ -36,8 +37,11 @@
 import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.service.RangerQueryAccessResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +50,8 @@
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -63,8 +69,9 @@ public class RangerSystemAccessControl implements SystemAccessControl {
     public static final String RANGER_PRESTO_SERVICETYPE         = "presto";
     public static final String RANGER_PRESTO_APPID               = "presto";
 
-    private final RangerBasePlugin rangerPlugin;
-    private       boolean          useUgi;
+    private final RangerBasePlugin            rangerPlugin;
+    private final RangerPrestoQueryAuthzCache queryAuthzCache;
+    private       boolean                     useUgi;
 
     public RangerSystemAccessControl(Map<String, String> config) {
         super();
@@ -114,6 +121,17 @@ public RangerSystemAccessControl(Map<String, String> config) {
 
         rangerPlugin.init();
         rangerPlugin.setResultProcessor(new RangerDefaultAuditHandler());
+
+        if (rangerPlugin.getConfig().getBoolean(RangerPrestoQueryAuthzCache.PROP_QUERY_AUTHZ_CACHE_ENABLED, RangerPrestoQueryAuthzCache.DEFAULT_QUERY_AUTHZ_CACHE_ENABLED)) {
+            int  maxSize = rangerPlugin.getConfig().getInt(RangerPrestoQueryAuthzCache.PROP_QUERY_AUTHZ_CACHE_MAX_SIZE, RangerPrestoQueryAuthzCache.DEFAULT_QUERY_AUTHZ_CACHE_MAX_SIZE);
+            long ttlMs   = rangerPlugin.getConfig().getLong(RangerPrestoQueryAuthzCache.PROP_QUERY_AUTHZ_CACHE_TTL_MS, RangerPrestoQueryAuthzCache.DEFAULT_QUERY_AUTHZ_CACHE_TTL_MS);
+
+            queryAuthzCache = new RangerPrestoQueryAuthzCache(rangerPlugin, maxSize, ttlMs);
+
+            LOG.info("RangerSystemAccessControl: query authorization cache enabled, maxSize={}, ttlMs={}", maxSize, ttlMs);
+        } else {
+            queryAuthzCache = null;
+        }
     }
 
     @Override
@@ -186,11 +204,19 @@ public void checkCanAccessCatalog(SystemSecurityContext context, String catalogN
     public Set<String> filterCatalogs(SystemSecurityContext context, Set<String> catalogs) {
         LOG.debug("==> RangerSystemAccessControl.filterCatalogs{}", catalogs);
 
-        Set<String> filteredCatalogs = new HashSet<>(catalogs.size());
+        List<String>               catalogList = new ArrayList<>(catalogs);
+        List<RangerPrestoResource> resources   = new ArrayList<>(catalogList.size());
 
-        for (String catalog : catalogs) {
-            if (hasPermission(createResource(catalog), context, PrestoAccessType.SELECT)) {
-                filteredCatalogs.add(catalog);
+        for (String catalog : catalogList) {
+            resources.add(createResource(catalog));
+        }
+
+        boolean[]   allowed          = hasPermissions(resources, context, PrestoAccessType.SELECT);
+        Set<String> filteredCatalogs = new HashSet<>(catalogList.size());
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredCatalogs.add(catalogList.get(i));
             }
         }
 
@@ -258,11 +284,19 @@ public void checkCanShowSchemas(SystemSecurityContext context, String catalogNam
     public Set<String> filterSchemas(SystemSecurityContext context, String catalogName, Set<String> schemaNames) {
         LOG.debug("==> RangerSystemAccessControl.filterSchemas({}) denied", catalogName);
 
-        Set<String> filteredSchemaNames = new HashSet<>(schemaNames.size());
+        List<String>               schemaList = new ArrayList<>(schemaNames);
+        List<RangerPrestoResource> resources  = new ArrayList<>(schemaList.size());
 
-        for (String schemaName : schemaNames) {
-            if (hasPermission(createResource(catalogName, schemaName), context, PrestoAccessType.SELECT)) {
-                filteredSchemaNames.add(schemaName);
+        for (String schemaName : schemaList) {
+            resources.add(createResource(catalogName, schemaName));
+        }
+
+        boolean[]   allowed             = hasPermissions(resources, context, PrestoAccessType.SELECT);
+        Set<String> filteredSchemaNames = new HashSet<>(schemaList.size());
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredSchemaNames.add(schemaList.get(i));
             }
         }
 
@@ -343,13 +377,19 @@ public void checkCanShowTables(SystemSecurityContext context, CatalogSchemaName
     public Set<SchemaTableName> filterTables(SystemSecurityContext context, String catalogName, Set<SchemaTableName> tableNames) {
         LOG.debug("==> RangerSystemAccessControl.filterTables({})", catalogName);
 
-        Set<SchemaTableName> filteredTableNames = new HashSet<>(tableNames.size());
+        List<SchemaTableName>      tableList = new ArrayList<>(tableNames);
+        List<RangerPrestoResource> resources = new ArrayList<>(tableList.size());
+
+        for (SchemaTableName tableName : tableList) {
+            resources.add(createResource(catalogName, tableName.getSchemaName(), tableName.getTableName()));
+        }
 
-        for (SchemaTableName tableName : tableNames) {
-            RangerPrestoResource res = createResource(catalogName, tableName.getSchemaName(), tableName.getTableName());
+        boolean[]            allowed            = hasPermissions(resources, context, PrestoAccessType.SELECT);
+        Set<SchemaTableName> filteredTableNames = new HashSet<>(tableList.size());
 
-            if (hasPermission(res, context, PrestoAccessType.SELECT)) {
-                filteredTableNames.add(tableName);
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredTableNames.add(tableList.get(i));
             }
         }
 
@@ -649,6 +689,11 @@ private boolean isRowFilterEnabled(RangerAccessResult result) {
      **/
 
     private RangerPrestoAccessRequest createAccessRequest(RangerPrestoResource resource, SystemSecurityContext context, PrestoAccessType accessType) {
+        return createAccessRequests(Collections.singletonList(resource), context, accessType).get(0);
+    }
+
+    // user and groups are looked up once for all resources
+    private List<RangerPrestoAccessRequest> createAccessRequests(List<RangerPrestoResource> resources, SystemSecurityContext context, PrestoAccessType accessType) {
         String      userName;
         Set<String> userGroups = null;
 
@@ -667,21 +712,58 @@ private RangerPrestoAccessRequest createAccessRequest(RangerPrestoResource resou
             userGroups = context.getIdentity().getGroups();
         }
 
-        return new RangerPrestoAccessRequest(resource, userName, userGroups, accessType);
+        List<RangerPrestoAccessRequest> ret = new ArrayList<>(resources.size());
+
+        for (RangerPrestoResource resource : resources) {
+            ret.add(new RangerPrestoAccessRequest(resource, userName, userGroups, accessType));
+        }
+
+        return ret;
     }
 
     private boolean hasPermission(RangerPrestoResource resource, SystemSecurityContext context, PrestoAccessType accessType) {
-        boolean                   ret     = false;
-        RangerPrestoAccessRequest request = createAccessRequest(resource, context, accessType);
-        RangerAccessResult        result  = rangerPlugin.isAccessAllowed(request);
+        return hasPermissions(Collections.singletonList(resource), context, accessType)[0];
+    }
+
+    /**
+     * Evaluates access to all resources with a single call to the policy engine, which also sends the results to the
+     * audit handler as one batch. Results cached for the query are used, and sent to the audit handler, where available.
+     */
+    private boolean[] hasPermissions(List<RangerPrestoResource> resources, SystemSecurityContext context, PrestoAccessType accessType) {
+        List<RangerPrestoAccessRequest>                              requests      = createAccessRequests(resources, context, accessType);
+        String                                                       queryId       = context.getQueryId().map(QueryId::getId).orElse(null);
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> cachedResults = queryAuthzCache != null ? queryAuthzCache.getResults(queryId) : null;
+        Collection<RangerAccessResult>                               results;
+
+        if (cachedResults != null) {
+            List<RangerAccessResultCache.Key> keys = new ArrayList<>(requests.size());
+
+            for (RangerPrestoAccessRequest request : requests) {
+                keys.add(RangerQueryAccessResultCache.getKey(request));
+            }
 
-        if (result != null && result.getIsAllowed()) {
-            ret = true;
+            results = cachedResults.getOrEvaluate(requests, keys, rangerPlugin.getResultProcessor(), this::isAccessAllowed);
+        } else {
+            results = isAccessAllowed(new ArrayList<>(requests));
+        }
+
+        boolean[] ret = new boolean[requests.size()];
+
+        if (results != null) {
+            int i = 0;
+
+            for (RangerAccessResult result : results) {
+                ret[i++] = result != null && result.getIsAllowed();
+            }
         }
 
         return ret;
     }
 
+    private Collection<RangerAccessResult> isAccessAllowed(List<RangerAccessRequest> requests) {
+        return requests.size() == 1 ? Collections.singletonList(rangerPlugin.isAccessAllowed(requests.get(0))) : rangerPlugin.isAccessAllowed(requests);
+    }
+
     private static RangerPrestoResource createUserResource(String userName) {
         RangerPrestoResource res = new RangerPrestoResource();
 
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.authorization.presto.authorizer;
+
+import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableSet;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.service.RangerQueryAccessResultCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class RangerPrestoQueryAuthzCacheTest {
+    @Test
+    public void testResultsAreScopedToQuery() {
+        RangerPrestoQueryAuthzCache cache = new RangerPrestoQueryAuthzCache(mock(RangerBasePlugin.class), 10);
+
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> results  = cache.getResults("query1");
+        RangerPrestoAccessRequest                                    request1 = getRequest("table");
+        RangerAccessResult                                           result   = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "presto", null, request1);
+
+        result.setIsAllowed(true);
+
+        results.put(RangerQueryAccessResultCache.getKey(request1), result);
+
+        RangerPrestoAccessRequest request2 = getRequest("table");
+        RangerAccessResult        cached   = cache.getResults("query1").get(RangerQueryAccessResultCache.getKey(request2), request2);
+
+        assertNotNull(cached);
+        assertSame(request2, cached.getAccessRequest());
+        assertTrue(cached.getIsAllowed());
+
+        assertNull(cache.getResults("query2").get(RangerQueryAccessResultCache.getKey(request2), request2));
+        assertNull(results.get(RangerQueryAccessResultCache.getKey(getRequest("view")), request2));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getSize());
+        assertEquals(2, cache.getQueryCount());
+    }
+
+    @Test
+    public void testResultsDroppedAfterQueryTtl() {
+        RangerPrestoQueryAuthzCache cache = new RangerPrestoQueryAuthzCache(mock(RangerBasePlugin.class), 10, 60 * 1000L);
+
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> results = cache.getResults("query1");
+        RangerPrestoAccessRequest                                    request = getRequest("table");
+
+        results.put(RangerQueryAccessResultCache.getKey(request), new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "presto", null, request));
+
+        // results of the query are kept until its TTL passes
+        cache.purgeExpiredQueries(System.currentTimeMillis());
+
+        assertNotNull(cache.getResults("query1").get(RangerQueryAccessResultCache.getKey(request), request));
+
+        cache.purgeExpiredQueries(System.currentTimeMillis() + 2 * 60 * 1000L);
+
+        assertEquals(0, cache.getQueryCount());
+        assertNull(cache.getResults("query1").get(RangerQueryAccessResultCache.getKey(request), request));
+    }
+
+    @Test
+    public void testRequestOutsideQueryIsNotCached() {
+        RangerPrestoQueryAuthzCache cache = new RangerPrestoQueryAuthzCache(mock(RangerBasePlugin.class), 10);
+
+        assertNull(cache.getResults(null));
+    }
+
+    private static RangerPrestoAccessRequest getRequest(String table) {
+        RangerPrestoResource resource = new RangerPrestoResource("alice-catalog", Optional.of("schema"), Optional.of(table));
+
+        return new RangerPrestoAccessRequest(resource, "alice", ImmutableSet.of("users"), PrestoAccessType.SELECT);
+    }
+}
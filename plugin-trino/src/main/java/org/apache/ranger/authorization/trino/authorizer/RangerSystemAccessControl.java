@@ -0,0 +1,1205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ranger.authorization.trino.authorizer;
+
+import io.trino.spi.QueryId;
+import io.trino.spi.connector.CatalogSchemaName;
+import io.trino.spi.connector.CatalogSchemaRoutineName;
+import io.trino.spi.connector.CatalogSchemaTableName;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.eventlistener.EventListener;
+import io.trino.spi.eventlistener.QueryCompletedEvent;
+import io.trino.spi.function.SchemaFunctionName;
+import io.trino.spi.security.AccessDeniedException;
+import io.trino.spi.security.Identity;
+import io.trino.spi.security.Privilege;
+import io.trino.spi.security.SystemAccessControl;
+import io.trino.spi.security.SystemSecurityContext;
+import io.trino.spi.security.TrinoPrincipal;
+import io.trino.spi.security.ViewExpression;
+import io.trino.spi.type.Type;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAccessResultCache;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.service.RangerQueryAccessResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class RangerSystemAccessControl implements SystemAccessControl {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerSystemAccessControl.class);
+
+    public static final String RANGER_TRINO_DEFAULT_HADOOP_CONF = "trino-ranger-site.xml";
+    public static final String RANGER_TRINO_SERVICETYPE         = "trino";
+    public static final String RANGER_TRINO_APPID               = "trino";
+
+    private static final String BUILTIN_FUNCTION_CATALOG = "system";
+    private static final String BUILTIN_FUNCTION_SCHEMA  = "builtin";
+
+    private final RangerBasePlugin           rangerPlugin;
+    private final RangerTrinoQueryAuthzCache queryAuthzCache;
+    private final boolean                    useUgi;
+
+    @Inject
+    public RangerSystemAccessControl(RangerConfig config) {
+        super();
+
+        Configuration hadoopConf = new Configuration();
+
+        if (config.getHadoopConfigPath() != null) {
+            URL url = hadoopConf.getResource(config.getHadoopConfigPath());
+
+            if (url == null) {
+                LOG.warn("Hadoop config {} not found", config.getHadoopConfigPath());
+            } else {
+                hadoopConf.addResource(url);
+            }
+        } else {
+            URL url = hadoopConf.getResource(RANGER_TRINO_DEFAULT_HADOOP_CONF);
+
+            LOG.debug("Trying to load Hadoop config from {} (can be null)", url);
+
+            if (url != null) {
+                hadoopConf.addResource(url);
+            }
+        }
+
+        UserGroupInformation.setConfiguration(hadoopConf);
+
+        if (config.getKeytab() != null && config.getPrincipal() != null) {
+            String keytab    = config.getKeytab();
+            String principal = config.getPrincipal();
+
+            LOG.info("Performing kerberos login with principal {} and keytab {}", principal, keytab);
+
+            try {
+                UserGroupInformation.loginUserFromKeytab(principal, keytab);
+            } catch (IOException ioe) {
+                LOG.error("Kerberos login failed", ioe);
+
+                throw new RuntimeException(ioe);
+            }
+        }
+
+        useUgi       = config.isUseUgi();
+        rangerPlugin = new RangerBasePlugin(RANGER_TRINO_SERVICETYPE, RANGER_TRINO_APPID);
+
+        rangerPlugin.init();
+        rangerPlugin.setResultProcessor(new RangerDefaultAuditHandler());
+
+        if (rangerPlugin.getConfig().getBoolean(RangerTrinoQueryAuthzCache.PROP_QUERY_AUTHZ_CACHE_ENABLED, RangerTrinoQueryAuthzCache.DEFAULT_QUERY_AUTHZ_CACHE_ENABLED)) {
+            int  maxSize = rangerPlugin.getConfig().getInt(RangerTrinoQueryAuthzCache.PROP_QUERY_AUTHZ_CACHE_MAX_SIZE, RangerTrinoQueryAuthzCache.DEFAULT_QUERY_AUTHZ_CACHE_MAX_SIZE);
+            long ttlMs   = rangerPlugin.getConfig().getLong(RangerTrinoQueryAuthzCache.PROP_QUERY_AUTHZ_CACHE_TTL_MS, RangerTrinoQueryAuthzCache.DEFAULT_QUERY_AUTHZ_CACHE_TTL_MS);
+
+            queryAuthzCache = new RangerTrinoQueryAuthzCache(rangerPlugin, maxSize, ttlMs);
+
+            LOG.info("RangerSystemAccessControl: query authorization cache enabled, maxSize={}, ttlMs={}", maxSize, ttlMs);
+        } else {
+            queryAuthzCache = null;
+        }
+    }
+
+    /**
+     * Drops results cached for a query when it completes
+     */
+    @Override
+    public Iterable<EventListener> getEventListeners() {
+        if (queryAuthzCache == null) {
+            return Collections.emptyList();
+        }
+
+        return Collections.singletonList(new EventListener() {
+            @Override
+            public void queryCompleted(QueryCompletedEvent queryCompletedEvent) {
+                queryAuthzCache.queryCompleted(queryCompletedEvent.getMetadata().getQueryId());
+            }
+        });
+    }
+
+    @Override
+    public void checkCanImpersonateUser(Identity identity, String userName) {
+        if (!hasPermission(createUserResource(userName), identity, TrinoAccessType.IMPERSONATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanImpersonateUser({}) denied", userName);
+            AccessDeniedException.denyImpersonateUser(identity.getUser(), userName);
+        }
+    }
+
+    /**
+     * This is a NOOP. Everyone can execute a query
+     */
+    @Override
+    public void checkCanExecuteQuery(Identity identity, QueryId queryId) {
+    }
+
+    @Override
+    public void checkCanViewQueryOwnedBy(Identity identity, Identity queryOwner) {
+        if (!hasPermission(createUserResource(queryOwner.getUser()), identity, TrinoAccessType.IMPERSONATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanViewQueryOwnedBy({}) denied", queryOwner.getUser());
+            AccessDeniedException.denyImpersonateUser(identity.getUser(), queryOwner.getUser());
+        }
+    }
+
+    /**
+     * This is a NOOP, no filtering is applied
+     */
+    @Override
+    public Collection<Identity> filterViewQueryOwnedBy(Identity identity, Collection<Identity> queryOwners) {
+        return queryOwners;
+    }
+
+    @Override
+    public void checkCanKillQueryOwnedBy(Identity identity, Identity queryOwner) {
+        if (!hasPermission(createUserResource(queryOwner.getUser()), identity, TrinoAccessType.IMPERSONATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanKillQueryOwnedBy({}) denied", queryOwner.getUser());
+            AccessDeniedException.denyImpersonateUser(identity.getUser(), queryOwner.getUser());
+        }
+    }
+
+    /**
+     * SYSTEM
+     **/
+
+    @Override
+    public void checkCanReadSystemInformation(Identity identity) {
+        if (!hasPermission(createSystemInformationResource(), identity, TrinoAccessType.READ_SYSINFO)) {
+            LOG.debug("RangerSystemAccessControl.checkCanReadSystemInformation() denied");
+            AccessDeniedException.denyReadSystemInformationAccess();
+        }
+    }
+
+    @Override
+    public void checkCanWriteSystemInformation(Identity identity) {
+        if (!hasPermission(createSystemInformationResource(), identity, TrinoAccessType.WRITE_SYSINFO)) {
+            LOG.debug("RangerSystemAccessControl.checkCanWriteSystemInformation() denied");
+            AccessDeniedException.denyWriteSystemInformationAccess();
+        }
+    }
+
+    @Override
+    public void checkCanSetSystemSessionProperty(Identity identity, QueryId queryId, String propertyName) {
+        if (!hasPermissions(Collections.singletonList(createSystemPropertyResource(propertyName)), identity, queryId != null ? queryId.getId() : null, TrinoAccessType.ALTER)[0]) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetSystemSessionProperty denied");
+            AccessDeniedException.denySetSystemSessionProperty(propertyName);
+        }
+    }
+
+    /**
+     * CATALOG
+     **/
+
+    @Override
+    public boolean canAccessCatalog(SystemSecurityContext context, String catalogName) {
+        boolean ret = hasPermission(createResource(catalogName), context, TrinoAccessType.USE);
+
+        if (!ret) {
+            LOG.debug("RangerSystemAccessControl.canAccessCatalog({}) denied", catalogName);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public Set<String> filterCatalogs(SystemSecurityContext context, Set<String> catalogs) {
+        LOG.debug("==> RangerSystemAccessControl.filterCatalogs({})", catalogs);
+
+        List<String>              catalogList = new ArrayList<>(catalogs);
+        List<RangerTrinoResource> resources   = new ArrayList<>(catalogList.size());
+
+        for (String catalog : catalogList) {
+            resources.add(createResource(catalog));
+        }
+
+        boolean[]   allowed          = hasPermissions(resources, context, TrinoAccessType.SELECT);
+        Set<String> filteredCatalogs = new HashSet<>(catalogList.size());
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredCatalogs.add(catalogList.get(i));
+            }
+        }
+
+        return filteredCatalogs;
+    }
+
+    @Override
+    public void checkCanSetCatalogSessionProperty(SystemSecurityContext context, String catalogName, String propertyName) {
+        if (!hasPermission(createCatalogSessionResource(catalogName, propertyName), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetCatalogSessionProperty({}) denied", catalogName);
+            AccessDeniedException.denySetCatalogSessionProperty(catalogName, propertyName);
+        }
+    }
+
+    /**
+     * SCHEMA
+     **/
+
+    /**
+     * Create schema is evaluated on the level of the Catalog. This means that it is assumed you have permission
+     * to create a schema when you have create rights on the catalog level
+     */
+    @Override
+    public void checkCanCreateSchema(SystemSecurityContext context, CatalogSchemaName schema, Map<String, Object> properties) {
+        if (!hasPermission(createResource(schema.getCatalogName()), context, TrinoAccessType.CREATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateSchema({}) denied", schema.getSchemaName());
+            AccessDeniedException.denyCreateSchema(schema.getSchemaName());
+        }
+    }
+
+    /**
+     * This is evaluated against the schema name as ownership information is not available
+     */
+    @Override
+    public void checkCanDropSchema(SystemSecurityContext context, CatalogSchemaName schema) {
+        if (!hasPermission(createResource(schema), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropSchema({}) denied", schema.getSchemaName());
+            AccessDeniedException.denyDropSchema(schema.getSchemaName());
+        }
+    }
+
+    /**
+     * This is evaluated against the schema name as ownership information is not available
+     */
+    @Override
+    public void checkCanRenameSchema(SystemSecurityContext context, CatalogSchemaName schema, String newSchemaName) {
+        if (!hasPermission(createResource(schema), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRenameSchema({}) denied", schema.getSchemaName());
+            AccessDeniedException.denyRenameSchema(schema.getSchemaName(), newSchemaName);
+        }
+    }
+
+    @Override
+    public void checkCanSetSchemaAuthorization(SystemSecurityContext context, CatalogSchemaName schema, TrinoPrincipal principal) {
+        if (!hasPermission(createResource(schema), context, TrinoAccessType.GRANT)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetSchemaAuthorization({}) denied", schema.getSchemaName());
+            AccessDeniedException.denySetSchemaAuthorization(schema.getSchemaName(), principal);
+        }
+    }
+
+    @Override
+    public void checkCanShowSchemas(SystemSecurityContext context, String catalogName) {
+        if (!hasPermission(createResource(catalogName), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowSchemas({}) denied", catalogName);
+            AccessDeniedException.denyShowSchemas(catalogName);
+        }
+    }
+
+    @Override
+    public Set<String> filterSchemas(SystemSecurityContext context, String catalogName, Set<String> schemaNames) {
+        LOG.debug("==> RangerSystemAccessControl.filterSchemas({})", catalogName);
+
+        List<String>              schemaList = new ArrayList<>(schemaNames);
+        List<RangerTrinoResource> resources  = new ArrayList<>(schemaList.size());
+
+        for (String schemaName : schemaList) {
+            resources.add(createResource(catalogName, schemaName));
+        }
+
+        boolean[]   allowed             = hasPermissions(resources, context, TrinoAccessType.SELECT);
+        Set<String> filteredSchemaNames = new HashSet<>(schemaList.size());
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredSchemaNames.add(schemaList.get(i));
+            }
+        }
+
+        return filteredSchemaNames;
+    }
+
+    @Override
+    public void checkCanShowCreateSchema(SystemSecurityContext context, CatalogSchemaName schema) {
+        if (!hasPermission(createResource(schema), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowCreateSchema({}) denied", schema.getSchemaName());
+            AccessDeniedException.denyShowCreateSchema(schema.getSchemaName());
+        }
+    }
+
+    /**
+     * TABLE
+     **/
+
+    @Override
+    public void checkCanShowCreateTable(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowCreateTable({}) denied", table);
+            AccessDeniedException.denyShowCreateTable(table.toString());
+        }
+    }
+
+    /**
+     * Create table is verified on schema level
+     */
+    @Override
+    public void checkCanCreateTable(SystemSecurityContext context, CatalogSchemaTableName table, Map<String, Object> properties) {
+        if (!hasPermission(createResource(table.getCatalogName(), table.getSchemaTableName().getSchemaName()), context, TrinoAccessType.CREATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateTable({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyCreateTable(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated against the table name as ownership information is not available
+     */
+    @Override
+    public void checkCanDropTable(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropTable({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyDropTable(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated against the table name as ownership information is not available
+     */
+    @Override
+    public void checkCanRenameTable(SystemSecurityContext context, CatalogSchemaTableName table, CatalogSchemaTableName newTable) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRenameTable({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyRenameTable(table.getSchemaTableName().getTableName(), newTable.getSchemaTableName().getTableName());
+        }
+    }
+
+    @Override
+    public void checkCanSetTableProperties(SystemSecurityContext context, CatalogSchemaTableName table, Map<String, Optional<Object>> properties) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetTableProperties({}) denied", table);
+            AccessDeniedException.denySetTableProperties(table.toString());
+        }
+    }
+
+    @Override
+    public void checkCanSetTableComment(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetTableComment({}) denied", table);
+            AccessDeniedException.denyCommentTable(table.toString());
+        }
+    }
+
+    @Override
+    public void checkCanSetColumnComment(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetColumnComment({}) denied", table);
+            AccessDeniedException.denyCommentColumn(table.toString());
+        }
+    }
+
+    @Override
+    public void checkCanSetTableAuthorization(SystemSecurityContext context, CatalogSchemaTableName table, TrinoPrincipal principal) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.GRANT)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetTableAuthorization({}) denied", table);
+            AccessDeniedException.denySetTableAuthorization(table.toString(), principal);
+        }
+    }
+
+    /**
+     * Table procedures, like optimize, rewrite the table, hence evaluated as alter
+     */
+    @Override
+    public void checkCanExecuteTableProcedure(SystemSecurityContext context, CatalogSchemaTableName table, String procedure) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanExecuteTableProcedure({}, {}) denied", table, procedure);
+            AccessDeniedException.denyExecuteTableProcedure(table.toString(), procedure);
+        }
+    }
+
+    @Override
+    public void checkCanShowTables(SystemSecurityContext context, CatalogSchemaName schema) {
+        if (!hasPermission(createResource(schema), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowTables({}) denied", schema);
+            AccessDeniedException.denyShowTables(schema.toString());
+        }
+    }
+
+    @Override
+    public Set<SchemaTableName> filterTables(SystemSecurityContext context, String catalogName, Set<SchemaTableName> tableNames) {
+        LOG.debug("==> RangerSystemAccessControl.filterTables({})", catalogName);
+
+        List<SchemaTableName>     tableList = new ArrayList<>(tableNames);
+        List<RangerTrinoResource> resources = new ArrayList<>(tableList.size());
+
+        for (SchemaTableName tableName : tableList) {
+            resources.add(createResource(catalogName, tableName.getSchemaName(), tableName.getTableName()));
+        }
+
+        boolean[]            allowed            = hasPermissions(resources, context, TrinoAccessType.SELECT);
+        Set<SchemaTableName> filteredTableNames = new HashSet<>(tableList.size());
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredTableNames.add(tableList.get(i));
+            }
+        }
+
+        return filteredTableNames;
+    }
+
+    /**
+     * This is evaluated on table level
+     */
+    @Override
+    public void checkCanShowColumns(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowColumns({}) denied", table);
+            AccessDeniedException.denyShowColumns(table.toString());
+        }
+    }
+
+    /**
+     * Columns of all the tables are evaluated in one batch
+     */
+    @Override
+    public Map<SchemaTableName, Set<String>> filterColumns(SystemSecurityContext context, String catalogName, Map<SchemaTableName, Set<String>> tableColumns) {
+        LOG.debug("==> RangerSystemAccessControl.filterColumns({})", catalogName);
+
+        List<SchemaTableName>     tables    = new ArrayList<>();
+        List<String>              columns   = new ArrayList<>();
+        List<RangerTrinoResource> resources = new ArrayList<>();
+
+        for (Map.Entry<SchemaTableName, Set<String>> entry : tableColumns.entrySet()) {
+            SchemaTableName table = entry.getKey();
+
+            for (String column : entry.getValue()) {
+                tables.add(table);
+                columns.add(column);
+                resources.add(createResource(catalogName, table.getSchemaName(), table.getTableName(), Optional.of(column)));
+            }
+        }
+
+        boolean[]                         allowed = hasPermissions(resources, context, TrinoAccessType.SELECT);
+        Map<SchemaTableName, Set<String>> ret     = new HashMap<>(tableColumns.size());
+
+        for (SchemaTableName table : tableColumns.keySet()) {
+            ret.put(table, new HashSet<>());
+        }
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                ret.get(tables.get(i)).add(columns.get(i));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * This is evaluated on table level
+     */
+    @Override
+    public void checkCanAddColumn(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanAddColumn({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyAddColumn(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated on table level
+     */
+    @Override
+    public void checkCanDropColumn(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropColumn({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyDropColumn(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated on table level
+     */
+    @Override
+    public void checkCanRenameColumn(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRenameColumn({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyRenameColumn(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated on table level
+     */
+    @Override
+    public void checkCanAlterColumn(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanAlterColumn({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyAlterColumn(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    @Override
+    public void checkCanSelectFromColumns(SystemSecurityContext context, CatalogSchemaTableName table, Set<String> columns) {
+        for (boolean allowed : hasPermissions(createResource(table, columns), context, TrinoAccessType.SELECT)) {
+            if (!allowed) {
+                LOG.debug("RangerSystemAccessControl.checkCanSelectFromColumns({}) denied", table.getSchemaTableName().getTableName());
+                AccessDeniedException.denySelectColumns(table.getSchemaTableName().getTableName(), columns);
+            }
+        }
+    }
+
+    @Override
+    public void checkCanInsertIntoTable(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.INSERT)) {
+            LOG.debug("RangerSystemAccessControl.checkCanInsertIntoTable({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyInsertTable(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    @Override
+    public void checkCanDeleteFromTable(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.DELETE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDeleteFromTable({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyDeleteTable(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    @Override
+    public void checkCanTruncateTable(SystemSecurityContext context, CatalogSchemaTableName table) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.DELETE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanTruncateTable({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyTruncateTable(table.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated on table level
+     */
+    @Override
+    public void checkCanUpdateTableColumns(SystemSecurityContext context, CatalogSchemaTableName table, Set<String> updatedColumnNames) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.INSERT)) {
+            LOG.debug("RangerSystemAccessControl.checkCanUpdateTableColumns({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyUpdateTableColumns(table.getSchemaTableName().getTableName(), updatedColumnNames);
+        }
+    }
+
+    @Override
+    public void checkCanGrantTablePrivilege(SystemSecurityContext context, Privilege privilege, CatalogSchemaTableName table, TrinoPrincipal grantee, boolean grantOption) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.GRANT)) {
+            LOG.debug("RangerSystemAccessControl.checkCanGrantTablePrivilege({}) denied", table);
+            AccessDeniedException.denyGrantTablePrivilege(privilege.toString(), table.toString());
+        }
+    }
+
+    @Override
+    public void checkCanRevokeTablePrivilege(SystemSecurityContext context, Privilege privilege, CatalogSchemaTableName table, TrinoPrincipal revokee, boolean grantOption) {
+        if (!hasPermission(createResource(table), context, TrinoAccessType.REVOKE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRevokeTablePrivilege({}) denied", table);
+            AccessDeniedException.denyRevokeTablePrivilege(privilege.toString(), table.toString());
+        }
+    }
+
+    /**
+     * VIEW
+     **/
+
+    /**
+     * Create view is verified on schema level
+     */
+    @Override
+    public void checkCanCreateView(SystemSecurityContext context, CatalogSchemaTableName view) {
+        if (!hasPermission(createResource(view.getCatalogName(), view.getSchemaTableName().getSchemaName()), context, TrinoAccessType.CREATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateView({}) denied", view.getSchemaTableName().getTableName());
+            AccessDeniedException.denyCreateView(view.getSchemaTableName().getTableName());
+        }
+    }
+
+    /**
+     * This is evaluated against the table name as ownership information is not available
+     */
+    @Override
+    public void checkCanRenameView(SystemSecurityContext context, CatalogSchemaTableName view, CatalogSchemaTableName newView) {
+        if (!hasPermission(createResource(view), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRenameView({}) denied", view);
+            AccessDeniedException.denyRenameView(view.toString(), newView.toString());
+        }
+    }
+
+    /**
+     * This is evaluated against the table name as ownership information is not available
+     */
+    @Override
+    public void checkCanDropView(SystemSecurityContext context, CatalogSchemaTableName view) {
+        if (!hasPermission(createResource(view), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropView({}) denied", view.getSchemaTableName().getTableName());
+            AccessDeniedException.denyDropView(view.getSchemaTableName().getTableName());
+        }
+    }
+
+    @Override
+    public void checkCanSetViewComment(SystemSecurityContext context, CatalogSchemaTableName view) {
+        if (!hasPermission(createResource(view), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetViewComment({}) denied", view);
+            AccessDeniedException.denyCommentView(view.toString());
+        }
+    }
+
+    @Override
+    public void checkCanSetViewAuthorization(SystemSecurityContext context, CatalogSchemaTableName view, TrinoPrincipal principal) {
+        if (!hasPermission(createResource(view), context, TrinoAccessType.GRANT)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetViewAuthorization({}) denied", view);
+            AccessDeniedException.denySetViewAuthorization(view.toString(), principal);
+        }
+    }
+
+    /**
+     * This check equals the check for checkCanCreateView
+     */
+    @Override
+    public void checkCanCreateViewWithSelectFromColumns(SystemSecurityContext context, CatalogSchemaTableName table, Set<String> columns) {
+        try {
+            checkCanCreateView(context, table);
+        } catch (AccessDeniedException ade) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateViewWithSelectFromColumns({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denyCreateViewWithSelect(table.getSchemaTableName().getTableName(), context.getIdentity());
+        }
+    }
+
+    /**
+     * MATERIALIZED VIEW
+     **/
+
+    /**
+     * Create materialized view is verified on schema level
+     */
+    @Override
+    public void checkCanCreateMaterializedView(SystemSecurityContext context, CatalogSchemaTableName materializedView, Map<String, Object> properties) {
+        if (!hasPermission(createResource(materializedView.getCatalogName(), materializedView.getSchemaTableName().getSchemaName()), context, TrinoAccessType.CREATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateMaterializedView({}) denied", materializedView);
+            AccessDeniedException.denyCreateMaterializedView(materializedView.toString());
+        }
+    }
+
+    /**
+     * Refresh rewrites the contents of the materialized view, hence evaluated as alter
+     */
+    @Override
+    public void checkCanRefreshMaterializedView(SystemSecurityContext context, CatalogSchemaTableName materializedView) {
+        if (!hasPermission(createResource(materializedView), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRefreshMaterializedView({}) denied", materializedView);
+            AccessDeniedException.denyRefreshMaterializedView(materializedView.toString());
+        }
+    }
+
+    /**
+     * This is evaluated against the table name as ownership information is not available
+     */
+    @Override
+    public void checkCanDropMaterializedView(SystemSecurityContext context, CatalogSchemaTableName materializedView) {
+        if (!hasPermission(createResource(materializedView), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropMaterializedView({}) denied", materializedView);
+            AccessDeniedException.denyDropMaterializedView(materializedView.toString());
+        }
+    }
+
+    /**
+     * This is evaluated against the table name as ownership information is not available
+     */
+    @Override
+    public void checkCanRenameMaterializedView(SystemSecurityContext context, CatalogSchemaTableName view, CatalogSchemaTableName newView) {
+        if (!hasPermission(createResource(view), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanRenameMaterializedView({}) denied", view);
+            AccessDeniedException.denyRenameMaterializedView(view.toString(), newView.toString());
+        }
+    }
+
+    @Override
+    public void checkCanSetMaterializedViewProperties(SystemSecurityContext context, CatalogSchemaTableName materializedView, Map<String, Optional<Object>> properties) {
+        if (!hasPermission(createResource(materializedView), context, TrinoAccessType.ALTER)) {
+            LOG.debug("RangerSystemAccessControl.checkCanSetMaterializedViewProperties({}) denied", materializedView);
+            AccessDeniedException.denySetMaterializedViewProperties(materializedView.toString());
+        }
+    }
+
+    /**
+     * FUNCTIONS AND PROCEDURES
+     **/
+
+    @Override
+    public void checkCanShowFunctions(SystemSecurityContext context, CatalogSchemaName schema) {
+        if (!hasPermission(createResource(schema), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowFunctions({}) denied", schema);
+            AccessDeniedException.denyShowFunctions(schema.toString());
+        }
+    }
+
+    /**
+     * Built-in functions are not filtered; others are evaluated in one batch
+     */
+    @Override
+    public Set<SchemaFunctionName> filterFunctions(SystemSecurityContext context, String catalogName, Set<SchemaFunctionName> functionNames) {
+        LOG.debug("==> RangerSystemAccessControl.filterFunctions({})", catalogName);
+
+        List<SchemaFunctionName>  functionList          = new ArrayList<>(functionNames.size());
+        List<RangerTrinoResource> resources             = new ArrayList<>(functionNames.size());
+        Set<SchemaFunctionName>   filteredFunctionNames = new HashSet<>(functionNames.size());
+
+        for (SchemaFunctionName functionName : functionNames) {
+            if (BUILTIN_FUNCTION_CATALOG.equals(catalogName) && BUILTIN_FUNCTION_SCHEMA.equals(functionName.getSchemaName())) {
+                filteredFunctionNames.add(functionName);
+            } else {
+                functionList.add(functionName);
+                resources.add(createFunctionResource(new CatalogSchemaRoutineName(catalogName, functionName.getSchemaName(), functionName.getFunctionName())));
+            }
+        }
+
+        boolean[] allowed = hasPermissions(resources, context, TrinoAccessType.SHOW);
+
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                filteredFunctionNames.add(functionList.get(i));
+            }
+        }
+
+        return filteredFunctionNames;
+    }
+
+    @Override
+    public boolean canExecuteFunction(SystemSecurityContext context, CatalogSchemaRoutineName functionName) {
+        boolean ret = hasPermission(createFunctionResource(functionName), context, TrinoAccessType.EXECUTE);
+
+        if (!ret) {
+            LOG.debug("RangerSystemAccessControl.canExecuteFunction({}) denied", functionName);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Views that execute a function make it executable by users of the view, hence evaluated as grant
+     */
+    @Override
+    public boolean canCreateViewWithExecuteFunction(SystemSecurityContext context, CatalogSchemaRoutineName functionName) {
+        boolean ret = hasPermission(createFunctionResource(functionName), context, TrinoAccessType.GRANT);
+
+        if (!ret) {
+            LOG.debug("RangerSystemAccessControl.canCreateViewWithExecuteFunction({}) denied", functionName);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void checkCanCreateFunction(SystemSecurityContext context, CatalogSchemaRoutineName functionName) {
+        if (!hasPermission(createFunctionResource(functionName), context, TrinoAccessType.CREATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateFunction({}) denied", functionName);
+            AccessDeniedException.denyCreateFunction(functionName.toString());
+        }
+    }
+
+    @Override
+    public void checkCanDropFunction(SystemSecurityContext context, CatalogSchemaRoutineName functionName) {
+        if (!hasPermission(createFunctionResource(functionName), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropFunction({}) denied", functionName);
+            AccessDeniedException.denyDropFunction(functionName.toString());
+        }
+    }
+
+    @Override
+    public void checkCanExecuteProcedure(SystemSecurityContext context, CatalogSchemaRoutineName procedure) {
+        if (!hasPermission(createProcedureResource(procedure), context, TrinoAccessType.EXECUTE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanExecuteProcedure({}) denied", procedure.getSchemaRoutineName().getRoutineName());
+            AccessDeniedException.denyExecuteProcedure(procedure.getSchemaRoutineName().getRoutineName());
+        }
+    }
+
+    /**
+     * ROLE
+     **/
+
+    @Override
+    public void checkCanCreateRole(SystemSecurityContext context, String role, Optional<TrinoPrincipal> grantor) {
+        if (!hasPermission(createRoleResource(role), context, TrinoAccessType.CREATE)) {
+            LOG.debug("RangerSystemAccessControl.checkCanCreateRole({}) denied", role);
+            AccessDeniedException.denyCreateRole(role);
+        }
+    }
+
+    @Override
+    public void checkCanDropRole(SystemSecurityContext context, String role) {
+        if (!hasPermission(createRoleResource(role), context, TrinoAccessType.DROP)) {
+            LOG.debug("RangerSystemAccessControl.checkCanDropRole({}) denied", role);
+            AccessDeniedException.denyDropRole(role);
+        }
+    }
+
+    /**
+     * Roles are evaluated in one batch; grant is denied unless allowed for every role
+     */
+    @Override
+    public void checkCanGrantRoles(SystemSecurityContext context, Set<String> roles, Set<TrinoPrincipal> grantees, boolean adminOption, Optional<TrinoPrincipal> grantor) {
+        for (boolean allowed : hasPermissions(createRoleResources(roles), context, TrinoAccessType.GRANT)) {
+            if (!allowed) {
+                LOG.debug("RangerSystemAccessControl.checkCanGrantRoles({}) denied", roles);
+                AccessDeniedException.denyGrantRoles(roles, grantees);
+            }
+        }
+    }
+
+    /**
+     * Roles are evaluated in one batch; revoke is denied unless allowed for every role
+     */
+    @Override
+    public void checkCanRevokeRoles(SystemSecurityContext context, Set<String> roles, Set<TrinoPrincipal> grantees, boolean adminOption, Optional<TrinoPrincipal> grantor) {
+        for (boolean allowed : hasPermissions(createRoleResources(roles), context, TrinoAccessType.REVOKE)) {
+            if (!allowed) {
+                LOG.debug("RangerSystemAccessControl.checkCanRevokeRoles({}) denied", roles);
+                AccessDeniedException.denyRevokeRoles(roles, grantees);
+            }
+        }
+    }
+
+    @Override
+    public void checkCanShowRoles(SystemSecurityContext context) {
+        if (!hasPermission(createRoleResource("*"), context, TrinoAccessType.SHOW)) {
+            LOG.debug("RangerSystemAccessControl.checkCanShowRoles() denied");
+            AccessDeniedException.denyShowRoles();
+        }
+    }
+
+    /**
+     * This is a NOOP. Everyone can see the roles enabled in their session
+     */
+    @Override
+    public void checkCanShowCurrentRoles(SystemSecurityContext context) {
+    }
+
+    /**
+     * This is a NOOP. Everyone can see the roles granted to them
+     */
+    @Override
+    public void checkCanShowRoleGrants(SystemSecurityContext context) {
+    }
+
+    /**
+     * FILTERING AND DATA MASKING
+     **/
+
+    @Override
+    public List<ViewExpression> getRowFilters(SystemSecurityContext context, CatalogSchemaTableName tableName) {
+        RangerTrinoAccessRequest request = createAccessRequest(createResource(tableName), context.getIdentity(), TrinoAccessType.SELECT);
+        RangerAccessResult       result  = getRowFilterResult(request);
+        List<ViewExpression>     ret     = Collections.emptyList();
+
+        if (isRowFilterEnabled(result)) {
+            String filter = result.getFilterExpr();
+
+            ret = Collections.singletonList(ViewExpression.builder()
+                    .identity(context.getIdentity().getUser())
+                    .catalog(tableName.getCatalogName())
+                    .schema(tableName.getSchemaTableName().getSchemaName())
+                    .expression(filter)
+                    .build());
+        }
+
+        return ret;
+    }
+
+    @Override
+    public Optional<ViewExpression> getColumnMask(SystemSecurityContext context, CatalogSchemaTableName tableName, String columnName, Type type) {
+        RangerTrinoAccessRequest request        = createAccessRequest(createResource(tableName.getCatalogName(), tableName.getSchemaTableName().getSchemaName(), tableName.getSchemaTableName().getTableName(), Optional.of(columnName)), context.getIdentity(), TrinoAccessType.SELECT);
+        RangerAccessResult       result         = getDataMaskResult(request);
+        ViewExpression           viewExpression = null;
+
+        if (isDataMaskEnabled(result)) {
+            String                                 maskType    = result.getMaskType();
+            RangerServiceDef.RangerDataMaskTypeDef maskTypeDef = result.getMaskTypeDef();
+            String                                 transformer = null;
+
+            if (maskTypeDef != null) {
+                transformer = maskTypeDef.getTransformer();
+            }
+
+            if (StringUtils.equalsIgnoreCase(maskType, RangerPolicy.MASK_TYPE_NULL)) {
+                transformer = "NULL";
+            } else if (StringUtils.equalsIgnoreCase(maskType, RangerPolicy.MASK_TYPE_CUSTOM)) {
+                String maskedValue = result.getMaskedValue();
+
+                if (maskedValue == null) {
+                    transformer = "NULL";
+                } else {
+                    transformer = maskedValue;
+                }
+            }
+
+            if (StringUtils.isNotEmpty(transformer)) {
+                transformer = transformer.replace("{col}", columnName).replace("{type}", type.getDisplayName());
+            }
+
+            viewExpression = ViewExpression.builder()
+                    .identity(context.getIdentity().getUser())
+                    .catalog(tableName.getCatalogName())
+                    .schema(tableName.getSchemaTableName().getSchemaName())
+                    .expression(transformer)
+                    .build();
+
+            LOG.debug("getColumnMask: user: {}, catalog: {}, schema: {}, transformer: {}", context.getIdentity().getUser(), tableName.getCatalogName(), tableName.getSchemaTableName().getSchemaName(), transformer);
+        }
+
+        return Optional.ofNullable(viewExpression);
+    }
+
+    private RangerAccessResult getDataMaskResult(RangerTrinoAccessRequest request) {
+        LOG.debug("==> getDataMaskResult(request={})", request);
+
+        RangerAccessResult ret = rangerPlugin.evalDataMaskPolicies(request, null);
+
+        LOG.debug("<== getDataMaskResult(request={}): ret={}", request, ret);
+
+        return ret;
+    }
+
+    private RangerAccessResult getRowFilterResult(RangerTrinoAccessRequest request) {
+        LOG.debug("==> getRowFilterResult(request={})", request);
+
+        RangerAccessResult ret = rangerPlugin.evalRowFilterPolicies(request, null);
+
+        LOG.debug("<== getRowFilterResult(request={}): ret={}", request, ret);
+
+        return ret;
+    }
+
+    private boolean isDataMaskEnabled(RangerAccessResult result) {
+        return result != null && result.isMaskEnabled();
+    }
+
+    private boolean isRowFilterEnabled(RangerAccessResult result) {
+        return result != null && result.isRowFilterEnabled();
+    }
+
+    /**
+     * HELPER FUNCTIONS
+     **/
+
+    private RangerTrinoAccessRequest createAccessRequest(RangerTrinoResource resource, Identity identity, TrinoAccessType accessType) {
+        return createAccessRequests(Collections.singletonList(resource), identity, accessType).get(0);
+    }
+
+    // user and groups are looked up once for all resources
+    private List<RangerTrinoAccessRequest> createAccessRequests(List<RangerTrinoResource> resources, Identity identity, TrinoAccessType accessType) {
+        String      userName;
+        Set<String> userGroups = null;
+
+        if (useUgi) {
+            UserGroupInformation ugi = UserGroupInformation.createRemoteUser(identity.getUser());
+
+            userName = ugi.getShortUserName();
+
+            String[] groups = ugi.getGroupNames();
+
+            if (groups != null && groups.length > 0) {
+                userGroups = new HashSet<>(Arrays.asList(groups));
+            }
+        } else {
+            userName   = identity.getUser();
+            userGroups = identity.getGroups();
+        }
+
+        List<RangerTrinoAccessRequest> ret = new ArrayList<>(resources.size());
+
+        for (RangerTrinoResource resource : resources) {
+            ret.add(new RangerTrinoAccessRequest(resource, userName, userGroups, accessType));
+        }
+
+        return ret;
+    }
+
+    RangerTrinoQueryAuthzCache getQueryAuthzCache() {
+        return queryAuthzCache;
+    }
+
+    private boolean hasPermission(RangerTrinoResource resource, SystemSecurityContext context, TrinoAccessType accessType) {
+        return hasPermissions(Collections.singletonList(resource), context, accessType)[0];
+    }
+
+    private boolean hasPermission(RangerTrinoResource resource, Identity identity, TrinoAccessType accessType) {
+        return hasPermissions(Collections.singletonList(resource), identity, null, accessType)[0];
+    }
+
+    private boolean[] hasPermissions(List<RangerTrinoResource> resources, SystemSecurityContext context, TrinoAccessType accessType) {
+        QueryId queryId = context.getQueryId();
+
+        return hasPermissions(resources, context.getIdentity(), queryId != null ? queryId.getId() : null, accessType);
+    }
+
+    /**
+     * Evaluates access to all resources with a single call to the policy engine, which also sends the results to the
+     * audit handler as one batch. Results cached for the query are used, and sent to the audit handler, where available.
+     */
+    private boolean[] hasPermissions(List<RangerTrinoResource> resources, Identity identity, String queryId, TrinoAccessType accessType) {
+        List<RangerTrinoAccessRequest>                               requests      = createAccessRequests(resources, identity, accessType);
+        RangerAccessResultCache.Results<RangerAccessResultCache.Key> cachedResults = queryAuthzCache != null ? queryAuthzCache.getResults(queryId) : null;
+        Collection<RangerAccessResult>                               results;
+
+        if (cachedResults != null) {
+            List<RangerAccessResultCache.Key> keys = new ArrayList<>(requests.size());
+
+            for (RangerTrinoAccessRequest request : requests) {
+                keys.add(RangerQueryAccessResultCache.getKey(request));
+            }
+
+            results = cachedResults.getOrEvaluate(requests, keys, rangerPlugin.getResultProcessor(), this::isAccessAllowed);
+        } else {
+            results = isAccessAllowed(new ArrayList<>(requests));
+        }
+
+        boolean[] ret = new boolean[requests.size()];
+
+        if (results != null) {
+            int i = 0;
+
+            for (RangerAccessResult result : results) {
+                ret[i++] = result != null && result.getIsAllowed();
+            }
+        }
+
+        return ret;
+    }
+
+    private Collection<RangerAccessResult> isAccessAllowed(List<RangerAccessRequest> requests) {
+        return requests.size() == 1 ? Collections.singletonList(rangerPlugin.isAccessAllowed(requests.get(0))) : rangerPlugin.isAccessAllowed(requests);
+    }
+
+    private static RangerTrinoResource createUserResource(String userName) {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        res.setValue(RangerTrinoResource.KEY_USER, userName);
+
+        return res;
+    }
+
+    private static RangerTrinoResource createRoleResource(String role) {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        res.setValue(RangerTrinoResource.KEY_ROLE, role);
+
+        return res;
+    }
+
+    private static List<RangerTrinoResource> createRoleResources(Set<String> roles) {
+        List<RangerTrinoResource> ret = new ArrayList<>(roles.size());
+
+        for (String role : roles) {
+            ret.add(createRoleResource(role));
+        }
+
+        return ret;
+    }
+
+    private static RangerTrinoResource createSystemInformationResource() {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        res.setValue(RangerTrinoResource.KEY_SYSINFO, "*");
+
+        return res;
+    }
+
+    // built-in functions are global; others are evaluated within their catalog and schema
+    private static RangerTrinoResource createFunctionResource(CatalogSchemaRoutineName function) {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        if (BUILTIN_FUNCTION_CATALOG.equals(function.getCatalogName()) && BUILTIN_FUNCTION_SCHEMA.equals(function.getSchemaRoutineName().getSchemaName())) {
+            res.setValue(RangerTrinoResource.KEY_FUNCTION, function.getSchemaRoutineName().getRoutineName());
+        } else {
+            res.setValue(RangerTrinoResource.KEY_CATALOG, function.getCatalogName());
+            res.setValue(RangerTrinoResource.KEY_SCHEMA, function.getSchemaRoutineName().getSchemaName());
+            res.setValue(RangerTrinoResource.KEY_SCHEMA_FUNCTION, function.getSchemaRoutineName().getRoutineName());
+        }
+
+        return res;
+    }
+
+    private static RangerTrinoResource createProcedureResource(CatalogSchemaRoutineName procedure) {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        res.setValue(RangerTrinoResource.KEY_CATALOG, procedure.getCatalogName());
+        res.setValue(RangerTrinoResource.KEY_SCHEMA, procedure.getSchemaRoutineName().getSchemaName());
+        res.setValue(RangerTrinoResource.KEY_PROCEDURE, procedure.getSchemaRoutineName().getRoutineName());
+
+        return res;
+    }
+
+    private static RangerTrinoResource createCatalogSessionResource(String catalogName, String propertyName) {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        res.setValue(RangerTrinoResource.KEY_CATALOG, catalogName);
+        res.setValue(RangerTrinoResource.KEY_SESSION_PROPERTY, propertyName);
+
+        return res;
+    }
+
+    private static RangerTrinoResource createSystemPropertyResource(String property) {
+        RangerTrinoResource res = new RangerTrinoResource();
+
+        res.setValue(RangerTrinoResource.KEY_SYSTEM_PROPERTY, property);
+
+        return res;
+    }
+
+    private static RangerTrinoResource createResource(CatalogSchemaName catalogSchemaName) {
+        return createResource(catalogSchemaName.getCatalogName(), catalogSchemaName.getSchemaName());
+    }
+
+    private static RangerTrinoResource createResource(CatalogSchemaTableName catalogSchemaTableName) {
+        return createResource(catalogSchemaTableName.getCatalogName(), catalogSchemaTableName.getSchemaTableName().getSchemaName(), catalogSchemaTableName.getSchemaTableName().getTableName());
+    }
+
+    private static RangerTrinoResource createResource(String catalogName) {
+        return new RangerTrinoResource(catalogName, Optional.empty(), Optional.empty());
+    }
+
+    private static RangerTrinoResource createResource(String catalogName, String schemaName) {
+        return new RangerTrinoResource(catalogName, Optional.of(schemaName), Optional.empty());
+    }
+
+    private static RangerTrinoResource createResource(String catalogName, String schemaName, final String tableName) {
+        return new RangerTrinoResource(catalogName, Optional.of(schemaName), Optional.of(tableName));
+    }
+
+    private static RangerTrinoResource createResource(String catalogName, String schemaName, final String tableName, final Optional<String> column) {
+        return new RangerTrinoResource(catalogName, Optional.of(schemaName), Optional.of(tableName), column);
+    }
+
+    private static List<RangerTrinoResource> createResource(CatalogSchemaTableName table, Set<String> columns) {
+        List<RangerTrinoResource> colRequests = new ArrayList<>();
+
+        if (!columns.isEmpty()) {
+            for (String column : columns) {
+                colRequests.add(createResource(table.getCatalogName(), table.getSchemaTableName().getSchemaName(), table.getSchemaTableName().getTableName(), Optional.of(column)));
+            }
+        } else {
+            colRequests.add(createResource(table.getCatalogName(), table.getSchemaTableName().getSchemaName(), table.getSchemaTableName().getTableName(), Optional.empty()));
+        }
+
+        return colRequests;
+    }
+}
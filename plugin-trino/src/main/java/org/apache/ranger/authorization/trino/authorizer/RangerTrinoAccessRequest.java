@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ranger.authorization.trino.authorizer;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+
+import java.util.Date;
+import java.util.Set;
+
+import static java.util.Locale.ENGLISH;
+
+class RangerTrinoAccessRequest extends RangerAccessRequestImpl {
+    public RangerTrinoAccessRequest(RangerTrinoResource resource, String user, Set<String> userGroups, TrinoAccessType trinoAccessType) {
+        super(resource, trinoAccessType.name().toLowerCase(ENGLISH), user, userGroups, null);
+
+        setAccessTime(new Date());
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ranger.authorization.trino.authorizer;
+
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.service.RangerQueryAccessResultCache;
+
+/**
+ * Query-scoped cache of Ranger results. Results of a query are dropped when the event listener of
+ * RangerSystemAccessControl is notified of its completion, or once it is older than the configured TTL, in case the
+ * completion event is missed.
+ */
+class RangerTrinoQueryAuthzCache extends RangerQueryAccessResultCache {
+    public static final String  PROP_QUERY_AUTHZ_CACHE_ENABLED     = "ranger.plugin.trino.query.authz.cache.enabled";
+    public static final String  PROP_QUERY_AUTHZ_CACHE_MAX_SIZE    = "ranger.plugin.trino.query.authz.cache.max.size";
+    public static final String  PROP_QUERY_AUTHZ_CACHE_TTL_MS      = "ranger.plugin.trino.query.authz.cache.ttl.ms";
+    public static final boolean DEFAULT_QUERY_AUTHZ_CACHE_ENABLED  = false;
+    public static final int     DEFAULT_QUERY_AUTHZ_CACHE_MAX_SIZE = 10000;
+    public static final long    DEFAULT_QUERY_AUTHZ_CACHE_TTL_MS   = 30 * 60 * 1000L;
+
+    public RangerTrinoQueryAuthzCache(RangerBasePlugin plugin, int maxSize, long ttlMs) {
+        super("RangerTrinoQueryAuthzCache", plugin, maxSize, ttlMs);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ranger.authorization.trino.authorizer;
+
+import io.trino.spi.Plugin;
+import io.trino.spi.security.SystemAccessControlFactory;
+
+import java.util.ArrayList;
+
+public class TrinoRangerPlugin implements Plugin {
+    @Override
+    public Iterable<SystemAccessControlFactory> getSystemAccessControlFactories() {
+        ArrayList<SystemAccessControlFactory> list    = new ArrayList<>();
+        SystemAccessControlFactory            factory = new RangerSystemAccessControlFactory();
+
+        list.add(factory);
+
+        return list;
+    }
+}
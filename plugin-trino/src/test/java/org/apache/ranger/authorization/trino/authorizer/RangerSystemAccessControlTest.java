@@ -0,0 +1,267 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ranger.authorization.trino.authorizer;
+
+import io.trino.spi.QueryId;
+import io.trino.spi.connector.CatalogSchemaName;
+import io.trino.spi.connector.CatalogSchemaRoutineName;
+import io.trino.spi.connector.CatalogSchemaTableName;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.function.SchemaFunctionName;
+import io.trino.spi.security.AccessDeniedException;
+import io.trino.spi.security.Identity;
+import io.trino.spi.security.SystemSecurityContext;
+import io.trino.spi.security.TrinoPrincipal;
+import io.trino.spi.security.ViewExpression;
+import io.trino.spi.type.VarcharType;
+import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.trino.spi.security.PrincipalType.USER;
+import static io.trino.spi.security.Privilege.SELECT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RangerSystemAccessControlTest {
+    private static final Identity                 alice          = Identity.ofUser("alice");
+    private static final Identity                 admin          = Identity.ofUser("admin");
+    private static final Identity                 bob            = Identity.ofUser("bob");
+    private static final Set<String>              allCatalogs    = ImmutableSet.of("open-to-all", "all-allowed", "alice-catalog");
+    private static final String                   aliceCatalog   = "alice-catalog";
+    private static final CatalogSchemaName        aliceSchema    = new CatalogSchemaName("alice-catalog", "schema");
+    private static final CatalogSchemaTableName   aliceTable     = new CatalogSchemaTableName("alice-catalog", "schema", "table");
+    private static final CatalogSchemaTableName   aliceView      = new CatalogSchemaTableName("alice-catalog", "schema", "view");
+    private static final CatalogSchemaTableName   aliceMatView   = new CatalogSchemaTableName("alice-catalog", "schema", "alice");
+    private static final CatalogSchemaRoutineName aliceProcedure = new CatalogSchemaRoutineName("alice-catalog", "schema", "procedure");
+    private static final CatalogSchemaRoutineName function       = new CatalogSchemaRoutineName("system", "builtin", "function");
+
+    static RangerSystemAccessControl accessControlManager;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+        accessControlManager = new RangerSystemAccessControl(new RangerConfig());
+    }
+
+    @Test
+    public void testCanImpersonateUser() {
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanImpersonateUser(alice, bob.getUser()));
+
+        accessControlManager.checkCanImpersonateUser(admin, bob.getUser());
+    }
+
+    @Test
+    public void testCatalogOperations() {
+        assertEquals(allCatalogs, accessControlManager.filterCatalogs(context(alice), allCatalogs));
+        assertEquals(ImmutableSet.of("open-to-all", "all-allowed"), accessControlManager.filterCatalogs(context(bob), allCatalogs));
+
+        assertTrue(accessControlManager.canAccessCatalog(context(alice), aliceCatalog));
+        assertFalse(accessControlManager.canAccessCatalog(context(bob), aliceCatalog));
+    }
+
+    @Test
+    public void testSchemaOperations() {
+        Set<String> aliceSchemas = ImmutableSet.of("schema");
+
+        assertEquals(aliceSchemas, accessControlManager.filterSchemas(context(alice), aliceCatalog, aliceSchemas));
+        assertEquals(ImmutableSet.of(), accessControlManager.filterSchemas(context(bob), aliceCatalog, aliceSchemas));
+
+        accessControlManager.checkCanCreateSchema(context(alice), aliceSchema, Collections.emptyMap());
+        accessControlManager.checkCanDropSchema(context(alice), aliceSchema);
+        accessControlManager.checkCanRenameSchema(context(alice), aliceSchema, "new-schema");
+        accessControlManager.checkCanShowSchemas(context(alice), aliceCatalog);
+        accessControlManager.checkCanSetSchemaAuthorization(context(alice), aliceSchema, new TrinoPrincipal(USER, "principal"));
+        accessControlManager.checkCanShowCreateSchema(context(alice), aliceSchema);
+
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanCreateSchema(context(bob), aliceSchema, Collections.emptyMap()));
+    }
+
+    @Test
+    public void testTableOperations() {
+        Set<SchemaTableName> aliceTables = ImmutableSet.of(new SchemaTableName("schema", "table"), new SchemaTableName("schema", "other"));
+
+        assertEquals(ImmutableSet.of(new SchemaTableName("schema", "table")), accessControlManager.filterTables(context(alice), aliceCatalog, aliceTables));
+        assertEquals(ImmutableSet.of(), accessControlManager.filterTables(context(bob), aliceCatalog, aliceTables));
+
+        accessControlManager.checkCanCreateTable(context(alice), aliceTable, Collections.emptyMap());
+        accessControlManager.checkCanDropTable(context(alice), aliceTable);
+        accessControlManager.checkCanSelectFromColumns(context(alice), aliceTable, ImmutableSet.of());
+        accessControlManager.checkCanInsertIntoTable(context(alice), aliceTable);
+        accessControlManager.checkCanDeleteFromTable(context(alice), aliceTable);
+        accessControlManager.checkCanRenameColumn(context(alice), aliceTable);
+        accessControlManager.checkCanAlterColumn(context(alice), aliceTable);
+        accessControlManager.checkCanSetTableAuthorization(context(alice), aliceTable, new TrinoPrincipal(USER, "principal"));
+        accessControlManager.checkCanExecuteTableProcedure(context(alice), aliceTable, "optimize");
+
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanCreateTable(context(bob), aliceTable, Collections.emptyMap()));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanAlterColumn(context(bob), aliceTable));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanSetTableAuthorization(context(bob), aliceTable, new TrinoPrincipal(USER, "principal")));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanExecuteTableProcedure(context(bob), aliceTable, "optimize"));
+    }
+
+    @Test
+    public void testFilterColumns() {
+        SchemaTableName                   table        = new SchemaTableName("schema", "table");
+        SchemaTableName                   other        = new SchemaTableName("schema", "other");
+        Map<SchemaTableName, Set<String>> tableColumns = ImmutableMap.of(table, ImmutableSet.of("c1", "c2"), other, ImmutableSet.of("c1"));
+
+        Map<SchemaTableName, Set<String>> aliceColumns = accessControlManager.filterColumns(context(alice), aliceCatalog, tableColumns);
+
+        assertEquals(ImmutableSet.of("c1", "c2"), aliceColumns.get(table));
+        assertEquals(ImmutableSet.of(), aliceColumns.get(other));
+
+        Map<SchemaTableName, Set<String>> bobColumns = accessControlManager.filterColumns(context(bob), aliceCatalog, tableColumns);
+
+        assertEquals(ImmutableSet.of(), bobColumns.get(table));
+        assertEquals(ImmutableSet.of(), bobColumns.get(other));
+    }
+
+    @Test
+    public void testRepeatedChecksInQuery() {
+        RangerTrinoQueryAuthzCache cache        = accessControlManager.getQueryAuthzCache();
+        QueryId                    queryId      = new QueryId("repeated_checks");
+        SystemSecurityContext      aliceContext = new SystemSecurityContext(alice, queryId, Instant.now());
+        SystemSecurityContext      bobContext   = new SystemSecurityContext(bob, queryId, Instant.now());
+
+        assertNotNull(cache);
+        assertTrue(accessControlManager.getEventListeners().iterator().hasNext());
+
+        long hitCount  = cache.getHitCount();
+        long missCount = cache.getMissCount();
+
+        for (int i = 0; i < 3; i++) {
+            accessControlManager.checkCanSelectFromColumns(aliceContext, aliceTable, ImmutableSet.of("c1", "c2"));
+
+            assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanSelectFromColumns(bobContext, aliceTable, ImmutableSet.of("c1", "c2")));
+        }
+
+        // only the first check of each column, for each user, is evaluated by the policy engine
+        assertEquals(8, cache.getHitCount() - hitCount);
+        assertEquals(4, cache.getMissCount() - missCount);
+
+        int queryCount = cache.getQueryCount();
+
+        // results of the query are dropped once it completes
+        cache.queryCompleted(queryId.getId());
+
+        assertEquals(queryCount - 1, cache.getQueryCount());
+
+        accessControlManager.checkCanSelectFromColumns(aliceContext, aliceTable, ImmutableSet.of("c1", "c2"));
+
+        assertEquals(8, cache.getHitCount() - hitCount);
+        assertEquals(6, cache.getMissCount() - missCount);
+    }
+
+    @Test
+    public void testViewOperations() {
+        accessControlManager.checkCanCreateView(context(alice), aliceView);
+        accessControlManager.checkCanDropView(context(alice), aliceView);
+        accessControlManager.checkCanSelectFromColumns(context(alice), aliceView, ImmutableSet.of());
+        accessControlManager.checkCanCreateViewWithSelectFromColumns(context(alice), aliceTable, ImmutableSet.of());
+        accessControlManager.checkCanCreateViewWithSelectFromColumns(context(alice), aliceView, ImmutableSet.of());
+        accessControlManager.checkCanSetCatalogSessionProperty(context(alice), aliceCatalog, "property");
+        accessControlManager.checkCanGrantTablePrivilege(context(alice), SELECT, aliceTable, new TrinoPrincipal(USER, "grantee"), true);
+        accessControlManager.checkCanRevokeTablePrivilege(context(alice), SELECT, aliceTable, new TrinoPrincipal(USER, "revokee"), true);
+        accessControlManager.checkCanSetViewComment(context(alice), aliceView);
+        accessControlManager.checkCanSetViewAuthorization(context(alice), aliceView, new TrinoPrincipal(USER, "principal"));
+
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanCreateView(context(bob), aliceView));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanSetViewComment(context(bob), aliceView));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanSetViewAuthorization(context(bob), aliceView, new TrinoPrincipal(USER, "principal")));
+    }
+
+    @Test
+    public void testMaterializedViewOperations() {
+        accessControlManager.checkCanCreateMaterializedView(context(alice), aliceMatView, Collections.emptyMap());
+        accessControlManager.checkCanRefreshMaterializedView(context(alice), aliceMatView);
+        accessControlManager.checkCanRenameMaterializedView(context(alice), aliceMatView, new CatalogSchemaTableName("alice-catalog", "schema", "new-view"));
+        accessControlManager.checkCanSetMaterializedViewProperties(context(alice), aliceMatView, Collections.emptyMap());
+        accessControlManager.checkCanDropMaterializedView(context(alice), aliceMatView);
+
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanCreateMaterializedView(context(bob), aliceMatView, Collections.emptyMap()));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanRefreshMaterializedView(context(bob), aliceMatView));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanDropMaterializedView(context(bob), aliceMatView));
+
+        // no policy allows alice to alter materialized views in other schemas
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanRefreshMaterializedView(context(alice), new CatalogSchemaTableName("alice-catalog", "other", "view")));
+    }
+
+    @Test
+    public void testFunctionOperations() {
+        Set<SchemaFunctionName> aliceFunctions   = ImmutableSet.of(new SchemaFunctionName("schema", "alice_fn"), new SchemaFunctionName("schema", "other_fn"));
+        Set<SchemaFunctionName> builtinFunctions = ImmutableSet.of(new SchemaFunctionName("builtin", "abs"));
+
+        accessControlManager.checkCanShowFunctions(context(alice), aliceSchema);
+
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanShowFunctions(context(bob), aliceSchema));
+
+        assertEquals(ImmutableSet.of(new SchemaFunctionName("schema", "alice_fn")), accessControlManager.filterFunctions(context(alice), aliceCatalog, aliceFunctions));
+        assertEquals(ImmutableSet.of(), accessControlManager.filterFunctions(context(bob), aliceCatalog, aliceFunctions));
+        assertEquals(builtinFunctions, accessControlManager.filterFunctions(context(bob), "system", builtinFunctions));
+    }
+
+    @Test
+    public void testRoleOperations() {
+        Set<String>         roles    = ImmutableSet.of("analyst", "engineer");
+        Set<TrinoPrincipal> grantees = ImmutableSet.of(new TrinoPrincipal(USER, "grantee"));
+
+        accessControlManager.checkCanCreateRole(context(alice), "analyst", Optional.empty());
+        accessControlManager.checkCanDropRole(context(alice), "analyst");
+        accessControlManager.checkCanGrantRoles(context(alice), roles, grantees, false, Optional.empty());
+        accessControlManager.checkCanRevokeRoles(context(alice), roles, grantees, false, Optional.empty());
+        accessControlManager.checkCanShowRoles(context(alice));
+        accessControlManager.checkCanShowCurrentRoles(context(bob));
+        accessControlManager.checkCanShowRoleGrants(context(bob));
+
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanCreateRole(context(bob), "analyst", Optional.empty()));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanDropRole(context(bob), "analyst"));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanGrantRoles(context(bob), roles, grantees, false, Optional.empty()));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanRevokeRoles(context(bob), roles, grantees, false, Optional.empty()));
+        assertThrows(AccessDeniedException.class, () -> accessControlManager.checkCanShowRoles(context(bob)));
+    }
+
+    @Test
+    public void testMisc() {
+        // check {type} / {col} replacement
+        VarcharType varcharType = VarcharType.createVarcharType(20);
+
+        Optional<ViewExpression> ret = accessControlManager.getColumnMask(context(alice), aliceTable, "cast_me", varcharType);
+
+        assertTrue(ret.isPresent());
+        assertEquals("cast cast_me as varchar(20)", ret.get().getExpression());
+
+        ret = accessControlManager.getColumnMask(context(alice), aliceTable, "do-not-cast-me", varcharType);
+
+        assertFalse(ret.isPresent());
+        assertTrue(accessControlManager.getRowFilters(context(alice), aliceTable).isEmpty());
+
+        assertTrue(accessControlManager.canExecuteFunction(context(alice), function));
+        assertFalse(accessControlManager.canExecuteFunction(context(bob), function));
+        accessControlManager.checkCanExecuteProcedure(context(alice), aliceProcedure);
+    }
+
+    private static SystemSecurityContext context(Identity id) {
+        return new SystemSecurityContext(id, new QueryId("query_" + id.getUser()), Instant.now());
+    }
+}
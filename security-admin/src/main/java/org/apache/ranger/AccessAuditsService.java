@@ -20,25 +20,53 @@
 package org.apache.ranger;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
+import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.SortField;
 import org.apache.ranger.common.SortField.SORT_ORDER;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.view.VXAccessAuditList;
+import org.apache.ranger.view.VXLong;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class AccessAuditsService {
-    protected List<SortField>   sortFields   = new ArrayList<>();
-    protected List<SearchField> searchFields = new ArrayList<>();
+    /**
+     * Search parameter to request cursor based pagination: "*" for the first page, then the value of
+     * VXAccessAuditList.nextCursor returned for the previous page. startIndex is ignored when a cursor is given.
+     */
+    public static final String PARAM_CURSOR = "cursor";
+    public static final String CURSOR_START = "*";
+
+    private static final String PROP_SEARCH_CACHE_TTL_MS      = "ranger.audit.search.cache.ttl.ms";
+    private static final String PROP_SEARCH_CACHE_MAX_ENTRIES = "ranger.audit.search.cache.max.entries";
+    private static final String PROP_FACET_MAX_VALUES         = "ranger.audit.search.facet.max.values";
+
+    protected List<SortField>     sortFields   = new ArrayList<>();
+    protected List<SearchField>   searchFields = new ArrayList<>();
+    protected Map<String, String> facetFields  = new LinkedHashMap<>(); // client name -> field name in the audit store
+    protected int                 facetMaxValues;
 
     @Autowired
     protected RESTErrorUtil    restErrorUtil;
@@ -46,6 +74,10 @@ public class AccessAuditsService {
     @Autowired
     protected RangerDaoManager daoManager;
 
+    private final SearchResultCache<VXAccessAuditList>              searchResultCache;
+    private final SearchResultCache<Long>                           countCache;
+    private final SearchResultCache<Map<String, Map<String, Long>>> facetCache;
+
     public AccessAuditsService() {
         searchFields.add(new SearchField("id", "id", SearchField.DATA_TYPE.STRING, SearchField.SEARCH_TYPE.FULL));
         searchFields.add(new SearchField("accessType", "access", SearchField.DATA_TYPE.STRING, SearchField.SEARCH_TYPE.FULL));
@@ -95,6 +127,223 @@ public AccessAuditsService() {
         sortFields.add(new SortField("aclEnforcer", "enforcer", false, SORT_ORDER.ASC));
         sortFields.add(new SortField("zoneName", "zoneName", false, SORT_ORDER.ASC));
         sortFields.add(new SortField("clientIP", "cliIP", false, SORT_ORDER.ASC));
+
+        facetFields.put("repoName", "repo");
+        facetFields.put("repoType", "repoType");
+        facetFields.put("requestUser", "reqUser");
+        facetFields.put("accessType", "access");
+        facetFields.put("accessResult", "result");
+        facetFields.put("aclEnforcer", "enforcer");
+        facetFields.put("action", "action");
+        facetFields.put("resourceType", "resType");
+        facetFields.put("policyId", "policy");
+        facetFields.put("clientIP", "cliIP");
+        facetFields.put("agentId", "agent");
+        facetFields.put("agentHost", "agentHost");
+        facetFields.put("cluster", "cluster");
+        facetFields.put("zoneName", "zoneName");
+        facetFields.put("tags", "tags");
+
+        long cacheTtlMs      = PropertiesUtil.getLongProperty(PROP_SEARCH_CACHE_TTL_MS, 10000);
+        int  cacheMaxEntries = PropertiesUtil.getIntProperty(PROP_SEARCH_CACHE_MAX_ENTRIES, 200);
+
+        facetMaxValues    = PropertiesUtil.getIntProperty(PROP_FACET_MAX_VALUES, 50);
+        searchResultCache = new SearchResultCache<>(cacheTtlMs, cacheMaxEntries);
+        countCache        = new SearchResultCache<>(cacheTtlMs, cacheMaxEntries);
+        facetCache        = new SearchResultCache<>(cacheTtlMs, cacheMaxEntries);
+    }
+
+    /**
+     * @return number of audit records matching the search criteria. This is served from the total count of an earlier
+     * search with the same filters when available; otherwise a search for 0 rows is issued.
+     */
+    public VXLong getXAccessAuditSearchCount(SearchCriteria searchCriteria) {
+        Long count = countCache.get(getFilterCacheKey(searchCriteria));
+
+        if (count == null) {
+            searchCriteria.setStartIndex(0);
+            searchCriteria.setMaxRows(0);
+            searchCriteria.getParamList().remove(PARAM_CURSOR);
+
+            count = searchXAccessAudits(searchCriteria).getTotalCount();
+        }
+
+        VXLong ret = new VXLong();
+
+        ret.setValue(count);
+
+        return ret;
+    }
+
+    /**
+     * Searches audit records. Results are cached for ranger.audit.search.cache.ttl.ms, so that repeated requests from
+     * the audit UI - like paging back, or the count request that follows a search - don't query the audit store again.
+     */
+    public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
+        // keys are computed before the search, which updates the criteria
+        String            searchCacheKey = getSearchCacheKey(searchCriteria);
+        String            filterCacheKey = getFilterCacheKey(searchCriteria);
+        VXAccessAuditList ret            = searchResultCache.get(searchCacheKey);
+
+        if (ret == null) {
+            ret = searchAccessAudits(searchCriteria);
+
+            searchResultCache.put(searchCacheKey, SerializationUtils.clone(ret));
+            countCache.put(filterCacheKey, ret.getTotalCount());
+        } else {
+            ret = SerializationUtils.clone(ret); // callers update returned objects, like VXAccessAudit.zonedEventTime
+        }
+
+        return ret;
+    }
+
+    protected VXAccessAuditList searchAccessAudits(SearchCriteria searchCriteria) {
+        throw restErrorUtil.createRESTException("Search is not supported by this audit store", MessageEnums.OPER_NOT_ALLOWED_FOR_ENTITY);
+    }
+
+    /**
+     * Counts audit records matching the search criteria, grouped by values of given fields - without fetching the
+     * records. At most ranger.audit.search.facet.max.values values, with the highest count, are returned per field.
+     *
+     * @param facetNames client names of the fields, like repoName, requestUser, accessResult
+     * @return map of facet name to map of value to count
+     */
+    public Map<String, Map<String, Long>> getAccessAuditFacets(SearchCriteria searchCriteria, List<String> facetNames) {
+        Map<String, String> fields = new LinkedHashMap<>();
+
+        for (String facetName : facetNames) {
+            String fieldName = facetFields.get(facetName);
+
+            if (fieldName == null) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Invalid facet: " + facetName + ". Supported facets: " + facetFields.keySet(), true);
+            }
+
+            fields.put(facetName, fieldName);
+        }
+
+        if (fields.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        String                         cacheKey = getFilterCacheKey(searchCriteria) + "|facets=" + fields.keySet() + "|limit=" + facetMaxValues;
+        Map<String, Map<String, Long>> ret      = facetCache.get(cacheKey);
+
+        if (ret == null) {
+            updateUserExclusion(searchCriteria.getParamList());
+
+            Map<String, Map<String, Long>> facets = searchFacets(searchCriteria, fields.values());
+
+            ret = new LinkedHashMap<>();
+
+            for (Map.Entry<String, String> entry : fields.entrySet()) {
+                Map<String, Long> values = facets.get(entry.getValue());
+
+                ret.put(entry.getKey(), values != null ? values : Collections.emptyMap());
+            }
+
+            ret = Collections.unmodifiableMap(ret);
+
+            facetCache.put(cacheKey, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param fieldNames names of fields in the audit store
+     * @return map of field name to map of value to count
+     */
+    protected Map<String, Map<String, Long>> searchFacets(SearchCriteria searchCriteria, Collection<String> fieldNames) {
+        throw restErrorUtil.createRESTException("Audit facets are not supported by this audit store", MessageEnums.OPER_NOT_ALLOWED_FOR_ENTITY);
+    }
+
+    /**
+     * @return key that identifies the filters in the search criteria; paging and sorting are not included
+     */
+    private String getFilterCacheKey(SearchCriteria searchCriteria) {
+        StringBuilder sb = new StringBuilder();
+
+        if (searchCriteria.getParamList() != null) {
+            for (Map.Entry<String, Object> entry : new TreeMap<>(searchCriteria.getParamList()).entrySet()) {
+                String value = PARAM_CURSOR.equals(entry.getKey()) ? null : normalizeParamValue(entry.getValue());
+
+                if (value != null) {
+                    sb.append(entry.getKey()).append('=').append(value).append('&');
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private String getSearchCacheKey(SearchCriteria searchCriteria) {
+        return getFilterCacheKey(searchCriteria) + "|start=" + searchCriteria.getStartIndex() + "|rows=" + searchCriteria.getMaxRows() +
+                "|sortBy=" + StringUtils.lowerCase(StringUtils.trim(searchCriteria.getSortBy())) + "|sortType=" + StringUtils.lowerCase(StringUtils.trim(searchCriteria.getSortType())) +
+                "|cursor=" + getCursor(searchCriteria);
+    }
+
+    public static String getCursor(SearchCriteria searchCriteria) {
+        Object value = searchCriteria.getParamList() != null ? searchCriteria.getParamList().get(PARAM_CURSOR) : null;
+
+        return value != null && StringUtils.isNotBlank(value.toString()) ? value.toString().trim() : null;
+    }
+
+    /**
+     * @return cursor for the page after the one ending with a record having given sort values
+     */
+    public static String toCursor(List<Object> sortValues) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonUtilsV2.listToJson(sortValues).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to encode cursor", e);
+        }
+    }
+
+    /**
+     * @return sort values encoded in the cursor by toCursor(); null for the start cursor
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static Object[] fromCursor(String cursor) {
+        if (cursor == null || CURSOR_START.equals(cursor)) {
+            return null;
+        }
+
+        try {
+            return JsonUtilsV2.jsonToObj(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8), Object[].class);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+
+    // search queries match values case-insensitively and ignore empty values; the cache key does the same
+    private static String normalizeParamValue(Object value) {
+        final String ret;
+
+        if (value == null) {
+            ret = null;
+        } else if (value instanceof Date) {
+            ret = Long.toString(((Date) value).getTime());
+        } else if (value instanceof Collection) {
+            List<String> values = new ArrayList<>();
+
+            for (Object item : (Collection<?>) value) {
+                String itemValue = normalizeParamValue(item);
+
+                if (itemValue != null) {
+                    values.add(itemValue);
+                }
+            }
+
+            Collections.sort(values);
+
+            ret = values.isEmpty() ? null : values.toString();
+        } else {
+            String strValue = value.toString().trim().toLowerCase();
+
+            ret = strValue.isEmpty() ? null : strValue;
+        }
+
+        return ret;
     }
 
     protected void updateUserExclusion(Map<String, Object> paramList) {
@@ -154,4 +403,49 @@ private List<String> getServiceUserList() {
 
         return serviceUsersList;
     }
+
+    private static class SearchResultCache<T> {
+        private final long                         ttlMs;
+        private final Map<String, CachedResult<T>> results;
+
+        public SearchResultCache(long ttlMs, int maxEntries) {
+            this.ttlMs   = ttlMs;
+            this.results = new LinkedHashMap<String, CachedResult<T>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResult<T>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        public synchronized T get(String key) {
+            CachedResult<T> ret = results.get(key);
+
+            if (ret != null && ret.expiryTime <= System.currentTimeMillis()) {
+                results.remove(key);
+
+                ret = null;
+            }
+
+            return ret != null ? ret.value : null;
+        }
+
+        public synchronized void put(String key, T value) {
+            if (ttlMs > 0 && value != null) {
+                results.put(key, new CachedResult<>(value, System.currentTimeMillis() + ttlMs));
+            }
+        }
+
+        private static class CachedResult<T> {
+            final T    value;
+            final long expiryTime;
+
+            CachedResult(T value, long expiryTime) {
+                this.value      = value;
+                this.expiryTime = expiryTime;
+            }
+        }
+    }
 }
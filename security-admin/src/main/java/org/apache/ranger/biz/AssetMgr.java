@@ -166,6 +166,9 @@ public class AssetMgr extends AssetMgrBase {
     @Autowired
     ServiceMgr serviceMgr;
 
+    @Autowired
+    RangerPluginInfoCoalescer pluginInfoCoalescer;
+
     boolean rangerLogNotModified;
     boolean pluginActivityAuditLogNotModified;
     boolean pluginActivityAuditCommitInline;
@@ -702,6 +705,42 @@ public VXAccessAuditList getAccessLogs(SearchCriteria searchCriteria) {
             searchCriteria = new SearchCriteria();
         }
 
+        updateAccessLogsSearchCriteria(searchCriteria);
+
+        if (RangerBizUtil.AUDIT_STORE_SOLR.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return solrAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else if (RangerBizUtil.AUDIT_STORE_ELASTIC_SEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return elasticSearchAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else if (RangerBizUtil.AUDIT_STORE_OPENSEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return openSearchAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else if (RangerBizUtil.AUDIT_STORE_CLOUD_WATCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return cloudWatchAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else {
+            return xAccessAuditService.searchXAccessAudits(searchCriteria);
+        }
+    }
+
+    /**
+     * @return count of access audits matching the search criteria, by values of given facets
+     */
+    public Map<String, Map<String, Long>> getAccessLogFacets(SearchCriteria searchCriteria, List<String> facets) {
+        updateAccessLogsSearchCriteria(searchCriteria);
+
+        if (RangerBizUtil.AUDIT_STORE_SOLR.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return solrAccessAuditsService.getAccessAuditFacets(searchCriteria, facets);
+        } else if (RangerBizUtil.AUDIT_STORE_ELASTIC_SEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return elasticSearchAccessAuditsService.getAccessAuditFacets(searchCriteria, facets);
+        } else if (RangerBizUtil.AUDIT_STORE_OPENSEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return openSearchAccessAuditsService.getAccessAuditFacets(searchCriteria, facets);
+        } else if (RangerBizUtil.AUDIT_STORE_CLOUD_WATCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return cloudWatchAccessAuditsService.getAccessAuditFacets(searchCriteria, facets);
+        } else {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Audit facets are not supported for audit store " + xaBizUtil.getAuditDBType(), true);
+        }
+    }
+
+    // adjusts dates to the client time zone, and restricts non-admin users to audits of their zones
+    private void updateAccessLogsSearchCriteria(SearchCriteria searchCriteria) {
         if (searchCriteria.getParamList() != null && !searchCriteria.getParamList().isEmpty()) {
             int      clientTimeOffsetInMinute = RestUtil.getClientTimeOffset();
             DateUtil dateUtil                 = new DateUtil();
@@ -759,18 +798,6 @@ public VXAccessAuditList getAccessLogs(SearchCriteria searchCriteria) {
                 }
             }
         }
-
-        if (RangerBizUtil.AUDIT_STORE_SOLR.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return solrAccessAuditsService.searchXAccessAudits(searchCriteria);
-        } else if (RangerBizUtil.AUDIT_STORE_ELASTIC_SEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return elasticSearchAccessAuditsService.searchXAccessAudits(searchCriteria);
-        } else if (RangerBizUtil.AUDIT_STORE_OPENSEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return openSearchAccessAuditsService.searchXAccessAudits(searchCriteria);
-        } else if (RangerBizUtil.AUDIT_STORE_CLOUD_WATCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return cloudWatchAccessAuditsService.searchXAccessAudits(searchCriteria);
-        } else {
-            return xAccessAuditService.searchXAccessAudits(searchCriteria);
-        }
     }
 
     public VXTrxLogList getTransactionReport(String transactionId) {
@@ -1163,6 +1190,7 @@ private void createOrUpdatePluginInfo(final RangerPluginInfo pluginInfo, int ent
 
         final boolean  isTagVersionResetNeeded;
         final Runnable commitWork;
+        boolean        isDelete = false;
 
         if (httpCode == HttpServletResponse.SC_NOT_MODIFIED) {
             RangerPluginInfo dbObj    = null;
@@ -1232,6 +1260,7 @@ private void createOrUpdatePluginInfo(final RangerPluginInfo pluginInfo, int ent
                     || (isUserStoreDownloadRequest(entityType) && (pluginInfo.getUserStoreActiveVersion() == null || pluginInfo.getUserStoreActiveVersion() == -1))
                     || (isGdsDownloadRequest(entityType) && (pluginInfo.getGdsActiveVersion() == null || pluginInfo.getGdsActiveVersion() == -1))) {
                 commitWork = () -> doDeleteXXPluginInfo(pluginInfo);
+                isDelete   = true;
             } else {
                 commitWork = () -> doCreateOrUpdateXXPluginInfo(pluginInfo, entityType, false, clusterName);
             }
@@ -1244,6 +1273,13 @@ private void createOrUpdatePluginInfo(final RangerPluginInfo pluginInfo, int ent
         if (commitWork != null) {
             if (pluginActivityAuditCommitInline) {
                 transactionSynchronizationAdapter.executeOnTransactionCompletion(commitWork);
+            } else if (pluginInfoCoalescer.isEnabled()) {
+                // written to the database in a batch along with updates from other plugins; earlier pending updates from this plugin are discarded
+                if (isDelete) {
+                    pluginInfoCoalescer.submitDelete(pluginInfo, commitWork);
+                } else {
+                    pluginInfoCoalescer.submitUpdate(pluginInfo, entityType, commitWork);
+                }
             } else {
                 transactionSynchronizationAdapter.executeAsyncOnTransactionComplete(commitWork);
             }
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.security.context.RangerContextHolder;
+import org.apache.ranger.security.context.RangerSecurityContext;
+import org.apache.ranger.view.RangerPolicyImportStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates policies being imported in parallel, and tracks progress of recent imports.
+ */
+@Component
+public class PolicyImportMgr {
+    private static final Logger LOG = LoggerFactory.getLogger(PolicyImportMgr.class);
+
+    private static final String PROP_BULK_IMPORT_ENABLED   = "ranger.admin.policy.import.bulk.enabled";
+    private static final String PROP_VALIDATION_THREADS    = "ranger.admin.policy.import.validation.threads";
+    private static final String PROP_MAX_STATUS_COUNT      = "ranger.admin.policy.import.status.max.count";
+    private static final int    DEFAULT_VALIDATION_THREADS = 4;
+    private static final int    DEFAULT_MAX_STATUS_COUNT   = 20;
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
+    private final Map<String, RangerPolicyImportStatus> importStatuses = new LinkedHashMap<>();
+
+    private boolean         bulkImportEnabled;
+    private int             validationThreads;
+    private int             maxStatusCount;
+    private ExecutorService validationExecutor;
+
+    @PostConstruct
+    public void init() {
+        RangerAdminConfig config = RangerAdminConfig.getInstance();
+
+        bulkImportEnabled = config.getBoolean(PROP_BULK_IMPORT_ENABLED, true);
+        validationThreads = Math.max(1, config.getInt(PROP_VALIDATION_THREADS, DEFAULT_VALIDATION_THREADS));
+        maxStatusCount    = Math.max(1, config.getInt(PROP_MAX_STATUS_COUNT, DEFAULT_MAX_STATUS_COUNT));
+
+        if (bulkImportEnabled && validationThreads > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            validationExecutor = Executors.newFixedThreadPool(validationThreads, r -> {
+                Thread t = new Thread(r, "PolicyImportValidator-" + threadCount.incrementAndGet());
+
+                t.setDaemon(true);
+
+                return t;
+            });
+        }
+
+        LOG.info("{}={}", PROP_BULK_IMPORT_ENABLED, bulkImportEnabled);
+        LOG.info("{}={}", PROP_VALIDATION_THREADS, validationThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (validationExecutor != null) {
+            validationExecutor.shutdownNow();
+
+            try {
+                validationExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isBulkImportEnabled() {
+        return bulkImportEnabled;
+    }
+
+    public void addImportStatus(RangerPolicyImportStatus importStatus) {
+        synchronized (importStatuses) {
+            importStatuses.put(importStatus.getId(), importStatus);
+
+            // remove oldest completed imports
+            importStatuses.values().removeIf(status -> importStatuses.size() > maxStatusCount && status.isDone());
+        }
+
+        LOG.info("policy import started: {}", importStatus);
+    }
+
+    public RangerPolicyImportStatus getImportStatus(String id) {
+        synchronized (importStatuses) {
+            return importStatuses.get(id);
+        }
+    }
+
+    public List<RangerPolicyImportStatus> getImportStatuses() {
+        synchronized (importStatuses) {
+            return new ArrayList<>(importStatuses.values());
+        }
+    }
+
+    /**
+     * Validates given policies using validationThreads threads, each in a read-only transaction and with the security
+     * context of the caller. Validation stops at the first failure; if more than one policy fails, the exception for the
+     * earliest in the list is thrown, as would be the case with sequential validation.
+     * <p>
+     * Transactions of the validation threads don't see changes not yet committed by the caller, like policies deleted
+     * to be replaced by the imported ones; in such case validateInCallerTx must be true, to validate sequentially in
+     * the caller's transaction.
+     */
+    public void validatePolicies(List<RangerPolicy> policies, PolicyValidation validation, boolean validateInCallerTx, RangerPolicyImportStatus status) throws Exception {
+        LOG.debug("==> PolicyImportMgr.validatePolicies(count={}, validateInCallerTx={})", policies.size(), validateInCallerTx);
+
+        int chunkCount = validationExecutor == null || validateInCallerTx ? 1 : Math.min(validationThreads, policies.size());
+
+        if (chunkCount <= 1) {
+            for (RangerPolicy policy : policies) {
+                validation.validate(policy);
+
+                status.incrValidatedCount();
+            }
+        } else {
+            RangerSecurityContext securityContext = RangerContextHolder.getSecurityContext();
+            AtomicInteger         failedIdx       = new AtomicInteger(Integer.MAX_VALUE);
+            Exception[]           failures        = new Exception[policies.size()];
+            List<Future<?>>       futures         = new ArrayList<>(chunkCount);
+            int                   chunkSize       = (policies.size() + chunkCount - 1) / chunkCount;
+
+            for (int i = 0; i < policies.size(); i += chunkSize) {
+                final int fromIdx = i;
+                final int toIdx   = Math.min(policies.size(), i + chunkSize);
+
+                futures.add(validationExecutor.submit(() -> validateChunk(policies, fromIdx, toIdx, validation, securityContext, status, failedIdx, failures)));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException excp) {
+                    throw excp.getCause() instanceof Exception ? (Exception) excp.getCause() : excp;
+                }
+            }
+
+            int idx = failedIdx.get();
+
+            if (idx != Integer.MAX_VALUE) {
+                throw failures[idx];
+            }
+        }
+
+        LOG.debug("<== PolicyImportMgr.validatePolicies(count={})", policies.size());
+    }
+
+    private void validateChunk(List<RangerPolicy> policies, int fromIdx, int toIdx, PolicyValidation validation, RangerSecurityContext securityContext, RangerPolicyImportStatus status, AtomicInteger failedIdx, Exception[] failures) {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+        txTemplate.setReadOnly(true);
+
+        txTemplate.execute(txStatus -> {
+            RangerSecurityContext currentContext = RangerContextHolder.getSecurityContext();
+
+            try {
+                RangerContextHolder.setSecurityContext(securityContext);
+
+                // stop once an earlier policy failed validation
+                for (int i = fromIdx; i < toIdx && i < failedIdx.get(); i++) {
+                    try {
+                        validation.validate(policies.get(i));
+
+                        status.incrValidatedCount();
+                    } catch (Exception excp) {
+                        failures[i] = excp;
+
+                        failedIdx.accumulateAndGet(i, Math::min);
+
+                        break;
+                    }
+                }
+            } finally {
+                RangerContextHolder.setSecurityContext(currentContext);
+            }
+
+            return null;
+        });
+    }
+
+    public interface PolicyValidation {
+        void validate(RangerPolicy policy) throws Exception;
+    }
+}
@@ -60,11 +60,14 @@
 import javax.servlet.http.HttpServletResponse;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_CREATE_CONTEXT;
@@ -125,6 +128,14 @@ public static List<List<? extends RangerPolicyItem>> getAllPolicyItems(RangerPol
     }
 
     public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy, XXServiceDef xServiceDef, boolean createPrincipalsIfAbsent, boolean isCleanupRefTablesNeeded) throws Exception {
+        createNewPolMappingForRefTable(policy, xPolicy, xServiceDef, createPrincipalsIfAbsent, isCleanupRefTablesNeeded, null);
+    }
+
+    /**
+     * @param refBatch if not null, ref-table entries are added to refBatch instead of being inserted right away, and
+     *                 principal ids are looked up through refBatch's cache; the caller must call flushPolicyRefBatch()
+     */
+    public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy, XXServiceDef xServiceDef, boolean createPrincipalsIfAbsent, boolean isCleanupRefTablesNeeded, PolicyRefBatch refBatch) throws Exception {
         if (policy == null) {
             return;
         }
@@ -201,7 +212,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 xPolResources.add(xPolRes);
             }
 
-            batchInsert(xPolResources, daoMgr.getXXPolicyRefResource(), oldBulkMode);
+            insertOrAddToBatch(xPolResources, refBatch != null ? refBatch.resources : null, daoMgr.getXXPolicyRefResource(), oldBulkMode);
         }
 
         if (createPrincipalsIfAbsent && !rangerBizUtil.checkAdminAccess()) {
@@ -210,8 +221,9 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
             createPrincipalsIfAbsent = false;
         }
 
+        // policies added to a refBatch have just been created, hence the lookup is skipped for them
         final boolean policyExists = xPolicy != null && xPolicy.getId() != null
-                && daoMgr.getXXPolicy().getCountById(xPolicy.getId()) > 0;
+                && (refBatch != null || daoMgr.getXXPolicy().getCountById(xPolicy.getId()) > 0);
 
         if (CollectionUtils.isNotEmpty(roleNames)) {
             LOG.debug("x_policy_ref_role - New role entries to insert for policy ID {}: {}", policyId, roleNames);
@@ -221,7 +233,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                     .collect(Collectors.toSet());
 
             List<XXPolicyRefRole> xPolRoles = new ArrayList<>();
-            Map<String, Long>     nameToId  = daoMgr.getXXRole().getIdsByRoleNames(filteredRoleNames);
+            Map<String, Long>     nameToId  = getIds(filteredRoleNames, refBatch != null ? refBatch.roleIds : null, daoMgr.getXXRole()::getIdsByRoleNames);
 
             for (String roleName : filteredRoleNames) {
                 Long                 roleId     = nameToId.get(roleName);
@@ -245,7 +257,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 }
             }
 
-            batchInsert(xPolRoles, daoMgr.getXXPolicyRefRole(), oldBulkMode);
+            insertOrAddToBatch(xPolRoles, refBatch != null ? refBatch.roles : null, daoMgr.getXXPolicyRefRole(), oldBulkMode);
         }
 
         if (CollectionUtils.isNotEmpty(groupNames)) {
@@ -256,7 +268,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                     .collect(Collectors.toSet());
 
             List<XXPolicyRefGroup> xPolGroups = new ArrayList<>();
-            Map<String, Long>      nameToId   = daoMgr.getXXGroup().getIdsByGroupNames(filteredGroupNames);
+            Map<String, Long>      nameToId   = getIds(filteredGroupNames, refBatch != null ? refBatch.groupIds : null, daoMgr.getXXGroup()::getIdsByGroupNames);
 
             for (String groupName : filteredGroupNames) {
                 Long                  groupId    = nameToId.get(groupName);
@@ -280,7 +292,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 }
             }
 
-            batchInsert(xPolGroups, daoMgr.getXXPolicyRefGroup(), oldBulkMode);
+            insertOrAddToBatch(xPolGroups, refBatch != null ? refBatch.groups : null, daoMgr.getXXPolicyRefGroup(), oldBulkMode);
         }
 
         if (CollectionUtils.isNotEmpty(userNames)) {
@@ -291,7 +303,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                     .collect(Collectors.toSet());
 
             List<XXPolicyRefUser> xPolUsers = new ArrayList<>();
-            Map<String, Long>     nameToId  = daoMgr.getXXUser().getIdsByUserNames(filteredUserNames);
+            Map<String, Long>     nameToId  = getIds(filteredUserNames, refBatch != null ? refBatch.userIds : null, daoMgr.getXXUser()::getIdsByUserNames);
 
             for (String userName : filteredUserNames) {
                 Long                 userId     = nameToId.get(userName);
@@ -315,7 +327,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 }
             }
 
-            batchInsert(xPolUsers, daoMgr.getXXPolicyRefUser(), oldBulkMode);
+            insertOrAddToBatch(xPolUsers, refBatch != null ? refBatch.users : null, daoMgr.getXXPolicyRefUser(), oldBulkMode);
         }
 
         // ignore built-in access-types while creating ref-table entries
@@ -341,7 +353,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 xPolAccesses.add(xPolAccess);
             }
 
-            batchInsert(xPolAccesses, daoMgr.getXXPolicyRefAccessType(), oldBulkMode);
+            insertOrAddToBatch(xPolAccesses, refBatch != null ? refBatch.accessTypes : null, daoMgr.getXXPolicyRefAccessType(), oldBulkMode);
         }
 
         if (CollectionUtils.isNotEmpty(conditionTypes)) {
@@ -368,7 +380,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 xPolConds.add(xPolCond);
             }
 
-            batchInsert(xPolConds, daoMgr.getXXPolicyRefCondition(), oldBulkMode);
+            insertOrAddToBatch(xPolConds, refBatch != null ? refBatch.conditions : null, daoMgr.getXXPolicyRefCondition(), oldBulkMode);
         }
 
         if (CollectionUtils.isNotEmpty(dataMaskTypes)) {
@@ -391,8 +403,33 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
                 xxDataMaskInfos.add(xxDataMaskInfo);
             }
 
-            batchInsert(xxDataMaskInfos, daoMgr.getXXPolicyRefDataMaskType(), oldBulkMode);
+            insertOrAddToBatch(xxDataMaskInfos, refBatch != null ? refBatch.dataMaskTypes : null, daoMgr.getXXPolicyRefDataMaskType(), oldBulkMode);
+        }
+    }
+
+    /**
+     * Inserts ref-table entries collected in the given batch, using one batch insert per ref-table
+     */
+    public void flushPolicyRefBatch(PolicyRefBatch refBatch) {
+        if (refBatch == null) {
+            return;
         }
+
+        boolean oldBulkMode = RangerBizUtil.isBulkMode();
+
+        LOG.debug("==> PolicyRefUpdater.flushPolicyRefBatch(entries={})", refBatch.size());
+
+        batchInsert(refBatch.resources, daoMgr.getXXPolicyRefResource(), oldBulkMode);
+        batchInsert(refBatch.roles, daoMgr.getXXPolicyRefRole(), oldBulkMode);
+        batchInsert(refBatch.groups, daoMgr.getXXPolicyRefGroup(), oldBulkMode);
+        batchInsert(refBatch.users, daoMgr.getXXPolicyRefUser(), oldBulkMode);
+        batchInsert(refBatch.accessTypes, daoMgr.getXXPolicyRefAccessType(), oldBulkMode);
+        batchInsert(refBatch.conditions, daoMgr.getXXPolicyRefCondition(), oldBulkMode);
+        batchInsert(refBatch.dataMaskTypes, daoMgr.getXXPolicyRefDataMaskType(), oldBulkMode);
+
+        refBatch.clearEntries();
+
+        LOG.debug("<== PolicyRefUpdater.flushPolicyRefBatch()");
     }
 
     public Boolean cleanupRefTables(RangerPolicy policy) {
@@ -822,6 +859,42 @@ private Long createUser() {
         }
     }
 
+    private static Map<String, Long> getIds(Set<String> names, Map<String, Long> cache, Function<Collection<String>, Map<String, Long>> loader) {
+        if (cache == null) {
+            return loader.apply(names);
+        }
+
+        Set<String> namesToLoad = names.stream().filter(name -> !cache.containsKey(name)).collect(Collectors.toSet());
+
+        if (!namesToLoad.isEmpty()) {
+            Map<String, Long> loaded = loader.apply(namesToLoad);
+
+            if (loaded != null) {
+                cache.putAll(loaded);
+            }
+        }
+
+        Map<String, Long> ret = new HashMap<>();
+
+        for (String name : names) {
+            Long id = cache.get(name);
+
+            if (id != null) {
+                ret.put(name, id);
+            }
+        }
+
+        return ret;
+    }
+
+    private <T> void insertOrAddToBatch(List<T> entities, List<T> batchEntities, BaseDao<T> dao, boolean oldBulkMode) {
+        if (batchEntities != null) {
+            batchEntities.addAll(entities);
+        } else {
+            batchInsert(entities, dao, oldBulkMode);
+        }
+    }
+
     private <T> void batchInsert(List<T> entities, BaseDao<T> dao, boolean oldBulkMode) {
         if (CollectionUtils.isNotEmpty(entities)) {
             long startTimeMs = System.currentTimeMillis();
@@ -835,4 +908,35 @@ private <T> void batchInsert(List<T> entities, BaseDao<T> dao, boolean oldBulkMo
             LOG.debug("Batch insert completed for create/update {} with {} records in {} ms.", dao.getClass().getSimpleName(), entities.size(), (System.currentTimeMillis() - startTimeMs));
         }
     }
+
+    /**
+     * Ref-table entries of policies created together, like in a policy import, to be inserted by flushPolicyRefBatch().
+     * Also caches ids of users, groups and roles looked up for these policies.
+     */
+    public static class PolicyRefBatch {
+        private final List<XXPolicyRefResource>     resources     = new ArrayList<>();
+        private final List<XXPolicyRefRole>         roles         = new ArrayList<>();
+        private final List<XXPolicyRefGroup>        groups        = new ArrayList<>();
+        private final List<XXPolicyRefUser>         users         = new ArrayList<>();
+        private final List<XXPolicyRefAccessType>   accessTypes   = new ArrayList<>();
+        private final List<XXPolicyRefCondition>    conditions    = new ArrayList<>();
+        private final List<XXPolicyRefDataMaskType> dataMaskTypes = new ArrayList<>();
+        private final Map<String, Long>             roleIds       = new HashMap<>();
+        private final Map<String, Long>             groupIds      = new HashMap<>();
+        private final Map<String, Long>             userIds       = new HashMap<>();
+
+        public int size() {
+            return resources.size() + roles.size() + groups.size() + users.size() + accessTypes.size() + conditions.size() + dataMaskTypes.size();
+        }
+
+        void clearEntries() {
+            resources.clear();
+            roles.clear();
+            groups.clear();
+            users.clear();
+            accessTypes.clear();
+            conditions.clear();
+            dataMaskTypes.clear();
+        }
+    }
 }
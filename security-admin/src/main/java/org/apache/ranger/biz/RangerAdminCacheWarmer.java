@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.entity.XXService;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineOptions;
+import org.apache.ranger.plugin.util.RangerPerfTracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Populates admin-side caches for all enabled services at startup, so that the first requests after a restart don't
+ * have to wait for them to be built: policy-admin engines used by grant/revoke, delegated-admin checks and
+ * getPoliciesForResource, RangerServicePoliciesCache and RangerServiceTagsCache. Services are loaded in parallel in
+ * warmupThreads threads, each in a read-only transaction. Progress is reported by the health endpoint.
+ */
+@Component
+public class RangerAdminCacheWarmer {
+    private static final Logger LOG      = LoggerFactory.getLogger(RangerAdminCacheWarmer.class);
+    private static final Logger PERF_LOG = RangerPerfTracer.getPerfLogger("admin.cache.warmup");
+
+    private static final String PROP_WARMUP_ENABLED    = "ranger.admin.cache.warmup.enabled";
+    private static final String PROP_WARMUP_THREADS    = "ranger.admin.cache.warmup.threads";
+    private static final String PROP_WARMUP_TAGS       = "ranger.admin.cache.warmup.tags.enabled";
+    private static final int    DEFAULT_WARMUP_THREADS = 4;
+
+    public enum WarmupState { DISABLED, NOT_STARTED, IN_PROGRESS, COMPLETED }
+
+    @Autowired
+    RangerDaoManager daoManager;
+
+    @Autowired
+    ServiceDBStore svcStore;
+
+    @Autowired
+    RoleDBStore roleStore;
+
+    @Autowired
+    SecurityZoneDBStore zoneStore;
+
+    @Autowired
+    TagDBStore tagStore;
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
+    private final AtomicInteger warmedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    private volatile WarmupState     state = WarmupState.NOT_STARTED;
+    private volatile int             serviceCount;
+    private volatile long            startTime;
+    private volatile long            endTime;
+    private volatile ExecutorService warmupExecutor;
+    private boolean                  warmupEnabled;
+    private boolean                  warmupTags;
+    private int                      warmupThreads;
+
+    @PostConstruct
+    public void init() {
+        RangerAdminConfig config = RangerAdminConfig.getInstance();
+
+        warmupEnabled = config.getBoolean(PROP_WARMUP_ENABLED, true);
+        warmupTags    = config.getBoolean(PROP_WARMUP_TAGS, true);
+        warmupThreads = Math.max(1, config.getInt(PROP_WARMUP_THREADS, DEFAULT_WARMUP_THREADS));
+
+        LOG.info("{}={}", PROP_WARMUP_ENABLED, warmupEnabled);
+        LOG.info("{}={}", PROP_WARMUP_THREADS, warmupThreads);
+
+        if (warmupEnabled) {
+            Thread warmupThread = new Thread(this::warmup, "RangerAdminCacheWarmer");
+
+            warmupThread.setDaemon(true);
+            warmupThread.start();
+        } else {
+            state = WarmupState.DISABLED;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        ExecutorService executor = warmupExecutor;
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public WarmupState getState() {
+        return state;
+    }
+
+    /**
+     * @return true once all services were processed, or if warm-up is disabled. Services that failed to load are
+     *         counted in getProgress(); their caches are built on first use, as when warm-up is disabled.
+     */
+    public boolean isWarmedUp() {
+        return state == WarmupState.COMPLETED || state == WarmupState.DISABLED;
+    }
+
+    public Map<String, Object> getProgress() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put("state", state);
+
+        if (state != WarmupState.DISABLED) {
+            ret.put("serviceCount", serviceCount);
+            ret.put("warmedCount", warmedCount.get());
+            ret.put("failedCount", failedCount.get());
+
+            if (startTime > 0) {
+                ret.put("elapsedTimeMs", (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime);
+            }
+        }
+
+        return ret;
+    }
+
+    void warmup() {
+        LOG.info("==> RangerAdminCacheWarmer.warmup(threads={})", warmupThreads);
+
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "RangerAdminCacheWarmer.warmup()");
+        }
+
+        startTime = System.currentTimeMillis();
+        state     = WarmupState.IN_PROGRESS;
+
+        try {
+            List<XXService> services    = getServicesToWarmup();
+            AtomicInteger   threadCount = new AtomicInteger();
+
+            serviceCount   = services.size();
+            warmupExecutor = Executors.newFixedThreadPool(Math.min(warmupThreads, Math.max(1, services.size())), r -> {
+                Thread t = new Thread(r, "RangerAdminCacheWarmer-" + threadCount.incrementAndGet());
+
+                t.setDaemon(true);
+
+                return t;
+            });
+
+            for (XXService service : services) {
+                warmupExecutor.submit(() -> warmupService(service));
+            }
+
+            warmupExecutor.shutdown();
+
+            try {
+                while (!warmupExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOG.info("RangerAdminCacheWarmer.warmup(): {}", getProgress());
+                }
+            } catch (InterruptedException excp) {
+                LOG.warn("RangerAdminCacheWarmer.warmup(): interrupted");
+
+                Thread.currentThread().interrupt();
+            }
+        } catch (Exception excp) {
+            LOG.error("RangerAdminCacheWarmer.warmup(): failed", excp);
+        } finally {
+            warmupExecutor = null;
+            endTime        = System.currentTimeMillis();
+            state          = WarmupState.COMPLETED;
+
+            RangerPerfTracer.log(perf);
+        }
+
+        LOG.info("<== RangerAdminCacheWarmer.warmup(): {}", getProgress());
+    }
+
+    private List<XXService> getServicesToWarmup() {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+        txTemplate.setReadOnly(true);
+
+        List<XXService> ret = new ArrayList<>();
+
+        txTemplate.execute(status -> {
+            List<XXService> services = daoManager.getXXService().getAll();
+
+            if (services != null) {
+                for (XXService service : services) {
+                    if (Boolean.TRUE.equals(service.getIsenabled())) {
+                        ret.add(service);
+                    }
+                }
+            }
+
+            return null;
+        });
+
+        return ret;
+    }
+
+    private void warmupService(XXService service) {
+        String serviceName = service.getName();
+
+        LOG.debug("==> RangerAdminCacheWarmer.warmupService({})", serviceName);
+
+        long startTimeMs = System.currentTimeMillis();
+
+        try {
+            TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+            txTemplate.setReadOnly(true);
+
+            txTemplate.execute(status -> {
+                RangerPolicyAdminCacheForEngineOptions policyAdminCache = RangerPolicyAdminCacheForEngineOptions.getInstance();
+
+                // populates RangerServicePoliciesCache as well
+                if (policyAdminCache.getServicePoliciesAdmin(serviceName, svcStore, zoneStore, roleStore, getDelegatedAdminOptions()) == null ||
+                        policyAdminCache.getServicePoliciesAdmin(serviceName, svcStore, zoneStore, roleStore, getDefaultAdminOptions()) == null) {
+                    throw new IllegalStateException("failed to build policy-admin for service " + serviceName);
+                }
+
+                if (warmupTags && service.getTagService() != null) {
+                    try {
+                        tagStore.getServiceTagsIfUpdated(serviceName, -1L, false);
+                    } catch (Exception excp) {
+                        throw new RuntimeException(excp);
+                    }
+                }
+
+                return null;
+            });
+
+            warmedCount.incrementAndGet();
+
+            LOG.info("RangerAdminCacheWarmer: warmed up caches for service {} in {}ms", serviceName, System.currentTimeMillis() - startTimeMs);
+        } catch (Exception excp) {
+            failedCount.incrementAndGet();
+
+            LOG.warn("RangerAdminCacheWarmer: failed to warm up caches for service {}", serviceName, excp);
+        }
+
+        LOG.debug("<== RangerAdminCacheWarmer.warmupService({})", serviceName);
+    }
+
+    // must be same as options used in ServiceREST, for the engines built here to be found in the cache
+    private static RangerPolicyEngineOptions getDelegatedAdminOptions() {
+        RangerPolicyEngineOptions opts = new RangerPolicyEngineOptions();
+
+        opts.configureDelegateAdmin(RangerAdminConfig.getInstance(), "ranger.admin");
+
+        return opts;
+    }
+
+    private static RangerPolicyEngineOptions getDefaultAdminOptions() {
+        RangerPolicyEngineOptions opts = new RangerPolicyEngineOptions();
+
+        opts.configureDefaultRangerAdmin(RangerAdminConfig.getInstance(), "ranger.admin");
+
+        return opts;
+    }
+}
@@ -55,6 +55,7 @@
 import org.apache.ranger.rest.ServiceREST;
 import org.apache.ranger.security.context.RangerAdminOpContext;
 import org.apache.ranger.security.context.RangerContextHolder;
+import org.apache.ranger.service.RangerTrxLogWriter;
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.view.VXPortalUser;
 import org.apache.ranger.view.VXResource;
@@ -121,6 +122,9 @@ public class RangerBizUtil {
     @Autowired
     GUIDUtil guidUtil;
 
+    @Autowired
+    RangerTrxLogWriter trxLogWriter;
+
     private final boolean      allowUnauthenticatedAccessInSecureEnvironment;
     private final boolean      allowUnauthenticatedDownloadAccessInSecureEnvironment;
     private final Class<?>[]   groupEditableClassesList = {};
@@ -925,7 +929,6 @@ public void createTrxLog(List<XXTrxLogV2> trxLogList) {
             return;
         }
 
-        XXTrxLogV2Dao   dao       = daoManager.getXXTrxLogV2();
         String          trxId     = Long.toString(guidUtil.genLong());
         UserSessionBase usb       = ContextUtil.getCurrentUserSession();
         String          sessionId = usb != null && usb.getSessionId() != null ? usb.getSessionId().toString() : null;
@@ -940,8 +943,16 @@ public void createTrxLog(List<XXTrxLogV2> trxLogList) {
             if (xTrxLog.getAddedByUserId() == null) {
                 xTrxLog.setAddedByUserId(userId);
             }
+        }
 
-            dao.create(xTrxLog);
+        if (trxLogWriter != null && trxLogWriter.isEnabled()) {
+            trxLogWriter.add(new ArrayList<>(trxLogList));
+        } else {
+            XXTrxLogV2Dao dao = daoManager.getXXTrxLogV2();
+
+            for (XXTrxLogV2 xTrxLog : trxLogList) {
+                dao.create(xTrxLog);
+            }
         }
     }
 
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.plugin.model.RangerPluginInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces plugin-info updates made on every policy/tag/role/userstore/GDS download: only the latest update per
+ * plugin (service, host, appType) and entity-type is kept in memory, and pending updates are written to x_plugin_info
+ * periodically, in batches of batchSize updates per transaction. Plugins polling every few seconds hence result in
+ * one UPDATE per flush interval, instead of one per download. getPluginsInfo() overlays pending updates on the
+ * records read from the database, so that the status shown in the UI doesn't lag by the flush interval.
+ */
+@Component
+public class RangerPluginInfoCoalescer {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerPluginInfoCoalescer.class);
+
+    private static final String PROP_COALESCE_ENABLED     = "ranger.plugin.activity.audit.coalesce.enabled";
+    private static final String PROP_FLUSH_INTERVAL_MS    = "ranger.plugin.activity.audit.coalesce.flush.interval.ms";
+    private static final String PROP_FLUSH_BATCH_SIZE     = "ranger.plugin.activity.audit.coalesce.batch.size";
+    private static final int    DEFAULT_FLUSH_INTERVAL_MS = 10000;
+    private static final int    DEFAULT_FLUSH_BATCH_SIZE  = 100;
+    private static final int    ENTITY_TYPE_DELETE        = -1;
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
+    private final Map<String, PendingUpdates> pendingUpdates = new ConcurrentHashMap<>();
+    private final AtomicLong                  submittedCount = new AtomicLong();
+    private final AtomicLong                  flushedCount   = new AtomicLong();
+    private final AtomicLong                  failedCount    = new AtomicLong();
+
+    private boolean                  enabled;
+    private int                      flushIntervalMs;
+    private int                      batchSize;
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void init() {
+        RangerAdminConfig config = RangerAdminConfig.getInstance();
+
+        enabled         = config.getBoolean(PROP_COALESCE_ENABLED, true);
+        flushIntervalMs = Math.max(100, config.getInt(PROP_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_INTERVAL_MS));
+        batchSize       = Math.max(1, config.getInt(PROP_FLUSH_BATCH_SIZE, DEFAULT_FLUSH_BATCH_SIZE));
+
+        LOG.info("{}={}", PROP_COALESCE_ENABLED, enabled);
+        LOG.info("{}={}", PROP_FLUSH_INTERVAL_MS, flushIntervalMs);
+        LOG.info("{}={}", PROP_FLUSH_BATCH_SIZE, batchSize);
+
+        if (enabled) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "RangerPluginInfoCoalescer");
+
+                t.setDaemon(true);
+
+                return t;
+            });
+
+            flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+
+            try {
+                if (!flushExecutor.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS)) {
+                    LOG.warn("RangerPluginInfoCoalescer.destroy(): timed out waiting for flush to complete");
+                }
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+
+            flush();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param pluginInfo state reported by the plugin in the download request
+     * @param entityType one of RangerPluginInfo.ENTITY_TYPE_*
+     * @param commitWork writes pluginInfo to the database; replaces earlier pending work for the same plugin and entityType
+     */
+    public void submitUpdate(RangerPluginInfo pluginInfo, int entityType, Runnable commitWork) {
+        submit(pluginInfo, new PendingUpdate(pluginInfo, entityType, commitWork));
+    }
+
+    /**
+     * @param commitWork deletes the plugin-info record; replaces all earlier pending work for the plugin
+     */
+    public void submitDelete(RangerPluginInfo pluginInfo, Runnable commitWork) {
+        submit(pluginInfo, new PendingUpdate(pluginInfo, ENTITY_TYPE_DELETE, commitWork));
+    }
+
+    /**
+     * Updates given plugin-info objects, read from the database, with the state reported in pending updates
+     */
+    public void applyPendingUpdates(List<RangerPluginInfo> pluginInfos) {
+        if (enabled && pluginInfos != null && !pendingUpdates.isEmpty()) {
+            for (RangerPluginInfo pluginInfo : pluginInfos) {
+                PendingUpdates updates = pendingUpdates.get(getKey(pluginInfo));
+
+                if (updates != null) {
+                    for (PendingUpdate update : updates.getUpdates()) {
+                        if (update.entityType != ENTITY_TYPE_DELETE) {
+                            copyState(update.pluginInfo, pluginInfo, update.entityType);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingUpdates.size();
+    }
+
+    void flush() {
+        LOG.debug("==> RangerPluginInfoCoalescer.flush(): pendingCount={}", pendingUpdates.size());
+
+        List<PendingUpdate> batch = new ArrayList<>(batchSize);
+
+        try {
+            for (String key : pendingUpdates.keySet()) {
+                PendingUpdates updates = pendingUpdates.remove(key);
+
+                if (updates != null) {
+                    batch.addAll(updates.getUpdates());
+
+                    if (batch.size() >= batchSize) {
+                        commit(batch);
+
+                        batch.clear();
+                    }
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+        } catch (Throwable excp) {
+            LOG.error("RangerPluginInfoCoalescer.flush(): failed", excp);
+        }
+
+        LOG.debug("<== RangerPluginInfoCoalescer.flush(): submittedCount={}, flushedCount={}, failedCount={}", submittedCount.get(), flushedCount.get(), failedCount.get());
+    }
+
+    private void submit(RangerPluginInfo pluginInfo, PendingUpdate update) {
+        submittedCount.incrementAndGet();
+
+        // compute() ensures that the update isn't added to an entry removed concurrently by flush()
+        pendingUpdates.compute(getKey(pluginInfo), (key, updates) -> {
+            if (updates == null) {
+                updates = new PendingUpdates();
+            }
+
+            updates.add(update);
+
+            return updates;
+        });
+    }
+
+    private void commit(List<PendingUpdate> batch) {
+        try {
+            getTransactionTemplate().execute(status -> {
+                for (PendingUpdate update : batch) {
+                    update.commitWork.run();
+                }
+
+                return null;
+            });
+
+            flushedCount.addAndGet(batch.size());
+        } catch (Exception excp) {
+            LOG.warn("RangerPluginInfoCoalescer.commit(): failed to commit batch of {} updates; retrying each update in a separate transaction", batch.size(), excp);
+
+            // a failure in one record shouldn't lose updates of other plugins in the batch
+            for (PendingUpdate update : batch) {
+                try {
+                    getTransactionTemplate().execute(status -> {
+                        update.commitWork.run();
+
+                        return null;
+                    });
+
+                    flushedCount.incrementAndGet();
+                } catch (Exception e) {
+                    failedCount.incrementAndGet();
+
+                    LOG.error("RangerPluginInfoCoalescer.commit(): failed to update plugin-info {}", update.pluginInfo, e);
+                }
+            }
+        }
+    }
+
+    private TransactionTemplate getTransactionTemplate() {
+        TransactionTemplate ret = new TransactionTemplate(txManager);
+
+        ret.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        return ret;
+    }
+
+    private static String getKey(RangerPluginInfo pluginInfo) {
+        return pluginInfo.getServiceName() + "|" + pluginInfo.getHostName() + "|" + pluginInfo.getAppType();
+    }
+
+    private static void copyState(RangerPluginInfo from, RangerPluginInfo to, int entityType) {
+        if (from.getIpAddress() != null) {
+            to.setIpAddress(from.getIpAddress());
+        }
+
+        switch (entityType) {
+            case RangerPluginInfo.ENTITY_TYPE_POLICIES:
+                to.setPolicyDownloadedVersion(firstNonNull(from.getPolicyDownloadedVersion(), to.getPolicyDownloadedVersion()));
+                to.setPolicyDownloadTime(firstNonNull(from.getPolicyDownloadTime(), to.getPolicyDownloadTime()));
+                to.setPolicyActiveVersion(firstPositive(from.getPolicyActiveVersion(), to.getPolicyActiveVersion()));
+                to.setPolicyActivationTime(firstPositive(from.getPolicyActivationTime(), to.getPolicyActivationTime()));
+                break;
+            case RangerPluginInfo.ENTITY_TYPE_TAGS:
+                to.setTagDownloadedVersion(firstNonNull(from.getTagDownloadedVersion(), to.getTagDownloadedVersion()));
+                to.setTagDownloadTime(firstNonNull(from.getTagDownloadTime(), to.getTagDownloadTime()));
+                to.setTagActiveVersion(firstPositive(from.getTagActiveVersion(), to.getTagActiveVersion()));
+                to.setTagActivationTime(firstPositive(from.getTagActivationTime(), to.getTagActivationTime()));
+                break;
+            case RangerPluginInfo.ENTITY_TYPE_ROLES:
+                to.setRoleDownloadedVersion(firstNonNull(from.getRoleDownloadedVersion(), to.getRoleDownloadedVersion()));
+                to.setRoleDownloadTime(firstNonNull(from.getRoleDownloadTime(), to.getRoleDownloadTime()));
+                to.setRoleActiveVersion(firstPositive(from.getRoleActiveVersion(), to.getRoleActiveVersion()));
+                to.setRoleActivationTime(firstPositive(from.getRoleActivationTime(), to.getRoleActivationTime()));
+                break;
+            case RangerPluginInfo.ENTITY_TYPE_USERSTORE:
+                to.setUserStoreDownloadedVersion(firstNonNull(from.getUserStoreDownloadedVersion(), to.getUserStoreDownloadedVersion()));
+                to.setUserStoreDownloadTime(firstNonNull(from.getUserStoreDownloadTime(), to.getUserStoreDownloadTime()));
+                to.setUserStoreActiveVersion(firstPositive(from.getUserStoreActiveVersion(), to.getUserStoreActiveVersion()));
+                to.setUserStoreActivationTime(firstPositive(from.getUserStoreActivationTime(), to.getUserStoreActivationTime()));
+                break;
+            case RangerPluginInfo.ENTITY_TYPE_GDS:
+                to.setGdsDownloadedVersion(firstNonNull(from.getGdsDownloadedVersion(), to.getGdsDownloadedVersion()));
+                to.setGdsDownloadTime(firstNonNull(from.getGdsDownloadTime(), to.getGdsDownloadTime()));
+                to.setGdsActiveVersion(firstPositive(from.getGdsActiveVersion(), to.getGdsActiveVersion()));
+                to.setGdsActivationTime(firstPositive(from.getGdsActivationTime(), to.getGdsActivationTime()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static Long firstNonNull(Long value, Long defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static Long firstPositive(Long value, Long defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+
+    private static class PendingUpdate {
+        final RangerPluginInfo pluginInfo;
+        final int              entityType;
+        final Runnable         commitWork;
+
+        PendingUpdate(RangerPluginInfo pluginInfo, int entityType, Runnable commitWork) {
+            this.pluginInfo = pluginInfo;
+            this.entityType = entityType;
+            this.commitWork = commitWork;
+        }
+    }
+
+    private static class PendingUpdates {
+        private final Map<Integer, PendingUpdate> updates = new LinkedHashMap<>();
+
+        synchronized void add(PendingUpdate update) {
+            if (update.entityType == ENTITY_TYPE_DELETE) {
+                updates.clear();
+            } else {
+                updates.remove(update.entityType); // to retain the order of updates
+            }
+
+            updates.put(update.entityType, update);
+        }
+
+        synchronized List<PendingUpdate> getUpdates() {
+            return new ArrayList<>(updates.values());
+        }
+    }
+}
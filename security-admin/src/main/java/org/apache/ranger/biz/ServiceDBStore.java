@@ -19,19 +19,27 @@
 
 package org.apache.ranger.biz;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.thirdparty.com.google.common.base.Joiner;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.authorization.utils.JsonUtils;
@@ -52,6 +60,7 @@
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
+import org.apache.ranger.common.view.VList;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXAccessTypeDefDao;
 import org.apache.ranger.db.XXAccessTypeDefGrantsDao;
@@ -135,6 +144,7 @@
 import org.apache.ranger.plugin.store.AbstractServiceStore;
 import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
 import org.apache.ranger.plugin.store.PList;
+import org.apache.ranger.plugin.store.RangerPolicySearchIndex;
 import org.apache.ranger.plugin.store.ServicePredicateUtil;
 import org.apache.ranger.plugin.store.ServiceStore;
 import org.apache.ranger.plugin.util.PasswordUtils;
@@ -190,11 +200,14 @@
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -214,6 +227,7 @@
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -253,6 +267,9 @@ public class ServiceDBStore extends AbstractServiceStore {
     private static final    String                        AMBARI_SERVICE_CHECK_USER         = "ambari.service.check.user";
     private static final    String                        RANGER_PLUGIN_CONFIG_PREFIX       = "ranger.plugin.";
     private static final    String                        LINE_SEPARATOR                    = "\n";
+    private static final    String                        EXCEL_CONTENT_TYPE                = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final    int                           EXCEL_ROW_ACCESS_WINDOW_SIZE      = 100;
+    private static final    int                           EXCEL_MAX_ROWS_PER_SHEET          = SpreadsheetVersion.EXCEL2007.getMaxRows();
     private static final    String                        FILE_HEADER                       = "ID|Name|Resources|Roles|Groups|Users|Accesses|Service Type|Status|Policy Type|Delegate Admin|isRecursive|isExcludes|Service Name|Description|isAuditEnabled|Policy Conditions|Policy Condition Type|Masking Options|Row Filter Expr|Policy Label Name";
     private static final    String                        COMMA_DELIMITER                   = "|";
     private static final    String                        DEFAULT_CSV_SANITIZATION_PATTERN  = "^[=+\\-@\\t\\r]";
@@ -329,9 +346,12 @@ public class ServiceDBStore extends AbstractServiceStore {
     SecurityZoneDBStore                         securityZoneStore;
     @Autowired
     GUIDUtil                                    guidUtil;
-    private boolean              populateExistingBaseFields;
-    private ServicePredicateUtil predicateUtil;
-    private RangerAdminConfig    config;
+    private final Map<String, RangerPolicySearchIndex> policySearchIndexes = new ConcurrentHashMap<>();
+    private boolean                                    populateExistingBaseFields;
+    private ServicePredicateUtil                       predicateUtil;
+    private RangerAdminConfig                          config;
+    private boolean                                    isPolicySearchIndexEnabled = true;
+    int                                                excelMaxRowsPerSheet       = EXCEL_MAX_ROWS_PER_SHEET;
 
     public static void persistVersionChange(ServiceVersionUpdater serviceVersionUpdater) {
         RangerDaoManager daoMgr      = serviceVersionUpdater.daoManager;
@@ -2003,6 +2023,7 @@ public void initStore() {
                     POLICY_EXPORT_LOGS_RETENTION_PERIOD_IN_DAYS  = config.getInt("ranger.admin.init.purge.policy_export_logs.retention.days", 0);
 
                     isRolesDownloadedByService       = config.getBoolean("ranger.support.for.service.specific.role.download", false);
+                    isPolicySearchIndexEnabled       = config.getBoolean("ranger.admin.policy.search.index.enabled", true);
                     SUPPORTS_IN_PLACE_POLICY_UPDATES = SUPPORTS_POLICY_DELTAS && config.getBoolean("ranger.admin" + RangerCommonConstants.RANGER_ADMIN_SUFFIX_IN_PLACE_POLICY_UPDATES, RangerCommonConstants.RANGER_ADMIN_SUFFIX_IN_PLACE_POLICY_UPDATES_DEFAULT);
 
                     LOG.info("SUPPORTS_POLICY_DELTAS={}", SUPPORTS_POLICY_DELTAS);
@@ -2233,6 +2254,56 @@ public RangerService getServiceByNameForDP(String name) throws Exception {
     }
 
     public RangerPolicy createPolicy(RangerPolicy policy, boolean createPrincipalsIfAbsent) throws Exception {
+        return createPolicy(policy, createPrincipalsIfAbsent, null);
+    }
+
+    /**
+     * Creates the given policies like createPolicy(), except that ref-table entries of all policies are inserted
+     * together and policy version of each service is incremented once for the batch, instead of once per policy.
+     */
+    public List<RangerPolicy> createPolicies(List<RangerPolicy> policies) throws Exception {
+        LOG.debug("==> ServiceDBStore.createPolicies(count={})", policies == null ? 0 : policies.size());
+
+        List<RangerPolicy> ret = new ArrayList<>();
+
+        if (CollectionUtils.isNotEmpty(policies)) {
+            boolean                         createPrincipalsIfAbsent = bizUtil.getCreatePrincipalsIfAbsent();
+            PolicyRefUpdater.PolicyRefBatch refBatch                 = new PolicyRefUpdater.PolicyRefBatch();
+            Map<String, List<RangerPolicy>> policiesByService        = new LinkedHashMap<>();
+            Map<String, Boolean>            roleVersionUpdates       = new HashMap<>();
+
+            for (RangerPolicy policy : policies) {
+                RangerPolicy createdPolicy = createPolicy(policy, createPrincipalsIfAbsent, refBatch);
+
+                policiesByService.computeIfAbsent(createdPolicy.getService(), k -> new ArrayList<>()).add(createdPolicy);
+
+                ret.add(createdPolicy);
+            }
+
+            // role-download check is done before ref-tables are updated, to find roles not referenced by existing policies
+            if (isSupportsRolesDownloadByService()) {
+                for (Map.Entry<String, List<RangerPolicy>> entry : policiesByService.entrySet()) {
+                    RangerService service = getServiceByName(entry.getKey());
+
+                    roleVersionUpdates.put(entry.getKey(), entry.getValue().stream().anyMatch(policy -> isRoleDownloadRequired(policy, service)));
+                }
+            }
+
+            policyRefUpdater.flushPolicyRefBatch(refBatch);
+
+            for (Map.Entry<String, List<RangerPolicy>> entry : policiesByService.entrySet()) {
+                RangerService service = getServiceByName(entry.getKey());
+
+                updatePolicyVersion(service, RangerPolicyDelta.CHANGE_TYPE_POLICY_CREATE, null, entry.getValue(), Boolean.TRUE.equals(roleVersionUpdates.get(entry.getKey())));
+            }
+        }
+
+        LOG.debug("<== ServiceDBStore.createPolicies(count={})", ret.size());
+
+        return ret;
+    }
+
+    private RangerPolicy createPolicy(RangerPolicy policy, boolean createPrincipalsIfAbsent, PolicyRefUpdater.PolicyRefBatch refBatch) throws Exception {
         RangerService service = getServiceByName(policy.getService());
 
         if (service == null) {
@@ -2288,18 +2359,21 @@ public RangerPolicy createPolicy(RangerPolicy policy, boolean createPrincipalsIf
 
         XXPolicy xCreatedPolicy = daoMgr.getXXPolicy().getById(policy.getId());
 
-        policyRefUpdater.createNewPolMappingForRefTable(policy, xCreatedPolicy, xServiceDef, createPrincipalsIfAbsent, false);
+        policyRefUpdater.createNewPolMappingForRefTable(policy, xCreatedPolicy, xServiceDef, createPrincipalsIfAbsent, false, refBatch);
 
         createOrMapLabels(xCreatedPolicy, uniquePolicyLabels);
 
-        RangerPolicy createdPolicy                = policyService.getPopulatedViewObject(xCreatedPolicy);
-        boolean      updateServiceInfoRoleVersion = false;
+        RangerPolicy createdPolicy = policyService.getPopulatedViewObject(xCreatedPolicy);
 
-        if (isSupportsRolesDownloadByService()) {
-            updateServiceInfoRoleVersion = isRoleDownloadRequired(createdPolicy, service);
-        }
+        if (refBatch == null) { // policy version of batch is updated in createPolicies()
+            boolean updateServiceInfoRoleVersion = false;
+
+            if (isSupportsRolesDownloadByService()) {
+                updateServiceInfoRoleVersion = isRoleDownloadRequired(createdPolicy, service);
+            }
 
-        handlePolicyUpdate(service, RangerPolicyDelta.CHANGE_TYPE_POLICY_CREATE, createdPolicy, updateServiceInfoRoleVersion);
+            handlePolicyUpdate(service, RangerPolicyDelta.CHANGE_TYPE_POLICY_CREATE, createdPolicy, updateServiceInfoRoleVersion);
+        }
 
         dataHistService.createObjectDataHistory(createdPolicy, RangerDataHistService.ACTION_CREATE);
 
@@ -2339,7 +2413,7 @@ public void getPoliciesInExcel(List<RangerPolicy> policies, HttpServletResponse
         LOG.debug("==> ServiceDBStore.getPoliciesInExcel()");
 
         String timeStamp     = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        String excelFileName = "Ranger_Policies_" + timeStamp + ".xls";
+        String excelFileName = "Ranger_Policies_" + timeStamp + ".xlsx";
 
         writeExcel(policies, excelFileName, response);
     }
@@ -2354,11 +2428,18 @@ public void getPoliciesInCSV(List<RangerPolicy> policies, HttpServletResponse re
             String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
 
             csvfilename = "Ranger_Policies_" + timeStamp + ".csv";
-            out         = response.getOutputStream();
 
-            StringBuilder sb = writeCSV(policies, csvfilename, response);
+            response.setContentType("text/csv");
+            response.setHeader("Content-Disposition", "attachment; filename=" + csvfilename);
+            response.setStatus(HttpServletResponse.SC_OK);
+
+            out = response.getOutputStream();
+
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
 
-            IOUtils.write(sb.toString(), out, "UTF-8");
+            writeCSV(policies, writer);
+
+            writer.flush();
         } catch (Exception e) {
             LOG.error("Error while generating report file {}", csvfilename, e);
 
@@ -2414,6 +2495,12 @@ public boolean resetPolicyCache(final String serviceName) {
 
         boolean ret = RangerServicePoliciesCache.getInstance().resetCache(serviceName);
 
+        if (serviceName == null) {
+            policySearchIndexes.clear();
+        } else {
+            policySearchIndexes.remove(serviceName);
+        }
+
         LOG.debug("<== ServiceDBStore.resetPolicyCache(): ret={}", ret);
 
         return ret;
@@ -3939,7 +4026,11 @@ private List<RangerPolicy> getServicePolicies(XXService service, SearchFilter fi
 
             LOG.debug("Using{}way of filtering service-policies", useLegacyResourceSearch ? " old " : " new ");
 
-            ret = new ArrayList<>(policies);
+            if (isPolicySearchIndexEnabled && RangerPolicySearchIndex.isIndexedSearch(searchFilter)) {
+                ret = getPolicySearchIndex(service.getName(), servicePolicies.getPolicyVersion(), policies).getCandidates(searchFilter);
+            } else {
+                ret = new ArrayList<>(policies);
+            }
 
             predicateUtil.applyFilter(ret, searchFilter);
 
@@ -4288,6 +4379,13 @@ private void handlePolicyUpdate(RangerService service, Integer policyDeltaType,
     }
 
     private void updatePolicyVersion(RangerService service, Integer policyDeltaType, RangerPolicy policy, boolean updateServiceInfoRoleVersion) {
+        updatePolicyVersion(service, policyDeltaType, policy, null, updateServiceInfoRoleVersion);
+    }
+
+    /**
+     * @param policies if not null, version is updated once for all these policies, with a change-log entry for each
+     */
+    private void updatePolicyVersion(RangerService service, Integer policyDeltaType, RangerPolicy policy, List<RangerPolicy> policies, boolean updateServiceInfoRoleVersion) {
         if (service == null || service.getId() == null) {
             return;
         }
@@ -4312,12 +4410,12 @@ private void updatePolicyVersion(RangerService service, Integer policyDeltaType,
             List<Long> referringServiceIds = serviceDao.findIdsByTagServiceId(serviceId);
 
             for (Long referringServiceId : referringServiceIds) {
-                Runnable policyVersionUpdater = new ServiceVersionUpdater(daoManager, referringServiceId, VERSION_TYPE.POLICY_VERSION, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
+                Runnable policyVersionUpdater = newPolicyVersionUpdater(daoManager, referringServiceId, VERSION_TYPE.POLICY_VERSION, policyDeltaType, policy, policies);
 
                 transactionSynchronizationAdapter.executeOnTransactionCommit(policyVersionUpdater);
 
                 if (updateServiceInfoRoleVersion) {
-                    Runnable roleVersionUpdater = new ServiceVersionUpdater(daoManager, referringServiceId, VERSION_TYPE.ROLE_VERSION, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
+                    Runnable roleVersionUpdater = newPolicyVersionUpdater(daoManager, referringServiceId, VERSION_TYPE.ROLE_VERSION, policyDeltaType, policy, policies);
 
                     transactionSynchronizationAdapter.executeOnTransactionCommit(roleVersionUpdater);
                 }
@@ -4326,17 +4424,25 @@ private void updatePolicyVersion(RangerService service, Integer policyDeltaType,
 
         final VERSION_TYPE versionType = VERSION_TYPE.POLICY_VERSION;
 
-        Runnable serviceVersionUpdater = new ServiceVersionUpdater(daoManager, serviceId, versionType, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
+        Runnable serviceVersionUpdater = newPolicyVersionUpdater(daoManager, serviceId, versionType, policyDeltaType, policy, policies);
 
         transactionSynchronizationAdapter.executeOnTransactionCommit(serviceVersionUpdater);
 
         if (updateServiceInfoRoleVersion) {
-            Runnable roleVersionUpdater = new ServiceVersionUpdater(daoManager, serviceId, VERSION_TYPE.ROLE_VERSION, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
+            Runnable roleVersionUpdater = newPolicyVersionUpdater(daoManager, serviceId, VERSION_TYPE.ROLE_VERSION, policyDeltaType, policy, policies);
 
             transactionSynchronizationAdapter.executeOnTransactionCommit(roleVersionUpdater);
         }
     }
 
+    private static ServiceVersionUpdater newPolicyVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSION_TYPE versionType, Integer policyDeltaType, RangerPolicy policy, List<RangerPolicy> policies) {
+        if (policies != null) {
+            return new ServiceVersionUpdater(daoManager, serviceId, versionType, policyDeltaType, policies);
+        } else {
+            return new ServiceVersionUpdater(daoManager, serviceId, versionType, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
+        }
+    }
+
     private boolean isRoleDownloadRequired(RangerPolicy policy, RangerService service) {
         // Role Download to plugin is required if some role in the policy created/updated is not present in any other
         // policy for that service.
@@ -4478,29 +4584,44 @@ private static void persistChangeLog(XXService service, VERSION_TYPE versionType
             Integer policyDeltaChange = serviceVersionUpdater.policyDeltaChange;
 
             if (policyDeltaChange == RangerPolicyDelta.CHANGE_TYPE_RANGER_ADMIN_START || isSupportsPolicyDeltas()) {
-                // Build and save PolicyChangeLog
-                XXPolicyChangeLog policyChangeLog = new XXPolicyChangeLog();
+                if (serviceVersionUpdater.policies != null) {
+                    // one entry per policy, all with the same version; findLaterThan() handles multiple entries for a version
+                    List<XXPolicyChangeLog> policyChangeLogs = new ArrayList<>(serviceVersionUpdater.policies.size());
 
-                policyChangeLog.setCreateTime(now);
-                policyChangeLog.setServiceId(service.getId());
-                policyChangeLog.setChangeType(serviceVersionUpdater.policyDeltaChange);
-                policyChangeLog.setPolicyVersion(version);
-                policyChangeLog.setZoneName(serviceVersionUpdater.zoneName);
+                    for (RangerPolicy policy : serviceVersionUpdater.policies) {
+                        policyChangeLogs.add(createPolicyChangeLog(service, version, policyDeltaChange, policy.getZoneName(), policy, now));
+                    }
 
-                RangerPolicy policy = serviceVersionUpdater.policy;
+                    serviceVersionUpdater.daoManager.getXXPolicyChangeLog().batchCreate(policyChangeLogs);
+                } else {
+                    XXPolicyChangeLog policyChangeLog = createPolicyChangeLog(service, version, policyDeltaChange, serviceVersionUpdater.zoneName, serviceVersionUpdater.policy, now);
 
-                if (policy != null) {
-                    policyChangeLog.setServiceType(policy.getServiceType());
-                    policyChangeLog.setPolicyType(policy.getPolicyType());
-                    policyChangeLog.setPolicyId(policy.getId());
-                    policyChangeLog.setPolicyGuid(policy.getGuid());
+                    serviceVersionUpdater.daoManager.getXXPolicyChangeLog().create(policyChangeLog);
                 }
-
-                serviceVersionUpdater.daoManager.getXXPolicyChangeLog().create(policyChangeLog);
             }
         }
     }
 
+    private static XXPolicyChangeLog createPolicyChangeLog(XXService service, Long version, Integer policyDeltaChange, String zoneName, RangerPolicy policy, Date now) {
+        // Build PolicyChangeLog
+        XXPolicyChangeLog policyChangeLog = new XXPolicyChangeLog();
+
+        policyChangeLog.setCreateTime(now);
+        policyChangeLog.setServiceId(service.getId());
+        policyChangeLog.setChangeType(policyDeltaChange);
+        policyChangeLog.setPolicyVersion(version);
+        policyChangeLog.setZoneName(zoneName);
+
+        if (policy != null) {
+            policyChangeLog.setServiceType(policy.getServiceType());
+            policyChangeLog.setPolicyType(policy.getPolicyType());
+            policyChangeLog.setPolicyId(policy.getId());
+            policyChangeLog.setPolicyGuid(policy.getGuid());
+        }
+
+        return policyChangeLog;
+    }
+
     private Boolean deleteExistingPolicyLabel(RangerPolicy policy) {
         if (policy == null) {
             return false;
@@ -4550,15 +4671,15 @@ private boolean isResourceInList(String resource, List<XXResourceDef> xResourceD
         return false;
     }
 
+    // rows beyond the last EXCEL_ROW_ACCESS_WINDOW_SIZE are flushed to a temporary file, so that memory used doesn't grow with the number of policies
     private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpServletResponse response) throws IOException {
-        OutputStream outStream = null;
-
-        try (Workbook workbook = new HSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet();
+        OutputStream  outStream = null;
+        SXSSFWorkbook workbook  = new SXSSFWorkbook(EXCEL_ROW_ACCESS_WINDOW_SIZE);
 
-            createHeaderRow(sheet);
+        workbook.setCompressTempFiles(true);
 
-            int rowCount = 0;
+        try {
+            ExcelRowWriter rows = new ExcelRowWriter(workbook);
 
             if (!CollectionUtils.isEmpty(policies)) {
                 Map<String, String> svcNameToSvcType = new HashMap<>();
@@ -4586,31 +4707,31 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
 
                     if (CollectionUtils.isNotEmpty(policyItems)) {
                         for (RangerPolicyItem policyItem : policyItems) {
-                            Row row = sheet.createRow(++rowCount);
+                            Row row = rows.nextRow();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, row, POLICY_ALLOW_INCLUDE);
                         }
                     } else if (CollectionUtils.isNotEmpty(dataMaskPolicyItems)) {
                         for (RangerDataMaskPolicyItem dataMaskPolicyItem : dataMaskPolicyItems) {
-                            Row row = sheet.createRow(++rowCount);
+                            Row row = rows.nextRow();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, null, dataMaskPolicyItem, null, row, null);
                         }
                     } else if (CollectionUtils.isNotEmpty(rowFilterPolicyItems)) {
                         for (RangerRowFilterPolicyItem rowFilterPolicyItem : rowFilterPolicyItems) {
-                            Row row = sheet.createRow(++rowCount);
+                            Row row = rows.nextRow();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, null, null, rowFilterPolicyItem, row, null);
                         }
                     } else if (serviceType.equalsIgnoreCase(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_TAG_NAME)) {
                         if (CollectionUtils.isEmpty(policyItems)) {
-                            Row              row        = sheet.createRow(++rowCount);
+                            Row              row        = rows.nextRow();
                             RangerPolicyItem policyItem = new RangerPolicyItem();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, row, POLICY_ALLOW_INCLUDE);
                         }
                     } else if (CollectionUtils.isEmpty(policyItems)) {
-                        Row              row        = sheet.createRow(++rowCount);
+                        Row              row        = rows.nextRow();
                         RangerPolicyItem policyItem = new RangerPolicyItem();
 
                         writeBookForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, row, POLICY_ALLOW_INCLUDE);
@@ -4618,7 +4739,7 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
 
                     if (CollectionUtils.isNotEmpty(allowExceptions)) {
                         for (RangerPolicyItem policyItem : allowExceptions) {
-                            Row row = sheet.createRow(++rowCount);
+                            Row row = rows.nextRow();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, row, POLICY_ALLOW_EXCLUDE);
                         }
@@ -4626,7 +4747,7 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
 
                     if (CollectionUtils.isNotEmpty(denyExceptions)) {
                         for (RangerPolicyItem policyItem : denyExceptions) {
-                            Row row = sheet.createRow(++rowCount);
+                            Row row = rows.nextRow();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, row, POLICY_DENY_EXCLUDE);
                         }
@@ -4634,7 +4755,7 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
 
                     if (CollectionUtils.isNotEmpty(denyPolicyItems)) {
                         for (RangerPolicyItem policyItem : denyPolicyItems) {
-                            Row row = sheet.createRow(++rowCount);
+                            Row row = rows.nextRow();
 
                             writeBookForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, row, POLICY_DENY_INCLUDE);
                         }
@@ -4642,40 +4763,35 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
                 }
             }
 
-            ByteArrayOutputStream outByteStream = new ByteArrayOutputStream();
-
-            workbook.write(outByteStream);
-
-            byte[] outArray = outByteStream.toByteArray();
-
-            response.setContentType("application/ms-excel");
-            response.setContentLength(outArray.length);
+            response.setContentType(EXCEL_CONTENT_TYPE);
             response.setHeader("Expires:", "0");
             response.setHeader("Content-Disposition", "attachment; filename=" + excelFileName);
             response.setStatus(HttpServletResponse.SC_OK);
 
             outStream = response.getOutputStream();
 
-            outStream.write(outArray);
+            workbook.write(outStream);
             outStream.flush();
         } catch (IOException ex) {
             LOG.error("Failed to create report file {}", excelFileName, ex);
         } catch (Exception ex) {
             LOG.error("Error while generating report file {}", excelFileName, ex);
         } finally {
+            workbook.dispose();
+            workbook.close();
+
             if (outStream != null) {
                 outStream.close();
             }
         }
     }
 
-    private StringBuilder writeCSV(List<RangerPolicy> policies, String cSVFileName, HttpServletResponse response) {
-        response.setContentType("text/csv");
-
+    // rows of each policy are built in csvBuffer and written out before moving to the next policy
+    private void writeCSV(List<RangerPolicy> policies, Writer writer) throws IOException {
         StringBuilder csvBuffer = new StringBuilder();
 
-        csvBuffer.append(FILE_HEADER);
-        csvBuffer.append(LINE_SEPARATOR);
+        writer.write(FILE_HEADER);
+        writer.write(LINE_SEPARATOR);
 
         if (!CollectionUtils.isEmpty(policies)) {
             Map<String, String> svcNameToSvcType = new HashMap<>();
@@ -4740,13 +4856,12 @@ private StringBuilder writeCSV(List<RangerPolicy> policies, String cSVFileName,
                         writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_DENY_INCLUDE);
                     }
                 }
-            }
-        }
 
-        response.setHeader("Content-Disposition", "attachment; filename=" + cSVFileName);
-        response.setStatus(HttpServletResponse.SC_OK);
+                writer.append(csvBuffer);
 
-        return csvBuffer;
+                csvBuffer.setLength(0);
+            }
+        }
     }
 
     private void writeCSVForPolicyItems(Map<String, String> svcNameToSvcType, RangerPolicy policy, RangerPolicyItem policyItem, RangerDataMaskPolicyItem dataMaskPolicyItem, RangerRowFilterPolicyItem rowFilterPolicyItem, StringBuilder csvBuffer, String policyConditionType) {
@@ -4994,29 +5109,33 @@ private <T> void writeJson(List<T> objList, String jsonFileName, HttpServletResp
         response.setHeader("Content-Disposition", "attachment; filename=" + jsonFileName);
 
         ServletOutputStream out = null;
-        String              json;
+        VList               header;
+        String              listFieldName;
 
+        // header holds everything but the list, which is serialized one element at a time by writeJsonList()
         switch (type) {
             case POLICY:
                 RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
 
-                rangerExportPolicyList.setGenericPolicies(objList);
+                rangerExportPolicyList.setGenericPolicies(null);
                 rangerExportPolicyList.setMetaDataInfo(getMetaDataInfo());
 
-                json = JsonUtils.objectToJson(rangerExportPolicyList);
+                header        = rangerExportPolicyList;
+                listFieldName = "policies";
                 break;
             case ROLE:
                 RangerExportRoleList rangerExportRoleList = new RangerExportRoleList();
 
-                rangerExportRoleList.setGenericRoleList(objList);
+                rangerExportRoleList.setGenericRoleList(null);
 
                 Map<String, Object> metaDataInfo = getMetaDataInfo();
 
-                metaDataInfo.put(EXPORT_COUNT, rangerExportRoleList.getListSize());
+                metaDataInfo.put(EXPORT_COUNT, objList != null ? objList.size() : 0);
 
                 rangerExportRoleList.setMetaDataInfo(metaDataInfo);
 
-                json = JsonUtils.objectToJson(rangerExportRoleList);
+                header        = rangerExportRoleList;
+                listFieldName = "roles";
                 break;
             default:
                 throw restErrorUtil.createRESTException("Invalid type " + type);
@@ -5027,7 +5146,7 @@ private <T> void writeJson(List<T> objList, String jsonFileName, HttpServletResp
 
             response.setStatus(HttpServletResponse.SC_OK);
 
-            IOUtils.write(json, out, "UTF-8");
+            writeJsonList(header, listFieldName, objList, out);
         } catch (Exception e) {
             LOG.error("Error while exporting json file {}", jsonFileName, e);
         } finally {
@@ -5042,6 +5161,35 @@ private <T> void writeJson(List<T> objList, String jsonFileName, HttpServletResp
         }
     }
 
+    private <T> void writeJsonList(VList header, String listFieldName, List<T> objList, OutputStream out) throws IOException {
+        ObjectMapper mapper     = JsonUtils.getMapper();
+        ObjectWriter writer     = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ObjectNode   headerNode = mapper.valueToTree(header);
+
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            for (Iterator<Map.Entry<String, JsonNode>> iter = headerNode.fields(); iter.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = iter.next();
+
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+
+            generator.writeArrayFieldStart(listFieldName);
+
+            if (objList != null) {
+                for (T obj : objList) {
+                    writer.writeValue(generator, obj);
+                }
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
     private void writeBookForPolicyItems(Map<String, String> svcNameToSvcType, RangerPolicy policy, RangerPolicyItem policyItem, RangerDataMaskPolicyItem dataMaskPolicyItem, RangerRowFilterPolicyItem rowFilterPolicyItem, Row row, String policyConditionType) {
         LOG.debug("policyConditionType:[{}]", policyConditionType);
 
@@ -5258,6 +5406,36 @@ private String getPolicyTypeString(int policyType) {
         }
     }
 
+    // starts a new sheet, beginning with the header row, when the current one is full
+    private class ExcelRowWriter {
+        private final Workbook workbook;
+        private final int      maxRowsPerSheet;
+        private       Sheet    sheet;
+        private       int      rowCount;
+
+        ExcelRowWriter(Workbook workbook) {
+            this.workbook        = workbook;
+            this.maxRowsPerSheet = excelMaxRowsPerSheet;
+
+            newSheet();
+        }
+
+        Row nextRow() {
+            if (rowCount + 1 >= maxRowsPerSheet) {
+                newSheet();
+            }
+
+            return sheet.createRow(++rowCount);
+        }
+
+        private void newSheet() {
+            sheet    = workbook.createSheet();
+            rowCount = 0;
+
+            createHeaderRow(sheet);
+        }
+    }
+
     private void createHeaderRow(Sheet sheet) {
         CellStyle cellStyle = sheet.getWorkbook().createCellStyle();
         Font      font      = sheet.getWorkbook().createFont();
@@ -5617,6 +5795,18 @@ private RangerPolicyList searchRangerPolicies(SearchFilter searchFilter) {
         return retList;
     }
 
+    private RangerPolicySearchIndex getPolicySearchIndex(String serviceName, Long policyVersion, List<RangerPolicy> policies) {
+        RangerPolicySearchIndex ret = policySearchIndexes.get(serviceName);
+
+        if (ret == null || !ret.isFor(policyVersion, policies)) {
+            ret = policySearchIndexes.compute(serviceName, (name, index) -> (index != null && index.isFor(policyVersion, policies)) ? index : new RangerPolicySearchIndex(policyVersion, policies));
+
+            LOG.debug("ServiceDBStore.getPolicySearchIndex({}): using index for policyVersion={}, policyCount={}", serviceName, ret.getPolicyVersion(), ret.getPolicyCount());
+        }
+
+        return ret;
+    }
+
     private boolean isSearchQuerybyResource(SearchFilter searchFilter) {
         boolean             ret                   = false;
         Map<String, String> filterResourcesPrefix = searchFilter.getParamsWithPrefix(SearchFilter.RESOURCE_PREFIX, true);
@@ -6654,6 +6844,7 @@ public static class ServiceVersionUpdater implements Runnable {
         final String                     zoneName;
         final Integer                    policyDeltaChange;
         final RangerPolicy               policy;
+        final List<RangerPolicy>         policies;
         final ServiceTags.TagsChangeType tagChangeType;
         final Long                       resourceId;
         final Long                       tagId;
@@ -6671,6 +6862,20 @@ public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSIO
             this.policyDeltaChange = policyDeltaType;
             this.zoneName          = zoneName;
             this.policy            = policy;
+            this.policies          = null;
+            this.tagChangeType     = ServiceTags.TagsChangeType.NONE;
+            this.resourceId        = null;
+            this.tagId             = null;
+        }
+
+        public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSION_TYPE versionType, Integer policyDeltaType, List<RangerPolicy> policies) {
+            this.serviceId         = serviceId;
+            this.daoManager        = daoManager;
+            this.versionType       = versionType;
+            this.policyDeltaChange = policyDeltaType;
+            this.zoneName          = null;
+            this.policy            = null;
+            this.policies          = policies;
             this.tagChangeType     = ServiceTags.TagsChangeType.NONE;
             this.resourceId        = null;
             this.tagId             = null;
@@ -6683,6 +6888,7 @@ public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSIO
             this.zoneName          = null;
             this.policyDeltaChange = null;
             this.policy            = null;
+            this.policies          = null;
             this.tagChangeType     = tagChangeType;
             this.resourceId        = resourceId;
             this.tagId             = tagId;
@@ -6702,6 +6908,7 @@ public String toString() {
                     ", zoneName=" + zoneName +
                     ", policyDeltaChange=" + policyDeltaChange +
                     ", policy=" + policy +
+                    ", policyCount=" + (policies != null ? policies.size() : 0) +
                     ", tagChangeType=" + tagChangeType +
                     ", resourceId=" + resourceId +
                     ", tagId=" + tagId +
@@ -84,6 +84,7 @@
 import org.apache.ranger.service.XResourceService;
 import org.apache.ranger.service.XUgsyncAuditInfoService;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+import org.apache.ranger.ugsyncutil.model.GroupUserSyncResult;
 import org.apache.ranger.ugsyncutil.model.UsersGroupRoleAssignments;
 import org.apache.ranger.view.VXAuditMap;
 import org.apache.ranger.view.VXAuditMapList;
@@ -126,6 +127,7 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -146,6 +148,7 @@ public class XUserMgr extends XUserMgrBase {
     private static final String USER                       = "User";
     private static final String GROUP                      = "Group";
     private static final int    MAX_DB_TRANSACTION_RETRIES = 5;
+    private static final int    BULK_SYNC_GROUP_BATCH_SIZE = PropertiesUtil.getIntProperty("ranger.admin.ugsync.bulk.group.batch.size", 500);
     private static final int    PASSWORD_LENGTH            = 16;
 
     @Autowired
@@ -2819,15 +2822,26 @@ public Map<String, Set<String>> getUserGroups() {
     }
 
     public RangerUserStore getRangerUserStoreIfUpdated(Long lastKnownUserStoreVersion) {
-        logger.debug("==> XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={})", lastKnownUserStoreVersion);
+        return getRangerUserStoreIfUpdated(lastKnownUserStoreVersion, false);
+    }
+
+    public RangerUserStore getRangerUserStoreIfUpdated(Long lastKnownUserStoreVersion, boolean supportsDeltas) {
+        logger.debug("==> XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={}, supportsDeltas={})", lastKnownUserStoreVersion, supportsDeltas);
 
-        RangerUserStore ret = RangerUserStoreCache.getInstance().getLatestRangerUserStoreOrCached(this);
+        RangerUserStoreCache userStoreCache = RangerUserStoreCache.getInstance();
+        RangerUserStore      ret            = userStoreCache.getLatestRangerUserStoreOrCached(this);
 
         if (ret != null && Objects.equals(ret.getUserStoreVersion(), lastKnownUserStoreVersion)) {
             ret = null;
+        } else if (ret != null && supportsDeltas) {
+            RangerUserStore delta = userStoreCache.getRangerUserStoreDelta(lastKnownUserStoreVersion, ret.getUserStoreVersion());
+
+            if (delta != null) {
+                ret = delta;
+            }
         }
 
-        logger.debug("<== XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={}): ret={}", lastKnownUserStoreVersion, ret);
+        logger.debug("<== XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={}, supportsDeltas={}): ret={}", lastKnownUserStoreVersion, supportsDeltas, ret);
 
         return ret;
     }
@@ -2995,6 +3009,93 @@ public int createOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
         return updatedGroups;
     }
 
+    /**
+     * Set-based alternative to createOrDeleteXGroupUserList(): user and group names are resolved to ids once, and
+     * memberships are updated in batches of groups, each batch in its own transaction. The userstore version is
+     * updated once, at the end.
+     */
+    public GroupUserSyncResult bulkCreateOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
+        logger.debug("==> bulkCreateOrDeleteXGroupUserList(count={})", groupUserInfoList == null ? 0 : groupUserInfoList.size());
+
+        checkAdminAccess();
+
+        xaBizUtil.blockAuditorRoleUser();
+
+        GroupUserSyncResult ret        = new GroupUserSyncResult();
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        if (CollectionUtils.isNotEmpty(groupUserInfoList)) {
+            Map<Long, String>    groupNames = new LinkedHashMap<>();
+            Map<Long, Set<Long>> addUserIds = new HashMap<>();
+            Map<Long, Set<Long>> delUserIds = new HashMap<>();
+
+            txTemplate.execute(status -> {
+                Map<String, Long> usersFromDB  = daoManager.getXXUser().getAllUserIds();
+                Map<String, Long> groupsFromDB = new HashMap<>();
+
+                for (Map.Entry<Long, String> entry : daoManager.getXXGroup().getAllGroupIdNames().entrySet()) {
+                    groupsFromDB.put(entry.getValue(), entry.getKey());
+                }
+
+                for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+                    Long groupId = groupUserInfo == null ? null : groupsFromDB.get(groupUserInfo.getGroupName());
+
+                    if (groupId == null) {
+                        logger.debug("bulkCreateOrDeleteXGroupUserList(): group {} doesn't exist in database. Hence ignoring group membership updates", groupUserInfo == null ? null : groupUserInfo.getGroupName());
+
+                        ret.setIgnoredGroupCount(ret.getIgnoredGroupCount() + 1);
+
+                        continue;
+                    }
+
+                    groupNames.put(groupId, groupUserInfo.getGroupName());
+
+                    ret.setIgnoredUserCount(ret.getIgnoredUserCount() + resolveUserIds(groupUserInfo.getAddUsers(), usersFromDB, addUserIds.computeIfAbsent(groupId, k -> new HashSet<>())));
+                    ret.setIgnoredUserCount(ret.getIgnoredUserCount() + resolveUserIds(groupUserInfo.getDelUsers(), usersFromDB, delUserIds.computeIfAbsent(groupId, k -> new HashSet<>())));
+                }
+
+                return null;
+            });
+
+            List<Long> groupIds = new ArrayList<>(groupNames.keySet());
+
+            ret.setGroupCount(groupIds.size());
+
+            try {
+                for (int fromIdx = 0; fromIdx < groupIds.size(); fromIdx += BULK_SYNC_GROUP_BATCH_SIZE) {
+                    List<Long> batch = groupIds.subList(fromIdx, Math.min(groupIds.size(), fromIdx + BULK_SYNC_GROUP_BATCH_SIZE));
+
+                    txTemplate.execute(status -> {
+                        xGroupUserService.bulkCreateOrDeleteXGroupUsers(batch, groupNames, addUserIds, delUserIds, ret);
+
+                        return null;
+                    });
+                }
+            } catch (Throwable excp) {
+                logger.error("XUserMgr.bulkCreateOrDeleteXGroupUserList(): failed to update group memberships. {}", ret, excp);
+
+                throw restErrorUtil.createRESTException("Failed to update group memberships", MessageEnums.ERROR_CREATING_OBJECT);
+            } finally {
+                // earlier batches are committed even if a later batch failed
+                if (ret.getAddedCount() > 0 || ret.getDeletedCount() > 0) {
+                    txTemplate.execute(status -> {
+                        updateUserStoreVersion("bulkCreateOrDeleteXGroupUserList(groupCount=" + groupIds.size() + ")");
+
+                        return null;
+                    });
+                }
+            }
+        }
+
+        ret.setUserStoreVersion(txTemplate.execute(status -> daoManager.getXXGlobalState().getAppDataVersion(RANGER_GLOBAL_STATE_NAME_USER_GROUP)));
+
+        logger.debug("<== bulkCreateOrDeleteXGroupUserList(): ret={}", ret);
+
+        return ret;
+    }
+
     @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
     public List<String> updateUserRoleAssignments(UsersGroupRoleAssignments ugRoleAssignments) {
         List<String>        updatedUsers      = new ArrayList<>();
@@ -3774,6 +3875,25 @@ private VXUser updateXUser(VXUser vXUser, VXPortalUser oldUserProfile) {
         return vXUser;
     }
 
+    // adds ids of users found in usersFromDB to userIds; returns the number of users not found
+    private static int resolveUserIds(Set<String> userNames, Map<String, Long> usersFromDB, Set<Long> userIds) {
+        int ret = 0;
+
+        if (userNames != null) {
+            for (String userName : userNames) {
+                Long userId = usersFromDB.get(userName);
+
+                if (userId != null) {
+                    userIds.add(userId);
+                } else {
+                    ret++;
+                }
+            }
+        }
+
+        return ret;
+    }
+
     private void updateUserStoreVersion(String label) {
         try {
             daoManager.getXXGlobalState().onGlobalAppDataChange(RANGER_GLOBAL_STATE_NAME_USER_GROUP);
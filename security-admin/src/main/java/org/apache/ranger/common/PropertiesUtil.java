@@ -317,6 +317,22 @@ protected void processProperties(ConfigurableListableBeanFactory beanFactory, Pr
             }
         }
 
+        if (propertiesMap.containsKey("ranger.credential.provider.path") && propertiesMap.containsKey("ranger.jpa.jdbc.readonly.credential.alias")) {
+            String path  = propertiesMap.get("ranger.credential.provider.path");
+            String alias = propertiesMap.get("ranger.jpa.jdbc.readonly.credential.alias");
+
+            if (path != null && alias != null) {
+                String readOnlyDBPassword = CredentialReader.getDecryptedString(path.trim(), alias.trim(), storeType);
+
+                if (readOnlyDBPassword != null && !readOnlyDBPassword.trim().isEmpty() && !"none".equalsIgnoreCase(readOnlyDBPassword.trim())) {
+                    propertiesMap.put("ranger.jpa.jdbc.readonly.password", readOnlyDBPassword);
+                    props.put("ranger.jpa.jdbc.readonly.password", readOnlyDBPassword);
+                } else {
+                    LOG.info("Credential keystore password not applied for Ranger DB read-only pool; clear text password shall be applicable");
+                }
+            }
+        }
+
         if (propertiesMap.containsKey("ranger.credential.provider.path") && propertiesMap.containsKey("ranger.jpa.audit.jdbc.credential.alias")) {
             String path  = propertiesMap.get("ranger.credential.provider.path");
             String alias = propertiesMap.get("ranger.jpa.audit.jdbc.credential.alias");
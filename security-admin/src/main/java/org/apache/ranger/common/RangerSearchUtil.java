@@ -75,6 +75,7 @@ public SearchFilter getSearchFilter(@Nonnull HttpServletRequest request, List<So
         ret.setParam(SearchFilter.GROUP, request.getParameter(SearchFilter.GROUP));
         ret.setParam(SearchFilter.ROLE, request.getParameter(SearchFilter.ROLE));
         ret.setParam(SearchFilter.POL_RESOURCE, request.getParameter(SearchFilter.POL_RESOURCE));
+        ret.setParam(SearchFilter.ACCESS_TYPE, request.getParameter(SearchFilter.ACCESS_TYPE));
         ret.setParam(SearchFilter.RESOURCE_SIGNATURE, request.getParameter(SearchFilter.RESOURCE_SIGNATURE));
         ret.setParam(SearchFilter.POLICY_TYPE, request.getParameter(SearchFilter.POLICY_TYPE));
         ret.setParam(SearchFilter.POLICY_LABEL, request.getParameter(SearchFilter.POLICY_LABEL));
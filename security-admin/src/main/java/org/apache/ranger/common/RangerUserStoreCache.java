@@ -23,10 +23,14 @@
 import org.apache.ranger.biz.XUserMgr;
 import org.apache.ranger.plugin.model.GroupInfo;
 import org.apache.ranger.plugin.model.UserInfo;
+import org.apache.ranger.plugin.util.RangerCommonConstants;
 import org.apache.ranger.plugin.util.RangerUserStore;
+import org.apache.ranger.plugin.util.RangerUserStoreUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -37,19 +41,26 @@ public class RangerUserStoreCache {
     private static final Logger LOG = LoggerFactory.getLogger(RangerUserStoreCache.class);
 
     private static final int MAX_WAIT_TIME_FOR_UPDATE = 10;
+    private static final int MAX_DELTA_COUNT          = 10;
 
     public static volatile RangerUserStoreCache sInstance;
 
-    private final int             waitTimeInSeconds;
-    private final boolean         dedupStrings;
-    private final ReentrantLock   lock = new ReentrantLock();
-    private       RangerUserStore rangerUserStore;
+    private final int                        waitTimeInSeconds;
+    private final boolean                    dedupStrings;
+    private final boolean                    supportsDeltas;
+    private final int                        maxDeltaCount;
+    private final ReentrantLock              lock   = new ReentrantLock();
+    private final Map<Long, RangerUserStore> deltas = new LinkedHashMap<>(); // keyed by the version the delta applies to
+    private       RangerUserStore            rangerUserStore;
+    private       boolean                    isConsistentSnapshot;
 
     private RangerUserStoreCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
         this.waitTimeInSeconds = config.getInt("ranger.admin.userstore.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
         this.dedupStrings      = config.getBoolean("ranger.admin.userstore.dedup.strings", Boolean.TRUE);
+        this.supportsDeltas    = config.getBoolean("ranger.admin" + RangerCommonConstants.RANGER_ADMIN_SUFFIX_USERSTORE_DELTA, RangerCommonConstants.RANGER_ADMIN_SUFFIX_USERSTORE_DELTA_DEFAULT);
+        this.maxDeltaCount     = config.getInt("ranger.admin.userstore.deltas.max.count", MAX_DELTA_COUNT);
         this.rangerUserStore   = new RangerUserStore();
     }
 
@@ -108,6 +119,15 @@ public RangerUserStore getLatestRangerUserStoreOrCached(XUserMgr xUserMgr) {
                         rangerUserStore.dedupStrings();
                     }
 
+                    if (supportsDeltas) {
+                        // a delta can be computed only if both snapshots are consistent with their versions
+                        boolean isConsistent = Objects.equals(dbUserStoreVersion, xUserMgr.getUserStoreVersion());
+
+                        updateDeltas(this.rangerUserStore, rangerUserStore, isConsistent && isConsistentSnapshot);
+
+                        isConsistentSnapshot = isConsistent;
+                    }
+
                     this.rangerUserStore = rangerUserStore;
 
                     LOG.info("RangerUserStoreCache refreshed from version {} to {}: users={}, groups={}, userGroupMappings={}", cachedUserStoreVersion, dbUserStoreVersion, rangerUsersInDB.size(), rangerGroupsInDB.size(), userGroups.size());
@@ -129,4 +149,58 @@ public RangerUserStore getLatestRangerUserStoreOrCached(XUserMgr xUserMgr) {
 
         return ret;
     }
+
+    /**
+     * @return changes from lastKnownUserStoreVersion to userStoreVersion, or null if deltas for any of the intermediate
+     *         versions are not available
+     */
+    public RangerUserStore getRangerUserStoreDelta(Long lastKnownUserStoreVersion, Long userStoreVersion) {
+        LOG.debug("==> RangerUserStoreCache.getRangerUserStoreDelta(lastKnownUserStoreVersion={}, userStoreVersion={})", lastKnownUserStoreVersion, userStoreVersion);
+
+        RangerUserStore ret = null;
+
+        if (supportsDeltas && lastKnownUserStoreVersion != null && lastKnownUserStoreVersion != -1L) {
+            synchronized (deltas) {
+                Long version = lastKnownUserStoreVersion;
+
+                while (!Objects.equals(version, userStoreVersion)) {
+                    RangerUserStore delta = deltas.get(version);
+
+                    if (delta == null) {
+                        ret = null;
+
+                        break;
+                    }
+
+                    ret     = ret == null ? delta : RangerUserStoreUtil.mergeDeltas(ret, delta);
+                    version = delta.getUserStoreVersion();
+                }
+            }
+        }
+
+        LOG.debug("<== RangerUserStoreCache.getRangerUserStoreDelta(lastKnownUserStoreVersion={}, userStoreVersion={}): isDelta={}", lastKnownUserStoreVersion, userStoreVersion, ret != null);
+
+        return ret;
+    }
+
+    private void updateDeltas(RangerUserStore oldStore, RangerUserStore newStore, boolean computeDelta) {
+        synchronized (deltas) {
+            if (computeDelta) {
+                RangerUserStore delta = RangerUserStoreUtil.computeDelta(oldStore, newStore);
+
+                deltas.put(oldStore.getUserStoreVersion(), delta);
+
+                for (Iterator<RangerUserStore> iter = deltas.values().iterator(); deltas.size() > maxDeltaCount && iter.hasNext(); ) {
+                    iter.next();
+                    iter.remove();
+                }
+
+                LOG.info("RangerUserStoreCache: delta from version {} to {}: users={}, groups={}, userGroupMappings={}, deletedUsers={}, deletedGroups={}, deletedUserGroupMappings={}",
+                        oldStore.getUserStoreVersion(), newStore.getUserStoreVersion(), delta.getUserAttrMapping().size(), delta.getGroupAttrMapping().size(), delta.getUserGroupMapping().size(),
+                        delta.getDeletedUserAttrMappings().size(), delta.getDeletedGroupAttrMappings().size(), delta.getDeletedUserGroupMappings().size());
+            } else {
+                deltas.clear();
+            }
+        }
+    }
 }
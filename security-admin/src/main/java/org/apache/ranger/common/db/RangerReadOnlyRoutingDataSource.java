@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.common.PropertiesUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes connections requested within read-only transactions - like policy, tag, role, userstore and GDS downloads by
+ * plugins - to a separate connection pool, so that these don't starve writes from UI, REST APIs and usersync of
+ * connections. The read-only pool connects to the same database by default; ranger.jpa.jdbc.readonly.url can point it
+ * to a read replica, which should be kept in sync closely, as admin caches are refreshed from the replica.
+ * The read-only pool starts with the settings of the primary pool, overridden by ranger.jpa.jdbc.readonly.* properties;
+ * like ranger.jpa.jdbc.password, ranger.jpa.jdbc.readonly.password can be read from the credential store, using the
+ * alias in ranger.jpa.jdbc.readonly.credential.alias.
+ * All connections are taken from the primary pool when ranger.jpa.jdbc.readonly.enabled is false.
+ */
+public class RangerReadOnlyRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerReadOnlyRoutingDataSource.class);
+
+    public static final String PROP_READONLY_ENABLED     = "ranger.jpa.jdbc.readonly.enabled";
+    public static final String PROP_READONLY_URL         = "ranger.jpa.jdbc.readonly.url";
+    public static final String PROP_READONLY_USER        = "ranger.jpa.jdbc.readonly.user";
+    public static final String PROP_READONLY_PASSWORD    = "ranger.jpa.jdbc.readonly.password";
+    public static final String PROP_READONLY_MAXPOOLSIZE = "ranger.jpa.jdbc.readonly.maxpoolsize";
+    public static final String PROP_READONLY_MINPOOLSIZE = "ranger.jpa.jdbc.readonly.minpoolsize";
+
+    private enum PoolType { PRIMARY, READ_ONLY }
+
+    private final AtomicLong primaryRoutedCount  = new AtomicLong();
+    private final AtomicLong readOnlyRoutedCount = new AtomicLong();
+
+    private DataSource       primaryDataSource;
+    private HikariDataSource readOnlyDataSource;
+
+    public void setPrimaryDataSource(DataSource primaryDataSource) {
+        this.primaryDataSource = primaryDataSource;
+    }
+
+    public boolean isReadOnlyPoolEnabled() {
+        return readOnlyDataSource != null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+
+        targetDataSources.put(PoolType.PRIMARY, primaryDataSource);
+
+        if (PropertiesUtil.getBooleanProperty(PROP_READONLY_ENABLED, false)) {
+            readOnlyDataSource = createReadOnlyDataSource(primaryDataSource);
+
+            targetDataSources.put(PoolType.READ_ONLY, readOnlyDataSource);
+        }
+
+        LOG.info("{}={}", PROP_READONLY_ENABLED, readOnlyDataSource != null);
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+
+        super.afterPropertiesSet();
+    }
+
+    @Override
+    public void destroy() {
+        if (readOnlyDataSource != null) {
+            readOnlyDataSource.close();
+        }
+    }
+
+    /**
+     * @return usage of each pool; ThreadsAwaitingConnection greater than 0 indicates that the pool is saturated
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        addPoolMetrics(ret, "Primary", primaryDataSource instanceof HikariDataSource ? (HikariDataSource) primaryDataSource : null);
+        ret.put("PrimaryRoutedCount", primaryRoutedCount.get());
+
+        if (readOnlyDataSource != null) {
+            addPoolMetrics(ret, "ReadOnly", readOnlyDataSource);
+            ret.put("ReadOnlyRoutedCount", readOnlyRoutedCount.get());
+        }
+
+        return ret;
+    }
+
+    HikariDataSource getReadOnlyDataSource() {
+        return readOnlyDataSource;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // synchronization is inactive while running afterCompletion() callbacks, where the read-only flag of the
+        // completed transaction is still set; writes done in these callbacks, like plugin-info updates, need the primary pool
+        if (readOnlyDataSource != null && TransactionSynchronizationManager.isSynchronizationActive() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readOnlyRoutedCount.incrementAndGet();
+
+            return PoolType.READ_ONLY;
+        }
+
+        primaryRoutedCount.incrementAndGet();
+
+        return PoolType.PRIMARY;
+    }
+
+    private static HikariDataSource createReadOnlyDataSource(DataSource primaryDataSource) {
+        HikariDataSource ret = new HikariDataSource();
+
+        if (primaryDataSource instanceof HikariDataSource) {
+            ((HikariDataSource) primaryDataSource).copyStateTo(ret);
+        } else {
+            String driverClassName = PropertiesUtil.getProperty("ranger.jpa.jdbc.driver");
+
+            if (StringUtils.isNotBlank(driverClassName)) {
+                ret.setDriverClassName(driverClassName);
+            }
+
+            ret.setJdbcUrl(PropertiesUtil.getProperty("ranger.jpa.jdbc.url"));
+            ret.setUsername(PropertiesUtil.getProperty("ranger.jpa.jdbc.user"));
+            ret.setPassword(PropertiesUtil.getProperty("ranger.jpa.jdbc.password"));
+            ret.setMaximumPoolSize(PropertiesUtil.getIntProperty("ranger.jpa.jdbc.maxpoolsize", 40));
+            ret.setMinimumIdle(PropertiesUtil.getIntProperty("ranger.jpa.jdbc.minpoolsize", 5));
+            ret.setIdleTimeout(PropertiesUtil.getLongProperty("ranger.jpa.jdbc.idletimeout", 300000L));
+            ret.setMaxLifetime(PropertiesUtil.getLongProperty("ranger.jpa.jdbc.maxlifetime", 1800000L));
+            ret.setConnectionTimeout(PropertiesUtil.getLongProperty("ranger.jpa.jdbc.connectiontimeout", 30000L));
+            ret.setConnectionTestQuery(PropertiesUtil.getProperty("ranger.jpa.jdbc.preferredtestquery"));
+        }
+
+        ret.setPoolName("RangerReadOnlyPool");
+        ret.setJdbcUrl(StringUtils.defaultIfBlank(PropertiesUtil.getProperty(PROP_READONLY_URL), ret.getJdbcUrl()));
+        ret.setUsername(StringUtils.defaultIfBlank(PropertiesUtil.getProperty(PROP_READONLY_USER), ret.getUsername()));
+        ret.setPassword(StringUtils.defaultIfBlank(PropertiesUtil.getProperty(PROP_READONLY_PASSWORD), ret.getPassword()));
+        ret.setMaximumPoolSize(PropertiesUtil.getIntProperty(PROP_READONLY_MAXPOOLSIZE, ret.getMaximumPoolSize()));
+        ret.setMinimumIdle(PropertiesUtil.getIntProperty(PROP_READONLY_MINPOOLSIZE, ret.getMinimumIdle()));
+        ret.setReadOnly(true);
+
+        LOG.info("RangerReadOnlyRoutingDataSource: created read-only pool: url={}, maxPoolSize={}", ret.getJdbcUrl(), ret.getMaximumPoolSize());
+
+        return ret;
+    }
+
+    private static void addPoolMetrics(Map<String, Long> metrics, String prefix, HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+
+        if (pool != null) {
+            metrics.put(prefix + "ActiveConnections", (long) pool.getActiveConnections());
+            metrics.put(prefix + "IdleConnections", (long) pool.getIdleConnections());
+            metrics.put(prefix + "TotalConnections", (long) pool.getTotalConnections());
+            metrics.put(prefix + "MaxConnections", (long) dataSource.getMaximumPoolSize());
+            metrics.put(prefix + "ThreadsAwaitingConnection", (long) pool.getThreadsAwaitingConnection());
+        }
+    }
+}
@@ -29,6 +29,7 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -175,4 +176,33 @@ public Map<String, XXGroupUser> findUsersByGroupName(String groupName) {
 
         return users;
     }
+
+    /**
+     * @return memberships of given groups, as map of groupId to map of userId to id of the x_group_users entry
+     */
+    public Map<Long, Map<Long, Long>> findIdsByGroupIds(Collection<Long> groupIds) {
+        Map<Long, Map<Long, Long>> ret = new HashMap<>();
+
+        if (groupIds != null && !groupIds.isEmpty()) {
+            try {
+                List<Object[]> rows = getEntityManager().createNamedQuery("XXGroupUser.findIdsByGroupIds", Object[].class).setParameter("groupIds", groupIds).getResultList();
+
+                if (rows != null) {
+                    for (Object[] row : rows) {
+                        ret.computeIfAbsent((Long) row[0], k -> new HashMap<>()).put((Long) row[1], (Long) row[2]);
+                    }
+                }
+            } catch (NoResultException e) {
+                logger.debug(e.getMessage());
+            }
+        }
+
+        return ret;
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        if (ids != null && !ids.isEmpty()) {
+            batchDeleteByIds("XXGroupUser.deleteByIds", ids, "ids");
+        }
+    }
 }
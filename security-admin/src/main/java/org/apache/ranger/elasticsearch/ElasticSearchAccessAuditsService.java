@@ -30,22 +30,29 @@
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.view.VXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
-import org.apache.ranger.view.VXLong;
-import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Scope("singleton")
@@ -58,16 +65,11 @@ public class ElasticSearchAccessAuditsService extends org.apache.ranger.AccessAu
     @Autowired
     ElasticSearchUtil elasticSearchUtil;
 
-    public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
-        RestHighLevelClient client              = elasticSearchMgr.getClient();
+    @Override
+    protected VXAccessAuditList searchAccessAudits(SearchCriteria searchCriteria) {
+        RestHighLevelClient client              = getClient();
         final boolean       hiveQueryVisibility = PropertiesUtil.getBooleanProperty("ranger.audit.hive.query.visibility", true);
 
-        if (client == null) {
-            LOGGER.warn("ElasticSearch client is null, so not running the query.");
-
-            throw restErrorUtil.createRESTException("Error connecting to search engine", MessageEnums.ERROR_SYSTEM);
-        }
-
         List<VXAccessAudit> xAccessAuditList = new ArrayList<>();
         Map<String, Object> paramList        = searchCriteria.getParamList();
 
@@ -77,24 +79,16 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
 
         try {
             response = elasticSearchUtil.searchResources(searchCriteria, searchFields, sortFields, client, elasticSearchMgr.index);
+        } catch (IllegalArgumentException e) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, e.getMessage(), true);
         } catch (IOException e) {
             LOGGER.warn("ElasticSearch query failed: {}", e.getMessage());
 
             throw restErrorUtil.createRESTException("Error querying search engine", MessageEnums.ERROR_SYSTEM);
         }
 
-        MultiGetItemResponse[] docs;
-
-        try {
-            docs = elasticSearchUtil.fetch(client, elasticSearchMgr.index, response.getHits().getHits());
-        } catch (IOException e) {
-            LOGGER.warn("ElasticSearch fetch failed: {}", e.getMessage());
-
-            throw restErrorUtil.createRESTException("Error querying search engine", MessageEnums.ERROR_SYSTEM);
-        }
-
-        for (MultiGetItemResponse doc : docs) {
-            VXAccessAudit vXAccessAudit = populateViewBean(doc.getResponse());
+        for (Map<String, Object> source : getSources(client, response.getHits().getHits())) {
+            VXAccessAudit vXAccessAudit = populateViewBean(source);
             String        serviceType   = vXAccessAudit.getServiceType();
             boolean       isHive        = "hive".equalsIgnoreCase(serviceType);
 
@@ -133,6 +127,12 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         returnList.setStartIndex(searchCriteria.getStartIndex());
         returnList.setVXAccessAudits(xAccessAuditList);
 
+        SearchHit[] hits = response.getHits().getHits();
+
+        if (getCursor(searchCriteria) != null && hits.length > 0 && hits.length == searchCriteria.getMaxRows() && hits[hits.length - 1] != null) {
+            returnList.setNextCursor(toCursor(Arrays.asList(hits[hits.length - 1].getSortValues())));
+        }
+
         return returnList;
     }
 
@@ -140,29 +140,98 @@ public void setRestErrorUtil(RESTErrorUtil restErrorUtil) {
         this.restErrorUtil = restErrorUtil;
     }
 
-    /**
-     * @param searchCriteria
-     * @return
-     */
-    public VXLong getXAccessAuditSearchCount(SearchCriteria searchCriteria) {
-        long   count  = 100;
-        VXLong vXLong = new VXLong();
+    @Override
+    protected Map<String, Map<String, Long>> searchFacets(SearchCriteria searchCriteria, Collection<String> fieldNames) {
+        SearchResponse response;
+
+        try {
+            response = elasticSearchUtil.searchFacets(searchCriteria, searchFields, fieldNames, facetMaxValues, getClient(), elasticSearchMgr.index);
+        } catch (IOException e) {
+            LOGGER.warn("ElasticSearch query failed: {}", e.getMessage());
+
+            throw restErrorUtil.createRESTException("Error querying search engine", MessageEnums.ERROR_SYSTEM);
+        }
+
+        Map<String, Map<String, Long>> ret = new HashMap<>();
+
+        if (response.getAggregations() != null) {
+            for (String fieldName : fieldNames) {
+                Terms terms = response.getAggregations().get(fieldName);
+
+                if (terms != null) {
+                    Map<String, Long> counts = new LinkedHashMap<>();
 
-        vXLong.setValue(count);
+                    for (Terms.Bucket bucket : terms.getBuckets()) {
+                        counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+                    }
+
+                    ret.put(fieldName, counts);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private RestHighLevelClient getClient() {
+        RestHighLevelClient ret = elasticSearchMgr.getClient();
+
+        if (ret == null) {
+            LOGGER.warn("ElasticSearch client is null, so not running the query.");
+
+            throw restErrorUtil.createRESTException("Error connecting to search engine", MessageEnums.ERROR_SYSTEM);
+        }
+
+        return ret;
+    }
+
+    // search hits include the source; documents are fetched separately only for hits without the source
+    private List<Map<String, Object>> getSources(RestHighLevelClient client, SearchHit[] hits) {
+        List<Map<String, Object>> ret         = new ArrayList<>(hits.length);
+        List<Integer>             idxToFetch  = new ArrayList<>();
+        List<SearchHit>           hitsToFetch = new ArrayList<>();
+
+        for (SearchHit hit : hits) {
+            Map<String, Object> source = hit != null ? hit.getSourceAsMap() : null;
+
+            if (source == null) {
+                idxToFetch.add(ret.size());
+                hitsToFetch.add(hit);
+            }
+
+            ret.add(source);
+        }
+
+        if (!hitsToFetch.isEmpty()) {
+            MultiGetItemResponse[] docs;
+
+            try {
+                docs = elasticSearchUtil.fetch(client, elasticSearchMgr.index, hitsToFetch.toArray(new SearchHit[0]));
+            } catch (IOException e) {
+                LOGGER.warn("ElasticSearch fetch failed: {}", e.getMessage());
+
+                throw restErrorUtil.createRESTException("Error querying search engine", MessageEnums.ERROR_SYSTEM);
+            }
+
+            for (int i = 0; i < docs.length && i < idxToFetch.size(); i++) {
+                ret.set(idxToFetch.get(i), docs[i].getResponse().getSource());
+            }
+
+            ret.removeIf(Objects::isNull);
+        }
 
-        return vXLong;
+        return ret;
     }
 
     /**
-     * @param doc
+     * @param source
      * @return
      */
-    private VXAccessAudit populateViewBean(GetResponse doc) {
-        LOGGER.debug("doc={}", doc);
+    private VXAccessAudit populateViewBean(Map<String, Object> source) {
+        LOGGER.debug("doc={}", source);
 
-        VXAccessAudit       accessAudit = new VXAccessAudit();
-        Map<String, Object> source      = doc.getSource();
-        Object              value;
+        VXAccessAudit accessAudit = new VXAccessAudit();
+        Object        value;
 
         value = source.get("id");
         if (value != null) {
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.elasticsearch;
 
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
@@ -36,6 +37,7 @@
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.sort.SortOrder;
@@ -77,7 +79,62 @@ public ElasticSearchUtil() {
         }
     }
 
+    /**
+     * @throws IllegalArgumentException if the cursor in the search criteria is not valid
+     */
     public SearchResponse searchResources(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFields, RestHighLevelClient client, String index) throws IOException {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        String              cursor              = AccessAuditsService.getCursor(searchCriteria);
+
+        setSortClause(searchCriteria, sortFields, searchSourceBuilder);
+
+        if (cursor != null) {
+            Object[] searchAfter = AccessAuditsService.fromCursor(cursor);
+
+            // unique tie-breaker, for search_after to resume exactly after the last document of the previous page
+            searchSourceBuilder.sort("id", SortOrder.ASC);
+            searchSourceBuilder.from(0);
+
+            if (searchAfter != null) {
+                searchSourceBuilder.searchAfter(searchAfter);
+            }
+        } else {
+            searchSourceBuilder.from(searchCriteria.getStartIndex());
+        }
+
+        searchSourceBuilder.size(searchCriteria.getMaxRows());
+        searchSourceBuilder.fetchSource(true);
+
+        SearchRequest query = new SearchRequest();
+
+        query.indices(index);
+        query.source(searchSourceBuilder.query(buildQuery(searchCriteria, searchFields)));
+
+        return client.search(query, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Counts documents matching the search criteria by values of given fields, using terms aggregations named after
+     * the fields; documents are not fetched.
+     */
+    public SearchResponse searchFacets(SearchCriteria searchCriteria, List<SearchField> searchFields, Collection<String> facetFields, int maxValues, RestHighLevelClient client, String index) throws IOException {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+
+        searchSourceBuilder.size(0);
+
+        for (String facetField : facetFields) {
+            searchSourceBuilder.aggregation(AggregationBuilders.terms(facetField).field(facetField).size(maxValues));
+        }
+
+        SearchRequest query = new SearchRequest();
+
+        query.indices(index);
+        query.source(searchSourceBuilder.query(buildQuery(searchCriteria, searchFields)));
+
+        return client.search(query, RequestOptions.DEFAULT);
+    }
+
+    private BoolQueryBuilder buildQuery(SearchCriteria searchCriteria, List<SearchField> searchFields) {
         // See Also: https://www.elastic.co/guide/en/elasticsearch/client/java-rest/current/java-rest-high-query-builders.html
         QueryAccumulator queryAccumulator = new QueryAccumulator(searchCriteria);
 
@@ -96,20 +153,7 @@ public SearchResponse searchResources(SearchCriteria searchCriteria, List<Search
 
         queryAccumulator.queries.stream().filter(Objects::nonNull).forEach(boolQueryBuilder::must);
 
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-
-        setSortClause(searchCriteria, sortFields, searchSourceBuilder);
-
-        searchSourceBuilder.from(searchCriteria.getStartIndex());
-        searchSourceBuilder.size(searchCriteria.getMaxRows());
-        searchSourceBuilder.fetchSource(true);
-
-        SearchRequest query = new SearchRequest();
-
-        query.indices(index);
-        query.source(searchSourceBuilder.query(boolQueryBuilder));
-
-        return client.search(query, RequestOptions.DEFAULT);
+        return boolQueryBuilder;
     }
 
     public void setSortClause(SearchCriteria searchCriteria, List<SortField> sortFields, SearchSourceBuilder searchSourceBuilder) {
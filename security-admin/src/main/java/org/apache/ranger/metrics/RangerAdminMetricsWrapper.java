@@ -20,6 +20,7 @@
 package org.apache.ranger.metrics;
 
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourceContextEnricher;
+import org.apache.ranger.metrics.source.RangerAdminMetricsSourceDBPool;
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourceDenyConditions;
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourceGds;
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourcePolicyMasking;
@@ -27,6 +28,7 @@
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourcePolicyRowFiltering;
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourceService;
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourceSummary;
+import org.apache.ranger.metrics.source.RangerAdminMetricsSourceTrxLog;
 import org.apache.ranger.metrics.source.RangerAdminMetricsSourceUserGroup;
 import org.apache.ranger.metrics.wrapper.RangerMetricsSourceWrapper;
 import org.slf4j.Logger;
@@ -76,6 +78,12 @@ public class RangerAdminMetricsWrapper {
     @Autowired
     private RangerAdminMetricsSourceGds gdsSource;
 
+    @Autowired
+    private RangerAdminMetricsSourceTrxLog trxLogSource;
+
+    @Autowired
+    private RangerAdminMetricsSourceDBPool dbPoolSource;
+
     @PostConstruct
     public void init() {
         LOG.info("===>> RangerAdminMetricsWrapper.init()");
@@ -107,6 +115,12 @@ public void init() {
             //Source: Gds
             sourceWrappers.add(new RangerMetricsSourceWrapper("RangerAdminMetricsSourceGds", "Gds in Ranger Admin", context, gdsSource));
 
+            //Source: TrxLog
+            sourceWrappers.add(new RangerMetricsSourceWrapper("RangerAdminMetricsSourceTrxLog", "Transaction log writer in Ranger Admin", context, trxLogSource));
+
+            //Source: DBPool
+            sourceWrappers.add(new RangerMetricsSourceWrapper("RangerAdminMetricsSourceDBPool", "DB connection pools in Ranger Admin", context, dbPoolSource));
+
             rangerMetricsSystemWrapper.init(context, sourceWrappers, Collections.emptyList());
         } catch (Exception e) {
             LOG.error("RangerAdminMetricsWrapper: Exception occured while initializing Metric Starter:", e);
@@ -31,7 +31,6 @@
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.view.VXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
-import org.apache.ranger.view.VXLong;
 import org.elasticsearch.client.RestClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,9 +38,12 @@
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -56,16 +58,11 @@ public class OpenSearchAccessAuditsService extends org.apache.ranger.AccessAudit
     @Autowired
     OpenSearchUtil openSearchUtil;
 
-    public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
-        RestClient    client              = openSearchMgr.getClient();
+    @Override
+    protected VXAccessAuditList searchAccessAudits(SearchCriteria searchCriteria) {
+        RestClient    client              = getClient();
         final boolean hiveQueryVisibility = PropertiesUtil.getBooleanProperty("ranger.audit.hive.query.visibility", true);
 
-        if (client == null) {
-            LOG.warn("OpenSearch client is null, so not running the query.");
-
-            throw restErrorUtil.createRESTException("Error connecting to OpenSearch", MessageEnums.ERROR_SYSTEM);
-        }
-
         Map<String, Object> paramList = searchCriteria.getParamList();
 
         updateUserExclusion(paramList);
@@ -74,6 +71,8 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
 
         try {
             result = openSearchUtil.searchResources(searchCriteria, searchFields, sortFields, client, openSearchMgr.getIndex());
+        } catch (IllegalArgumentException e) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, e.getMessage(), true);
         } catch (IOException e) {
             LOG.warn("OpenSearch query failed: {}", e.getMessage());
 
@@ -116,6 +115,10 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         returnList.setStartIndex(searchCriteria.getStartIndex());
         returnList.setVXAccessAudits(xAccessAuditList);
 
+        if (getCursor(searchCriteria) != null && result.getLastSortValues() != null && result.getSources().size() == searchCriteria.getMaxRows()) {
+            returnList.setNextCursor(toCursor(result.getLastSortValues()));
+        }
+
         return returnList;
     }
 
@@ -123,13 +126,27 @@ public void setRestErrorUtil(RESTErrorUtil restErrorUtil) {
         this.restErrorUtil = restErrorUtil;
     }
 
-    public VXLong getXAccessAuditSearchCount(SearchCriteria searchCriteria) {
-        long   count  = 100;
-        VXLong vXLong = new VXLong();
+    @Override
+    protected Map<String, Map<String, Long>> searchFacets(SearchCriteria searchCriteria, Collection<String> fieldNames) {
+        try {
+            return openSearchUtil.searchFacets(searchCriteria, searchFields, fieldNames, facetMaxValues, getClient(), openSearchMgr.getIndex());
+        } catch (IOException e) {
+            LOG.warn("OpenSearch query failed: {}", e.getMessage());
+
+            throw restErrorUtil.createRESTException("Error querying OpenSearch", MessageEnums.ERROR_SYSTEM);
+        }
+    }
+
+    private RestClient getClient() {
+        RestClient ret = openSearchMgr.getClient();
+
+        if (ret == null) {
+            LOG.warn("OpenSearch client is null, so not running the query.");
 
-        vXLong.setValue(count);
+            throw restErrorUtil.createRESTException("Error connecting to OpenSearch", MessageEnums.ERROR_SYSTEM);
+        }
 
-        return vXLong;
+        return ret;
     }
 
     private VXAccessAudit populateViewBean(Map<String, Object> source) {
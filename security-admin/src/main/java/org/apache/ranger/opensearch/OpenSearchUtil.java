@@ -24,6 +24,7 @@
 import org.apache.http.entity.ContentType;
 import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.util.EntityUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
@@ -94,9 +95,10 @@ public OpenSearchSearchResult searchResources(SearchCriteria searchCriteria, Lis
         Response                  response  = client.performRequest(request);
         String                    json      = EntityUtils.toString(response.getEntity());
         JsonNode                  root      = MAPPER.readTree(json);
-        long                      totalHits = root.at("/hits/total/value").asLong(0);
-        JsonNode                  hitsArray = root.at("/hits/hits");
-        List<Map<String, Object>> sources   = new ArrayList<>();
+        long                      totalHits      = root.at("/hits/total/value").asLong(0);
+        JsonNode                  hitsArray      = root.at("/hits/hits");
+        List<Map<String, Object>> sources        = new ArrayList<>();
+        List<Object>              lastSortValues = null;
 
         if (hitsArray.isArray()) {
             for (JsonNode hit : hitsArray) {
@@ -108,10 +110,69 @@ public OpenSearchSearchResult searchResources(SearchCriteria searchCriteria, Lis
 
                     sources.add(source);
                 }
+
+                JsonNode sortNode = hit.get("sort");
+
+                if (sortNode != null && sortNode.isArray()) {
+                    @SuppressWarnings("unchecked")
+                    List<Object> sortValues = MAPPER.convertValue(sortNode, List.class);
+
+                    lastSortValues = sortValues;
+                }
             }
         }
 
-        return new OpenSearchSearchResult(totalHits, sources);
+        return new OpenSearchSearchResult(totalHits, sources, lastSortValues);
+    }
+
+    /**
+     * Counts documents matching the search criteria by values of given fields, using terms aggregations; documents are
+     * not fetched.
+     *
+     * @return map of field name to map of value to count
+     */
+    public Map<String, Map<String, Long>> searchFacets(SearchCriteria searchCriteria, List<SearchField> searchFields, Collection<String> facetFields, int maxValues, RestClient client, String index) throws IOException {
+        Map<String, Object> aggs = new LinkedHashMap<>();
+
+        for (String facetField : facetFields) {
+            aggs.put(facetField, Map.of("terms", Map.of("field", facetField, "size", maxValues)));
+        }
+
+        Map<String, Object> query = new LinkedHashMap<>();
+
+        query.put("query", buildQuery(searchCriteria, searchFields));
+        query.put("size", 0);
+        query.put("aggs", aggs);
+
+        String body = MAPPER.writeValueAsString(query);
+
+        LOG.debug("OpenSearch facet query on index [{}]: {}", index, body);
+
+        Request request = new Request("POST", "/" + index + "/_search");
+
+        request.setEntity(new NStringEntity(body, ContentType.APPLICATION_JSON));
+
+        Response                       response = client.performRequest(request);
+        JsonNode                       root     = MAPPER.readTree(EntityUtils.toString(response.getEntity()));
+        Map<String, Map<String, Long>> ret      = new HashMap<>();
+
+        for (String facetField : facetFields) {
+            JsonNode buckets = root.path("aggregations").path(facetField).path("buckets");
+
+            if (buckets.isArray()) {
+                Map<String, Long> counts = new LinkedHashMap<>();
+
+                for (JsonNode bucket : buckets) {
+                    JsonNode key = bucket.has("key_as_string") ? bucket.get("key_as_string") : bucket.get("key");
+
+                    counts.put(key.asText(), bucket.path("doc_count").asLong());
+                }
+
+                ret.put(facetField, counts);
+            }
+        }
+
+        return ret;
     }
 
     public List<Map<String, Object>> fetchByIds(RestClient client, String index, List<String> ids) throws IOException {
@@ -153,6 +214,46 @@ public List<Map<String, Object>> fetchByIds(RestClient client, String index, Lis
     }
 
     String buildSearchBody(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFields) {
+        Map<String, Object> query  = new LinkedHashMap<>();
+        String              cursor = AccessAuditsService.getCursor(searchCriteria);
+
+        query.put("query", buildQuery(searchCriteria, searchFields));
+        query.put("size", searchCriteria.getMaxRows());
+
+        String[]                  sortResolved = resolveSortField(searchCriteria, sortFields);
+        List<Map<String, Object>> sort         = new ArrayList<>();
+
+        if (sortResolved != null) {
+            sort.add(Map.of(sortResolved[0], Map.of("order", sortResolved[1])));
+        }
+
+        if (cursor != null) {
+            Object[] searchAfter = AccessAuditsService.fromCursor(cursor);
+
+            // unique tie-breaker, for search_after to resume exactly after the last document of the previous page
+            sort.add(Map.of("id", Map.of("order", "asc")));
+
+            query.put("from", 0);
+
+            if (searchAfter != null) {
+                query.put("search_after", searchAfter);
+            }
+        } else {
+            query.put("from", searchCriteria.getStartIndex());
+        }
+
+        if (!sort.isEmpty()) {
+            query.put("sort", sort);
+        }
+
+        try {
+            return MAPPER.writeValueAsString(query);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize OpenSearch query", e);
+        }
+    }
+
+    private Map<String, Object> buildQuery(SearchCriteria searchCriteria, List<SearchField> searchFields) {
         List<Map<String, Object>> mustClauses  = new ArrayList<>();
         Date                     fromDate      = null;
         Date                     toDate        = null;
@@ -197,25 +298,11 @@ String buildSearchBody(SearchCriteria searchCriteria, List<SearchField> searchFi
             }
         }
 
-        Map<String, Object> query = new LinkedHashMap<>();
-        Map<String, Object> bool  = new HashMap<>();
+        Map<String, Object> bool = new HashMap<>();
 
         bool.put("must", mustClauses.isEmpty() ? List.of(Map.of("match_all", Map.of())) : mustClauses);
-        query.put("query", Map.of("bool", bool));
-        query.put("from", searchCriteria.getStartIndex());
-        query.put("size", searchCriteria.getMaxRows());
-
-        String[] sortResolved = resolveSortField(searchCriteria, sortFields);
 
-        if (sortResolved != null) {
-            query.put("sort", List.of(Map.of(sortResolved[0], Map.of("order", sortResolved[1]))));
-        }
-
-        try {
-            return MAPPER.writeValueAsString(query);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to serialize OpenSearch query", e);
-        }
+        return Map.of("bool", bool);
     }
 
     private Map<String, Object> buildClause(String fieldName, SearchField.DATA_TYPE dataType, SearchField.SEARCH_TYPE searchType, Object paramValue) {
@@ -325,10 +412,23 @@ static String escapeLucene(String value) {
     public static class OpenSearchSearchResult {
         private final long                      totalHits;
         private final List<Map<String, Object>> sources;
+        private final List<Object>              lastSortValues;
 
         public OpenSearchSearchResult(long totalHits, List<Map<String, Object>> sources) {
-            this.totalHits = totalHits;
-            this.sources   = sources;
+            this(totalHits, sources, null);
+        }
+
+        public OpenSearchSearchResult(long totalHits, List<Map<String, Object>> sources, List<Object> lastSortValues) {
+            this.totalHits      = totalHits;
+            this.sources        = sources;
+            this.lastSortValues = lastSortValues;
+        }
+
+        /**
+         * @return sort values of the last hit, to get the next page with search_after
+         */
+        public List<Object> getLastSortValues() {
+            return lastSortValues;
         }
 
         public long getTotalHits() {
@@ -20,6 +20,7 @@
 package org.apache.ranger.rest;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.admin.client.datatype.RESTResponse;
 import org.apache.ranger.biz.AssetMgr;
 import org.apache.ranger.biz.RangerBizUtil;
@@ -541,6 +542,56 @@ public VXTrxLogV2List getTransactionReportV2(@Context HttpServletRequest request
     @Produces("application/json")
     @PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.GET_ACCESS_LOGS + "\")")
     public VXAccessAuditList getAccessLogs(@Context HttpServletRequest request, @QueryParam("timeZone") String timeZone) {
+        SearchCriteria    searchCriteria    = getAccessLogsSearchCriteria(request);
+        VXAccessAuditList vxAccessAuditList = assetMgr.getAccessLogs(searchCriteria);
+
+        if (timeZone != null && !StringUtils.isBlank(timeZone)) {
+            vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> {
+                String zonedEventTime = convertToTimeZone(vxAccessAudit.getEventTime(), timeZone);
+
+                if (zonedEventTime == null || zonedEventTime.isEmpty()) {
+                    throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Passed timeZone value is invalid", true);
+                }
+
+                vxAccessAudit.setZonedEventTime(zonedEventTime);
+            });
+        } else {
+            vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> vxAccessAudit.setZonedEventTime(new SimpleDateFormat(RestUtil.ZONED_EVENT_TIME_FORMAT).format(vxAccessAudit.getEventTime())));
+        }
+
+        return vxAccessAuditList;
+    }
+
+    /**
+     * Counts access audits matching the search parameters, by values of given facets - like repoName, requestUser,
+     * accessResult - without fetching the audit records.
+     *
+     * @param facets comma separated list of facet names
+     * @return map of facet name to map of value to count
+     */
+    @GET
+    @Path("/accessAudit/facets")
+    @Produces("application/json")
+    @PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.GET_ACCESS_LOGS + "\")")
+    public Map<String, Map<String, Long>> getAccessLogFacets(@Context HttpServletRequest request, @QueryParam("facets") String facets) {
+        List<String> facetNames = new ArrayList<>();
+
+        if (StringUtils.isNotBlank(facets)) {
+            for (String facet : facets.split(",")) {
+                if (StringUtils.isNotBlank(facet)) {
+                    facetNames.add(facet.trim());
+                }
+            }
+        }
+
+        if (facetNames.isEmpty()) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "facets parameter is required", true);
+        }
+
+        return assetMgr.getAccessLogFacets(getAccessLogsSearchCriteria(request), facetNames);
+    }
+
+    private SearchCriteria getAccessLogsSearchCriteria(HttpServletRequest request) {
         SearchCriteria searchCriteria = searchUtil.extractCommonCriterias(request, xAccessAuditService.sortFields);
 
         searchUtil.extractString(request, searchCriteria, "accessType", "Access Type", StringUtil.VALIDATION_TEXT);
@@ -571,6 +622,7 @@ public VXAccessAuditList getAccessLogs(@Context HttpServletRequest request, @Que
         searchUtil.extractString(request, searchCriteria, "eventId", "Event Id", null);
         searchUtil.extractString(request, searchCriteria, "datasets", "DataSets", null);
         searchUtil.extractLong(request, searchCriteria, "datasetIds", "Dataset Ids");
+        searchUtil.extractString(request, searchCriteria, AccessAuditsService.PARAM_CURSOR, "Cursor", null);
 
         // Config super-users see all audit logs (same as full admin), not KMS-only filtering.
         if (!msBizUtil.isSuperUser()) {
@@ -586,23 +638,7 @@ public VXAccessAuditList getAccessLogs(@Context HttpServletRequest request, @Que
             }
         }
 
-        VXAccessAuditList vxAccessAuditList = assetMgr.getAccessLogs(searchCriteria);
-
-        if (timeZone != null && !StringUtils.isBlank(timeZone)) {
-            vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> {
-                String zonedEventTime = convertToTimeZone(vxAccessAudit.getEventTime(), timeZone);
-
-                if (zonedEventTime == null || zonedEventTime.isEmpty()) {
-                    throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Passed timeZone value is invalid", true);
-                }
-
-                vxAccessAudit.setZonedEventTime(zonedEventTime);
-            });
-        } else {
-            vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> vxAccessAudit.setZonedEventTime(new SimpleDateFormat(RestUtil.ZONED_EVENT_TIME_FORMAT).format(vxAccessAudit.getEventTime())));
-        }
-
-        return vxAccessAuditList;
+        return searchCriteria;
     }
 
     @POST
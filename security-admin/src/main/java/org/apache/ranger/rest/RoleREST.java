@@ -1016,6 +1016,7 @@ public List<String> getUserRoles(@PathParam("user") String userName, @Context Ht
     @GET
     @Path("/download/{serviceName}")
     @Produces("application/json")
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
     public RangerRoles getRangerRolesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownRoleVersion") Long lastKnownRoleVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         LOG.debug("==> RoleREST.getRangerRolesIfUpdated({}, {}, {})", serviceName, lastKnownRoleVersion, lastActivationTime);
 
@@ -1076,6 +1077,7 @@ public RangerRoles getRangerRolesIfUpdated(@PathParam("serviceName") String serv
     @GET
     @Path("/secure/download/{serviceName}")
     @Produces("application/json")
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
     public RangerRoles getSecureRangerRolesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownRoleVersion") Long lastKnownRoleVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         LOG.debug("==> RoleREST.getSecureRangerRolesIfUpdated({}, {}, {})", serviceName, lastKnownRoleVersion, lastActivationTime);
         RangerRoles ret               = null;
@@ -30,8 +30,10 @@
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
 import org.apache.ranger.biz.AssetMgr;
+import org.apache.ranger.biz.PolicyImportMgr;
 import org.apache.ranger.biz.PolicyRefUpdater;
 import org.apache.ranger.biz.RangerBizUtil;
+import org.apache.ranger.biz.RangerPluginInfoCoalescer;
 import org.apache.ranger.biz.RangerPolicyAdmin;
 import org.apache.ranger.biz.RangerPolicyAdminCacheForEngineOptions;
 import org.apache.ranger.biz.RoleDBStore;
@@ -67,6 +69,7 @@
 import org.apache.ranger.entity.XXService;
 import org.apache.ranger.entity.XXServiceDef;
 import org.apache.ranger.entity.XXTrxLogV2;
+import org.apache.ranger.plugin.errors.ValidationErrorCode;
 import org.apache.ranger.plugin.model.RangerPluginInfo;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
@@ -108,6 +111,7 @@
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.view.RangerExportPolicyList;
 import org.apache.ranger.view.RangerPluginInfoList;
+import org.apache.ranger.view.RangerPolicyImportStatus;
 import org.apache.ranger.view.RangerPolicyList;
 import org.apache.ranger.view.RangerServiceDefList;
 import org.apache.ranger.view.RangerServiceList;
@@ -152,9 +156,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
@@ -244,6 +250,9 @@ public class ServiceREST {
     @Autowired
     RangerPluginInfoService pluginInfoService;
 
+    @Autowired
+    RangerPluginInfoCoalescer pluginInfoCoalescer;
+
     @Autowired
     RangerSearchUtil searchUtil;
 
@@ -268,6 +277,9 @@ public class ServiceREST {
     @Autowired
     UserMgr userMgrGrantor;
 
+    @Autowired
+    PolicyImportMgr policyImportMgr;
+
     private RangerPolicyEngineOptions delegateAdminOptions;
     private RangerPolicyEngineOptions policySearchAdminOptions;
     private RangerPolicyEngineOptions defaultAdminOptions;
@@ -2187,8 +2199,9 @@ public void importPoliciesFromFile(@Context HttpServletRequest request, @FormDat
 
         RangerContextHolder.getOrCreateOpContext().setBulkModeContext(true);
 
-        RangerPerfTracer perf         = null;
-        String           metaDataInfo = null;
+        RangerPerfTracer         perf         = null;
+        String                   metaDataInfo = null;
+        RangerPolicyImportStatus importStatus = new RangerPolicyImportStatus(guidUtil.genGUID(), fileDetail != null ? fileDetail.getFileName() : null, request.getRemoteUser());
 
         request.setAttribute(PARAM_IMPORT_IN_PROGRESS, true);
 
@@ -2197,6 +2210,8 @@ public void importPoliciesFromFile(@Context HttpServletRequest request, @FormDat
                 perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.importPoliciesFromFile()");
             }
 
+            policyImportMgr.addImportStatus(importStatus);
+
             policyService.createTransactionLog(new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, null, null, "IMPORT START"), "Import", "IMPORT START", null);
 
             if (isOverride == null) {
@@ -2311,19 +2326,24 @@ public void importPoliciesFromFile(@Context HttpServletRequest request, @FormDat
                         isOverride = false;
                     }
 
-                    String destinationZoneName = getDestinationZoneName(destinationZones, zoneNameInJson);
+                    String  destinationZoneName = getDestinationZoneName(destinationZones, zoneNameInJson);
+                    boolean policiesDeleted     = false;
 
                     if (isOverride && !updateIfExists && StringUtils.isEmpty(polResource)) {
                         LOG.debug("Deleting Policy from provided services in servicesMapJson file...");
 
                         if (CollectionUtils.isNotEmpty(sourceServices) && CollectionUtils.isNotEmpty(destinationServices)) {
                             deletePoliciesProvidedInServiceMap(sourceServices, destinationServices, destinationZoneName); //In order to delete Zone specific policies from service
+
+                            policiesDeleted = true;
                         }
                     } else if (updateIfExists && StringUtils.isNotEmpty(polResource)) {
                         LOG.debug("Deleting Policy from provided services in servicesMapJson file for specific resource...");
 
                         if (CollectionUtils.isNotEmpty(sourceServices) && CollectionUtils.isNotEmpty(destinationServices)) {
                             deletePoliciesForResource(sourceServices, destinationServices, request, policies, destinationZoneName); //In order to delete Zone specific policies from service
+
+                            policiesDeleted = true;
                         }
                     }
 
@@ -2347,10 +2367,12 @@ public void importPoliciesFromFile(@Context HttpServletRequest request, @FormDat
                         if (deleteIfExists) {
                             //deleting target policies if already exist
                             deleteExactMatchPolicyForResource(policies, request.getRemoteUser(), destinationZoneName);
+
+                            policiesDeleted = true;
                         }
                     }
 
-                    totalPolicyCreate = createPolicesBasedOnPolicyMap(request, policiesMap, serviceNameList, updateIfExists, totalPolicyCreate);
+                    totalPolicyCreate = createPolicesBasedOnPolicyMap(request, policiesMap, serviceNameList, updateIfExists, policiesDeleted, totalPolicyCreate, importStatus);
 
                     if (!(totalPolicyCreate > 0)) {
                         LOG.error("zero policy is created from provided data file!!");
@@ -2370,30 +2392,64 @@ public void importPoliciesFromFile(@Context HttpServletRequest request, @FormDat
         } catch (JsonSyntaxException ex) {
             LOG.error("Provided json file is not valid!!", ex);
 
+            importStatus.setFailed(ex.getMessage());
+
             policyService.createTransactionLog(new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, null, null, "IMPORT ERROR"), "Import failed", StringUtils.isNotEmpty(metaDataInfo) ? metaDataInfo : null, null);
 
             throw restErrorUtil.createRESTException(ex.getMessage());
         } catch (WebApplicationException excp) {
             LOG.error("Error while importing policy from file!!", excp);
 
+            importStatus.setFailed(excp.getMessage());
+
             policyService.createTransactionLog(new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, null, null, "IMPORT ERROR"), "Import failed", StringUtils.isNotEmpty(metaDataInfo) ? metaDataInfo : null, null);
 
             throw excp;
         } catch (Throwable excp) {
             LOG.error("Error while importing policy from file!!", excp);
 
+            importStatus.setFailed(excp.getMessage());
+
             policyService.createTransactionLog(new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, null, null, "IMPORT ERROR"), "Import failed", StringUtils.isNotEmpty(metaDataInfo) ? metaDataInfo : null, null);
 
             throw restErrorUtil.createRESTException(excp.getMessage());
         } finally {
             RangerPerfTracer.log(perf);
 
+            importStatus.setCompleted();
+
             policyService.createTransactionLog(new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, null, null, "IMPORT END"), "IMPORT END", StringUtils.isNotEmpty(metaDataInfo) ? metaDataInfo : null, null);
 
-            LOG.debug("<== ServiceREST.importPoliciesFromFile()");
+            LOG.debug("<== ServiceREST.importPoliciesFromFile(): {}", importStatus);
         }
     }
 
+    @GET
+    @Path("/policies/importStatus")
+    @Produces("application/json")
+    @PreAuthorize("@rangerPreAuthSecurityHandler.isAdminOrKeyAdminRole()")
+    public List<RangerPolicyImportStatus> getPolicyImportStatus(@QueryParam("id") String id) {
+        LOG.debug("==> ServiceREST.getPolicyImportStatus({})", id);
+
+        final List<RangerPolicyImportStatus> ret;
+
+        if (StringUtils.isEmpty(id)) {
+            ret = policyImportMgr.getImportStatuses();
+        } else {
+            RangerPolicyImportStatus importStatus = policyImportMgr.getImportStatus(id);
+
+            if (importStatus == null) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_FOUND, "Not found", true);
+            }
+
+            ret = Collections.singletonList(importStatus);
+        }
+
+        LOG.debug("<== ServiceREST.getPolicyImportStatus({}): count={}", id, ret.size());
+
+        return ret;
+    }
+
     public List<RangerPolicy> getPolicies(SearchFilter filter) {
         LOG.debug("==> ServiceREST.getPolicies(filter)");
 
@@ -2528,6 +2584,7 @@ public RangerPolicyList getServicePoliciesByName(@PathParam("name") String servi
     @GET
     @Path("/policies/download/{serviceName}")
     @Produces("application/json")
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
     public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownVersion") Long lastKnownVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam("zoneName") String zoneName, @DefaultValue("false") @QueryParam("supportsPolicyDeltas") Boolean supportsPolicyDeltas, @DefaultValue("") @QueryParam("pluginCapabilities") String pluginCapabilities, @Context HttpServletRequest request)
             throws Exception {
         LOG.debug("==> ServiceREST.getServicePoliciesIfUpdated({}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas);
@@ -2593,6 +2650,7 @@ public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") Str
     @GET
     @Path("/secure/policies/download/{serviceName}")
     @Produces("application/json")
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
     public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownVersion") Long lastKnownVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam("zoneName") String zoneName, @DefaultValue("false") @QueryParam("supportsPolicyDeltas") Boolean supportsPolicyDeltas, @DefaultValue("") @QueryParam("pluginCapabilities") String pluginCapabilities, @Context HttpServletRequest request)
             throws Exception {
         LOG.debug("==> ServiceREST.getSecureServicePoliciesIfUpdated({}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas);
@@ -2850,6 +2908,8 @@ public RangerPluginInfoList getPluginsInfo(@Context HttpServletRequest request)
         try {
             PList<RangerPluginInfo> paginatedPluginsInfo = pluginInfoService.searchRangerPluginInfo(filter);
             if (paginatedPluginsInfo != null) {
+                pluginInfoCoalescer.applyPendingUpdates(paginatedPluginsInfo.getList());
+
                 ret = new RangerPluginInfoList();
 
                 ret.setPluginInfoList(paginatedPluginsInfo.getList());
@@ -3479,10 +3539,18 @@ private void requestParamsValidation(SearchFilter filter) {
         }
     }
 
-    private int createPolicesBasedOnPolicyMap(HttpServletRequest request, Map<String, RangerPolicy> policiesMap, List<String> serviceNameList, boolean updateIfExists, int totalPolicyCreate) {
+    private int createPolicesBasedOnPolicyMap(HttpServletRequest request, Map<String, RangerPolicy> policiesMap, List<String> serviceNameList, boolean updateIfExists, boolean policiesDeleted, int totalPolicyCreate, RangerPolicyImportStatus importStatus) throws Exception {
         boolean mergeIfExists  = "true".equalsIgnoreCase(StringUtils.trimToEmpty(request.getParameter(PARAM_MERGE_IF_EXISTS)));
         boolean deleteIfExists = "true".equalsIgnoreCase(StringUtils.trimToEmpty(request.getParameter(PARAM_DELETE_IF_EXISTS)));
 
+        // with neither updateIfExists nor mergeIfExists, each policy is created unconditionally - see createPolicy()
+        if (!updateIfExists && !mergeIfExists && policyImportMgr.isBulkImportEnabled()) {
+            return createPoliciesInBulk(policiesMap, serviceNameList, policiesDeleted, totalPolicyCreate, importStatus);
+        }
+
+        importStatus.addTotalCount(policiesMap.size());
+        importStatus.setState(RangerPolicyImportStatus.ImportState.CREATING);
+
         if (!CollectionUtils.sizeIsEmpty(policiesMap.entrySet())) {
             for (Entry<String, RangerPolicy> entry : policiesMap.entrySet()) {
                 RangerPolicy policy = entry.getValue();
@@ -3576,12 +3644,121 @@ private int createPolicesBasedOnPolicyMap(HttpServletRequest request, Map<String
 
             bizUtil.bulkModeOnlyFlushAndClear();
 
+            importStatus.addCreatedCount(totalPolicyCreate);
+
             LOG.debug("Total Policy Created From Json file : {}", totalPolicyCreate);
         }
 
         return totalPolicyCreate;
     }
 
+    /**
+     * Creates policies in the map with the same checks as createPolicyUnconditionally(), but:
+     *  - policies are validated in parallel, by policyImportMgr; when policies were deleted earlier in this transaction,
+     *    to be replaced by the imported ones, validation runs in this transaction so that it doesn't see them
+     *  - policies are created in batches of POLICY_BATCH_SIZE with ServiceDBStore.createPolicies(), which inserts
+     *    ref-table entries of the batch together and updates the policy version of the service once per batch
+     */
+    private int createPoliciesInBulk(Map<String, RangerPolicy> policiesMap, List<String> serviceNameList, boolean policiesDeleted, int totalPolicyCreate, RangerPolicyImportStatus importStatus) throws Exception {
+        LOG.debug("==> ServiceREST.createPoliciesInBulk(count={})", policiesMap.size());
+
+        List<RangerPolicy>   policies          = new ArrayList<>();
+        Map<String, Boolean> serviceAdminCache = new HashMap<>();
+        Map<String, Boolean> zoneAdminCache    = new HashMap<>();
+        Map<String, String>  signatures        = new HashMap<>();
+        Set<RangerPolicy>    adminPolicies     = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (RangerPolicy policy : policiesMap.values()) {
+            if (policy != null && isServiceSelected(policy, serviceNameList)) {
+                policies.add(policy);
+            }
+        }
+
+        importStatus.addTotalCount(policies.size());
+
+        bizUtil.blockAuditorRoleUser();
+
+        for (RangerPolicy policy : policies) {
+            setPolicyNameIfAbsent(policy);
+
+            boolean isAdmin = serviceAdminCache.computeIfAbsent(policy.getService(), this::isServiceAdmin) || (StringUtils.isNotEmpty(policy.getZoneName()) && zoneAdminCache.computeIfAbsent(policy.getZoneName(), this::isZoneAdmin));
+
+            if (isAdmin) {
+                adminPolicies.add(policy);
+            }
+        }
+
+        // validation of each policy checks only against policies in the database; check for duplicates within the import here
+        for (RangerPolicy policy : policies) {
+            String signature     = policy.getService() + "|" + StringUtils.trimToEmpty(policy.getZoneName()) + "|" + new RangerPolicyResourceSignature(policy).getSignature();
+            String matchedPolicy = signatures.putIfAbsent(signature, policy.getName());
+
+            if (matchedPolicy != null) {
+                throw restErrorUtil.createRESTException(ValidationErrorCode.POLICY_VALIDATION_ERR_DUPLICATE_POLICY_RESOURCE.getMessage(matchedPolicy, policy.getService()));
+            }
+        }
+
+        try {
+            policyImportMgr.validatePolicies(policies, policy -> validatorFactory.getPolicyValidator(svcStore).validate(policy, Action.CREATE, adminPolicies.contains(policy)), policiesDeleted, importStatus);
+        } catch (WebApplicationException excp) {
+            throw excp;
+        } catch (Exception excp) {
+            LOG.error("createPoliciesInBulk(): validation failed", excp);
+
+            throw restErrorUtil.createRESTException(excp.getMessage());
+        }
+
+        for (RangerPolicy policy : policies) {
+            ensureAdminAccess(policy);
+        }
+
+        importStatus.setState(RangerPolicyImportStatus.ImportState.CREATING);
+
+        for (int i = 0; i < policies.size(); i += RangerBizUtil.POLICY_BATCH_SIZE) {
+            List<RangerPolicy> batch = policies.subList(i, Math.min(policies.size(), i + RangerBizUtil.POLICY_BATCH_SIZE));
+
+            try {
+                svcStore.createPolicies(batch);
+            } catch (WebApplicationException excp) {
+                throw excp;
+            } catch (Exception excp) {
+                LOG.error("createPoliciesInBulk(): failed to create policies", excp);
+
+                throw restErrorUtil.createRESTException(excp.getMessage());
+            }
+
+            totalPolicyCreate += batch.size();
+
+            importStatus.addCreatedCount(batch.size());
+
+            bizUtil.bulkModeOnlyFlushAndClear();
+        }
+
+        LOG.debug("<== ServiceREST.createPoliciesInBulk(count={}): totalPolicyCreate={}", policies.size(), totalPolicyCreate);
+
+        return totalPolicyCreate;
+    }
+
+    private boolean isServiceSelected(RangerPolicy policy, List<String> serviceNameList) {
+        if (CollectionUtils.isEmpty(serviceNameList)) {
+            return true;
+        }
+
+        for (String service : serviceNameList) {
+            if (StringUtils.isNotEmpty(service.trim()) && StringUtils.isNotEmpty(policy.getService().trim())) {
+                if (policy.getService().trim().equalsIgnoreCase(service.trim())) {
+                    return true;
+                }
+            } else {
+                LOG.error("Service Name or Policy Name is not provided!!");
+
+                throw restErrorUtil.createRESTException("Service Name or Policy Name is not provided!!");
+            }
+        }
+
+        return false;
+    }
+
     private List<RangerPolicy> getPoliciesFromProvidedJson(RangerExportPolicyList rangerExportPolicyList) {
         List<RangerPolicy> policies;
 
@@ -4565,6 +4742,24 @@ private RangerPolicy createPolicyUnconditionally(RangerPolicy policy) throws Exc
 
         RangerPolicy ret;
 
+        setPolicyNameIfAbsent(policy);
+
+        RangerPolicyValidator validator = validatorFactory.getPolicyValidator(svcStore);
+
+        validator.validate(policy, Action.CREATE, bizUtil.isAdmin() || isServiceAdmin(policy.getService()) || isZoneAdmin(policy.getZoneName()));
+
+        ensureAdminAccess(policy);
+
+        bizUtil.blockAuditorRoleUser();
+
+        ret = svcStore.createPolicy(policy);
+
+        LOG.debug("<== ServiceREST.createPolicyUnconditionally({})", ret);
+
+        return ret;
+    }
+
+    private void setPolicyNameIfAbsent(RangerPolicy policy) {
         if (StringUtils.isBlank(policy.getName())) {
             String guid = policy.getGuid();
 
@@ -4586,20 +4781,6 @@ private RangerPolicy createPolicyUnconditionally(RangerPolicy policy) throws Exc
                 throw restErrorUtil.createRESTException("Policy name should not be longer than " + maxPolicyNameLength + " characters", MessageEnums.INPUT_DATA_OUT_OF_BOUND, null, "policy name", policy.getName());
             }
         }
-
-        RangerPolicyValidator validator = validatorFactory.getPolicyValidator(svcStore);
-
-        validator.validate(policy, Action.CREATE, bizUtil.isAdmin() || isServiceAdmin(policy.getService()) || isZoneAdmin(policy.getZoneName()));
-
-        ensureAdminAccess(policy);
-
-        bizUtil.blockAuditorRoleUser();
-
-        ret = svcStore.createPolicy(policy);
-
-        LOG.debug("<== ServiceREST.createPolicyUnconditionally({})", ret);
-
-        return ret;
     }
 
     private RangerPolicy getPolicyMatchByName(RangerPolicy policy, HttpServletRequest request) {
@@ -58,6 +58,7 @@
 import org.apache.ranger.service.XUserPermissionService;
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+import org.apache.ranger.ugsyncutil.model.GroupUserSyncResult;
 import org.apache.ranger.ugsyncutil.model.UsersGroupRoleAssignments;
 import org.apache.ranger.view.VXAuditMap;
 import org.apache.ranger.view.VXAuditMapList;
@@ -1372,7 +1373,8 @@ public void deleteSingleGroupByGroupId(@Context HttpServletRequest request, @Pat
     @GET
     @Path("/download/{serviceName}")
     @Produces("application/json")
-    public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @DefaultValue("false") @QueryParam(RangerRESTUtils.REST_PARAM_SUPPORTS_USERSTORE_DELTAS) Boolean supportsUserStoreDeltas, @Context HttpServletRequest request) {
         logger.debug("==> XUserREST.getRangerUserStoreIfUpdated(serviceName={}, lastKnownUserStoreVersion={}, lastActivationTime={})", serviceName, lastKnownUserStoreVersion, lastActivationTime);
 
         RangerUserStore ret               = null;
@@ -1398,7 +1400,7 @@ public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") Str
                 XXService xService = rangerDaoManager.getXXService().findByName(serviceName);
 
                 if (xService != null) {
-                    RangerUserStore rangerUserStore = xUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion);
+                    RangerUserStore rangerUserStore = xUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion, Boolean.TRUE.equals(supportsUserStoreDeltas));
 
                     if (rangerUserStore == null) {
                         downloadedVersion = lastKnownUserStoreVersion;
@@ -1434,7 +1436,8 @@ public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") Str
     @GET
     @Path("/secure/download/{serviceName}")
     @Produces("application/json")
-    public RangerUserStore getSecureRangerUserStoreIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public RangerUserStore getSecureRangerUserStoreIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @DefaultValue("false") @QueryParam(RangerRESTUtils.REST_PARAM_SUPPORTS_USERSTORE_DELTAS) Boolean supportsUserStoreDeltas, @Context HttpServletRequest request) {
         logger.debug("==> XUserREST.getSecureRangerUserStoreIfUpdated({}, {}, {})", serviceName, lastKnownUserStoreVersion, lastActivationTime);
 
         RangerUserStore ret               = null;
@@ -1482,7 +1485,7 @@ public RangerUserStore getSecureRangerUserStoreIfUpdated(@PathParam("serviceName
                 }
 
                 if (isAllowed) {
-                    RangerUserStore rangerUserStore = xUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion);
+                    RangerUserStore rangerUserStore = xUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion, Boolean.TRUE.equals(supportsUserStoreDeltas));
 
                     if (rangerUserStore == null) {
                         downloadedVersion = lastKnownUserStoreVersion;
@@ -1567,6 +1570,16 @@ public int addOrUpdateGroupUsersList(List<GroupUserInfo> groupUserInfoList) {
         return xUserMgr.createOrDeleteXGroupUserList(groupUserInfoList);
     }
 
+    @POST
+    @Path("/ugsync/groupusers/bulk")
+    @Consumes("application/json")
+    @Produces("application/json")
+    @PreAuthorize("hasRole('ROLE_SYS_ADMIN')")
+    @Transactional(readOnly = false, propagation = Propagation.NOT_SUPPORTED)
+    public GroupUserSyncResult bulkAddOrUpdateGroupUsersList(List<GroupUserInfo> groupUserInfoList) {
+        return xUserMgr.bulkCreateOrDeleteXGroupUserList(groupUserInfoList);
+    }
+
     @POST
     @Path("/users/roleassignments")
     @Produces("application/json")
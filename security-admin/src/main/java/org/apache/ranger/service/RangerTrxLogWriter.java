@@ -0,0 +1,861 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.entity.XXTrxLogV2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes transaction-log (x_trx_log_v2) records asynchronously, in batches. Disabled by default; enabling requires
+ * ranger.admin.trxlog.async.outbox.dir to be set.
+ *
+ * Records added within a transaction are appended to a journal in the outbox directory just before the transaction
+ * commits, and are queued for the writer once it commits. If the transaction rolls back, a discard marker is added to
+ * the journal and the records are dropped. If the records can't be journaled, or maxPendingRows records are already
+ * outstanding, they are written in the transaction itself, as when the writer is disabled. Journal segments are deleted
+ * once all their records are written to the database. At startup, records in journal segments are written again,
+ * except those discarded and those of a trx-log transaction-id already present in the database.
+ *
+ * Journal appends are synced outside the writer lock, with a group commit: one fsync covers the entries appended by
+ * all threads until then.
+ *
+ * When a batch fails, its entries are written one at a time, so that a record that can't be written doesn't hold up
+ * the others. An entry that fails on its own maxRetries times is moved to the dead-letter file in the outbox directory;
+ * it has the format of a journal segment, and can be renamed to trxlog-outbox-N.log to be written again at the next
+ * startup.
+ */
+@Service
+public class RangerTrxLogWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerTrxLogWriter.class);
+
+    public static final String PROP_ENABLED             = "ranger.admin.trxlog.async.enabled";
+    public static final String PROP_BATCH_SIZE          = "ranger.admin.trxlog.async.batch.size";
+    public static final String PROP_FLUSH_INTERVAL_MS   = "ranger.admin.trxlog.async.flush.interval.ms";
+    public static final String PROP_MAX_PENDING_ROWS    = "ranger.admin.trxlog.async.max.pending.rows";
+    public static final String PROP_MAX_RETRIES         = "ranger.admin.trxlog.async.max.retries";
+    public static final String PROP_OUTBOX_DIR          = "ranger.admin.trxlog.async.outbox.dir";
+    public static final String PROP_OUTBOX_SYNC         = "ranger.admin.trxlog.async.outbox.sync";
+    public static final String PROP_SEGMENT_MAX_ENTRIES = "ranger.admin.trxlog.async.outbox.segment.max.entries";
+
+    static final String DEAD_LETTER_FILE_NAME = "trxlog-deadletter.log";
+
+    private static final int    DEFAULT_BATCH_SIZE          = 500;
+    private static final long   DEFAULT_FLUSH_INTERVAL_MS   = 1000;
+    private static final int    DEFAULT_MAX_PENDING_ROWS    = 50000;
+    private static final int    DEFAULT_MAX_RETRIES         = 60;
+    private static final int    DEFAULT_SEGMENT_MAX_ENTRIES = 10000;
+    private static final long   RETRY_BACKOFF_MS            = 5000;
+    private static final String SEGMENT_FILE_PREFIX         = "trxlog-outbox-";
+    private static final String SEGMENT_FILE_SUFFIX         = ".log";
+    private static final String JOURNAL_DISCARDED           = "discarded";
+
+    private static final TypeReference<List<XXTrxLogV2>> TYPE_TRX_LOG_LIST = new TypeReference<List<XXTrxLogV2>>() {};
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    RangerDaoManager daoManager;
+
+    private final Object             lock     = new Object();
+    private final Object             syncLock = new Object();
+    private final Deque<OutboxEntry> pending  = new ArrayDeque<>();
+    private final Map<Long, Segment> segments = new TreeMap<>();
+    private final ObjectMapper       mapper   = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private boolean enabled;
+    private int     batchSize;
+    private long    flushIntervalMs;
+    private int     maxPendingRows;
+    private int     maxRetries;
+    private File    outboxDir;
+    private boolean outboxSync;
+    private int     segmentMaxEntries;
+    private Segment currentSegment;
+    private long    nextSegmentId;
+    private Thread  writerThread;
+    private boolean stopped;
+    private long    pendingRows;
+    private long    writtenRows;
+    private long    recoveredRows;
+    private long    syncWrittenRows;
+    private long    deadLetterRows;
+    private long    failedBatches;
+    private long    journalSeq;
+    private long    syncedJournalSeq; // guarded by syncLock
+
+    @PostConstruct
+    public void init() {
+        init(RangerAdminConfig.getInstance(), true);
+    }
+
+    void init(RangerAdminConfig config, boolean startWriter) {
+        String dir = config.get(PROP_OUTBOX_DIR);
+
+        enabled           = config.getBoolean(PROP_ENABLED, false);
+        batchSize         = Math.max(1, config.getInt(PROP_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+        flushIntervalMs   = Math.max(1, config.getLong(PROP_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_INTERVAL_MS));
+        maxPendingRows    = Math.max(batchSize, config.getInt(PROP_MAX_PENDING_ROWS, DEFAULT_MAX_PENDING_ROWS));
+        maxRetries        = Math.max(1, config.getInt(PROP_MAX_RETRIES, DEFAULT_MAX_RETRIES));
+        outboxDir         = StringUtils.isNotBlank(dir) ? new File(dir) : null;
+        outboxSync        = config.getBoolean(PROP_OUTBOX_SYNC, true);
+        segmentMaxEntries = Math.max(1, config.getInt(PROP_SEGMENT_MAX_ENTRIES, DEFAULT_SEGMENT_MAX_ENTRIES));
+
+        LOG.info("{}={}, {}={}, {}={}, {}={}, {}={}, {}={}, {}={}", PROP_ENABLED, enabled, PROP_BATCH_SIZE, batchSize, PROP_FLUSH_INTERVAL_MS, flushIntervalMs, PROP_MAX_PENDING_ROWS, maxPendingRows, PROP_MAX_RETRIES, maxRetries, PROP_OUTBOX_DIR, outboxDir, PROP_OUTBOX_SYNC, outboxSync);
+
+        if (!enabled) {
+            return;
+        }
+
+        if (outboxDir == null) {
+            LOG.error("RangerTrxLogWriter: {} is not set. Transaction logs will be written synchronously", PROP_OUTBOX_DIR);
+
+            enabled = false;
+
+            return;
+        }
+
+        if (!outboxDir.isDirectory() && !outboxDir.mkdirs()) {
+            LOG.error("RangerTrxLogWriter: failed to create outbox directory {}. Transaction logs will be written synchronously", outboxDir);
+
+            enabled = false;
+
+            return;
+        }
+
+        recover();
+
+        if (startWriter) {
+            writerThread = new Thread(this::runWriter, "RangerTrxLogWriter");
+
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        LOG.info("==> RangerTrxLogWriter.destroy(): pendingRows={}", getPendingRows());
+
+        synchronized (lock) {
+            stopped = true;
+
+            lock.notifyAll();
+        }
+
+        if (writerThread != null) {
+            try {
+                writerThread.join(flushIntervalMs * 5);
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // records not written here remain in the journal, and will be written after restart
+        flush();
+
+        synchronized (lock) {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+
+        LOG.info("<== RangerTrxLogWriter.destroy(): pendingRows={}", getPendingRows());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds records to be written. If called within a transaction, the records are journaled before the transaction
+     * commits, and are written only if it commits.
+     */
+    public void add(List<XXTrxLogV2> trxLogs) {
+        if (CollectionUtils.isEmpty(trxLogs)) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getOrCreateOutbox().trxLogs.addAll(trxLogs);
+        } else {
+            OutboxEntry entry = new OutboxEntry(trxLogs);
+
+            if (journal(entry)) {
+                queue(entry);
+            } else {
+                writeSync(trxLogs);
+            }
+        }
+    }
+
+    /**
+     * Writes all pending records, in the calling thread
+     */
+    public void flush() {
+        while (true) {
+            List<OutboxEntry> batch = takeBatch(0);
+
+            if (batch.isEmpty() || !writeBatch(batch)) {
+                break;
+            }
+        }
+    }
+
+    public long getPendingRows() {
+        synchronized (lock) {
+            return pendingRows;
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        synchronized (lock) {
+            OutboxEntry oldest = pending.peekFirst();
+
+            ret.put("PendingRows", pendingRows);
+            ret.put("PendingTransactions", (long) pending.size());
+            ret.put("LagMs", oldest != null ? System.currentTimeMillis() - oldest.addedTime : 0L);
+            ret.put("WrittenRows", writtenRows);
+            ret.put("RecoveredRows", recoveredRows);
+            ret.put("SyncWrittenRows", syncWrittenRows);
+            ret.put("DeadLetterRows", deadLetterRows);
+            ret.put("FailedBatches", failedBatches);
+            ret.put("OutboxSegments", (long) segments.size());
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return false if the entry was not journaled, as maxPendingRows records are outstanding or the journal append failed
+     */
+    private boolean journal(OutboxEntry entry) {
+        long seq;
+
+        synchronized (lock) {
+            if (pendingRows + entry.trxLogs.size() > maxPendingRows) {
+                LOG.debug("RangerTrxLogWriter: {} records are pending; writing {} records synchronously", pendingRows, entry.trxLogs.size());
+
+                return false;
+            }
+
+            try {
+                appendToJournal(entry);
+            } catch (IOException excp) {
+                LOG.error("RangerTrxLogWriter: failed to append to outbox journal; writing {} records synchronously", entry.trxLogs.size(), excp);
+
+                return false;
+            }
+
+            pendingRows += entry.trxLogs.size();
+
+            seq = ++journalSeq;
+        }
+
+        if (outboxSync && !syncJournal(seq)) {
+            discard(entry);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Syncs the journal up to the append having the given sequence number. The fsync is done outside the writer lock,
+     * so that other threads can append meanwhile; a thread waiting here finds its append covered by the previous
+     * thread's fsync, unless it was made after that fsync started.
+     *
+     * @return false if the journal could not be synced
+     */
+    private boolean syncJournal(long seq) {
+        synchronized (syncLock) {
+            if (syncedJournalSeq >= seq) {
+                return true;
+            }
+
+            long             syncSeq;
+            Segment          segment;
+            FileOutputStream out;
+
+            synchronized (lock) {
+                // appends up to syncSeq are in currentSegment, or in earlier segments - synced when closed
+                syncSeq = journalSeq;
+                segment = currentSegment;
+                out     = segment != null ? segment.out : null;
+            }
+
+            if (out != null) {
+                try {
+                    out.getFD().sync();
+                } catch (IOException excp) {
+                    synchronized (lock) {
+                        if (segment.writer != null) { // not closed meanwhile
+                            LOG.error("RangerTrxLogWriter: failed to sync outbox segment {}; writing records synchronously", segment.file, excp);
+
+                            return false;
+                        }
+                    }
+                }
+            }
+
+            syncedJournalSeq = syncSeq;
+        }
+
+        return true;
+    }
+
+    private void queue(OutboxEntry entry) {
+        synchronized (lock) {
+            pending.addLast(entry);
+
+            if (pendingRows >= batchSize) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // called for journaled entries of a rolled-back transaction
+    private void discard(OutboxEntry entry) {
+        synchronized (lock) {
+            try {
+                appendToSegment(entry.segment, mapper.writeValueAsString(Collections.singletonMap(JOURNAL_DISCARDED, entry.getTransactionId())), outboxSync);
+            } catch (IOException excp) {
+                LOG.warn("RangerTrxLogWriter: failed to add discard marker to outbox segment {}; records of rolled-back transaction {} may be written after restart", entry.segment.file, entry.getTransactionId(), excp);
+            }
+
+            pendingRows -= entry.trxLogs.size();
+
+            entry.segment.pendingEntries--;
+
+            deleteWrittenSegments();
+        }
+    }
+
+    private void runWriter() {
+        LOG.info("RangerTrxLogWriter: writer thread started");
+
+        while (true) {
+            List<OutboxEntry> batch = takeBatch(flushIntervalMs);
+
+            if (batch.isEmpty()) {
+                synchronized (lock) {
+                    if (stopped) {
+                        break;
+                    }
+                }
+
+                continue;
+            }
+
+            if (!writeBatch(batch)) {
+                synchronized (lock) {
+                    if (stopped) {
+                        break;
+                    }
+
+                    try {
+                        lock.wait(RETRY_BACKOFF_MS);
+                    } catch (InterruptedException excp) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        LOG.info("RangerTrxLogWriter: writer thread stopped");
+    }
+
+    /**
+     * @param waitMs time to wait for batchSize records to be pending; 0 to return pending records right away
+     */
+    private List<OutboxEntry> takeBatch(long waitMs) {
+        List<OutboxEntry> ret = new ArrayList<>();
+
+        synchronized (lock) {
+            if (waitMs > 0 && pendingRows < batchSize && !stopped) {
+                try {
+                    lock.wait(waitMs);
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            int rowCount = 0;
+
+            while (rowCount < batchSize && !pending.isEmpty()) {
+                OutboxEntry entry = pending.pollFirst();
+
+                ret.add(entry);
+
+                rowCount += entry.trxLogs.size();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return true if the batch was written. If not, its entries are written one at a time; entries that failed on their
+     * own maxRetries times are moved to the dead-letter file, and other failed entries are returned to the head of
+     * pending entries
+     */
+    private boolean writeBatch(List<OutboxEntry> batch) {
+        if (write(batch)) {
+            return true;
+        }
+
+        List<OutboxEntry> failed = batch;
+
+        if (batch.size() > 1) {
+            failed = new ArrayList<>();
+
+            for (OutboxEntry entry : batch) {
+                if (!write(Collections.singletonList(entry))) {
+                    failed.add(entry);
+                }
+            }
+
+            if (failed.isEmpty()) {
+                return true;
+            }
+        }
+
+        synchronized (lock) {
+            failedBatches++;
+
+            for (int i = failed.size() - 1; i >= 0; i--) {
+                OutboxEntry entry = failed.get(i);
+
+                if (++entry.attempts < maxRetries) {
+                    pending.addFirst(entry);
+                } else {
+                    moveToDeadLetter(entry);
+                }
+            }
+
+            deleteWrittenSegments();
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes records of the given entries in a new transaction
+     *
+     * @return false if the records could not be written
+     */
+    private boolean write(List<OutboxEntry> entries) {
+        List<XXTrxLogV2> trxLogs = new ArrayList<>();
+
+        for (OutboxEntry entry : entries) {
+            for (XXTrxLogV2 trxLog : entry.trxLogs) {
+                trxLog.setId(null); // in case of an earlier failed attempt
+
+                trxLogs.add(trxLog);
+            }
+        }
+
+        try {
+            TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+            txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+            txTemplate.execute(status -> daoManager.getXXTrxLogV2().batchCreate(trxLogs));
+        } catch (Exception excp) {
+            if (entries.size() == 1) {
+                LOG.error("RangerTrxLogWriter: failed to write {} transaction log records of transaction {}", trxLogs.size(), entries.get(0).getTransactionId(), excp);
+            } else {
+                LOG.error("RangerTrxLogWriter: failed to write {} transaction log records; writing {} transactions one at a time", trxLogs.size(), entries.size(), excp);
+            }
+
+            return false;
+        }
+
+        synchronized (lock) {
+            pendingRows -= trxLogs.size();
+            writtenRows += trxLogs.size();
+
+            for (OutboxEntry entry : entries) {
+                if (entry.segment != null) {
+                    entry.segment.pendingEntries--;
+                }
+            }
+
+            deleteWrittenSegments();
+        }
+
+        LOG.debug("RangerTrxLogWriter: wrote {} transaction log records", trxLogs.size());
+
+        return true;
+    }
+
+    private void writeSync(List<XXTrxLogV2> trxLogs) {
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        txTemplate.execute(status -> daoManager.getXXTrxLogV2().batchCreate(trxLogs));
+
+        synchronized (lock) {
+            syncWrittenRows += trxLogs.size();
+        }
+    }
+
+    private TrxLogOutbox getOrCreateOutbox() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TrxLogOutbox) {
+                return (TrxLogOutbox) synchronization;
+            }
+        }
+
+        TrxLogOutbox ret = new TrxLogOutbox();
+
+        TransactionSynchronizationManager.registerSynchronization(ret);
+
+        return ret;
+    }
+
+    // must be called with lock held
+    private void appendToJournal(OutboxEntry entry) throws IOException {
+        if (currentSegment == null || currentSegment.entryCount >= segmentMaxEntries) {
+            if (currentSegment != null) {
+                currentSegment.close();
+            }
+
+            currentSegment = new Segment(nextSegmentId++);
+
+            segments.put(currentSegment.id, currentSegment);
+        }
+
+        // synced by the caller, outside the lock
+        appendToSegment(currentSegment, mapper.writeValueAsString(entry.trxLogs), false);
+
+        entry.segment = currentSegment;
+
+        currentSegment.entryCount++;
+        currentSegment.pendingEntries++;
+    }
+
+    // must be called with lock held
+    private void appendToSegment(Segment segment, String line, boolean sync) throws IOException {
+        if (segment.writer == null) {
+            segment.open();
+        }
+
+        segment.append(line, sync);
+
+        if (segment != currentSegment) {
+            segment.close();
+        }
+    }
+
+    // must be called with lock held; the entry stays in its journal segment if it can't be written to the dead-letter file
+    private void moveToDeadLetter(OutboxEntry entry) {
+        File file = new File(outboxDir, DEAD_LETTER_FILE_NAME);
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write((mapper.writeValueAsString(entry.trxLogs) + "\n").getBytes(StandardCharsets.UTF_8));
+
+            if (outboxSync) {
+                out.getFD().sync();
+            }
+
+            entry.segment.pendingEntries--;
+        } catch (IOException excp) {
+            LOG.error("RangerTrxLogWriter: failed to write transaction {} to dead-letter file {}; it will be retried after restart", entry.getTransactionId(), file, excp);
+        }
+
+        LOG.error("RangerTrxLogWriter: giving up on {} records of transaction {} after {} attempts", entry.trxLogs.size(), entry.getTransactionId(), entry.attempts);
+
+        pendingRows    -= entry.trxLogs.size();
+        deadLetterRows += entry.trxLogs.size();
+    }
+
+    // must be called with lock held
+    private void deleteWrittenSegments() {
+        for (Iterator<Segment> iter = segments.values().iterator(); iter.hasNext(); ) {
+            Segment segment = iter.next();
+
+            if (segment.pendingEntries == 0) {
+                segment.close();
+
+                if (!segment.file.delete() && segment.file.exists()) {
+                    LOG.warn("RangerTrxLogWriter: failed to delete outbox segment {}", segment.file);
+                }
+
+                if (segment == currentSegment) {
+                    currentSegment = null;
+                }
+
+                iter.remove();
+            }
+        }
+    }
+
+    private void recover() {
+        File[] files = outboxDir.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX));
+
+        if (files == null || files.length == 0) {
+            return;
+        }
+
+        Map<Long, File> segmentFiles = new TreeMap<>();
+
+        for (File file : files) {
+            String name = file.getName();
+
+            try {
+                segmentFiles.put(Long.parseLong(name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length())), file);
+            } catch (NumberFormatException excp) {
+                LOG.warn("RangerTrxLogWriter: ignoring unexpected file {} in outbox directory", file);
+            }
+        }
+
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        List<OutboxEntry>   entries    = new ArrayList<>();
+        Set<String>         discarded  = new HashSet<>();
+
+        txTemplate.setReadOnly(true);
+
+        synchronized (lock) {
+            for (Map.Entry<Long, File> entry : segmentFiles.entrySet()) {
+                Segment segment = new Segment(entry.getKey());
+
+                nextSegmentId = Math.max(nextSegmentId, segment.id + 1);
+
+                segments.put(segment.id, segment);
+
+                try (BufferedReader reader = Files.newBufferedReader(segment.file.toPath(), StandardCharsets.UTF_8)) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        JsonNode node;
+
+                        try {
+                            node = mapper.readTree(line);
+                        } catch (IOException excp) {
+                            LOG.warn("RangerTrxLogWriter: ignoring incomplete entry in outbox segment {}", segment.file); // likely from a crash while appending
+
+                            continue;
+                        }
+
+                        if (node != null && node.isArray()) {
+                            List<XXTrxLogV2> trxLogs = mapper.convertValue(node, TYPE_TRX_LOG_LIST);
+
+                            if (CollectionUtils.isNotEmpty(trxLogs)) {
+                                OutboxEntry outboxEntry = new OutboxEntry(trxLogs);
+
+                                outboxEntry.segment = segment;
+
+                                entries.add(outboxEntry);
+                            }
+                        } else if (node != null && node.hasNonNull(JOURNAL_DISCARDED)) {
+                            discarded.add(node.get(JOURNAL_DISCARDED).asText());
+                        }
+                    }
+                } catch (IOException excp) {
+                    LOG.error("RangerTrxLogWriter: failed to read outbox segment {}", segment.file, excp);
+
+                    segment.pendingEntries++; // retain the file for investigation
+                }
+            }
+
+            for (OutboxEntry entry : entries) {
+                String transactionId = entry.getTransactionId();
+
+                if (discarded.contains(transactionId) || isWritten(txTemplate, transactionId)) {
+                    continue;
+                }
+
+                entry.segment.entryCount++;
+                entry.segment.pendingEntries++;
+
+                pending.addLast(entry);
+
+                pendingRows   += entry.trxLogs.size();
+                recoveredRows += entry.trxLogs.size();
+            }
+
+            deleteWrittenSegments();
+        }
+
+        LOG.info("RangerTrxLogWriter: recovered {} transaction log records from {} outbox segments", recoveredRows, segmentFiles.size());
+    }
+
+    private boolean isWritten(TransactionTemplate txTemplate, String transactionId) {
+        if (transactionId == null) {
+            return false;
+        }
+
+        List<XXTrxLogV2> existing = txTemplate.execute(status -> daoManager.getXXTrxLogV2().findByTransactionId(transactionId));
+
+        return CollectionUtils.isNotEmpty(existing);
+    }
+
+    private static class OutboxEntry {
+        final List<XXTrxLogV2> trxLogs;
+        final long             addedTime = System.currentTimeMillis();
+        Segment                segment;
+        int                    attempts;
+
+        OutboxEntry(List<XXTrxLogV2> trxLogs) {
+            this.trxLogs = trxLogs;
+        }
+
+        // entries are written in a single database transaction, hence the first transactionId identifies the entry
+        String getTransactionId() {
+            return trxLogs.get(0).getTransactionId();
+        }
+    }
+
+    private class Segment {
+        final long       id;
+        final File       file;
+        FileOutputStream out;
+        Writer           writer;
+        int              entryCount;
+        int              pendingEntries;
+
+        Segment(long id) {
+            this.id   = id;
+            this.file = new File(outboxDir, SEGMENT_FILE_PREFIX + id + SEGMENT_FILE_SUFFIX);
+        }
+
+        void open() throws IOException {
+            out    = new FileOutputStream(file, true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        void append(String line, boolean sync) throws IOException {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+
+            if (sync) {
+                out.getFD().sync();
+            }
+        }
+
+        // syncs before closing, as entries appended to the segment may not have been synced yet
+        void close() {
+            if (writer != null) {
+                try {
+                    if (outboxSync) {
+                        out.getFD().sync();
+                    }
+                } catch (IOException excp) {
+                    LOG.warn("RangerTrxLogWriter: failed to sync outbox segment {}", file, excp);
+                }
+
+                try {
+                    writer.close();
+                } catch (IOException excp) {
+                    LOG.warn("RangerTrxLogWriter: failed to close outbox segment {}", file, excp);
+                }
+
+                writer = null;
+                out    = null;
+            }
+        }
+    }
+
+    /**
+     * Journals records of the transaction before it commits; queues them for the writer after it commits.
+     */
+    private class TrxLogOutbox implements TransactionSynchronization {
+        final List<XXTrxLogV2> trxLogs = new ArrayList<>();
+        OutboxEntry            entry;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (trxLogs.isEmpty()) {
+                return;
+            }
+
+            OutboxEntry outboxEntry = new OutboxEntry(trxLogs);
+
+            if (journal(outboxEntry)) {
+                entry = outboxEntry;
+            } else {
+                daoManager.getXXTrxLogV2().batchCreate(trxLogs);
+
+                synchronized (lock) {
+                    syncWrittenRows += trxLogs.size();
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (entry == null) {
+                return;
+            }
+
+            if (status == STATUS_ROLLED_BACK) {
+                discard(entry);
+            } else { // STATUS_UNKNOWN: records are retained, as the transaction may have committed
+                queue(entry);
+            }
+        }
+    }
+}
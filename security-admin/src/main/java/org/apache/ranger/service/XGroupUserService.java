@@ -28,11 +28,15 @@
 import org.apache.ranger.entity.XXGroupUser;
 import org.apache.ranger.entity.XXPortalUser;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+import org.apache.ranger.ugsyncutil.model.GroupUserSyncResult;
 import org.apache.ranger.view.VXGroupUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -152,6 +156,66 @@ public boolean createOrDeleteXGroupUsers(GroupUserInfo groupUserInfo, Map<String
         return true;
     }
 
+    /**
+     * Applies membership changes to given groups with set-based queries: existing memberships of all the groups are
+     * read with one query, removed memberships are deleted with batched IN-list deletes and new memberships are
+     * persisted in batches. Counts of added and deleted memberships are added to result.
+     *
+     * @param groupIds   ids of groups to update
+     * @param groupNames group names, by group id
+     * @param addUserIds ids of users to add, by group id
+     * @param delUserIds ids of users to remove, by group id
+     */
+    public void bulkCreateOrDeleteXGroupUsers(List<Long> groupIds, Map<Long, String> groupNames, Map<Long, Set<Long>> addUserIds, Map<Long, Set<Long>> delUserIds, GroupUserSyncResult result) {
+        logger.debug("==> bulkCreateOrDeleteXGroupUsers(groupCount={})", groupIds.size());
+
+        Map<Long, Map<Long, Long>> existing       = daoManager.getXXGroupUser().findIdsByGroupIds(groupIds);
+        List<Long>                 idsToDelete    = new ArrayList<>();
+        List<XXGroupUser>          toCreate       = new ArrayList<>();
+        boolean                    setAddedByUser = daoManager.getXXPortalUser().getById(createdByUserId) != null;
+
+        for (Long groupId : groupIds) {
+            Map<Long, Long> groupUsers = existing.getOrDefault(groupId, Collections.emptyMap());
+            Set<Long>       delUsers   = delUserIds.getOrDefault(groupId, Collections.emptySet());
+
+            for (Long userId : delUsers) {
+                Long groupUserId = groupUsers.get(userId);
+
+                if (groupUserId != null) {
+                    idsToDelete.add(groupUserId);
+                }
+            }
+
+            for (Long userId : addUserIds.getOrDefault(groupId, Collections.emptySet())) {
+                if (!groupUsers.containsKey(userId) && !delUsers.contains(userId)) {
+                    XXGroupUser xxGroupUser = new XXGroupUser();
+
+                    xxGroupUser.setName(groupNames.get(groupId));
+                    xxGroupUser.setParentGroupId(groupId);
+                    xxGroupUser.setUserId(userId);
+
+                    if (setAddedByUser) {
+                        xxGroupUser.setAddedByUserId(createdByUserId);
+                        xxGroupUser.setUpdatedByUserId(createdByUserId);
+                    }
+
+                    toCreate.add(xxGroupUser);
+                }
+            }
+        }
+
+        daoManager.getXXGroupUser().deleteByIds(idsToDelete);
+
+        if (!toCreate.isEmpty()) {
+            daoManager.getXXGroupUser().batchCreate(toCreate);
+        }
+
+        result.setDeletedCount(result.getDeletedCount() + idsToDelete.size());
+        result.setAddedCount(result.getAddedCount() + toCreate.size());
+
+        logger.debug("<== bulkCreateOrDeleteXGroupUsers(groupCount={}): added={}, deleted={}", groupIds.size(), toCreate.size(), idsToDelete.size());
+    }
+
     public VXGroupUser readResourceWithOutLogin(Long id) {
         XXGroupUser resource = getDao().getById(id);
 
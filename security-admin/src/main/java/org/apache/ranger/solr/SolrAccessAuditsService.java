@@ -29,8 +29,8 @@
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.view.VXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
-import org.apache.ranger.view.VXLong;
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
@@ -42,6 +42,9 @@
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -56,17 +59,12 @@ public class SolrAccessAuditsService extends AccessAuditsService {
     @Autowired
     SolrUtil solrUtil;
 
-    public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
+    @Override
+    protected VXAccessAuditList searchAccessAudits(SearchCriteria searchCriteria) {
         // Make call to Solr
-        SolrClient    solrClient          = solrMgr.getSolrClient();
+        SolrClient    solrClient          = getSolrClient();
         final boolean hiveQueryVisibility = PropertiesUtil.getBooleanProperty("ranger.audit.hive.query.visibility", true);
 
-        if (solrClient == null) {
-            LOGGER.warn("Solr client is null, so not running the query.");
-
-            throw restErrorUtil.createRESTException("Error connecting to search engine", MessageEnums.ERROR_SYSTEM);
-        }
-
         List<VXAccessAudit> xAccessAuditList = new ArrayList<>();
         Map<String, Object> paramList        = searchCriteria.getParamList();
         Object              eventIdObj       = paramList.get("eventId");
@@ -110,20 +108,45 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         returnList.setStartIndex((int) docs.getStart());
         returnList.setVXAccessAudits(xAccessAuditList);
 
+        if (getCursor(searchCriteria) != null) {
+            returnList.setNextCursor(response.getNextCursorMark());
+        }
+
         return returnList;
     }
 
-    /**
-     * @param searchCriteria
-     * @return
-     */
-    public VXLong getXAccessAuditSearchCount(SearchCriteria searchCriteria) {
-        long   count  = 100;
-        VXLong vXLong = new VXLong();
+    @Override
+    protected Map<String, Map<String, Long>> searchFacets(SearchCriteria searchCriteria, Collection<String> fieldNames) {
+        QueryResponse                  response = solrUtil.searchFacets(searchCriteria, searchFields, fieldNames, facetMaxValues, getSolrClient());
+        Map<String, Map<String, Long>> ret      = new HashMap<>();
+
+        if (response.getFacetFields() != null) {
+            for (FacetField facetField : response.getFacetFields()) {
+                Map<String, Long> counts = new LinkedHashMap<>();
+
+                if (facetField.getValues() != null) {
+                    for (FacetField.Count count : facetField.getValues()) {
+                        counts.put(count.getName(), count.getCount());
+                    }
+                }
+
+                ret.put(facetField.getName(), counts);
+            }
+        }
+
+        return ret;
+    }
+
+    private SolrClient getSolrClient() {
+        SolrClient ret = solrMgr.getSolrClient();
+
+        if (ret == null) {
+            LOGGER.warn("Solr client is null, so not running the query.");
 
-        vXLong.setValue(count);
+            throw restErrorUtil.createRESTException("Error connecting to search engine", MessageEnums.ERROR_SYSTEM);
+        }
 
-        return vXLong;
+        return ret;
     }
 
     /**
@@ -20,6 +20,7 @@
 package org.apache.ranger.solr;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
@@ -35,6 +36,7 @@
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -97,6 +99,41 @@ public QueryResponse runQuery(SolrClient solrClient, SolrQuery solrQuery) throws
     }
 
     public QueryResponse searchResources(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFieldList, SolrClient solrClient) {
+        SolrQuery query  = buildQuery(searchCriteria, searchFields);
+        String    cursor = AccessAuditsService.getCursor(searchCriteria);
+
+        setSortClause(searchCriteria, sortFieldList, query);
+
+        if (cursor != null) {
+            // cursorMark requires the sort to include the uniqueKey field, and start to be 0
+            query.addSort("id", ORDER.asc);
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursor);
+            query.setStart(0);
+        } else {
+            query.setStart(searchCriteria.getStartIndex());
+        }
+
+        query.setRows(searchCriteria.getMaxRows());
+
+        return executeQuery(query, solrClient);
+    }
+
+    /**
+     * Counts documents matching the search criteria by values of given fields, without fetching the documents
+     */
+    public QueryResponse searchFacets(SearchCriteria searchCriteria, List<SearchField> searchFields, Collection<String> facetFields, int maxValues, SolrClient solrClient) {
+        SolrQuery query = buildQuery(searchCriteria, searchFields);
+
+        query.setRows(0);
+        query.setFacet(true);
+        query.setFacetMinCount(1);
+        query.setFacetLimit(maxValues);
+        query.addFacetField(facetFields.toArray(new String[0]));
+
+        return executeQuery(query, solrClient);
+    }
+
+    private SolrQuery buildQuery(SearchCriteria searchCriteria, List<SearchField> searchFields) {
         SolrQuery query = new SolrQuery();
 
         query.setQuery("*:*");
@@ -160,11 +197,10 @@ public QueryResponse searchResources(SearchCriteria searchCriteria, List<SearchF
             }
         }
 
-        setSortClause(searchCriteria, sortFieldList, query);
-
-        query.setStart(searchCriteria.getStartIndex());
-        query.setRows(searchCriteria.getMaxRows());
+        return query;
+    }
 
+    private QueryResponse executeQuery(SolrQuery query, SolrClient solrClient) {
         // Fields to get
         // query.setFields("myClassType", "id", "score", "globalId");
         logger.debug("SOLR QUERY = {}", query);
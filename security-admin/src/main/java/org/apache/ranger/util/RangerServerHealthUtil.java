@@ -20,9 +20,11 @@
 package org.apache.ranger.util;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.biz.RangerAdminCacheWarmer;
 import org.apache.ranger.biz.RangerBizUtil;
 import org.apache.ranger.common.AppConstants;
 import org.apache.ranger.plugin.model.RangerServerHealth;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -31,6 +33,7 @@
 import java.util.Objects;
 
 import static org.apache.ranger.plugin.model.RangerServerHealth.RangerServerStatus.DOWN;
+import static org.apache.ranger.plugin.model.RangerServerHealth.RangerServerStatus.INITIALIZING;
 import static org.apache.ranger.plugin.model.RangerServerHealth.RangerServerStatus.UP;
 
 @Component
@@ -43,6 +46,10 @@ public class RangerServerHealthUtil {
     private static final String DB_VERSION          = "version";
     private static final String DB_VALIDATION_QUERY = "validationQuery";
     private static final String NOT_AVAILABLE       = "Not Available";
+    private static final String CACHE_WARMUP        = "cacheWarmup";
+
+    @Autowired
+    RangerAdminCacheWarmer cacheWarmer;
 
     /* RangerAdmin Health Check JSON Response look like
      {
@@ -68,17 +75,39 @@ public RangerServerHealth getRangerServerHealth(String dbVersion) {
 
         components.put(DB, dbStatus);
 
+        Map<String, Object> cacheWarmupStatus = getCacheWarmupStatus();
+
+        if (cacheWarmupStatus != null) {
+            components.put(CACHE_WARMUP, cacheWarmupStatus);
+        }
+
         final RangerServerHealth ret;
 
-        if (Objects.equals(dbStatus.get(STATUS), UP)) {
-            ret = RangerServerHealth.up().withDetail(COMPONENTS, components).build();
-        } else {
+        if (!Objects.equals(dbStatus.get(STATUS), UP)) {
             ret = RangerServerHealth.down().withDetail(COMPONENTS, components).build();
+        } else if (cacheWarmupStatus != null && !Objects.equals(cacheWarmupStatus.get(STATUS), UP)) {
+            // not ready to serve requests until caches are warmed up
+            ret = RangerServerHealth.status(INITIALIZING).withDetail(COMPONENTS, components).build();
+        } else {
+            ret = RangerServerHealth.up().withDetail(COMPONENTS, components).build();
         }
 
         return ret;
     }
 
+    private Map<String, Object> getCacheWarmupStatus() {
+        if (cacheWarmer == null) {
+            return null;
+        }
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put(STATUS, cacheWarmer.isWarmedUp() ? UP : INITIALIZING);
+        ret.put(DETAILS, cacheWarmer.getProgress());
+
+        return ret;
+    }
+
     private Map<String, Object> getDbStatus(String dbVersion) {
         Map<String, Object> ret      = new LinkedHashMap<>();
         int                 dbFlavor = RangerBizUtil.getDBFlavor();
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.view;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a policy import, as reported by /plugins/policies/importStatus
+ */
+@JsonAutoDetect(getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE, fieldVisibility = Visibility.ANY)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RangerPolicyImportStatus implements java.io.Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum ImportState { VALIDATING, CREATING, COMPLETED, FAILED }
+
+    private final AtomicInteger validatedCount = new AtomicInteger();
+    private final AtomicInteger createdCount   = new AtomicInteger();
+
+    private String      id;
+    private String      fileName;
+    private String      user;
+    private ImportState state;
+    private int         totalCount;
+    private long        startTime;
+    private Long        endTime;
+    private String      error;
+
+    public RangerPolicyImportStatus() {
+    }
+
+    public RangerPolicyImportStatus(String id, String fileName, String user) {
+        this.id        = id;
+        this.fileName  = fileName;
+        this.user      = user;
+        this.state     = ImportState.VALIDATING;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public synchronized ImportState getState() {
+        return state;
+    }
+
+    public synchronized void setState(ImportState state) {
+        this.state = state;
+    }
+
+    public synchronized int getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized void addTotalCount(int count) {
+        this.totalCount += count;
+    }
+
+    public int getValidatedCount() {
+        return validatedCount.get();
+    }
+
+    public void incrValidatedCount() {
+        validatedCount.incrementAndGet();
+    }
+
+    public int getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public void addCreatedCount(int count) {
+        createdCount.addAndGet(count);
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public synchronized Long getEndTime() {
+        return endTime;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized void setCompleted() {
+        if (state != ImportState.FAILED) {
+            state = ImportState.COMPLETED;
+        }
+
+        endTime = System.currentTimeMillis();
+    }
+
+    public synchronized void setFailed(String error) {
+        this.state   = ImportState.FAILED;
+        this.error   = error;
+        this.endTime = System.currentTimeMillis();
+    }
+
+    public synchronized boolean isDone() {
+        return endTime != null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RangerPolicyImportStatus={id=" + id + ", fileName=" + fileName + ", user=" + user + ", state=" + state +
+                ", totalCount=" + totalCount + ", validatedCount=" + validatedCount + ", createdCount=" + createdCount +
+                ", startTime=" + startTime + ", endTime=" + endTime + ", error=" + error + "}";
+    }
+}
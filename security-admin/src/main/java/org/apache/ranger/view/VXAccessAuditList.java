@@ -39,6 +39,11 @@ public class VXAccessAuditList extends VList {
 
     List<VXAccessAudit> vXAccessAudits = new ArrayList<>();
 
+    /**
+     * Cursor to get the next page, when the search was made with a cursor
+     */
+    String nextCursor;
+
     public VXAccessAuditList() {
         super();
     }
@@ -65,6 +70,14 @@ public void setVXAccessAudits(List<VXAccessAudit> vXAccessAudits) {
         this.vXAccessAudits = vXAccessAudits;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @Override
     public int getListSize() {
         if (vXAccessAudits != null) {
@@ -185,6 +185,9 @@ public class TestAssetMgr {
     @Mock
     ServiceMgr serviceMgr;
 
+    @Mock
+    RangerPluginInfoCoalescer pluginInfoCoalescer;
+
     @Mock
     XResourceService xResourceService;
 
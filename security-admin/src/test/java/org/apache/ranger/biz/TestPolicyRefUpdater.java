@@ -220,6 +220,57 @@ public void testCreateNewPolMappingForRefTable_ValidEverything() throws Exceptio
         // no exceptions indicates success across branches
     }
 
+    @Test
+    public void testCreateNewPolMappingForRefTable_Batch() throws Exception {
+        XXServiceDef xSvc = new XXServiceDef();
+        xSvc.setId(9L);
+
+        XXResourceDefDao resDefDao = mock(XXResourceDefDao.class);
+        when(daoMgr.getXXResourceDef()).thenReturn(resDefDao);
+        when(resDefDao.findResourceDefIdsByNameAndPolicyId(Mockito.anySet(), Mockito.anyLong())).thenReturn(Collections.singletonMap("db", 1L));
+        Mockito.lenient().when(rangerAuditFields.populateAuditFields(Mockito.any(), Mockito.any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        XXPolicyRefResourceDao polResDao = mock(XXPolicyRefResourceDao.class);
+        when(daoMgr.getXXPolicyRefResource()).thenReturn(polResDao);
+        XXPolicyRefUserDao polUserDao = mock(XXPolicyRefUserDao.class);
+        when(daoMgr.getXXPolicyRefUser()).thenReturn(polUserDao);
+        XXUserDao userDao = mock(XXUserDao.class);
+        when(daoMgr.getXXUser()).thenReturn(userDao);
+        when(userDao.getIdsByUserNames(Mockito.anySet())).thenReturn(Collections.singletonMap("u1", 30L));
+
+        PolicyRefUpdater.PolicyRefBatch refBatch = new PolicyRefUpdater.PolicyRefBatch();
+
+        for (long policyId = 1; policyId <= 2; policyId++) {
+            RangerPolicy policy = new RangerPolicy();
+            policy.setId(policyId);
+            policy.setName("p" + policyId);
+            policy.setService("svc");
+            policy.setResources(Collections.singletonMap("db",
+                    new RangerPolicy.RangerPolicyResource(Collections.singletonList("db" + policyId), false, false)));
+            RangerPolicyItem item = new RangerPolicyItem();
+            item.setUsers(Arrays.asList("u1"));
+            policy.setPolicyItems(Arrays.asList(item));
+
+            XXPolicy xPolicy = new XXPolicy();
+            xPolicy.setId(policyId);
+            xPolicy.setService(9L);
+
+            updater.createNewPolMappingForRefTable(policy, xPolicy, xSvc, false, false, refBatch);
+        }
+
+        // user ids are looked up once for the batch, and nothing is inserted until flush
+        verify(userDao, Mockito.times(1)).getIdsByUserNames(Mockito.anySet());
+        verify(polUserDao, never()).batchCreate(Mockito.anyList());
+        verify(polResDao, never()).batchCreate(Mockito.anyList());
+        assertEquals(4, refBatch.size());
+
+        updater.flushPolicyRefBatch(refBatch);
+
+        verify(polUserDao).batchCreate(Mockito.argThat(list -> list.size() == 2));
+        verify(polResDao).batchCreate(Mockito.argThat(list -> list.size() == 2));
+        assertEquals(0, refBatch.size());
+    }
+
     @Test
     public void testCreateNewPolMappingForRefTable_InvalidResourceDef() throws Exception {
         RangerPolicy policy = new RangerPolicy();
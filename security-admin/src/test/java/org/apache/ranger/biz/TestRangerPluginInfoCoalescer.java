@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.plugin.model.RangerPluginInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TestRangerPluginInfoCoalescer {
+    @InjectMocks
+    RangerPluginInfoCoalescer coalescer;
+
+    @Mock
+    PlatformTransactionManager txManager;
+
+    @BeforeEach
+    public void setUp() {
+        try (MockedStatic<RangerAdminConfig> mockedConfig = mockStatic(RangerAdminConfig.class)) {
+            RangerAdminConfig config = mock(RangerAdminConfig.class);
+
+            mockedConfig.when(RangerAdminConfig::getInstance).thenReturn(config);
+            when(config.getBoolean(anyString(), anyBoolean())).thenReturn(true);
+            when(config.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+
+            coalescer.init();
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        coalescer.destroy();
+    }
+
+    @Test
+    public void testLatestUpdatePerPluginIsCommitted() {
+        List<String> committed = new ArrayList<>();
+
+        coalescer.submitUpdate(pluginInfo("host1", 1L), RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> committed.add("host1-policies-1"));
+        coalescer.submitUpdate(pluginInfo("host1", 1L), RangerPluginInfo.ENTITY_TYPE_TAGS, () -> committed.add("host1-tags-1"));
+        coalescer.submitUpdate(pluginInfo("host1", 2L), RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> committed.add("host1-policies-2"));
+        coalescer.submitUpdate(pluginInfo("host2", 1L), RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> committed.add("host2-policies-1"));
+
+        assertEquals(2, coalescer.getPendingCount());
+
+        coalescer.flush();
+
+        assertEquals(0, coalescer.getPendingCount());
+        assertEquals(3, committed.size());
+        assertTrue(committed.containsAll(List.of("host1-tags-1", "host1-policies-2", "host2-policies-1")));
+    }
+
+    @Test
+    public void testDeleteDiscardsEarlierUpdates() {
+        List<String> committed = new ArrayList<>();
+
+        coalescer.submitUpdate(pluginInfo("host1", 1L), RangerPluginInfo.ENTITY_TYPE_TAGS, () -> committed.add("tags"));
+        coalescer.submitDelete(pluginInfo("host1", -1L), () -> committed.add("delete"));
+        coalescer.submitUpdate(pluginInfo("host1", 3L), RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> committed.add("policies"));
+
+        coalescer.flush();
+
+        assertEquals(List.of("delete", "policies"), committed);
+    }
+
+    @Test
+    public void testFailedUpdateDoesNotLoseOtherUpdatesInBatch() {
+        List<String> committed = new ArrayList<>();
+
+        coalescer.submitUpdate(pluginInfo("host1", 1L), RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> {
+            throw new IllegalStateException("update failed");
+        });
+        coalescer.submitUpdate(pluginInfo("host2", 1L), RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> committed.add("host2"));
+
+        coalescer.flush();
+
+        assertEquals(0, coalescer.getPendingCount());
+        assertTrue(committed.contains("host2"));
+    }
+
+    @Test
+    public void testApplyPendingUpdates() {
+        RangerPluginInfo dbObj   = pluginInfo("host1", 1L);
+        RangerPluginInfo pending = pluginInfo("host1", 5L);
+
+        dbObj.setPolicyDownloadTime(1000L);
+        pending.setPolicyDownloadTime(2000L);
+        pending.setPolicyActiveVersion(-1L);
+
+        coalescer.submitUpdate(pending, RangerPluginInfo.ENTITY_TYPE_POLICIES, () -> { });
+        coalescer.applyPendingUpdates(Collections.singletonList(dbObj));
+
+        assertEquals(5L, dbObj.getPolicyDownloadedVersion());
+        assertEquals(2000L, dbObj.getPolicyDownloadTime());
+        assertEquals(1L, dbObj.getPolicyActiveVersion()); // -1 from plugin shouldn't overwrite the known active version
+    }
+
+    private static RangerPluginInfo pluginInfo(String hostName, Long policyVersion) {
+        RangerPluginInfo ret = new RangerPluginInfo();
+
+        ret.setServiceName("dev_hive");
+        ret.setHostName(hostName);
+        ret.setAppType("hiveServer2");
+        ret.setIpAddress("10.0.0.1");
+        ret.setPolicyDownloadedVersion(policyVersion);
+        ret.setPolicyActiveVersion(policyVersion);
+
+        return ret;
+    }
+}
@@ -21,6 +21,8 @@
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.ranger.common.ContextUtil;
 import org.apache.ranger.common.GUIDUtil;
@@ -163,15 +165,20 @@
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.WebApplicationException;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -5874,9 +5881,9 @@ public void test244sanitizeCell_variants() throws Exception {
 
     @Test
     public void test245writeCSV_basic() throws Exception {
-        Method m = ServiceDBStore.class.getDeclaredMethod("writeCSV", List.class, String.class, HttpServletResponse.class);
+        Method m = ServiceDBStore.class.getDeclaredMethod("writeCSV", List.class, Writer.class);
         m.setAccessible(true);
-        HttpServletResponse resp = Mockito.mock(HttpServletResponse.class);
+        StringWriter writer = new StringWriter();
         RangerPolicy p = new RangerPolicy();
         p.setId(1L);
         p.setName("p1");
@@ -5892,9 +5899,11 @@ public void test245writeCSV_basic() throws Exception {
         Map<String, RangerPolicy.RangerPolicyResource> resMap = new HashMap<>();
         resMap.put("path", rsrc);
         p.setResources(resMap);
-        StringBuilder sb = (StringBuilder) m.invoke(serviceDBStore, Collections.singletonList(p), "f.csv", resp);
-        Assertions.assertNotNull(sb);
-        Assertions.assertTrue(sb.length() > 0);
+        m.invoke(serviceDBStore, Collections.singletonList(p), writer);
+        String[] lines = writer.toString().split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertTrue(lines[0].startsWith("ID|Name|Resources"));
+        Assertions.assertTrue(lines[1].startsWith("1|p1|"));
     }
 
     @Test
@@ -6835,4 +6844,138 @@ private Object invokePrivate(String name, Class<?>[] types, Object... args) thro
         m.setAccessible(true);
         return m.invoke(serviceDBStore, args);
     }
+
+    @Test
+    public void test258getPoliciesInExcel_streamsRowContents() throws Exception {
+        ByteArrayOutputStream bytes    = new ByteArrayOutputStream();
+        HttpServletResponse   response = Mockito.mock(HttpServletResponse.class);
+
+        Mockito.when(response.getOutputStream()).thenReturn(new ByteArrayServletOutputStream(bytes));
+
+        serviceDBStore.getPoliciesInExcel(Arrays.asList(createExportPolicy(1L, "p1"), createExportPolicy(2L, "p2")), response);
+
+        Mockito.verify(response).setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        Mockito.verify(response).setHeader(Mockito.eq("Content-Disposition"), Mockito.endsWith(".xlsx"));
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+
+            Assertions.assertEquals(1, workbook.getNumberOfSheets());
+            Assertions.assertEquals(2, sheet.getLastRowNum());
+            Assertions.assertEquals("ID", sheet.getRow(0).getCell(0).getStringCellValue());
+            Assertions.assertEquals("Name", sheet.getRow(0).getCell(1).getStringCellValue());
+            Assertions.assertEquals(1, (long) sheet.getRow(1).getCell(0).getNumericCellValue());
+            Assertions.assertEquals("p1", sheet.getRow(1).getCell(1).getStringCellValue());
+            Assertions.assertEquals("path=[/]", sheet.getRow(1).getCell(2).getStringCellValue().trim());
+            Assertions.assertEquals("svc1", sheet.getRow(1).getCell(13).getStringCellValue());
+            Assertions.assertEquals("p2", sheet.getRow(2).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void test259getPoliciesInExcel_startsNewSheetWhenFull() throws Exception {
+        ByteArrayOutputStream bytes    = new ByteArrayOutputStream();
+        HttpServletResponse   response = Mockito.mock(HttpServletResponse.class);
+        List<RangerPolicy>    policies = new ArrayList<>();
+
+        for (long i = 1; i <= 5; i++) {
+            policies.add(createExportPolicy(i, "p" + i));
+        }
+
+        Mockito.when(response.getOutputStream()).thenReturn(new ByteArrayServletOutputStream(bytes));
+
+        serviceDBStore.excelMaxRowsPerSheet = 3; // header and 2 policy rows per sheet
+
+        serviceDBStore.getPoliciesInExcel(policies, response);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assertions.assertEquals(3, workbook.getNumberOfSheets());
+
+            int policyRows = 0;
+
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                Sheet sheet = workbook.getSheetAt(i);
+
+                Assertions.assertEquals("ID", sheet.getRow(0).getCell(0).getStringCellValue());
+
+                policyRows += sheet.getLastRowNum();
+            }
+
+            Assertions.assertEquals(5, policyRows);
+            Assertions.assertEquals("p5", workbook.getSheetAt(2).getRow(1).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void test260getPoliciesInExcel_removesTempFiles() throws Exception {
+        java.nio.file.Path    tempDir  = Files.createTempDirectory("ranger-export-test");
+        ByteArrayOutputStream bytes    = new ByteArrayOutputStream();
+        HttpServletResponse   response = Mockito.mock(HttpServletResponse.class);
+        List<RangerPolicy>    policies = new ArrayList<>();
+
+        // more rows than SXSSF keeps in memory, so that rows are flushed to a temp file
+        for (long i = 1; i <= 500; i++) {
+            policies.add(createExportPolicy(i, "p" + i));
+        }
+
+        Mockito.when(response.getOutputStream()).thenReturn(new ByteArrayServletOutputStream(bytes));
+
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(tempDir.toFile()));
+
+        try {
+            serviceDBStore.getPoliciesInExcel(policies, response);
+
+            Assertions.assertTrue(bytes.size() > 0);
+
+            try (java.util.stream.Stream<java.nio.file.Path> files = Files.walk(tempDir)) {
+                Assertions.assertEquals(0, files.filter(Files::isRegularFile).count());
+            }
+        } finally {
+            TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy());
+        }
+    }
+
+    private RangerPolicy createExportPolicy(Long id, String name) {
+        RangerPolicy                      policy   = new RangerPolicy();
+        RangerPolicy.RangerPolicyResource resource = new RangerPolicy.RangerPolicyResource();
+
+        resource.setValues(Collections.singletonList("/"));
+        resource.setIsExcludes(Boolean.FALSE);
+        resource.setIsRecursive(Boolean.FALSE);
+
+        policy.setId(id);
+        policy.setName(name);
+        policy.setService("svc1");
+        policy.setServiceType("hdfs");
+        policy.setDescription("");
+        policy.setIsAuditEnabled(Boolean.TRUE);
+        policy.setIsEnabled(Boolean.TRUE);
+        policy.setPolicyType(RangerPolicy.POLICY_TYPE_ACCESS);
+        policy.setPolicyItems(new ArrayList<>());
+        policy.setResources(Collections.singletonMap("path", resource));
+
+        return policy;
+    }
+
+    private static class ByteArrayServletOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes;
+
+        ByteArrayServletOutputStream(ByteArrayOutputStream bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ranger.common.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ranger.common.PropertiesUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestRangerReadOnlyRoutingDataSource {
+    private RangerReadOnlyRoutingDataSource dataSource;
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clear();
+
+        PropertiesUtil.getPropertiesMap().remove(RangerReadOnlyRoutingDataSource.PROP_READONLY_ENABLED);
+        PropertiesUtil.getPropertiesMap().remove(RangerReadOnlyRoutingDataSource.PROP_READONLY_URL);
+
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    public void testReadOnlyPoolDisabled() {
+        dataSource = createDataSource(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertFalse(dataSource.isReadOnlyPoolEnabled());
+        assertEquals("PRIMARY", dataSource.determineCurrentLookupKey().toString());
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReadOnlyPool() {
+        dataSource = createDataSource(true);
+
+        assertTrue(dataSource.isReadOnlyPoolEnabled());
+        assertEquals("PRIMARY", dataSource.determineCurrentLookupKey().toString());
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("READ_ONLY", dataSource.determineCurrentLookupKey().toString());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertEquals("PRIMARY", dataSource.determineCurrentLookupKey().toString());
+        assertEquals(1L, dataSource.getMetrics().get("ReadOnlyRoutedCount"));
+        assertEquals(2L, dataSource.getMetrics().get("PrimaryRoutedCount"));
+    }
+
+    @Test
+    public void testAfterCompletionCallbacksUsePrimaryPool() {
+        dataSource = createDataSource(true);
+
+        // state while running afterCompletion() of a read-only transaction
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("PRIMARY", dataSource.determineCurrentLookupKey().toString());
+    }
+
+    @Test
+    public void testReadOnlyPoolInheritsPrimaryPoolSettings() {
+        HikariDataSource primary = new HikariDataSource();
+
+        primary.setPoolName("RangerPrimaryPool");
+        primary.setJdbcUrl("jdbc:test://primary/ranger");
+        primary.setUsername("rangeradmin");
+        primary.setPassword("primary-password");
+        primary.setMaximumPoolSize(12);
+        primary.setMinimumIdle(3);
+        primary.setConnectionTimeout(12000L);
+        primary.setIdleTimeout(120000L);
+        primary.setMaxLifetime(900000L);
+        primary.setConnectionTestQuery("select 1");
+
+        PropertiesUtil.getPropertiesMap().put(RangerReadOnlyRoutingDataSource.PROP_READONLY_MAXPOOLSIZE, "20");
+        PropertiesUtil.getPropertiesMap().put(RangerReadOnlyRoutingDataSource.PROP_READONLY_PASSWORD, "replica-password");
+
+        try {
+            dataSource = createDataSource(true, primary);
+
+            HikariDataSource readOnly = dataSource.getReadOnlyDataSource();
+
+            assertEquals("RangerReadOnlyPool", readOnly.getPoolName());
+            assertEquals("jdbc:test://replica/ranger", readOnly.getJdbcUrl());
+            assertEquals("rangeradmin", readOnly.getUsername());
+            assertEquals("replica-password", readOnly.getPassword());
+            assertEquals(20, readOnly.getMaximumPoolSize());
+            assertEquals(3, readOnly.getMinimumIdle());
+            assertEquals(12000L, readOnly.getConnectionTimeout());
+            assertEquals(120000L, readOnly.getIdleTimeout());
+            assertEquals(900000L, readOnly.getMaxLifetime());
+            assertEquals("select 1", readOnly.getConnectionTestQuery());
+            assertTrue(readOnly.isReadOnly());
+            assertFalse(primary.isReadOnly());
+        } finally {
+            PropertiesUtil.getPropertiesMap().remove(RangerReadOnlyRoutingDataSource.PROP_READONLY_MAXPOOLSIZE);
+            PropertiesUtil.getPropertiesMap().remove(RangerReadOnlyRoutingDataSource.PROP_READONLY_PASSWORD);
+
+            primary.close();
+        }
+    }
+
+    private static RangerReadOnlyRoutingDataSource createDataSource(boolean readOnlyPoolEnabled) {
+        return createDataSource(readOnlyPoolEnabled, mock(DataSource.class));
+    }
+
+    private static RangerReadOnlyRoutingDataSource createDataSource(boolean readOnlyPoolEnabled, DataSource primaryDataSource) {
+        PropertiesUtil.getPropertiesMap().put(RangerReadOnlyRoutingDataSource.PROP_READONLY_ENABLED, Boolean.toString(readOnlyPoolEnabled));
+        PropertiesUtil.getPropertiesMap().put(RangerReadOnlyRoutingDataSource.PROP_READONLY_URL, "jdbc:test://replica/ranger");
+
+        RangerReadOnlyRoutingDataSource ret = new RangerReadOnlyRoutingDataSource();
+
+        ret.setPrimaryDataSource(primaryDataSource);
+        ret.afterPropertiesSet();
+
+        return ret;
+    }
+}
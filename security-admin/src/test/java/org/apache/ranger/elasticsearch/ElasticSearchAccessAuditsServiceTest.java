@@ -33,6 +33,7 @@
 import org.apache.ranger.db.XXServiceDefDao;
 import org.apache.ranger.entity.XXServiceDef;
 import org.apache.ranger.view.VXAccessAuditList;
+import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.search.SearchResponse;
@@ -180,9 +181,27 @@ public void searchXAccessAudits_hiveVisibilityAndDecoding() throws Exception {
     }
 
     @Test
-    public void getXAccessAuditSearchCount_returnsConstant() {
+    public void getXAccessAuditSearchCount_usesTotalHits() throws Exception {
         ElasticSearchAccessAuditsService service = new ElasticSearchAccessAuditsService();
-        assertEquals(100L, service.getXAccessAuditSearchCount(new SearchCriteria()).getValue());
+        service.elasticSearchMgr  = mock(ElasticSearchMgr.class);
+        service.elasticSearchUtil = mock(ElasticSearchUtil.class);
+        service.setRestErrorUtil(new RESTErrorUtil());
+
+        RestHighLevelClient client = mock(RestHighLevelClient.class);
+        when(service.elasticSearchMgr.getClient()).thenReturn(client);
+
+        SearchResponse sr = mock(SearchResponse.class);
+        SearchHits     sh = mock(SearchHits.class);
+        when(sr.getHits()).thenReturn(sh);
+        when(sh.getHits()).thenReturn(new SearchHit[0]);
+        when(sh.getTotalHits()).thenReturn(new TotalHits(42, TotalHits.Relation.EQUAL_TO));
+        when(service.elasticSearchUtil.searchResources(any(), anyList(), anyList(), eq(client), any())).thenReturn(sr);
+
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setMaxRows(25);
+
+        assertEquals(42L, service.getXAccessAuditSearchCount(criteria).getValue());
+        assertEquals(0, criteria.getMaxRows());
     }
 
     // New JUnit 5 tests migrated from ElasticSearchAccessAuditsServiceJUnit5Test
@@ -562,7 +562,7 @@ public void testGetAccessLogs() {
         Mockito.verify(msBizUtil).isKeyAdmin();
         Mockito.verify(assetMgr).getAccessLogs(searchCriteria);
         Mockito.verify(daoManager).getXXServiceDef();
-        Mockito.verify(searchUtil, Mockito.times(16)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
+        Mockito.verify(searchUtil, Mockito.times(17)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
         Mockito.verify(searchUtil, Mockito.times(4)).extractInt(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil, Mockito.times(2)).extractDate(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil, Mockito.times(2)).extractLong(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
@@ -597,7 +597,7 @@ public void testGetAccessLogsForKms() {
         Mockito.verify(msBizUtil).isKeyAdmin();
         Mockito.verify(assetMgr).getAccessLogs(searchCriteria);
         Mockito.verify(daoManager).getXXServiceDef();
-        Mockito.verify(searchUtil, Mockito.times(16)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
+        Mockito.verify(searchUtil, Mockito.times(17)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
         Mockito.verify(searchUtil, Mockito.times(4)).extractInt(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil, Mockito.times(2)).extractDate(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil, Mockito.times(2)).extractLong(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
@@ -633,6 +633,26 @@ public void testGetAccessLogsForConfigSuperUser() {
         Mockito.verify(assetMgr).getAccessLogs(searchCriteria);
     }
 
+    @Test
+    public void testGetAccessLogFacets() {
+        SearchCriteria                 searchCriteria = new SearchCriteria();
+        Map<String, Map<String, Long>> facets         = Collections.singletonMap("repoName", Collections.singletonMap("hive", 10L));
+        Mockito.when(searchUtil.extractCommonCriterias(Mockito.any(HttpServletRequest.class), Mockito.any())).thenReturn(searchCriteria);
+        Mockito.when(msBizUtil.isSuperUser()).thenReturn(true);
+        Mockito.when(assetMgr.getAccessLogFacets(searchCriteria, Arrays.asList("repoName", "requestUser"))).thenReturn(facets);
+
+        Assertions.assertEquals(facets, assetREST.getAccessLogFacets(request, "repoName, requestUser,"));
+        Mockito.verify(assetMgr).getAccessLogFacets(searchCriteria, Arrays.asList("repoName", "requestUser"));
+    }
+
+    @Test
+    public void testGetAccessLogFacetsWithoutFacets() {
+        Mockito.when(restErrorUtil.createRESTException(Mockito.anyInt(), Mockito.anyString(), Mockito.anyBoolean())).thenThrow(new WebApplicationException());
+
+        assertThrows(WebApplicationException.class, () -> assetREST.getAccessLogFacets(request, " "));
+        Mockito.verifyNoInteractions(assetMgr);
+    }
+
     @Test
     public void testGrantPermission() {
         RangerPolicy       policy          = rangerPolicy(Id);
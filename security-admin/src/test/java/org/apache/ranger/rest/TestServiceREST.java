@@ -22,7 +22,9 @@
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ranger.admin.client.datatype.RESTResponse;
 import org.apache.ranger.biz.AssetMgr;
+import org.apache.ranger.biz.PolicyImportMgr;
 import org.apache.ranger.biz.RangerBizUtil;
+import org.apache.ranger.biz.RangerPluginInfoCoalescer;
 import org.apache.ranger.biz.RangerPolicyAdmin;
 import org.apache.ranger.biz.RoleDBStore;
 import org.apache.ranger.biz.SecurityZoneDBStore;
@@ -103,6 +105,7 @@
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.view.RangerExportPolicyList;
 import org.apache.ranger.view.RangerPluginInfoList;
+import org.apache.ranger.view.RangerPolicyImportStatus;
 import org.apache.ranger.view.RangerPolicyList;
 import org.apache.ranger.view.RangerServiceDefList;
 import org.apache.ranger.view.RangerServiceList;
@@ -232,6 +235,8 @@ public class TestServiceREST {
     @Mock
     RangerPluginInfoService pluginInfoService;
     @Mock
+    RangerPluginInfoCoalescer pluginInfoCoalescer;
+    @Mock
     XXServiceDao xServiceDao;
     @Mock
     RangerPolicyEngineImpl rpImpl;
@@ -241,6 +246,8 @@ public class TestServiceREST {
     RangerTransactionSynchronizationAdapter rangerTransactionSynchronizationAdapter;
     @Mock
     UserMgr           userMgrGrantor;
+    @Mock
+    PolicyImportMgr   policyImportMgr;
     private String capabilityVector;
 
     @BeforeEach
@@ -1743,6 +1750,132 @@ public void test50importPoliciesFromFileNotAllowingOverride() throws Exception {
         Mockito.verify(svcStore).createPolicy(rangerPolicy);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test157importPoliciesFromFileInBulk() throws Exception {
+        HttpServletRequest        request      = Mockito.mock(HttpServletRequest.class);
+        Map<String, RangerPolicy> policiesMap  = new LinkedHashMap<>();
+        RangerPolicy              rangerPolicy = rangerPolicy();
+        XXService                 xService     = xService();
+        policiesMap.put("Name", rangerPolicy);
+        XXServiceDao                      xServiceDao              = Mockito.mock(XXServiceDao.class);
+        XXServiceDef                      xServiceDef              = serviceDef();
+        XXServiceDefDao                   xServiceDefDao           = Mockito.mock(XXServiceDefDao.class);
+        XXSecurityZoneRefServiceDao       xSecZoneRefServiceDao    = Mockito.mock(XXSecurityZoneRefServiceDao.class);
+        XXSecurityZoneRefTagServiceDao    xSecZoneRefTagServiceDao = Mockito.mock(XXSecurityZoneRefTagServiceDao.class);
+        XXSecurityZoneRefService          xSecZoneRefService       = Mockito.mock(XXSecurityZoneRefService.class);
+        XXSecurityZoneRefTagService       xSecZoneRefTagService    = Mockito.mock(XXSecurityZoneRefTagService.class);
+        XXSecurityZoneDao                 xSecZoneDao              = Mockito.mock(XXSecurityZoneDao.class);
+        XXSecurityZone                    xSecZone                 = Mockito.mock(XXSecurityZone.class);
+        List<XXSecurityZoneRefService>    zoneServiceList          = new ArrayList<>();
+        List<XXSecurityZoneRefTagService> zoneTagServiceList       = new ArrayList<>();
+        zoneServiceList.add(xSecZoneRefService);
+        zoneTagServiceList.add(xSecZoneRefTagService);
+        Map<String, String> zoneMappingMap = new LinkedHashMap<>();
+        zoneMappingMap.put("ZoneSource", "ZoneDestination");
+
+        String paramServiceType = "serviceType";
+        String serviceTypeList    = "hdfs,hbase,hive,yarn,knox,storm,solr,kafka,nifi,atlas,sqoop";
+        request.setAttribute("serviceType", "hdfs,hbase,hive,yarn,knox,storm,solr,kafka,nifi,atlas,sqoop");
+        SearchFilter filter = new SearchFilter();
+        filter.setParam("serviceType", "value");
+
+        File        jsonPolicyFile      = getFile(importPoliceTestFilePath);
+        InputStream uploadedInputStream = new FileInputStream(jsonPolicyFile);
+        FormDataContentDisposition fileDetail = FormDataContentDisposition.name("file").fileName(jsonPolicyFile.getName()).size(uploadedInputStream.toString().length()).build();
+        boolean isOverride = false;
+
+        InputStream zoneInputStream = IOUtils.toInputStream("ZoneSource=ZoneDestination", "UTF-8");
+
+        Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+        Mockito.when(request.getParameter(paramServiceType)).thenReturn(serviceTypeList);
+        Mockito.when(svcStore.createPolicyMap(Mockito.any(Map.class), Mockito.any(List.class), Mockito.anyString(), Mockito.any(Map.class), Mockito.any(List.class), Mockito.any(List.class), Mockito.any(RangerPolicy.class), Mockito.any(Map.class))).thenReturn(policiesMap);
+        Mockito.when(validatorFactory.getPolicyValidator(svcStore)).thenReturn(policyValidator);
+        Mockito.when(bizUtil.isAdmin()).thenReturn(true);
+        Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
+        Mockito.when(daoManager.getXXService().findByName("HDFS_1-1-20150316062453")).thenReturn(xService);
+        Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
+        Mockito.when(svcStore.getMapFromInputStream(zoneInputStream)).thenReturn(zoneMappingMap);
+        Mockito.when(daoManager.getXXSecurityZoneDao()).thenReturn(xSecZoneDao);
+        Mockito.when(xSecZoneDao.findByZoneName(Mockito.anyString())).thenReturn(xSecZone);
+        Mockito.when(daoManager.getXXSecurityZoneRefService()).thenReturn(xSecZoneRefServiceDao);
+        Mockito.when(xSecZoneRefServiceDao.findByServiceNameAndZoneId(Mockito.anyString(), Mockito.anyLong())).thenReturn(zoneServiceList);
+        Mockito.when(daoManager.getXXSecurityZoneRefTagService()).thenReturn(xSecZoneRefTagServiceDao);
+        Mockito.when(xSecZoneRefTagServiceDao.findByTagServiceNameAndZoneId(Mockito.anyString(), Mockito.anyLong())).thenReturn(zoneTagServiceList);
+        Mockito.when(policyImportMgr.isBulkImportEnabled()).thenReturn(true);
+        serviceREST.importPoliciesFromFile(request, null, zoneInputStream, uploadedInputStream, fileDetail, isOverride, "unzoneToUnZone");
+        Mockito.verify(policyImportMgr).validatePolicies(Mockito.eq(Collections.singletonList(rangerPolicy)), Mockito.any(), Mockito.eq(false), Mockito.any(RangerPolicyImportStatus.class));
+        Mockito.verify(svcStore).createPolicies(Collections.singletonList(rangerPolicy));
+        Mockito.verify(svcStore, Mockito.never()).createPolicy(rangerPolicy);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test158importPoliciesFromFileInBulkOverridingExistingPolicies() throws Exception {
+        HttpServletRequest        request        = Mockito.mock(HttpServletRequest.class);
+        Map<String, RangerPolicy> policiesMap    = new LinkedHashMap<>();
+        RangerPolicy              rangerPolicy   = rangerPolicy();
+        RangerPolicy              existingPolicy = rangerPolicy();
+        RangerService             service        = rangerService();
+        XXService                 xService       = xService();
+        policiesMap.put("Name", rangerPolicy);
+        XXServiceDao                      xServiceDao              = Mockito.mock(XXServiceDao.class);
+        XXServiceDef                      xServiceDef              = serviceDef();
+        XXServiceDefDao                   xServiceDefDao           = Mockito.mock(XXServiceDefDao.class);
+        XXSecurityZoneRefServiceDao       xSecZoneRefServiceDao    = Mockito.mock(XXSecurityZoneRefServiceDao.class);
+        XXSecurityZoneRefTagServiceDao    xSecZoneRefTagServiceDao = Mockito.mock(XXSecurityZoneRefTagServiceDao.class);
+        XXSecurityZoneRefService          xSecZoneRefService       = Mockito.mock(XXSecurityZoneRefService.class);
+        XXSecurityZoneRefTagService       xSecZoneRefTagService    = Mockito.mock(XXSecurityZoneRefTagService.class);
+        XXSecurityZoneDao                 xSecZoneDao              = Mockito.mock(XXSecurityZoneDao.class);
+        XXSecurityZone                    xSecZone                 = Mockito.mock(XXSecurityZone.class);
+        List<XXSecurityZoneRefService>    zoneServiceList          = new ArrayList<>();
+        List<XXSecurityZoneRefTagService> zoneTagServiceList       = new ArrayList<>();
+        zoneServiceList.add(xSecZoneRefService);
+        zoneTagServiceList.add(xSecZoneRefTagService);
+        Map<String, String> zoneMappingMap = new LinkedHashMap<>();
+        zoneMappingMap.put("ZoneSource", "ZoneDestination");
+
+        String paramServiceType = "serviceType";
+        String serviceTypeList    = "hdfs,hbase,hive,yarn,knox,storm,solr,kafka,nifi,atlas,sqoop";
+        SearchFilter filter = new SearchFilter();
+        filter.setParam("serviceType", "value");
+
+        File        jsonPolicyFile      = getFile(importPoliceTestFilePath);
+        InputStream uploadedInputStream = new FileInputStream(jsonPolicyFile);
+        FormDataContentDisposition fileDetail = FormDataContentDisposition.name("file").fileName(jsonPolicyFile.getName()).size(uploadedInputStream.toString().length()).build();
+        boolean isOverride = true;
+
+        InputStream zoneInputStream = IOUtils.toInputStream("ZoneSource=ZoneDestination", "UTF-8");
+
+        Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+        Mockito.when(request.getParameter(paramServiceType)).thenReturn(serviceTypeList);
+        Mockito.when(svcStore.createPolicyMap(Mockito.any(Map.class), Mockito.any(List.class), Mockito.anyString(), Mockito.any(Map.class), Mockito.any(List.class), Mockito.any(List.class), Mockito.any(RangerPolicy.class), Mockito.any(Map.class))).thenReturn(policiesMap);
+        Mockito.when(validatorFactory.getPolicyValidator(svcStore)).thenReturn(policyValidator);
+        Mockito.when(bizUtil.isAdmin()).thenReturn(true);
+        Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
+        Mockito.when(daoManager.getXXService().findByName("HDFS_1-1-20150316062453")).thenReturn(xService);
+        Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
+        Mockito.when(svcStore.getMapFromInputStream(zoneInputStream)).thenReturn(zoneMappingMap);
+        Mockito.when(daoManager.getXXSecurityZoneDao()).thenReturn(xSecZoneDao);
+        Mockito.when(xSecZoneDao.findByZoneName(Mockito.anyString())).thenReturn(xSecZone);
+        Mockito.when(daoManager.getXXSecurityZoneRefService()).thenReturn(xSecZoneRefServiceDao);
+        Mockito.when(xSecZoneRefServiceDao.findByServiceNameAndZoneId(Mockito.anyString(), Mockito.anyLong())).thenReturn(zoneServiceList);
+        Mockito.when(daoManager.getXXSecurityZoneRefTagService()).thenReturn(xSecZoneRefTagServiceDao);
+        Mockito.when(xSecZoneRefTagServiceDao.findByTagServiceNameAndZoneId(Mockito.anyString(), Mockito.anyLong())).thenReturn(zoneTagServiceList);
+        Mockito.when(svcStore.getServiceByName(Mockito.anyString())).thenReturn(service);
+        Mockito.when(svcStore.isServiceAdminUser(Mockito.anyString(), Mockito.any())).thenReturn(true);
+        Mockito.when(svcStore.getServicePolicies(Mockito.anyString(), Mockito.any(SearchFilter.class))).thenReturn(new ArrayList<>(Collections.singletonList(existingPolicy)));
+        Mockito.when(policyImportMgr.isBulkImportEnabled()).thenReturn(true);
+        serviceREST.importPoliciesFromFile(request, null, zoneInputStream, uploadedInputStream, fileDetail, isOverride, "unzoneToZone");
+
+        // the existing policy is deleted in this transaction, not yet committed: validation must not run in other transactions
+        Mockito.verify(svcStore).deletePolicy(existingPolicy, service);
+        Mockito.verify(policyImportMgr).validatePolicies(Mockito.eq(Collections.singletonList(rangerPolicy)), Mockito.any(), Mockito.eq(true), Mockito.any(RangerPolicyImportStatus.class));
+        Mockito.verify(svcStore).createPolicies(Collections.singletonList(rangerPolicy));
+    }
+
     @Test
     public void test51getMetricByType() throws Exception {
         String type = "usergroup";
@@ -2067,7 +2067,7 @@ public void test140getRangerUserStoreIfUpdatedServiceNotFound() throws Exception
         Mockito.when(xXServiceDao.findByName(serviceName)).thenReturn(null);
 
         RangerUserStore result = xUserRest.getRangerUserStoreIfUpdated(serviceName, lastKnownUserStoreVersion,
-                lastActivationTime, pluginId, clusterName, pluginCapabilities, request);
+                lastActivationTime, pluginId, clusterName, pluginCapabilities, false, request);
 
         Assertions.assertNull(result);
         Mockito.verify(rangerDaoManager).getXXService();
@@ -2101,7 +2101,7 @@ public void test142getSecureRangerUserStoreIfUpdatedNoParams() throws Exception
         Mockito.when(bizUtil.isUserAllowed(Mockito.any(RangerService.class), Mockito.anyString())).thenReturn(false);
 
         WebApplicationException thrown = assertThrows(WebApplicationException.class, () -> {
-            xUserRest.getSecureRangerUserStoreIfUpdated("service1", lastKnownUserStoreVersion, lastActivationTime, null, "", "", request);
+            xUserRest.getSecureRangerUserStoreIfUpdated("service1", lastKnownUserStoreVersion, lastActivationTime, null, "", "", false, request);
         });
 
         Mockito.verify(restErrorUtil).createRESTException(Mockito.anyInt(), Mockito.anyString(), Mockito.anyBoolean());
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.service;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.db.XXTrxLogV2Dao;
+import org.apache.ranger.entity.XXTrxLogV2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TestRangerTrxLogWriter {
+    @InjectMocks
+    RangerTrxLogWriter trxLogWriter;
+
+    @Mock
+    PlatformTransactionManager txManager;
+
+    @Mock
+    RangerDaoManager daoManager;
+
+    @Mock
+    XXTrxLogV2Dao trxLogDao;
+
+    @Mock
+    RangerAdminConfig config;
+
+    @TempDir
+    File outboxDir;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(config.getBoolean(RangerTrxLogWriter.PROP_ENABLED, false)).thenReturn(true);
+        lenient().when(config.getBoolean(RangerTrxLogWriter.PROP_OUTBOX_SYNC, true)).thenReturn(false);
+        lenient().when(config.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(config.getLong(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(config.get(RangerTrxLogWriter.PROP_OUTBOX_DIR)).thenReturn(outboxDir.getPath());
+        lenient().when(daoManager.getXXTrxLogV2()).thenReturn(trxLogDao);
+    }
+
+    @Test
+    public void testAddAndFlush() {
+        trxLogWriter.init(config, false);
+
+        assertTrue(trxLogWriter.isEnabled());
+
+        trxLogWriter.add(Arrays.asList(createTrxLog("1", "policy-1"), createTrxLog("1", "policy-2")));
+        trxLogWriter.add(Collections.singletonList(createTrxLog("2", "policy-3")));
+
+        assertEquals(3L, trxLogWriter.getPendingRows());
+        assertEquals(1, outboxDir.listFiles().length);
+
+        trxLogWriter.flush();
+
+        ArgumentCaptor<List<XXTrxLogV2>> captor = ArgumentCaptor.forClass(List.class);
+
+        verify(trxLogDao).batchCreate(captor.capture());
+
+        assertEquals(3, captor.getValue().size());
+        assertEquals(0L, trxLogWriter.getPendingRows());
+        assertEquals(3L, trxLogWriter.getMetrics().get("WrittenRows"));
+        assertEquals(0, outboxDir.listFiles().length);
+    }
+
+    @Test
+    public void testRecoverSkipsWrittenTransactions() throws Exception {
+        File segment = new File(outboxDir, "trxlog-outbox-3.log");
+
+        Files.write(segment, Arrays.asList("[{\"transactionId\":\"1\",\"objectName\":\"policy-1\"}]",
+                "[{\"transactionId\":\"2\",\"objectName\":\"policy-2\"},{\"transactionId\":\"2\",\"objectName\":\"policy-3\"}]",
+                "[{\"transactionId\":\"3\",\"objec"), StandardCharsets.UTF_8);
+
+        when(trxLogDao.findByTransactionId("1")).thenReturn(Collections.singletonList(createTrxLog("1", "policy-1")));
+        when(trxLogDao.findByTransactionId("2")).thenReturn(Collections.emptyList());
+
+        trxLogWriter.init(config, false);
+
+        assertEquals(2L, trxLogWriter.getPendingRows());
+        assertEquals(2L, trxLogWriter.getMetrics().get("RecoveredRows"));
+
+        trxLogWriter.flush();
+
+        ArgumentCaptor<List<XXTrxLogV2>> captor = ArgumentCaptor.forClass(List.class);
+
+        verify(trxLogDao).batchCreate(captor.capture());
+
+        assertEquals(2, captor.getValue().size());
+        assertEquals("policy-2", captor.getValue().get(0).getObjectName());
+        assertEquals(0, outboxDir.listFiles().length);
+    }
+
+    @Test
+    public void testDisabled() {
+        when(config.getBoolean(RangerTrxLogWriter.PROP_ENABLED, false)).thenReturn(false);
+
+        trxLogWriter.init(config, false);
+
+        assertFalse(trxLogWriter.isEnabled());
+        assertEquals(0, outboxDir.listFiles().length);
+    }
+
+    @Test
+    public void testDisabledWithoutOutboxDir() {
+        when(config.get(RangerTrxLogWriter.PROP_OUTBOX_DIR)).thenReturn(null);
+
+        trxLogWriter.init(config, false);
+
+        assertFalse(trxLogWriter.isEnabled());
+    }
+
+    @Test
+    public void testJournaledBeforeCommit() throws Exception {
+        trxLogWriter.init(config, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            trxLogWriter.add(Collections.singletonList(createTrxLog("1", "policy-1")));
+
+            assertEquals(0, outboxDir.listFiles().length);
+
+            TransactionSynchronization outbox = TransactionSynchronizationManager.getSynchronizations().get(0);
+
+            outbox.beforeCommit(false);
+
+            // journaled while the transaction is still open, but not yet queued for the writer
+            File[] segments = outboxDir.listFiles();
+
+            assertEquals(1, segments.length);
+            assertTrue(new String(Files.readAllBytes(segments[0].toPath()), StandardCharsets.UTF_8).contains("policy-1"));
+            assertEquals(0L, trxLogWriter.getMetrics().get("PendingTransactions"));
+
+            outbox.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+            assertEquals(1L, trxLogWriter.getMetrics().get("PendingTransactions"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        trxLogWriter.flush();
+
+        verify(trxLogDao).batchCreate(anyList());
+        assertEquals(0, outboxDir.listFiles().length);
+    }
+
+    @Test
+    public void testRolledBackTransactionDiscarded() {
+        trxLogWriter.init(config, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            trxLogWriter.add(Collections.singletonList(createTrxLog("1", "policy-1")));
+
+            TransactionSynchronization outbox = TransactionSynchronizationManager.getSynchronizations().get(0);
+
+            outbox.beforeCommit(false);
+            outbox.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(trxLogDao, never()).batchCreate(anyList());
+        assertEquals(0L, trxLogWriter.getPendingRows());
+        assertEquals(0, outboxDir.listFiles().length);
+    }
+
+    @Test
+    public void testDiscardMarkerSkippedOnRecovery() throws Exception {
+        Files.write(new File(outboxDir, "trxlog-outbox-0.log").toPath(), Arrays.asList("[{\"transactionId\":\"1\",\"objectName\":\"policy-1\"}]",
+                "[{\"transactionId\":\"2\",\"objectName\":\"policy-2\"}]",
+                "{\"discarded\":\"1\"}"), StandardCharsets.UTF_8);
+
+        when(trxLogDao.findByTransactionId("2")).thenReturn(Collections.emptyList());
+
+        trxLogWriter.init(config, false);
+
+        assertEquals(1L, trxLogWriter.getPendingRows());
+        verify(trxLogDao, never()).findByTransactionId("1");
+    }
+
+    @Test
+    public void testWrittenInTransactionWhenBacklogFull() {
+        when(config.getInt(RangerTrxLogWriter.PROP_BATCH_SIZE, 500)).thenReturn(1);
+        when(config.getInt(RangerTrxLogWriter.PROP_MAX_PENDING_ROWS, 50000)).thenReturn(1);
+
+        trxLogWriter.init(config, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            trxLogWriter.add(Arrays.asList(createTrxLog("1", "policy-1"), createTrxLog("1", "policy-2")));
+
+            TransactionSynchronizationManager.getSynchronizations().get(0).beforeCommit(false);
+
+            verify(trxLogDao).batchCreate(anyList());
+            assertEquals(0, outboxDir.listFiles().length);
+            assertEquals(2L, trxLogWriter.getMetrics().get("SyncWrittenRows"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testDeadLetterAfterMaxRetries() {
+        when(config.getInt(RangerTrxLogWriter.PROP_MAX_RETRIES, 60)).thenReturn(2);
+        when(trxLogDao.batchCreate(anyList())).thenThrow(new RuntimeException("constraint violation"));
+
+        trxLogWriter.init(config, false);
+
+        trxLogWriter.add(Collections.singletonList(createTrxLog("1", "policy-1")));
+
+        trxLogWriter.flush();
+
+        assertEquals(1L, trxLogWriter.getPendingRows());
+
+        trxLogWriter.flush();
+
+        File[] files = outboxDir.listFiles();
+
+        assertEquals(0L, trxLogWriter.getPendingRows());
+        assertEquals(1L, trxLogWriter.getMetrics().get("DeadLetterRows"));
+        assertEquals(1, files.length);
+        assertEquals(RangerTrxLogWriter.DEAD_LETTER_FILE_NAME, files[0].getName());
+    }
+
+    @Test
+    public void testPoisonEntryDeadLetteredAlone() {
+        when(config.getInt(RangerTrxLogWriter.PROP_MAX_RETRIES, 60)).thenReturn(1);
+        when(trxLogDao.batchCreate(anyList())).thenAnswer(invocation -> {
+            List<XXTrxLogV2> trxLogs = invocation.getArgument(0);
+
+            if (trxLogs.stream().anyMatch(trxLog -> "poison".equals(trxLog.getObjectName()))) {
+                throw new RuntimeException("constraint violation");
+            }
+
+            return trxLogs;
+        });
+
+        trxLogWriter.init(config, false);
+
+        trxLogWriter.add(Collections.singletonList(createTrxLog("1", "policy-1")));
+        trxLogWriter.add(Collections.singletonList(createTrxLog("2", "poison")));
+        trxLogWriter.add(Collections.singletonList(createTrxLog("3", "policy-3")));
+
+        trxLogWriter.flush();
+
+        File[] files = outboxDir.listFiles();
+
+        assertEquals(0L, trxLogWriter.getPendingRows());
+        assertEquals(2L, trxLogWriter.getMetrics().get("WrittenRows"));
+        assertEquals(1L, trxLogWriter.getMetrics().get("DeadLetterRows"));
+        assertEquals(1, files.length);
+        assertEquals(RangerTrxLogWriter.DEAD_LETTER_FILE_NAME, files[0].getName());
+    }
+
+    private static XXTrxLogV2 createTrxLog(String transactionId, String objectName) {
+        XXTrxLogV2 ret = new XXTrxLogV2();
+
+        ret.setTransactionId(transactionId);
+        ret.setObjectName(objectName);
+
+        return ret;
+    }
+}
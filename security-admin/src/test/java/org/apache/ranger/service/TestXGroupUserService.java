@@ -32,24 +32,30 @@
 import org.apache.ranger.entity.XXPortalUser;
 import org.apache.ranger.entity.XXUser;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+import org.apache.ranger.ugsyncutil.model.GroupUserSyncResult;
 import org.apache.ranger.view.VXGroupUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_CREATE_CONTEXT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -192,6 +198,35 @@ public void createOrDeleteXGroupUsers_schedulesCreateAndDelete() {
         }
     }
 
+    @Test
+    public void bulkCreateOrDeleteXGroupUsers_appliesOnlyChanges() {
+        XXGroupUserDao xGroupUserDao = mock(XXGroupUserDao.class);
+        when(daoManager.getXXGroupUser()).thenReturn(xGroupUserDao);
+        when(daoManager.getXXPortalUser()).thenReturn(xXPortalUserDao);
+        when(xXPortalUserDao.getById(1L)).thenReturn(tUser);
+
+        Map<Long, Long> existing = new HashMap<>();
+        existing.put(11L, 100L);
+        existing.put(22L, 200L);
+        when(xGroupUserDao.findIdsByGroupIds(Collections.singletonList(5L))).thenReturn(Collections.singletonMap(5L, existing));
+
+        Map<Long, Set<Long>> addUserIds = Collections.singletonMap(5L, new HashSet<>(Arrays.asList(11L, 33L)));
+        Map<Long, Set<Long>> delUserIds = Collections.singletonMap(5L, new HashSet<>(Arrays.asList(22L, 44L)));
+        GroupUserSyncResult  result     = new GroupUserSyncResult();
+
+        xGroupUserService.bulkCreateOrDeleteXGroupUsers(Collections.singletonList(5L), Collections.singletonMap(5L, "group1"), addUserIds, delUserIds, result);
+
+        ArgumentCaptor<List<XXGroupUser>> created = ArgumentCaptor.forClass(List.class);
+        verify(xGroupUserDao).deleteByIds(Collections.singletonList(200L));
+        verify(xGroupUserDao).batchCreate(created.capture());
+        assertEquals(1, created.getValue().size());
+        assertEquals(33L, created.getValue().get(0).getUserId());
+        assertEquals("group1", created.getValue().get(0).getName());
+        assertEquals(5L, created.getValue().get(0).getParentGroupId());
+        assertEquals(1, result.getAddedCount());
+        assertEquals(1, result.getDeletedCount());
+    }
+
     private XXGroup createXXGroup() {
         XXGroup xXGroup = new XXGroup();
         Date    date    = new Date();
@@ -47,6 +47,8 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -189,9 +191,68 @@ public void searchXAccessAudits_hiveVisibilityFalse_nullsRequestData() {
     }
 
     @Test
-    public void getXAccessAuditSearchCount_returnsConstant() {
+    public void getXAccessAuditSearchCount_usesCountFromSearch() {
         SolrAccessAuditsService service = new SolrAccessAuditsService();
-        assertEquals(100L, service.getXAccessAuditSearchCount(new SearchCriteria()).getValue());
+        service.solrMgr  = mock(SolrMgr.class);
+        service.solrUtil = mock(SolrUtil.class);
+        setRestErrorUtil(service);
+
+        SolrClient client = mock(SolrClient.class);
+        when(service.solrMgr.getSolrClient()).thenReturn(client);
+
+        QueryResponse    qr   = mock(QueryResponse.class);
+        SolrDocumentList list = new SolrDocumentList();
+        list.setNumFound(42);
+        when(qr.getResults()).thenReturn(list);
+        when(service.solrUtil.searchResources(any(), any(), any(), eq(client))).thenReturn(qr);
+
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.addParam("repoName", "repo1");
+
+        // count query fetches no rows
+        assertEquals(42L, service.getXAccessAuditSearchCount(criteria).getValue());
+        assertEquals(0, criteria.getMaxRows());
+
+        // count of a page already searched is served without another query
+        SearchCriteria pageCriteria = new SearchCriteria();
+        pageCriteria.addParam("repoName", "repo2");
+        pageCriteria.setMaxRows(25);
+        service.searchXAccessAudits(pageCriteria);
+
+        SearchCriteria countCriteria = new SearchCriteria();
+        countCriteria.addParam("repoName", "repo2");
+        assertEquals(42L, service.getXAccessAuditSearchCount(countCriteria).getValue());
+        verify(service.solrUtil, times(2)).searchResources(any(), any(), any(), eq(client));
+    }
+
+    @Test
+    public void searchXAccessAudits_cachedResultIsCopied() {
+        SolrAccessAuditsService service = new SolrAccessAuditsService();
+        service.solrMgr  = mock(SolrMgr.class);
+        service.solrUtil = mock(SolrUtil.class);
+        setRestErrorUtil(service);
+
+        SolrClient client = mock(SolrClient.class);
+        when(service.solrMgr.getSolrClient()).thenReturn(client);
+
+        QueryResponse    qr   = mock(QueryResponse.class);
+        SolrDocumentList list = new SolrDocumentList();
+        SolrDocument     doc  = new SolrDocument();
+        doc.setField("id", "1");
+        list.add(doc);
+        list.setNumFound(1);
+        when(qr.getResults()).thenReturn(list);
+        when(service.solrUtil.searchResources(any(), any(), any(), eq(client))).thenReturn(qr);
+        injectField(service, AccessAuditsService.class, "daoManager", mock(RangerDaoManager.class));
+
+        VXAccessAuditList first = service.searchXAccessAudits(new SearchCriteria());
+        first.getVXAccessAudits().get(0).setZonedEventTime("modified");
+
+        VXAccessAuditList second = service.searchXAccessAudits(new SearchCriteria());
+
+        assertEquals(1, second.getVXAccessAudits().size());
+        assertNull(second.getVXAccessAudits().get(0).getZonedEventTime());
+        verify(service.solrUtil, times(1)).searchResources(any(), any(), any(), eq(client));
     }
 
     private static void setRestErrorUtil(AccessAuditsService svc) {
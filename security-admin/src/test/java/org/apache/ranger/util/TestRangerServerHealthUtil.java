@@ -17,14 +17,22 @@
 
 package org.apache.ranger.util;
 
+import org.apache.ranger.biz.RangerAdminCacheWarmer;
+import org.apache.ranger.biz.RangerBizUtil;
+import org.apache.ranger.common.AppConstants;
 import org.apache.ranger.plugin.model.RangerServerHealth;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
 
+import java.util.Collections;
 import java.util.Map;
 
 import static org.apache.ranger.plugin.model.RangerServerHealth.RangerServerStatus.DOWN;
+import static org.apache.ranger.plugin.model.RangerServerHealth.RangerServerStatus.INITIALIZING;
+import static org.apache.ranger.plugin.model.RangerServerHealth.RangerServerStatus.UP;
 
 public class TestRangerServerHealthUtil {
     @InjectMocks
@@ -37,4 +45,80 @@ public void testGetRangerServerHealth() {
         Assertions.assertEquals(1, rangerServerHealth.getDetails().size(), "RangerHealth.getDetails()");
         Assertions.assertEquals(1, ((Map<?, ?>) rangerServerHealth.getDetails().get("components")).size(), "RangerHealth.getDetails('component')");
     }
+
+    @Test
+    public void testGetRangerServerHealthWithCacheWarmup() {
+        RangerServerHealthUtil healthUtil  = new RangerServerHealthUtil();
+        RangerAdminCacheWarmer cacheWarmer = Mockito.mock(RangerAdminCacheWarmer.class);
+
+        Mockito.when(cacheWarmer.isWarmedUp()).thenReturn(false);
+        Mockito.when(cacheWarmer.getProgress()).thenReturn(Collections.singletonMap("state", RangerAdminCacheWarmer.WarmupState.IN_PROGRESS));
+
+        healthUtil.cacheWarmer = cacheWarmer;
+
+        RangerServerHealth rangerServerHealth = healthUtil.getRangerServerHealth("21.3c");
+        Map<?, ?>          components         = (Map<?, ?>) rangerServerHealth.getDetails().get("components");
+        Map<?, ?>          cacheWarmupStatus  = (Map<?, ?>) components.get("cacheWarmup");
+
+        // db status takes precedence
+        Assertions.assertEquals(DOWN, rangerServerHealth.getStatus());
+        Assertions.assertEquals(2, components.size());
+        Assertions.assertEquals(INITIALIZING, cacheWarmupStatus.get("status"));
+    }
+
+    @Test
+    public void testGetRangerServerHealthInitializingDuringCacheWarmup() {
+        RangerServerHealthUtil healthUtil  = new RangerServerHealthUtil();
+        RangerAdminCacheWarmer cacheWarmer = Mockito.mock(RangerAdminCacheWarmer.class);
+
+        Mockito.when(cacheWarmer.isWarmedUp()).thenReturn(false);
+        Mockito.when(cacheWarmer.getProgress()).thenReturn(Collections.singletonMap("state", RangerAdminCacheWarmer.WarmupState.IN_PROGRESS));
+
+        healthUtil.cacheWarmer = cacheWarmer;
+
+        try (MockedStatic<RangerBizUtil> bizUtil = Mockito.mockStatic(RangerBizUtil.class, Mockito.CALLS_REAL_METHODS)) {
+            bizUtil.when(RangerBizUtil::getDBFlavor).thenReturn(AppConstants.DB_FLAVOR_MYSQL);
+
+            RangerServerHealth rangerServerHealth = healthUtil.getRangerServerHealth("8.0.33");
+            Map<?, ?>          components         = (Map<?, ?>) rangerServerHealth.getDetails().get("components");
+
+            Assertions.assertEquals(INITIALIZING, rangerServerHealth.getStatus());
+            Assertions.assertEquals(UP, ((Map<?, ?>) components.get("db")).get("status"));
+            Assertions.assertEquals(INITIALIZING, ((Map<?, ?>) components.get("cacheWarmup")).get("status"));
+        }
+    }
+
+    @Test
+    public void testGetRangerServerHealthUpAfterCacheWarmup() {
+        RangerServerHealthUtil healthUtil  = new RangerServerHealthUtil();
+        RangerAdminCacheWarmer cacheWarmer = Mockito.mock(RangerAdminCacheWarmer.class);
+
+        Mockito.when(cacheWarmer.isWarmedUp()).thenReturn(true);
+        Mockito.when(cacheWarmer.getProgress()).thenReturn(Collections.singletonMap("state", RangerAdminCacheWarmer.WarmupState.COMPLETED));
+
+        healthUtil.cacheWarmer = cacheWarmer;
+
+        try (MockedStatic<RangerBizUtil> bizUtil = Mockito.mockStatic(RangerBizUtil.class, Mockito.CALLS_REAL_METHODS)) {
+            bizUtil.when(RangerBizUtil::getDBFlavor).thenReturn(AppConstants.DB_FLAVOR_MYSQL);
+
+            RangerServerHealth rangerServerHealth = healthUtil.getRangerServerHealth("8.0.33");
+            Map<?, ?>          components         = (Map<?, ?>) rangerServerHealth.getDetails().get("components");
+
+            Assertions.assertEquals(UP, rangerServerHealth.getStatus());
+            Assertions.assertEquals(2, components.size());
+            Assertions.assertEquals(UP, ((Map<?, ?>) components.get("cacheWarmup")).get("status"));
+        }
+    }
+
+    @Test
+    public void testGetRangerServerHealthUpWithoutCacheWarmer() {
+        try (MockedStatic<RangerBizUtil> bizUtil = Mockito.mockStatic(RangerBizUtil.class, Mockito.CALLS_REAL_METHODS)) {
+            bizUtil.when(RangerBizUtil::getDBFlavor).thenReturn(AppConstants.DB_FLAVOR_MYSQL);
+
+            RangerServerHealth rangerServerHealth = new RangerServerHealthUtil().getRangerServerHealth("8.0.33");
+
+            Assertions.assertEquals(UP, rangerServerHealth.getStatus());
+            Assertions.assertEquals(1, ((Map<?, ?>) rangerServerHealth.getDetails().get("components")).size());
+        }
+    }
 }
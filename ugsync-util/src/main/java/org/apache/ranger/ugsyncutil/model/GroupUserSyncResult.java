@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.ugsyncutil.model;
+
+/**
+ * Aggregate counts returned by the bulk group-membership sync API.
+ */
+public class GroupUserSyncResult {
+    int  groupCount;
+    int  addedCount;
+    int  deletedCount;
+    int  ignoredGroupCount;
+    int  ignoredUserCount;
+    Long userStoreVersion;
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public void setGroupCount(int groupCount) {
+        this.groupCount = groupCount;
+    }
+
+    public int getAddedCount() {
+        return addedCount;
+    }
+
+    public void setAddedCount(int addedCount) {
+        this.addedCount = addedCount;
+    }
+
+    public int getDeletedCount() {
+        return deletedCount;
+    }
+
+    public void setDeletedCount(int deletedCount) {
+        this.deletedCount = deletedCount;
+    }
+
+    public int getIgnoredGroupCount() {
+        return ignoredGroupCount;
+    }
+
+    public void setIgnoredGroupCount(int ignoredGroupCount) {
+        this.ignoredGroupCount = ignoredGroupCount;
+    }
+
+    public int getIgnoredUserCount() {
+        return ignoredUserCount;
+    }
+
+    public void setIgnoredUserCount(int ignoredUserCount) {
+        this.ignoredUserCount = ignoredUserCount;
+    }
+
+    public Long getUserStoreVersion() {
+        return userStoreVersion;
+    }
+
+    public void setUserStoreVersion(Long userStoreVersion) {
+        this.userStoreVersion = userStoreVersion;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        toString(sb);
+        return sb.toString();
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        sb.append("GroupUserSyncResult [groupCount= ").append(groupCount);
+        sb.append(", addedCount = ").append(addedCount);
+        sb.append(", deletedCount = ").append(deletedCount);
+        sb.append(", ignoredGroupCount = ").append(ignoredGroupCount);
+        sb.append(", ignoredUserCount = ").append(ignoredUserCount);
+        sb.append(", userStoreVersion = ").append(userStoreVersion);
+        sb.append("]");
+        return sb;
+    }
+}
@@ -71,6 +71,8 @@ public class UserGroupSyncConfig {
     public static final  String UGSYNC_SERVER_HA_ENABLED_PARAM         = "ranger-ugsync.server.ha.enabled";
     public static final  String UGSYNC_NAME_VALIDATION_ENABLED         = "ranger.usersync.name.validation.enabled";
     public static final  String UGSYNC_SYNC_SOURCE_VALIDATION_ENABLED  = "ranger.usersync.syncsource.validation.enabled";
+    public static final  String UGSYNC_GROUP_USERS_BULK_SYNC_ENABLED   = "ranger.usersync.group.users.bulk.sync.enabled";
+    public static final  String UGSYNC_GROUP_USERS_BULK_SYNC_PAGE_SIZE = "ranger.usersync.group.users.bulk.sync.page.size";
     private static final Logger LOG                                    = LoggerFactory.getLogger(UserGroupSyncConfig.class);
     private static final String CORE_SITE_CONFIG_FILE                  = "core-site.xml";
     private static final String UGSYNC_SOURCE_CLASS_PARAM              = "ranger.usersync.source.impl.class";
@@ -180,6 +182,8 @@ public class UserGroupSyncConfig {
     private static final long    UGSYNC_INIT_SLEEP_TIME_IN_MILLIS_BETWEEN_CYCLE_MIN_VALUE_FOR_HA = 5_000L;
     private static final boolean DEFAULT_UGSYNC_NAME_VALIDATION_ENABLED                          = false;
     private static final boolean DEFAULT_UGSYNC_SYNC_SOURCE_VALIDATION_ENABLED                   = true;
+    private static final boolean DEFAULT_UGSYNC_GROUP_USERS_BULK_SYNC_ENABLED                    = false;
+    private static final int     DEFAULT_UGSYNC_GROUP_USERS_BULK_SYNC_PAGE_SIZE                  = 5000;
 
     private static final String SYNC_SOURCE                         = "ranger.usersync.sync.source";
     private static final String LGSYNC_PAGED_RESULTS_ENABLED        = "ranger.usersync.pagedresultsenabled";
@@ -1391,6 +1395,36 @@ public boolean isSyncSourceValidationEnabled() {
         return isSyncSourceValidationEnabled;
     }
 
+    /**
+     * @return true if group memberships should be uploaded using the bulk API of Ranger Admin, which applies changes
+     *         with set-based queries. Requires a Ranger Admin version that supports /xusers/ugsync/groupusers/bulk.
+     */
+    public boolean isGroupUsersBulkSyncEnabled() {
+        boolean isGroupUsersBulkSyncEnabled = DEFAULT_UGSYNC_GROUP_USERS_BULK_SYNC_ENABLED;
+        String  val                         = prop.getProperty(UGSYNC_GROUP_USERS_BULK_SYNC_ENABLED);
+
+        if (StringUtils.isNotEmpty(val)) {
+            isGroupUsersBulkSyncEnabled = Boolean.parseBoolean(val);
+        }
+
+        return isGroupUsersBulkSyncEnabled;
+    }
+
+    public int getGroupUsersBulkSyncPageSize() {
+        int    ret = DEFAULT_UGSYNC_GROUP_USERS_BULK_SYNC_PAGE_SIZE;
+        String val = prop.getProperty(UGSYNC_GROUP_USERS_BULK_SYNC_PAGE_SIZE);
+
+        if (StringUtils.isNotEmpty(val)) {
+            try {
+                ret = Integer.parseInt(val.trim());
+            } catch (NumberFormatException excp) {
+                LOG.warn("Invalid value for {}: {}. Using default {}", UGSYNC_GROUP_USERS_BULK_SYNC_PAGE_SIZE, val, ret);
+            }
+        }
+
+        return ret < 1 ? DEFAULT_UGSYNC_GROUP_USERS_BULK_SYNC_PAGE_SIZE : ret;
+    }
+
     public boolean isLargeGroupSyncEnabled() {
         boolean largeGroupSyncEnabled;
         String  val = prop.getProperty(LGSYNC_LDAP_LARGEGROUPSYNC_ENABLED);
@@ -26,6 +26,7 @@
 import org.apache.http.HttpStatus;
 import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+import org.apache.ranger.ugsyncutil.model.GroupUserSyncResult;
 import org.apache.ranger.ugsyncutil.model.UgsyncAuditInfo;
 import org.apache.ranger.ugsyncutil.model.UsersGroupRoleAssignments;
 import org.apache.ranger.ugsyncutil.model.XGroupInfo;
@@ -66,6 +67,7 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
     private static final String PM_ADD_USERS_URI                   = "/service/xusers/ugsync/users";
     private static final String PM_ADD_GROUPS_URI                  = "/service/xusers/ugsync/groups/";
     private static final String PM_ADD_GROUP_USER_LIST_URI         = "/service/xusers/ugsync/groupusers";
+    private static final String PM_BULK_ADD_GROUP_USER_LIST_URI    = "/service/xusers/ugsync/groupusers/bulk";
     private static final String PM_AUDIT_INFO_URI                  = "/service/xusers/ugsync/auditinfo/";
     private static final String PM_UPDATE_DELETED_USERS_URI        = "/service/xusers/ugsync/users/visibility";
     private static final String PM_UPDATE_DELETED_GROUPS_URI       = "/service/xusers/ugsync/groups/visibility";
@@ -129,6 +131,8 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
     private boolean isRangerCookieEnabled;
     private boolean isUserSyncNameValidationEnabled;
     private boolean isSyncSourceValidationEnabled;
+    private boolean isGroupUsersBulkSyncEnabled;
+    private int     groupUsersBulkSyncPageSize;
     private String  recordsToPullPerCall = "10";
     private String  currentSyncSource;
     private String  ldapUrl;
@@ -177,6 +181,8 @@ public static void main(String[] args) throws Throwable {
     public synchronized void init() throws Throwable {
         isUserSyncNameValidationEnabled = config.isUserSyncNameValidationEnabled();
         isSyncSourceValidationEnabled   = config.isSyncSourceValidationEnabled();
+        isGroupUsersBulkSyncEnabled     = config.isGroupUsersBulkSyncEnabled();
+        groupUsersBulkSyncPageSize      = config.getGroupUsersBulkSyncPageSize();
         recordsToPullPerCall            = config.getMaxRecordsPerAPICall();
         policyMgrBaseUrl                = config.getPolicyManagerBaseURL();
         isMockRun                       = config.isMockRunEnabled();
@@ -1218,6 +1224,10 @@ private int addOrUpdateDeltaGroupUsers(List<GroupUserInfo> groupUserInfoList) th
     }
 
     private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwable {
+        if (isGroupUsersBulkSyncEnabled) {
+            return bulkUploadGroupUsers(groupUserInfoList);
+        }
+
         LOG.debug("==> PolicyMgrUserGroupBuilder.getGroupUsers()");
 
         int ret           = 0;
@@ -1254,6 +1264,37 @@ private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwabl
         return ret;
     }
 
+    private int bulkUploadGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwable {
+        LOG.debug("==> PolicyMgrUserGroupBuilder.bulkUploadGroupUsers()");
+
+        int ret           = 0;
+        int totalCount    = groupUserInfoList.size();
+        int uploadedCount = 0;
+
+        while (uploadedCount < totalCount) {
+            checkStatus();
+
+            List<GroupUserInfo> pagedGroupUserInfoList = groupUserInfoList.subList(uploadedCount, Math.min(totalCount, uploadedCount + groupUsersBulkSyncPageSize));
+            String              response               = getDataFromLdap(PM_BULK_ADD_GROUP_USER_LIST_URI, pagedGroupUserInfoList);
+            GroupUserSyncResult result                 = StringUtils.isNotEmpty(response) ? JsonUtils.jsonToObject(response, GroupUserSyncResult.class) : null;
+
+            if (result == null) {
+                LOG.error("Failed to bulk upload group memberships {}", uploadedCount);
+
+                throw new Exception("Failed to bulk upload group memberships " + uploadedCount);
+            }
+
+            ret           += result.getGroupCount();
+            uploadedCount += pagedGroupUserInfoList.size();
+
+            LOG.info("API returned: {}, No. of groups uploaded to ranger admin = {}", result, uploadedCount);
+        }
+
+        LOG.debug("<== PolicyMgrUserGroupBuilder.bulkUploadGroupUsers(): ret={}", ret);
+
+        return ret;
+    }
+
     private String updateRoles(UsersGroupRoleAssignments ugRoleAssignments) {
         LOG.debug("==> PolicyMgrUserGroupBuilder.updateUserRole({})", ugRoleAssignments.getUsers());
 